@@ -0,0 +1,892 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.DateUtils;
+import com.asofterspace.toolbox.utils.StrUtils;
+import com.asofterspace.toolbox.utils.TextEncoding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Loads a CSV file column by column into a CsvTable, by splitting the file into chunks at
+ * line breaks which are not inside of quoted cells and parsing the chunks in parallel
+ *
+ * Finding the chunk boundaries takes one pass over the raw bytes of the file (as only then
+ * we know which line breaks are inside of quotes), which is far cheaper than the parsing
+ */
+class CsvColumnLoader {
+
+	// chunks parsed in parallel are at least this large, so that the splitting does not cost more than it brings
+	private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+	// ... and at most this large, as each chunk is mapped into memory on its own
+	private static final long MAX_CHUNK_SIZE = 256 * 1024 * 1024;
+
+	// how many rows are looked at to guess the types of the columns
+	private static final int INFERENCE_ROWS = 1000;
+
+	private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+	private CsvFile file;
+
+	private Map<String, CsvColumnType> schema;
+
+	private ForkJoinPool pool;
+
+	private Charset charset;
+
+	private List<String> columnNames;
+
+	private CsvColumnType[] types;
+
+	// whether the type of each column was guessed (rather than taken from the schema)
+	private boolean[] guessed;
+
+	// the average amount of characters per row among the first rows, or 0 if there were none
+	private long averageRowWidth = 0;
+
+
+	CsvColumnLoader(CsvFile file, Map<String, CsvColumnType> schema, ForkJoinPool pool) {
+
+		this.file = file;
+
+		this.schema = schema;
+
+		this.pool = pool;
+
+		if (file.getEncoding() == TextEncoding.ISO_LATIN_1) {
+			this.charset = StandardCharsets.ISO_8859_1;
+		} else {
+			this.charset = StandardCharsets.UTF_8;
+		}
+	}
+
+	CsvTable load() throws IOException {
+
+		try (CsvReader reader = new CsvReader(file)) {
+			columnNames = reader.readHeadLine();
+			if (columnNames == null) {
+				return new CsvTable(0, new ArrayList<CsvTable.Column>());
+			}
+			types = getTypes(reader);
+		}
+
+		try (FileChannel channel = FileChannel.open(file.getJavaPath(), StandardOpenOption.READ)) {
+
+			long size = channel.size();
+
+			long chunkSize = size / (pool.getParallelism() * 4L);
+			chunkSize = Math.min(Math.max(chunkSize, MIN_CHUNK_SIZE), MAX_CHUNK_SIZE);
+
+			List<Long> chunkStarts = findChunkStarts(channel, size, chunkSize);
+
+			if (chunkStarts.size() < 2) {
+				return merge(new ArrayList<ColumnBuilder[]>());
+			}
+
+			List<ColumnBuilder[]> chunkResults = pool.invoke(new ParseTask(channel, chunkStarts, 0, chunkStarts.size() - 1));
+
+			// if a guessed column turned out to contain values further down which do not fit
+			// its type, we widen the type and parse again rather than losing these values -
+			// which happens at most three times, from INT over LONG and DOUBLE to STRING
+			while (widenGuessedTypes(chunkResults)) {
+				chunkResults = pool.invoke(new ParseTask(channel, chunkStarts, 0, chunkStarts.size() - 1));
+			}
+
+			reportMismatches(chunkResults);
+
+			return merge(chunkResults);
+		}
+	}
+
+	/**
+	 * Widens the types of all guessed columns in which values were found that do not fit
+	 * @return true if any type was widened
+	 */
+	private boolean widenGuessedTypes(List<ColumnBuilder[]> chunkResults) {
+
+		boolean result = false;
+
+		for (int col = 0; col < types.length; col++) {
+
+			if (!guessed[col]) {
+				continue;
+			}
+
+			CsvColumnType widenedType = types[col];
+
+			for (ColumnBuilder[] chunkResult : chunkResults) {
+				if (chunkResult[col].fittingType != null) {
+					widenedType = widen(widenedType, chunkResult[col].fittingType);
+				}
+			}
+
+			if (widenedType != types[col]) {
+				types[col] = widenedType;
+				result = true;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Complains about the values which did not fit the types given in the schema, and which
+	 * are therefore left empty
+	 */
+	private void reportMismatches(List<ColumnBuilder[]> chunkResults) {
+
+		for (int col = 0; col < types.length; col++) {
+
+			long mismatches = 0;
+			for (ColumnBuilder[] chunkResult : chunkResults) {
+				mismatches += chunkResult[col].mismatches;
+			}
+
+			if (mismatches > 0) {
+				System.err.println("[ERROR] Loading the file " + file.getFilename() + ", " + mismatches +
+					" values of the column " + columnNames.get(col) + " were not of the type " + types[col] +
+					" given in the schema and have been left empty!");
+			}
+		}
+	}
+
+	/**
+	 * Returns the narrowest of INT, LONG, DOUBLE and STRING that both types fit into
+	 */
+	private static CsvColumnType widen(CsvColumnType type, CsvColumnType otherType) {
+
+		if (type == otherType) {
+			return type;
+		}
+
+		if ((type == CsvColumnType.STRING) || (type == CsvColumnType.DATE) ||
+			(otherType == CsvColumnType.STRING) || (otherType == CsvColumnType.DATE)) {
+			return CsvColumnType.STRING;
+		}
+
+		if ((type == CsvColumnType.DOUBLE) || (otherType == CsvColumnType.DOUBLE)) {
+			return CsvColumnType.DOUBLE;
+		}
+
+		return CsvColumnType.LONG;
+	}
+
+	/**
+	 * Takes the types of the columns from the schema, and guesses the types of all other
+	 * columns by looking at the first rows after the head line
+	 */
+	private CsvColumnType[] getTypes(CsvReader reader) throws IOException {
+
+		int columnCount = columnNames.size();
+
+		CsvColumnType[] result = new CsvColumnType[columnCount];
+
+		guessed = new boolean[columnCount];
+
+		// null while we have not seen any value in the column yet
+		CsvColumnType[] guesses = new CsvColumnType[columnCount];
+
+		boolean needToGuess = false;
+		for (int col = 0; col < columnCount; col++) {
+			if (schema != null) {
+				result[col] = schema.get(columnNames.get(col));
+			}
+			if (result[col] == null) {
+				needToGuess = true;
+				guessed[col] = true;
+			}
+		}
+
+		ChunkParser parser = new ChunkParser(null);
+
+		// the first rows are also used to estimate how wide rows are on average, even if
+		// no types need to be guessed
+		long sampledWidth = 0;
+		long sampledRows = 0;
+
+		for (int row = 0; (row < INFERENCE_ROWS) && reader.readRow(); row++) {
+
+			// each cell is followed by a separator or by the line break
+			sampledRows++;
+			sampledWidth += reader.getColumnCount();
+			for (int col = 0; col < reader.getColumnCount(); col++) {
+				sampledWidth += reader.getColumnView(col).length();
+			}
+
+			if (!needToGuess) {
+				continue;
+			}
+
+			int len = Math.min(reader.getColumnCount(), columnCount);
+
+			for (int col = 0; col < len; col++) {
+
+				if ((result[col] != null) || (guesses[col] == CsvColumnType.STRING)) {
+					continue;
+				}
+
+				CharSequence cell = reader.getColumnView(col);
+				if (cell.length() < 1) {
+					continue;
+				}
+
+				CsvColumnType guess = guesses[col];
+
+				// each column gets the narrowest type that all of its values fit into
+				if ((guess == null) || (guess == CsvColumnType.INT) || (guess == CsvColumnType.LONG)) {
+					if (parser.parseLong(cell)) {
+						if ((guess != CsvColumnType.LONG) &&
+							(parser.parsedLong >= Integer.MIN_VALUE) && (parser.parsedLong <= Integer.MAX_VALUE)) {
+							guesses[col] = CsvColumnType.INT;
+						} else {
+							guesses[col] = CsvColumnType.LONG;
+						}
+						continue;
+					}
+				}
+
+				if (parseDouble(cell.toString()) != null) {
+					guesses[col] = CsvColumnType.DOUBLE;
+				} else {
+					guesses[col] = CsvColumnType.STRING;
+				}
+			}
+		}
+
+		if (sampledRows > 0) {
+			averageRowWidth = Math.max(1, sampledWidth / sampledRows);
+		}
+
+		for (int col = 0; col < columnCount; col++) {
+			if (result[col] == null) {
+				result[col] = guesses[col];
+			}
+			if (result[col] == null) {
+				result[col] = CsvColumnType.STRING;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the start of the first row after the head line, the starts of all chunks after
+	 * that one, and the size of the file - splitting only at line breaks outside of quotes
+	 */
+	private List<Long> findChunkStarts(FileChannel channel, long size, long chunkSize) throws IOException {
+
+		List<Long> result = new ArrayList<>();
+
+		ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		byte[] bytes = buf.array();
+
+		boolean quoted = false;
+		long nextTarget = -1;
+		long pos = 0;
+
+		while (pos < size) {
+
+			buf.clear();
+
+			int amountRead = channel.read(buf, pos);
+			if (amountRead < 1) {
+				break;
+			}
+
+			for (int i = 0; i < amountRead; i++) {
+				byte b = bytes[i];
+				// in UTF-8 and in ISO-8859-1, these bytes cannot occur inside of any other character,
+				// and two quotes within a quoted cell flip the state twice, leaving it as it was
+				if (b == '"') {
+					quoted = !quoted;
+				} else if ((b == '\n') && !quoted) {
+					long lineStart = pos + i + 1;
+					if (lineStart >= nextTarget) {
+						result.add(lineStart);
+						nextTarget = lineStart + chunkSize;
+					}
+				}
+			}
+
+			pos += amountRead;
+		}
+
+		if (result.size() < 1) {
+			// there is nothing but the head line
+			result.add(size);
+		} else if (result.get(result.size() - 1) < size) {
+			result.add(size);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Puts the columns of all the chunks together, in the order of the chunks
+	 */
+	private CsvTable merge(List<ColumnBuilder[]> chunkResults) {
+
+		int rowCount = 0;
+		for (ColumnBuilder[] chunkResult : chunkResults) {
+			rowCount += chunkResult[0].size;
+		}
+
+		List<CsvTable.Column> columns = new ArrayList<>();
+
+		for (int col = 0; col < types.length; col++) {
+
+			CsvTable.Column column = new CsvTable.Column(columnNames.get(col), types[col]);
+			column.nulls = new BitSet(rowCount);
+
+			switch (types[col]) {
+				case INT:
+					column.ints = new int[rowCount];
+					break;
+				case LONG:
+				case DATE:
+					column.longs = new long[rowCount];
+					break;
+				case DOUBLE:
+					column.doubles = new double[rowCount];
+					break;
+				default:
+					column.codes = new int[rowCount];
+					break;
+			}
+
+			List<String> dictionary = new ArrayList<>();
+			Map<String, Integer> globalCodes = new HashMap<>();
+
+			int offset = 0;
+
+			for (ColumnBuilder[] chunkResult : chunkResults) {
+
+				ColumnBuilder builder = chunkResult[col];
+
+				for (int row = builder.nulls.nextSetBit(0); row >= 0; row = builder.nulls.nextSetBit(row + 1)) {
+					column.nulls.set(offset + row);
+				}
+
+				switch (types[col]) {
+					case INT:
+						System.arraycopy(builder.ints, 0, column.ints, offset, builder.size);
+						break;
+					case LONG:
+					case DATE:
+						System.arraycopy(builder.longs, 0, column.longs, offset, builder.size);
+						break;
+					case DOUBLE:
+						System.arraycopy(builder.doubles, 0, column.doubles, offset, builder.size);
+						break;
+					default:
+						// the codes of each chunk refer to its own dictionary, so we translate them
+						int[] translation = new int[builder.dictionary.size()];
+						for (int code = 0; code < translation.length; code++) {
+							String text = builder.dictionary.get(code);
+							Integer globalCode = globalCodes.get(text);
+							if (globalCode == null) {
+								globalCode = dictionary.size();
+								dictionary.add(text);
+								globalCodes.put(text, globalCode);
+							}
+							translation[code] = globalCode;
+						}
+						for (int row = 0; row < builder.size; row++) {
+							if (!builder.nulls.get(row)) {
+								column.codes[offset + row] = translation[builder.codes[row]];
+							}
+						}
+						break;
+				}
+
+				offset += builder.size;
+			}
+
+			if (types[col] == CsvColumnType.STRING) {
+				column.dictionary = dictionary.toArray(new String[dictionary.size()]);
+			}
+
+			columns.add(column);
+		}
+
+		return new CsvTable(rowCount, columns);
+	}
+
+	/**
+	 * Parses decimal numbers such as 3.5, but also such as 3,5 or 1.234,56 (as found in German CSV files)
+	 */
+	private static Double parseDouble(String value) {
+
+		// the plain format is parsed directly, everything else goes through the more lenient StrUtils
+		boolean plain = true;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (!(((c >= '0') && (c <= '9')) || (c == '.') || (c == '-') || (c == '+') || (c == 'e') || (c == 'E'))) {
+				plain = false;
+				break;
+			}
+		}
+
+		if (plain) {
+			try {
+				return Double.parseDouble(value);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		return StrUtils.strToDouble(value);
+	}
+
+
+	/**
+	 * Collects the values of one column within one chunk
+	 */
+	private static class ColumnBuilder {
+
+		int size = 0;
+
+		int[] ints;
+
+		long[] longs;
+
+		double[] doubles;
+
+		int[] codes;
+
+		List<String> dictionary;
+
+		Map<String, Integer> dictionaryCodes;
+
+		BitSet nulls = new BitSet();
+
+		// the narrowest type that all values fit into which did not fit the type of the
+		// column, or null if all of them fit
+		CsvColumnType fittingType = null;
+
+		// the amount of values which did not fit the type of the column, and were left empty
+		int mismatches = 0;
+
+
+		ColumnBuilder(CsvColumnType type, int capacity) {
+
+			switch (type) {
+				case INT:
+					ints = new int[capacity];
+					break;
+				case LONG:
+				case DATE:
+					longs = new long[capacity];
+					break;
+				case DOUBLE:
+					doubles = new double[capacity];
+					break;
+				default:
+					codes = new int[capacity];
+					dictionary = new ArrayList<>();
+					dictionaryCodes = new HashMap<>();
+					break;
+			}
+		}
+
+		void grow() {
+
+			if (ints != null) {
+				ints = Arrays.copyOf(ints, ints.length * 2);
+			}
+			if (longs != null) {
+				longs = Arrays.copyOf(longs, longs.length * 2);
+			}
+			if (doubles != null) {
+				doubles = Arrays.copyOf(doubles, doubles.length * 2);
+			}
+			if (codes != null) {
+				codes = Arrays.copyOf(codes, codes.length * 2);
+			}
+		}
+
+		int getCapacity() {
+
+			if (ints != null) {
+				return ints.length;
+			}
+			if (longs != null) {
+				return longs.length;
+			}
+			if (doubles != null) {
+				return doubles.length;
+			}
+			return codes.length;
+		}
+	}
+
+
+	/**
+	 * Parses the cells of the rows of one chunk into the column builders of that chunk
+	 */
+	private class ChunkParser {
+
+		private ColumnBuilder[] builders;
+
+		// the result of the last successful parseLong()
+		long parsedLong;
+
+		// our own date formats, such that the chunks can parse dates in parallel
+		private SimpleDateFormat dateFormat = DateUtils.createDateFormat();
+		private SimpleDateFormat fallbackDateFormat = DateUtils.createFallbackDateFormat();
+
+
+		ChunkParser(ColumnBuilder[] builders) {
+			this.builders = builders;
+		}
+
+		void parseRow(CsvReader reader) {
+
+			int cellCount = reader.getColumnCount();
+
+			ColumnBuilder first = builders[0];
+			if (first.size == first.getCapacity()) {
+				for (ColumnBuilder builder : builders) {
+					builder.grow();
+				}
+			}
+
+			int row = first.size;
+
+			for (int col = 0; col < builders.length; col++) {
+
+				ColumnBuilder builder = builders[col];
+				builder.size++;
+
+				CharSequence cell = null;
+				if (col < cellCount) {
+					cell = reader.getColumnView(col);
+				}
+
+				if ((cell == null) || (cell.length() < 1)) {
+					builder.nulls.set(row);
+					continue;
+				}
+
+				switch (types[col]) {
+
+					case INT:
+						if (!parseWholeNumber(cell)) {
+							mismatch(builder, row, getFittingType(cell));
+						} else if ((parsedLong >= Integer.MIN_VALUE) && (parsedLong <= Integer.MAX_VALUE)) {
+							builder.ints[row] = (int) parsedLong;
+						} else {
+							mismatch(builder, row, CsvColumnType.LONG);
+						}
+						break;
+
+					case LONG:
+						if (parseWholeNumber(cell)) {
+							builder.longs[row] = parsedLong;
+						} else {
+							mismatch(builder, row, getFittingType(cell));
+						}
+						break;
+
+					case DOUBLE:
+						Double doubleValue = parseDouble(cell.toString());
+						if (doubleValue == null) {
+							mismatch(builder, row, CsvColumnType.STRING);
+						} else {
+							builder.doubles[row] = doubleValue;
+						}
+						break;
+
+					case DATE:
+						Date date = DateUtils.parseDate(cell.toString(), dateFormat, fallbackDateFormat);
+						if (date == null) {
+							mismatch(builder, row, CsvColumnType.STRING);
+						} else {
+							builder.longs[row] = date.getTime();
+						}
+						break;
+
+					default:
+						String text = cell.toString();
+						Integer code = builder.dictionaryCodes.get(text);
+						if (code == null) {
+							code = builder.dictionary.size();
+							builder.dictionary.add(text);
+							builder.dictionaryCodes.put(text, code);
+						}
+						builder.codes[row] = code;
+						break;
+				}
+			}
+		}
+
+		/**
+		 * Leaves a value empty which does not fit the type of its column, remembering which
+		 * type it would have fit into
+		 */
+		private void mismatch(ColumnBuilder builder, int row, CsvColumnType fittingType) {
+
+			builder.nulls.set(row);
+			builder.mismatches++;
+
+			if (builder.fittingType == null) {
+				builder.fittingType = fittingType;
+			} else {
+				builder.fittingType = widen(builder.fittingType, fittingType);
+			}
+		}
+
+		/**
+		 * Returns the narrowest of INT, LONG, DOUBLE and STRING that the cell fits into
+		 */
+		private CsvColumnType getFittingType(CharSequence cell) {
+
+			if (parseLong(cell)) {
+				if ((parsedLong >= Integer.MIN_VALUE) && (parsedLong <= Integer.MAX_VALUE)) {
+					return CsvColumnType.INT;
+				}
+				return CsvColumnType.LONG;
+			}
+
+			if (parseDouble(cell.toString()) != null) {
+				return CsvColumnType.DOUBLE;
+			}
+
+			return CsvColumnType.STRING;
+		}
+
+		/**
+		 * Parses a whole number, also accepting formats such as 1.234,0 (as long as there are
+		 * no decimal places other than zeroes), putting it into parsedLong
+		 * @return true if the cell contains a whole number that fits into a long
+		 */
+		private boolean parseWholeNumber(CharSequence cell) {
+
+			if (parseLong(cell)) {
+				return true;
+			}
+
+			Double doubleValue = parseDouble(cell.toString());
+
+			// numbers with decimal places are not rounded, as that would silently change them
+			if ((doubleValue == null) || (doubleValue != Math.rint(doubleValue)) ||
+				(doubleValue < Long.MIN_VALUE) || (doubleValue >= Long.MAX_VALUE)) {
+				return false;
+			}
+
+			parsedLong = (long) (double) doubleValue;
+			return true;
+		}
+
+		/**
+		 * Parses a whole number (optionally surrounded by spaces) without creating any
+		 * objects, putting it into parsedLong
+		 * @return true if the cell contains just a whole number that fits into a long
+		 */
+		boolean parseLong(CharSequence cell) {
+
+			int len = cell.length();
+			int i = 0;
+
+			while ((i < len) && (cell.charAt(i) == ' ')) {
+				i++;
+			}
+			while ((len > i) && (cell.charAt(len - 1) == ' ')) {
+				len--;
+			}
+
+			boolean negative = false;
+			if ((i < len) && ((cell.charAt(i) == '-') || (cell.charAt(i) == '+'))) {
+				negative = cell.charAt(i) == '-';
+				i++;
+			}
+
+			if (i >= len) {
+				return false;
+			}
+
+			// we add up negatively, as the smallest long is further away from zero than the largest
+			long result = 0;
+			for (; i < len; i++) {
+				char c = cell.charAt(i);
+				if ((c < '0') || (c > '9')) {
+					return false;
+				}
+				int digit = c - '0';
+				if (result < (Long.MIN_VALUE + digit) / 10) {
+					return false;
+				}
+				result = (result * 10) - digit;
+			}
+
+			if (!negative) {
+				if (result == Long.MIN_VALUE) {
+					return false;
+				}
+				result = -result;
+			}
+
+			parsedLong = result;
+			return true;
+		}
+	}
+
+
+	private class ParseTask extends RecursiveTask<List<ColumnBuilder[]>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private FileChannel channel;
+
+		private List<Long> chunkStarts;
+
+		// the first chunk and the chunk after the last one that this task is responsible for
+		private int fromChunk;
+		private int toChunk;
+
+
+		ParseTask(FileChannel channel, List<Long> chunkStarts, int fromChunk, int toChunk) {
+			this.channel = channel;
+			this.chunkStarts = chunkStarts;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+		}
+
+		@Override
+		protected List<ColumnBuilder[]> compute() {
+
+			if (toChunk - fromChunk > 1) {
+
+				int middle = (fromChunk + toChunk) / 2;
+
+				ParseTask firstHalf = new ParseTask(channel, chunkStarts, fromChunk, middle);
+				ParseTask secondHalf = new ParseTask(channel, chunkStarts, middle, toChunk);
+
+				firstHalf.fork();
+				List<ColumnBuilder[]> secondResult = secondHalf.compute();
+				List<ColumnBuilder[]> result = firstHalf.join();
+
+				result.addAll(secondResult);
+				return result;
+			}
+
+			List<ColumnBuilder[]> result = new ArrayList<>();
+			result.add(parseChunk(chunkStarts.get(fromChunk), chunkStarts.get(toChunk)));
+			return result;
+		}
+
+		private ColumnBuilder[] parseChunk(long start, long end) {
+
+			// the amount of rows expected from the width of the first rows (with a bit of leeway),
+			// such that the arrays rarely have to grow - but also do not take up much more
+			// memory than needed, as the builders of all chunks being parsed are alive at once
+			int capacity = 16;
+			if (averageRowWidth > 0) {
+				long expectedRows = (end - start) / averageRowWidth;
+				capacity = (int) Math.max(16, Math.min(expectedRows + (expectedRows / 8), Integer.MAX_VALUE / 2));
+			}
+
+			ColumnBuilder[] builders = new ColumnBuilder[types.length];
+			for (int col = 0; col < types.length; col++) {
+				builders[col] = new ColumnBuilder(types[col], capacity);
+			}
+
+			if (builders.length < 1) {
+				return builders;
+			}
+
+			ChunkParser parser = new ChunkParser(builders);
+
+			try {
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+				CsvReader reader = new CsvReader(new InputStreamReader(new ByteBufferInputStream(mapped), charset),
+					file.entrySeparator);
+
+				while (reader.readRow()) {
+					// we skip empty lines
+					if ((reader.getColumnCount() == 1) && (reader.getColumnView(0).length() < 1)) {
+						continue;
+					}
+					parser.parseRow(reader);
+				}
+
+			} catch (IOException e) {
+				System.err.println("[ERROR] Trying to load the file " + file.getFilename() + ", an I/O Exception occurred - inconceivable!");
+			}
+
+			return builders;
+		}
+	}
+
+
+	/**
+	 * Reads the bytes of a (mapped) buffer without copying them anywhere else first
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private ByteBuffer buffer;
+
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+
+			return buffer.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+
+			if (length == 0) {
+				return 0;
+			}
+
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+
+			length = Math.min(length, buffer.remaining());
+
+			buffer.get(bytes, offset, length);
+
+			return length;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+
+/**
+ * The types of the columns of a CsvTable, and how their values are stored
+ */
+public enum CsvColumnType {
+
+	// whole numbers, stored in an int[]
+	INT,
+
+	// whole numbers, stored in a long[]
+	LONG,
+
+	// decimal numbers (also such as 3,5 or 1.234,56), stored in a double[]
+	DOUBLE,
+
+	// dates as understood by DateUtils.parseDate(), stored as milliseconds since the epoch in a long[]
+	DATE,
+
+	// any text, stored as codes into a dictionary containing each distinct text once
+	STRING
+
+}
@@ -4,8 +4,11 @@
  */
 package com.asofterspace.toolbox.io;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
@@ -104,26 +107,93 @@ public class CsvFile extends SimpleFile {
 		List<String> result = new ArrayList<>();
 
 		int len = line.length();
-		String nextStr = "";
+		StringBuilder nextStr = new StringBuilder();
 		boolean inQuotedStr = false;
 
 		for (int i = 0; i < len; i++) {
 
-			if (line.charAt(i) == '\"') {
-				inQuotedStr = !inQuotedStr;
-			} else if ((!inQuotedStr) && (line.charAt(i) == entrySeparator)) {
-				result.add(nextStr);
-				nextStr = "";
+			char c = line.charAt(i);
+
+			if (c == '\"') {
+				// two quotes within a quoted string stand for one quote
+				if (inQuotedStr && (i + 1 < len) && (line.charAt(i + 1) == '\"')) {
+					nextStr.append(c);
+					i++;
+				} else {
+					inQuotedStr = !inQuotedStr;
+				}
+			} else if ((!inQuotedStr) && (c == entrySeparator)) {
+				result.add(nextStr.toString());
+				nextStr.setLength(0);
 			} else {
-				nextStr += line.charAt(i);
+				nextStr.append(c);
 			}
 		}
 
-		result.add(nextStr);
+		result.add(nextStr.toString());
 
 		return result;
 	}
 
+	/**
+	 * Opens a reader going row by row through the file as it is on disk (also supporting
+	 * quoted cells that contain line breaks), such that even huge files can be processed
+	 * in constant memory - the caller has to close it
+	 * @return a CsvReader for the file
+	 */
+	public CsvReader getReader() throws IOException {
+
+		return new CsvReader(this);
+	}
+
+	/**
+	 * Opens a writer (over)writing the file on disk row by row, without keeping the contents
+	 * in memory - the caller has to close it
+	 * @return a CsvWriter for the file
+	 */
+	public CsvWriter getWriter() throws IOException {
+
+		return new CsvWriter(this);
+	}
+
+	/**
+	 * Loads the file as it is on disk column by column into typed arrays, guessing the types
+	 * of the columns from the first rows - see loadColumns(schema, pool)
+	 */
+	public CsvTable loadColumns() {
+
+		return loadColumns(null, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Loads the file as it is on disk column by column into typed arrays, taking the types
+	 * of the columns from the schema - see loadColumns(schema, pool)
+	 */
+	public CsvTable loadColumns(Map<String, CsvColumnType> schema) {
+
+		return loadColumns(schema, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Loads the file as it is on disk column by column into typed arrays (and texts into
+	 * dictionary-encoded columns), by splitting it into chunks at line breaks outside of
+	 * quoted cells and parsing the chunks in the given pool - such that even huge files
+	 * can be loaded quickly and then aggregated without any further parsing
+	 * @param schema the types of the columns by their names in the head line, or null -
+	 *               columns not contained in it get the type that fits their first rows
+	 * @param pool the pool in which the chunks are parsed
+	 * @return the table, which is empty if the file could not be read
+	 */
+	public CsvTable loadColumns(Map<String, CsvColumnType> schema, ForkJoinPool pool) {
+
+		try {
+			return new CsvColumnLoader(this, schema, pool).load();
+		} catch (IOException e) {
+			System.err.println("[ERROR] Trying to load the file " + filename + ", an I/O Exception occurred - inconceivable!");
+			return new CsvTable(0, new ArrayList<CsvTable.Column>());
+		}
+	}
+
 	public void setHeadLine(String headline) {
 
 		this.clearContent();
@@ -0,0 +1,328 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.TextEncoding;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * A streaming CSV reader, which reads one row after another from a stream, such that even
+ * huge files can be processed in constant memory
+ *
+ * while (reader.readRow()) {
+ *     String name = reader.getColumn(0);
+ *     ...
+ * }
+ *
+ * The cells of the current row are kept in one buffer which is reused for the next row,
+ * and strings are only created for the cells that are actually asked for
+ *
+ * Cells can be quoted as in RFC 4180 - quoted cells can contain separators and line breaks,
+ * and two quotes in a quoted cell stand for one quote; rows can end with \n or \r\n
+ */
+public class CsvReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private Reader in;
+
+	private char separator;
+
+	private char[] buf = new char[BUFFER_SIZE];
+
+	private int pos = 0;
+
+	private int limit = 0;
+
+	private boolean startOfInput = true;
+
+	// the contents of all cells of the current row, one after another
+	private char[] row = new char[256];
+
+	private int rowLength = 0;
+
+	// where in the row each cell ends (and the next one starts)
+	private int[] cellEnds = new int[16];
+
+	private int cellCount = 0;
+
+	private long rowNum = 0;
+
+	private List<String> headLine = null;
+
+
+	/**
+	 * Create a CSV reader reading from the given reader (which does not need to be buffered)
+	 */
+	public CsvReader(Reader in, char separator) {
+
+		this.in = in;
+
+		this.separator = separator;
+	}
+
+	/**
+	 * Create a CSV reader reading UTF-8 encoded CSV from the given stream
+	 */
+	public CsvReader(InputStream in, char separator) {
+
+		this(new InputStreamReader(in, StandardCharsets.UTF_8), separator);
+	}
+
+	/**
+	 * Create a CSV reader reading the given file with its separator and encoding
+	 */
+	public CsvReader(CsvFile file) throws IOException {
+
+		this(new InputStreamReader(
+			new BufferedInputStream(new FileInputStream(file.getJavaFile()), BUFFER_SIZE),
+			(file.getEncoding() == TextEncoding.ISO_LATIN_1) ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8),
+			file.entrySeparator);
+	}
+
+	/**
+	 * Reads the next row, whose cells can then be accessed via getColumn() and the like
+	 * @return true if a row was read, or false if the end of the input has been reached
+	 */
+	public boolean readRow() throws IOException {
+
+		if ((pos >= limit) && !fill()) {
+			return false;
+		}
+
+		rowLength = 0;
+		cellCount = 0;
+		rowNum++;
+
+		boolean quoted = false;
+
+		while (true) {
+
+			if ((pos >= limit) && !fill()) {
+				// the last row does not need to end with a line break
+				endCell();
+				return true;
+			}
+
+			char c = buf[pos++];
+
+			if (quoted) {
+				if (c == '"') {
+					if (((pos < limit) || fill()) && (buf[pos] == '"')) {
+						append('"');
+						pos++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					append(c);
+				}
+				continue;
+			}
+
+			if (c == separator) {
+				endCell();
+			} else if (c == '"') {
+				// just like CsvFile, we also accept quotes in the middle of a cell
+				quoted = true;
+			} else if (c == '\n') {
+				endCell();
+				return true;
+			} else if (c == '\r') {
+				if (((pos < limit) || fill()) && (buf[pos] == '\n')) {
+					pos++;
+				}
+				endCell();
+				return true;
+			} else {
+				append(c);
+			}
+		}
+	}
+
+	/**
+	 * Reads the next row and returns its cells, or null if the end of the input has been reached
+	 */
+	public List<String> nextRow() throws IOException {
+
+		if (!readRow()) {
+			return null;
+		}
+
+		return getColumns();
+	}
+
+	/**
+	 * Reads the next row as head line, whose cells are used as keys by nextRecord()
+	 */
+	public List<String> readHeadLine() throws IOException {
+
+		headLine = nextRow();
+
+		return headLine;
+	}
+
+	public List<String> getHeadLine() {
+		return headLine;
+	}
+
+	/**
+	 * Reads the next row and returns it as a record object, whose keys are the cells of the
+	 * head line (which is read first if it has not been read yet) and whose values are the
+	 * cells of the row - or returns null if the end of the input has been reached
+	 */
+	public Record nextRecord() throws IOException {
+
+		if (headLine == null) {
+			if (readHeadLine() == null) {
+				return null;
+			}
+		}
+
+		if (!readRow()) {
+			return null;
+		}
+
+		int len = Math.min(cellCount, headLine.size());
+
+		Record result = Record.emptyObject();
+
+		for (int i = 0; i < len; i++) {
+			result.set(headLine.get(i), getColumn(i));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of the row that was last read, starting at 1
+	 */
+	public long getRowNum() {
+		return rowNum;
+	}
+
+	public int getColumnCount() {
+		return cellCount;
+	}
+
+	private int getCellStart(int column) {
+		if (column == 0) {
+			return 0;
+		}
+		return cellEnds[column - 1];
+	}
+
+	/**
+	 * Returns the cell at the given column of the current row, or null if there is none
+	 */
+	public String getColumn(int column) {
+
+		if ((column < 0) || (column >= cellCount)) {
+			return null;
+		}
+
+		int start = getCellStart(column);
+
+		return new String(row, start, cellEnds[column] - start);
+	}
+
+	/**
+	 * Returns a view of the cell at the given column of the current row (or null if there is
+	 * none) without copying it - which is only valid until the next row is read
+	 */
+	public CharSequence getColumnView(int column) {
+
+		if ((column < 0) || (column >= cellCount)) {
+			return null;
+		}
+
+		int start = getCellStart(column);
+
+		return CharBuffer.wrap(row, start, cellEnds[column] - start);
+	}
+
+	/**
+	 * Returns all cells of the current row
+	 */
+	public List<String> getColumns() {
+
+		List<String> result = new ArrayList<>(cellCount);
+
+		for (int i = 0; i < cellCount; i++) {
+			result.add(getColumn(i));
+		}
+
+		return result;
+	}
+
+	private void append(char c) {
+
+		if (rowLength == row.length) {
+			row = Arrays.copyOf(row, row.length * 2);
+		}
+
+		row[rowLength++] = c;
+	}
+
+	private void endCell() {
+
+		if (cellCount == cellEnds.length) {
+			cellEnds = Arrays.copyOf(cellEnds, cellEnds.length * 2);
+		}
+
+		cellEnds[cellCount++] = rowLength;
+	}
+
+	private boolean fill() throws IOException {
+
+		int read = in.read(buf, 0, buf.length);
+
+		while (read == 0) {
+			read = in.read(buf, 0, buf.length);
+		}
+
+		if (read < 0) {
+			pos = 0;
+			limit = 0;
+			return false;
+		}
+
+		pos = 0;
+		limit = read;
+
+		// skip a byte order mark at the very beginning
+		if (startOfInput) {
+			startOfInput = false;
+			if (buf[0] == '\uFEFF') {
+				pos = 1;
+				if (limit == 1) {
+					return fill();
+				}
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
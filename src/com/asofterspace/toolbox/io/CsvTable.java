@@ -0,0 +1,413 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The contents of a CSV file loaded column by column via CsvFile.loadColumns(), in which
+ * each column is one array of primitive values (or, for texts, of codes into a dictionary
+ * containing each distinct text just once) - such that nothing has to be parsed or boxed
+ * again when working with the values, and aggregating a column is one loop over an array
+ *
+ * Cells which are empty, missing or cannot be parsed as the type of their column are null,
+ * which can be checked via isNull() - in the arrays, they are just 0
+ */
+public class CsvTable {
+
+	private int rowCount;
+
+	private List<Column> columns;
+
+	private Map<String, Column> columnsByName = new HashMap<>();
+
+
+	CsvTable(int rowCount, List<Column> columns) {
+
+		this.rowCount = rowCount;
+
+		this.columns = columns;
+
+		for (Column column : columns) {
+			columnsByName.put(column.name, column);
+		}
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public List<String> getColumnNames() {
+
+		List<String> result = new ArrayList<>(columns.size());
+
+		for (Column column : columns) {
+			result.add(column.name);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the type of the given column, or null if there is no such column
+	 */
+	public CsvColumnType getColumnType(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		return column.type;
+	}
+
+	/**
+	 * Returns the values of an INT column, or null if the column is not of that type
+	 */
+	public int[] getIntColumn(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		return column.ints;
+	}
+
+	/**
+	 * Returns the values of a LONG or DATE column, or null if the column is not of that type
+	 */
+	public long[] getLongColumn(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		return column.longs;
+	}
+
+	/**
+	 * Returns the values of a DOUBLE column, or null if the column is not of that type
+	 */
+	public double[] getDoubleColumn(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		return column.doubles;
+	}
+
+	/**
+	 * Returns the codes of a STRING column, each of which is a position in the dictionary
+	 * of the column - or null if the column is not of that type
+	 */
+	public int[] getStringCodes(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		return column.codes;
+	}
+
+	/**
+	 * Returns the distinct texts of a STRING column (in the order in which they first appear),
+	 * or null if the column is not of that type
+	 */
+	public String[] getDictionary(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		return column.dictionary;
+	}
+
+	public boolean isNull(String columnName, int row) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return true;
+		}
+
+		return column.nulls.get(row);
+	}
+
+	/**
+	 * Returns the value of the given cell as string, or null if it is null
+	 */
+	public String getString(String columnName, int row) {
+
+		Column column = columnsByName.get(columnName);
+
+		if ((column == null) || column.nulls.get(row)) {
+			return null;
+		}
+
+		switch (column.type) {
+			case INT:
+				return "" + column.ints[row];
+			case LONG:
+			case DATE:
+				return "" + column.longs[row];
+			case DOUBLE:
+				return "" + column.doubles[row];
+			default:
+				return column.dictionary[column.codes[row]];
+		}
+	}
+
+	/**
+	 * Returns the sum of all values of a numeric column, or null if it is not numeric
+	 */
+	public Double sum(String columnName) {
+
+		Column column = getNumericColumn(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		double result = 0;
+
+		switch (column.type) {
+			case INT:
+				long intSum = 0;
+				for (int i = 0; i < rowCount; i++) {
+					intSum += column.ints[i];
+				}
+				return (double) intSum;
+			case DOUBLE:
+				for (int i = 0; i < rowCount; i++) {
+					if (!column.nulls.get(i)) {
+						result += column.doubles[i];
+					}
+				}
+				return result;
+			default:
+				long longSum = 0;
+				for (int i = 0; i < rowCount; i++) {
+					longSum += column.longs[i];
+				}
+				return (double) longSum;
+		}
+	}
+
+	/**
+	 * Returns the smallest value of a numeric column, or null if it is not numeric or only
+	 * contains nulls
+	 */
+	public Double min(String columnName) {
+		return extreme(columnName, true);
+	}
+
+	/**
+	 * Returns the largest value of a numeric column, or null if it is not numeric or only
+	 * contains nulls
+	 */
+	public Double max(String columnName) {
+		return extreme(columnName, false);
+	}
+
+	private Double extreme(String columnName, boolean findMin) {
+
+		Column column = getNumericColumn(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		boolean found = false;
+		double result = 0;
+
+		for (int i = 0; i < rowCount; i++) {
+			if (column.nulls.get(i)) {
+				continue;
+			}
+			double value;
+			switch (column.type) {
+				case INT:
+					value = column.ints[i];
+					break;
+				case DOUBLE:
+					value = column.doubles[i];
+					break;
+				default:
+					value = column.longs[i];
+					break;
+			}
+			if (!found || (findMin ? (value < result) : (value > result))) {
+				result = value;
+				found = true;
+			}
+		}
+
+		if (!found) {
+			return null;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Counts how often each value occurs in the given column (ignoring nulls), with the values
+	 * in the order in which they first appear - or returns null if there is no such column
+	 */
+	public Map<String, Integer> countBy(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if (column == null) {
+			return null;
+		}
+
+		Map<String, Integer> result = new LinkedHashMap<>();
+
+		if (column.type == CsvColumnType.STRING) {
+			int[] counts = new int[column.dictionary.length];
+			for (int i = 0; i < rowCount; i++) {
+				if (!column.nulls.get(i)) {
+					counts[column.codes[i]]++;
+				}
+			}
+			for (int code = 0; code < counts.length; code++) {
+				if (counts[code] > 0) {
+					result.put(column.dictionary[code], counts[code]);
+				}
+			}
+			return result;
+		}
+
+		for (int i = 0; i < rowCount; i++) {
+			String value = getString(columnName, i);
+			if (value != null) {
+				Integer count = result.get(value);
+				result.put(value, (count == null) ? 1 : count + 1);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Sums the values of a numeric column for each value of the key column (ignoring nulls in
+	 * either), with the keys in the order in which they first appear - or returns null if either
+	 * column does not exist or the value column is not numeric
+	 */
+	public Map<String, Double> sumBy(String keyColumnName, String valueColumnName) {
+
+		Column keyColumn = columnsByName.get(keyColumnName);
+		Column valueColumn = getNumericColumn(valueColumnName);
+
+		if ((keyColumn == null) || (valueColumn == null)) {
+			return null;
+		}
+
+		Map<String, Double> result = new LinkedHashMap<>();
+
+		// for text keys, we sum by dictionary code, and only look at the texts at the end
+		double[] sumsByCode = null;
+		boolean[] usedCodes = null;
+		if (keyColumn.type == CsvColumnType.STRING) {
+			sumsByCode = new double[keyColumn.dictionary.length];
+			usedCodes = new boolean[keyColumn.dictionary.length];
+		}
+
+		for (int i = 0; i < rowCount; i++) {
+			if (keyColumn.nulls.get(i) || valueColumn.nulls.get(i)) {
+				continue;
+			}
+			double value;
+			switch (valueColumn.type) {
+				case INT:
+					value = valueColumn.ints[i];
+					break;
+				case DOUBLE:
+					value = valueColumn.doubles[i];
+					break;
+				default:
+					value = valueColumn.longs[i];
+					break;
+			}
+			if (sumsByCode != null) {
+				sumsByCode[keyColumn.codes[i]] += value;
+				usedCodes[keyColumn.codes[i]] = true;
+			} else {
+				String key = getString(keyColumnName, i);
+				Double sum = result.get(key);
+				result.put(key, (sum == null) ? value : sum + value);
+			}
+		}
+
+		if (sumsByCode != null) {
+			for (int code = 0; code < sumsByCode.length; code++) {
+				if (usedCodes[code]) {
+					result.put(keyColumn.dictionary[code], sumsByCode[code]);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private Column getNumericColumn(String columnName) {
+
+		Column column = columnsByName.get(columnName);
+
+		if ((column == null) || (column.type == CsvColumnType.STRING)) {
+			return null;
+		}
+
+		return column;
+	}
+
+
+	/**
+	 * One column of the table, of which only the array fitting its type is set
+	 */
+	static class Column {
+
+		final String name;
+
+		final CsvColumnType type;
+
+		int[] ints;
+
+		long[] longs;
+
+		double[] doubles;
+
+		int[] codes;
+
+		String[] dictionary;
+
+		BitSet nulls;
+
+
+		Column(String name, CsvColumnType type) {
+			this.name = name;
+			this.type = type;
+		}
+	}
+
+}
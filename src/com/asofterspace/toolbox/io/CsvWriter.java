@@ -0,0 +1,170 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.TextEncoding;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+
+/**
+ * A streaming CSV writer, which writes one row after another to a stream, such that even
+ * huge files can be written in constant memory
+ *
+ * Cells containing the separator, quotes or line breaks are quoted as in RFC 4180, such
+ * that the CsvReader reads them back exactly as they were written
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private Writer out;
+
+	private char separator;
+
+	private String lineEnding = "\n";
+
+
+	/**
+	 * Create a CSV writer writing to the given writer (which does not need to be buffered)
+	 */
+	public CsvWriter(Writer out, char separator) {
+
+		this.out = new BufferedWriter(out, BUFFER_SIZE);
+
+		this.separator = separator;
+	}
+
+	/**
+	 * Create a CSV writer writing UTF-8 encoded CSV to the given stream
+	 */
+	public CsvWriter(OutputStream out, char separator) {
+
+		this(new OutputStreamWriter(out, StandardCharsets.UTF_8), separator);
+	}
+
+	/**
+	 * Create a CSV writer (over)writing the given file with its separator and encoding
+	 */
+	public CsvWriter(CsvFile file) throws IOException {
+
+		this(new OutputStreamWriter(createStream(file),
+			(file.getEncoding() == TextEncoding.ISO_LATIN_1) ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8),
+			file.entrySeparator);
+
+		if (file.getEncoding() == TextEncoding.UTF8_WITH_BOM) {
+			out.write('\uFEFF');
+		}
+	}
+
+	private static OutputStream createStream(CsvFile file) throws IOException {
+
+		file.createParentDirectory();
+
+		return new FileOutputStream(file.getJavaFile());
+	}
+
+	/**
+	 * Set the line ending written after each row (default: \n)
+	 */
+	public void setLineEnding(String lineEnding) {
+		this.lineEnding = lineEnding;
+	}
+
+	public void writeRow(List<String> cells) throws IOException {
+
+		for (int i = 0; i < cells.size(); i++) {
+			if (i > 0) {
+				out.write(separator);
+			}
+			writeCell(cells.get(i));
+		}
+
+		out.write(lineEnding);
+	}
+
+	public void writeRow(String... cells) throws IOException {
+
+		for (int i = 0; i < cells.length; i++) {
+			if (i > 0) {
+				out.write(separator);
+			}
+			writeCell(cells[i]);
+		}
+
+		out.write(lineEnding);
+	}
+
+	/**
+	 * Writes the values of the given keys of the record object as one row
+	 */
+	public void writeRecord(Record record, List<String> keys) throws IOException {
+
+		for (int i = 0; i < keys.size(); i++) {
+			if (i > 0) {
+				out.write(separator);
+			}
+			writeCell(record.getString(keys.get(i)));
+		}
+
+		out.write(lineEnding);
+	}
+
+	private void writeCell(String cell) throws IOException {
+
+		if (cell == null) {
+			return;
+		}
+
+		int len = cell.length();
+
+		boolean needsQuotes = false;
+		for (int i = 0; i < len; i++) {
+			char c = cell.charAt(i);
+			if ((c == separator) || (c == '"') || (c == '\n') || (c == '\r')) {
+				needsQuotes = true;
+				break;
+			}
+		}
+
+		if (!needsQuotes) {
+			out.write(cell);
+			return;
+		}
+
+		out.write('"');
+		int start = 0;
+		for (int i = 0; i < len; i++) {
+			if (cell.charAt(i) == '"') {
+				out.write(cell, start, i + 1 - start);
+				out.write('"');
+				start = i + 1;
+			}
+		}
+		out.write(cell, start, len - start);
+		out.write('"');
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
@@ -19,6 +19,9 @@ public class Directory {
 
 	private String dirname;
 
+	// if this directory is being watched, the files are taken from the index of the watcher
+	private volatile DirectoryWatcher watcher = null;
+
 
 	/**
 	 * Please do not construct a directory without a name ;)
@@ -306,12 +309,12 @@ public class Directory {
 	 */
 	public List<File> getAllFiles(boolean recursively) {
 
-		return getAllFilesInternally(getJavaFile(), null, null, recursively, false);
+		return getAllFilesInternally(null, null, recursively, false);
 	}
 
 	public List<File> getAllFiles(boolean recursively, boolean followSymbolicLinks) {
 
-		return getAllFilesInternally(getJavaFile(), null, null, recursively, followSymbolicLinks);
+		return getAllFilesInternally(null, null, recursively, followSymbolicLinks);
 	}
 
 	/**
@@ -321,7 +324,7 @@ public class Directory {
 	 */
 	public List<File> getAllFilesEndingWith(String endStr, boolean recursively) {
 
-		return getAllFilesInternally(getJavaFile(), null, endStr, recursively, false);
+		return getAllFilesInternally(null, endStr, recursively, false);
 	}
 
 	/**
@@ -331,7 +334,7 @@ public class Directory {
 	 */
 	public List<File> getAllFilesStartingWith(String startStr, boolean recursively) {
 
-		return getAllFilesInternally(getJavaFile(), startStr, null, recursively, false);
+		return getAllFilesInternally(startStr, null, recursively, false);
 	}
 
 	/**
@@ -341,38 +344,62 @@ public class Directory {
 	 */
 	public List<File> getAllFilesStartingAndEndingWith(String startStr, String endStr, boolean recursively) {
 
-		return getAllFilesInternally(getJavaFile(), startStr, endStr, recursively, false);
+		return getAllFilesInternally(startStr, endStr, recursively, false);
 	}
 
-	private List<File> getAllFilesInternally(java.io.File entryPoint, String startStr, String endStr, boolean recursively, boolean followSymbolicLinks) {
-
-		List<File> result = new ArrayList<>();
+	private List<File> getAllFilesInternally(String startStr, String endStr, boolean recursively, boolean followSymbolicLinks) {
 
-		if (entryPoint.isDirectory()) {
-			java.io.File[] children = entryPoint.listFiles();
-			if (children != null) {
-				for (java.io.File curChild : children) {
-					if (curChild.isDirectory()) {
-						if (recursively) {
-							if (!followSymbolicLinks) {
-								if (Files.isSymbolicLink(Paths.get(curChild.getAbsolutePath()))) {
-									continue;
-								}
-							}
-							result.addAll(getAllFilesInternally(curChild, startStr, endStr, recursively, followSymbolicLinks));
-						}
-					} else {
-						if ((endStr == null) || curChild.getAbsolutePath().endsWith(endStr)) {
-							if ((startStr == null) || curChild.getName().startsWith(startStr)) {
-								result.add(new File(curChild));
-							}
-						}
-					}
-				}
-			}
+		DirectoryWatcher curWatcher = watcher;
+		if ((curWatcher != null) && curWatcher.isRunning() && !followSymbolicLinks) {
+			return curWatcher.getAllFilesStartingAndEndingWith(startStr, endStr, recursively);
 		}
 
-		return result;
+		DirectoryWalker walker = createWalker();
+		walker.setStartingWith(startStr);
+		walker.setEndingWith(endStr);
+		walker.setRecursively(recursively);
+		walker.setFollowSymbolicLinks(followSymbolicLinks);
+
+		return walker.getAllFiles();
+	}
+
+	/**
+	 * Create a walker for going through all the files contained in the directory, which
+	 * can filter them, walk in parallel and report each file as it is found instead of
+	 * returning one big list at the end
+	 */
+	public DirectoryWalker createWalker() {
+
+		return new DirectoryWalker(this);
+	}
+
+	/**
+	 * Start watching this directory for changes, reporting them to the given callback (which
+	 * may be null) - while it is being watched, getAllFiles() and findFile() answer from the
+	 * index of the watcher instead of looking at the disk every time
+	 */
+	public DirectoryWatcher watch(DirectoryChangeCallback callback) {
+
+		stopWatching();
+
+		DirectoryWatcher newWatcher = new DirectoryWatcher(this, callback);
+		newWatcher.start();
+		watcher = newWatcher;
+
+		return newWatcher;
+	}
+
+	/**
+	 * Stop watching this directory for changes
+	 */
+	public void stopWatching() {
+
+		DirectoryWatcher oldWatcher = watcher;
+		watcher = null;
+
+		if (oldWatcher != null) {
+			oldWatcher.stop();
+		}
 	}
 
 	public List<Directory> getAllDirectories(boolean recursively, boolean followSymbolicLinks) {
@@ -418,6 +445,11 @@ public class Directory {
 	 */
 	public File findFile(String localFilename) {
 
+		DirectoryWatcher curWatcher = watcher;
+		if ((curWatcher != null) && curWatcher.isRunning()) {
+			return curWatcher.findFile(localFilename);
+		}
+
 		return findFileInternally(getJavaFile(), localFilename);
 	}
 
@@ -427,7 +459,7 @@ public class Directory {
 	public File findFileFromList(List<String> localFilenames) {
 
 		for (String localFilename : localFilenames) {
-			File result = findFileInternally(getJavaFile(), localFilename);
+			File result = findFile(localFilename);
 			if (result != null) {
 				return result;
 			}
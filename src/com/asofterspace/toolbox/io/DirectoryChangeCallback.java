@@ -0,0 +1,30 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+
+/**
+ * This interface describes a callback for changes noticed by a DirectoryWatcher
+ */
+public interface DirectoryChangeCallback {
+
+	/**
+	 * A file has been added to the watched directory
+	 * @param file  The file that was added
+	 */
+	void fileAdded(File file);
+
+	/**
+	 * A file in the watched directory has been changed (its size or its modification time)
+	 * @param file  The file that was changed
+	 */
+	void fileModified(File file);
+
+	/**
+	 * A file has been deleted from the watched directory
+	 * @param file  The file that was deleted
+	 */
+	void fileDeleted(File file);
+}
@@ -0,0 +1,344 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Walks through a directory and reports the files that it finds one by one to a callback,
+ * rather than collecting all of them in one list first
+ *
+ * Each entry of each directory is looked at only once (reading its attributes once, which
+ * are then also handed to the callback), and the filters are applied before anything else
+ * is done with an entry - and if a pool is set, the sub-directories are walked in parallel
+ *
+ * The files are named by their canonical paths (just like when they are created from a
+ * java.io.File), but these are only resolved once for the walked directory and for the
+ * targets of symbolic links, not once per file
+ */
+public class DirectoryWalker {
+
+	private Directory directory;
+
+	private boolean recursively = true;
+
+	private boolean followSymbolicLinks = false;
+
+	private String startStr = null;
+
+	private String endStr = null;
+
+	private PathMatcher globMatcher = null;
+
+	private boolean globOnPath = false;
+
+	private ForkJoinPool pool = null;
+
+
+	public DirectoryWalker(Directory directory) {
+
+		this.directory = directory;
+	}
+
+	/**
+	 * Whether the sub-directories are walked as well (default: true)
+	 */
+	public void setRecursively(boolean recursively) {
+		this.recursively = recursively;
+	}
+
+	/**
+	 * Whether symbolic links to directories are walked as well (default: false) - links
+	 * leading back to a directory that is already being walked are ignored either way
+	 */
+	public void setFollowSymbolicLinks(boolean followSymbolicLinks) {
+		this.followSymbolicLinks = followSymbolicLinks;
+	}
+
+	/**
+	 * Only report files whose names start with the given string (or null for all)
+	 */
+	public void setStartingWith(String startStr) {
+		this.startStr = startStr;
+	}
+
+	/**
+	 * Only report files whose paths end with the given string (or null for all)
+	 */
+	public void setEndingWith(String endStr) {
+		this.endStr = endStr;
+	}
+
+	/**
+	 * Only report files matching the given glob pattern (or null for all), such as *.json
+	 * - if the pattern contains a slash, it is matched against the path of the file relative
+	 * to the walked directory (such as foo/bar.json), otherwise against the name of the file
+	 */
+	public void setGlob(String glob) {
+
+		if (glob == null) {
+			globMatcher = null;
+			return;
+		}
+
+		globOnPath = glob.contains("/");
+
+		globMatcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+	}
+
+	/**
+	 * Walk the sub-directories in parallel in the given pool (or sequentially if null is
+	 * passed in, which is the default) - in that case, the callback is called from several
+	 * threads at the same time, and files are reported in no particular order
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Walk the sub-directories in parallel in the common pool, or sequentially
+	 */
+	public void setParallel(boolean parallel) {
+		if (parallel) {
+			this.pool = ForkJoinPool.commonPool();
+		} else {
+			this.pool = null;
+		}
+	}
+
+	/**
+	 * Walk through the directory, calling the callback for each file that is found
+	 */
+	public void walk(FileFoundCallback callback) {
+
+		java.io.File javaDir = directory.getJavaFile();
+
+		if (!javaDir.isDirectory()) {
+			return;
+		}
+
+		Path root = javaDir.toPath().toAbsolutePath();
+
+		String canonicalRoot;
+		try {
+			canonicalRoot = javaDir.getCanonicalPath();
+		} catch (IOException e) {
+			canonicalRoot = root.toString();
+		}
+
+		Set<String> visitedDirs = null;
+		if (followSymbolicLinks) {
+			visitedDirs = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+			visitedDirs.add(canonicalRoot);
+		}
+
+		WalkTask task = new WalkTask(root, root, canonicalRoot, callback, visitedDirs);
+
+		if (pool == null) {
+			task.compute();
+		} else {
+			pool.invoke(task);
+		}
+	}
+
+	/**
+	 * Walk through the directory and return all the files that are found
+	 */
+	public List<File> getAllFiles() {
+
+		final List<File> result = new ArrayList<>();
+
+		walk(new FileFoundCallback() {
+			public void foundFile(File file, BasicFileAttributes attributes) {
+				synchronized (result) {
+					result.add(file);
+				}
+			}
+		});
+
+		return result;
+	}
+
+	private boolean accept(Path root, Path path, String name) {
+
+		if ((startStr != null) && !name.startsWith(startStr)) {
+			return false;
+		}
+
+		if (endStr != null) {
+			// for endings which are just the end of a name, we do not need to look at the whole path
+			if ((endStr.indexOf('/') < 0) && (endStr.indexOf('\\') < 0)) {
+				if (!name.endsWith(endStr)) {
+					return false;
+				}
+			} else {
+				if (!path.toString().endsWith(endStr)) {
+					return false;
+				}
+			}
+		}
+
+		if (globMatcher != null) {
+			if (globOnPath) {
+				if (!globMatcher.matches(root.relativize(path))) {
+					return false;
+				}
+			} else {
+				if (!globMatcher.matches(Paths.get(name))) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private static String joinPath(String dirName, String name) {
+
+		if (dirName.endsWith(java.io.File.separator)) {
+			return dirName + name;
+		}
+
+		return dirName + java.io.File.separator + name;
+	}
+
+
+	/**
+	 * Walks one directory, reporting its files and walking its sub-directories
+	 */
+	private class WalkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path root;
+
+		private final Path dir;
+
+		// the canonical path of the directory, from which those of its children are built
+		private final String canonicalDir;
+
+		private final FileFoundCallback callback;
+
+		private final Set<String> visitedDirs;
+
+
+		WalkTask(Path root, Path dir, String canonicalDir, FileFoundCallback callback, Set<String> visitedDirs) {
+			this.root = root;
+			this.dir = dir;
+			this.canonicalDir = canonicalDir;
+			this.callback = callback;
+			this.visitedDirs = visitedDirs;
+		}
+
+		@Override
+		protected void compute() {
+
+			List<WalkTask> subTasks = null;
+
+			try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+
+				for (Path child : children) {
+
+					String name = child.getFileName().toString();
+
+					BasicFileAttributes attributes;
+					try {
+						attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					} catch (IOException e) {
+						// just like listFiles(), we skip what we cannot look at
+						continue;
+					}
+
+					String canonicalChild = null;
+
+					if (attributes.isSymbolicLink()) {
+						try {
+							attributes = Files.readAttributes(child, BasicFileAttributes.class);
+						} catch (IOException e) {
+							// a dangling link
+							continue;
+						}
+						if (attributes.isDirectory() && !(recursively && followSymbolicLinks)) {
+							continue;
+						}
+						if (attributes.isDirectory() || accept(root, child, name)) {
+							try {
+								canonicalChild = child.toFile().getCanonicalPath();
+							} catch (IOException e) {
+								canonicalChild = child.toAbsolutePath().toString();
+							}
+						}
+					}
+
+					if (attributes.isDirectory()) {
+
+						if (!recursively) {
+							continue;
+						}
+
+						if (canonicalChild == null) {
+							canonicalChild = joinPath(canonicalDir, name);
+						}
+
+						// when following links, we might arrive at a directory we already walked
+						if ((visitedDirs != null) && !visitedDirs.add(canonicalChild)) {
+							continue;
+						}
+
+						WalkTask subTask = new WalkTask(root, child, canonicalChild, callback, visitedDirs);
+
+						if (pool == null) {
+							subTask.compute();
+						} else {
+							if (subTasks == null) {
+								subTasks = new ArrayList<>();
+							}
+							subTask.fork();
+							subTasks.add(subTask);
+						}
+
+						continue;
+					}
+
+					if (!accept(root, child, name)) {
+						continue;
+					}
+
+					if (canonicalChild == null) {
+						canonicalChild = joinPath(canonicalDir, name);
+					}
+
+					callback.foundFile(new File(canonicalChild), attributes);
+				}
+
+			} catch (IOException e) {
+				// just like listFiles(), we skip directories that we cannot read
+			}
+
+			if (subTasks != null) {
+				for (WalkTask subTask : subTasks) {
+					subTask.join();
+				}
+			}
+		}
+	}
+
+}
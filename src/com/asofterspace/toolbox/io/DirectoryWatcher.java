@@ -0,0 +1,549 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Keeps an index of all the files in a directory (and its sub-directories), with their
+ * sizes and modification times, and keeps it up to date while running - using the
+ * WatchService of the file system if there is one, and otherwise by rescanning the
+ * directory every so often
+ *
+ * Changes are reported to the callback (if one is given) from the thread of the watcher,
+ * and the files that are currently there can be asked for at any time without going to
+ * the disk; symbolic links to directories are not followed
+ */
+public class DirectoryWatcher {
+
+	private static final int ADDED = 0;
+
+	private static final int MODIFIED = 1;
+
+	private static final int DELETED = 2;
+
+	private Directory directory;
+
+	private DirectoryChangeCallback callback;
+
+	private Path root;
+
+	private String rootName;
+
+	private long pollingInterval = 2000;
+
+	private boolean usePolling = false;
+
+	private volatile boolean running = false;
+
+	private Thread thread = null;
+
+	private WatchService watchService = null;
+
+	private Map<WatchKey, Path> watchedDirs = new HashMap<>();
+
+	// all the indexed files, by their canonical names
+	private Map<String, IndexEntry> files = new HashMap<>();
+
+	// all the indexed files, by their local names
+	private Map<String, List<IndexEntry>> filesByName = new HashMap<>();
+
+
+	public DirectoryWatcher(Directory directory, DirectoryChangeCallback callback) {
+
+		this.directory = directory;
+
+		this.callback = callback;
+	}
+
+	/**
+	 * How often the directory is rescanned if polling is used, in milliseconds (default: 2000)
+	 */
+	public void setPollingInterval(long pollingInterval) {
+		this.pollingInterval = pollingInterval;
+	}
+
+	/**
+	 * Whether to poll even if the file system offers a WatchService (default: false) - which
+	 * is a good idea e.g. for network drives, whose changes are often not reported
+	 */
+	public void setUsePolling(boolean usePolling) {
+		this.usePolling = usePolling;
+	}
+
+	/**
+	 * Build the index (without reporting the files that are already there as added) and
+	 * start watching for changes
+	 */
+	public synchronized void start() {
+
+		if (running) {
+			return;
+		}
+
+		try {
+			rootName = directory.getJavaFile().getCanonicalPath();
+		} catch (IOException e) {
+			rootName = directory.getJavaFile().getAbsolutePath();
+		}
+		root = Paths.get(rootName);
+
+		files.clear();
+		filesByName.clear();
+
+		if (!usePolling) {
+			try {
+				watchService = FileSystems.getDefault().newWatchService();
+				registerTree(root);
+			} catch (IOException | UnsupportedOperationException e) {
+				System.err.println("[ERROR] Cannot watch " + rootName + " for changes, polling instead: " + e);
+				closeWatchService();
+			}
+		}
+
+		scan(root, true);
+
+		running = true;
+
+		// the thread keeps its own reference to the watch service, as stop() sets the field
+		// to null while the thread might still be about to take the next key from it
+		final WatchService service = watchService;
+
+		thread = new Thread(new Runnable() {
+			public void run() {
+				if (service == null) {
+					pollLoop();
+				} else {
+					watchLoop(service);
+				}
+			}
+		});
+		thread.setDaemon(true);
+		thread.setName("DirectoryWatcher for " + rootName);
+		thread.start();
+	}
+
+	/**
+	 * Stop watching for changes - the index is kept as it was last
+	 */
+	public void stop() {
+
+		Thread stoppedThread;
+
+		synchronized (this) {
+			running = false;
+			stoppedThread = thread;
+			thread = null;
+			closeWatchService();
+		}
+
+		if (stoppedThread != null) {
+			stoppedThread.interrupt();
+		}
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Scan the whole directory right now, updating the index and reporting all changes
+	 * since the last time
+	 */
+	public void rescan() {
+
+		if (root == null) {
+			return;
+		}
+
+		synchronized (this) {
+			if (watchService != null) {
+				registerTree(root);
+			}
+		}
+
+		report(scan(root, true));
+	}
+
+	/**
+	 * Get all the indexed files (in the directory itself, or, if recursively is set to true,
+	 * also in its sub-directories), sorted by name
+	 */
+	public List<File> getAllFiles(boolean recursively) {
+
+		return getAllFilesStartingAndEndingWith(null, null, recursively);
+	}
+
+	/**
+	 * Get all the indexed files whose names start and whose paths end with the given strings
+	 * (either of which can be null), sorted by name
+	 */
+	public synchronized List<File> getAllFilesStartingAndEndingWith(String startStr, String endStr, boolean recursively) {
+
+		List<IndexEntry> found = new ArrayList<>();
+
+		for (IndexEntry entry : files.values()) {
+			if (!recursively && !entry.dirName.equals(rootName)) {
+				continue;
+			}
+			if ((startStr != null) && !entry.localName.startsWith(startStr)) {
+				continue;
+			}
+			if ((endStr != null) && !entry.file.getFilename().endsWith(endStr)) {
+				continue;
+			}
+			found.add(entry);
+		}
+
+		Collections.sort(found, new Comparator<IndexEntry>() {
+			public int compare(IndexEntry a, IndexEntry b) {
+				return a.file.getFilename().compareTo(b.file.getFilename());
+			}
+		});
+
+		List<File> result = new ArrayList<>(found.size());
+		for (IndexEntry entry : found) {
+			result.add(entry.file);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Finds an indexed file based on its local name (if there are several, the one with the
+	 * alphabetically first path is returned)
+	 */
+	public synchronized File findFile(String localFilename) {
+
+		List<IndexEntry> found = filesByName.get(localFilename);
+
+		if (found == null) {
+			return null;
+		}
+
+		File result = null;
+		for (IndexEntry entry : found) {
+			if ((result == null) || (entry.file.getFilename().compareTo(result.getFilename()) < 0)) {
+				result = entry.file;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the size of the given file as it was last seen, or null if it is not indexed
+	 */
+	public synchronized Long getSize(File file) {
+
+		IndexEntry entry = files.get(file.getCanonicalFilename());
+
+		if (entry == null) {
+			return null;
+		}
+
+		return entry.size;
+	}
+
+	/**
+	 * Returns the modification time (in milliseconds since the epoch) of the given file as
+	 * it was last seen, or null if it is not indexed
+	 */
+	public synchronized Long getLastModified(File file) {
+
+		IndexEntry entry = files.get(file.getCanonicalFilename());
+
+		if (entry == null) {
+			return null;
+		}
+
+		return entry.lastModified;
+	}
+
+	private void pollLoop() {
+
+		while (running) {
+			try {
+				Thread.sleep(pollingInterval);
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (running) {
+				rescan();
+			}
+		}
+	}
+
+	private void watchLoop(WatchService service) {
+
+		while (running) {
+
+			WatchKey key;
+			try {
+				key = service.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+
+			Path dir;
+			synchronized (this) {
+				dir = watchedDirs.get(key);
+			}
+
+			boolean overflowed = false;
+			Set<Path> changedDirs = new HashSet<>();
+			List<Event> events = new ArrayList<>();
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					overflowed = true;
+					continue;
+				}
+
+				if (dir == null) {
+					continue;
+				}
+
+				Path child = dir.resolve((Path) event.context());
+
+				// new or removed directories are scanned as a whole, the files in this one are scanned afterwards
+				if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+					if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+						synchronized (this) {
+							registerTree(child);
+						}
+						events.addAll(scan(child, true));
+					}
+				} else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+					events.addAll(scan(child, true));
+				}
+
+				changedDirs.add(dir);
+			}
+
+			if (!key.reset()) {
+				synchronized (this) {
+					watchedDirs.remove(key);
+				}
+			}
+
+			if (overflowed) {
+				rescan();
+			}
+
+			for (Path changedDir : changedDirs) {
+				events.addAll(scan(changedDir, false));
+			}
+
+			report(events);
+		}
+	}
+
+	/**
+	 * Registers the given directory and all directories inside of it with the watch service
+	 * (must be called while holding the lock)
+	 */
+	private void registerTree(Path start) {
+
+		if (watchService == null) {
+			return;
+		}
+
+		try {
+			Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+					WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+					watchedDirs.put(key, dir);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException | ClosedWatchServiceException e) {
+			System.err.println("[ERROR] Cannot watch " + start + " for changes: " + e);
+		}
+	}
+
+	private synchronized void closeWatchService() {
+
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				// we are done with it anyway
+			}
+			watchService = null;
+		}
+
+		watchedDirs.clear();
+	}
+
+	/**
+	 * Scans the given directory (with or without its sub-directories), updates the index
+	 * accordingly and returns what changed
+	 */
+	private List<Event> scan(Path dir, boolean recursively) {
+
+		final Map<String, IndexEntry> found = new HashMap<>();
+
+		DirectoryWalker walker = new DirectoryWalker(new Directory(dir.toString()));
+		walker.setRecursively(recursively);
+		walker.walk(new FileFoundCallback() {
+			public void foundFile(File file, BasicFileAttributes attributes) {
+				found.put(file.getFilename(), new IndexEntry(file, attributes));
+			}
+		});
+
+		String dirName = dir.toString();
+		String dirPrefix = dirName + java.io.File.separator;
+
+		List<Event> events = new ArrayList<>();
+
+		synchronized (this) {
+
+			Iterator<IndexEntry> entries = files.values().iterator();
+			while (entries.hasNext()) {
+				IndexEntry entry = entries.next();
+				boolean inScope = recursively
+					? entry.dirName.equals(dirName) || entry.dirName.startsWith(dirPrefix)
+					: entry.dirName.equals(dirName);
+				if (inScope && !found.containsKey(entry.file.getFilename())) {
+					entries.remove();
+					removeByName(entry);
+					events.add(new Event(DELETED, entry.file));
+				}
+			}
+
+			for (IndexEntry entry : found.values()) {
+				IndexEntry prevEntry = files.put(entry.file.getFilename(), entry);
+				if (prevEntry == null) {
+					List<IndexEntry> named = filesByName.get(entry.localName);
+					if (named == null) {
+						named = new ArrayList<>(1);
+						filesByName.put(entry.localName, named);
+					}
+					named.add(entry);
+					events.add(new Event(ADDED, entry.file));
+				} else {
+					List<IndexEntry> named = filesByName.get(entry.localName);
+					named.set(named.indexOf(prevEntry), entry);
+					if ((prevEntry.size != entry.size) || (prevEntry.lastModified != entry.lastModified)) {
+						events.add(new Event(MODIFIED, entry.file));
+					}
+				}
+			}
+		}
+
+		return events;
+	}
+
+	private void removeByName(IndexEntry entry) {
+
+		List<IndexEntry> named = filesByName.get(entry.localName);
+
+		if (named == null) {
+			return;
+		}
+
+		named.remove(entry);
+
+		if (named.size() < 1) {
+			filesByName.remove(entry.localName);
+		}
+	}
+
+	private void report(List<Event> events) {
+
+		if (callback == null) {
+			return;
+		}
+
+		for (Event event : events) {
+			switch (event.type) {
+				case ADDED:
+					callback.fileAdded(event.file);
+					break;
+				case MODIFIED:
+					callback.fileModified(event.file);
+					break;
+				default:
+					callback.fileDeleted(event.file);
+					break;
+			}
+		}
+	}
+
+
+	private static class IndexEntry {
+
+		private final File file;
+
+		private final String dirName;
+
+		private final String localName;
+
+		private final long size;
+
+		private final long lastModified;
+
+
+		IndexEntry(File file, BasicFileAttributes attributes) {
+
+			this.file = file;
+
+			String filename = file.getFilename();
+			int pos = filename.lastIndexOf(java.io.File.separator);
+			this.dirName = filename.substring(0, Math.max(pos, 0));
+			this.localName = filename.substring(pos + 1);
+
+			this.size = attributes.size();
+			this.lastModified = attributes.lastModifiedTime().toMillis();
+		}
+	}
+
+	private static class Event {
+
+		private final int type;
+
+		private final File file;
+
+
+		Event(int type, File file) {
+			this.type = type;
+			this.file = file;
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+
+/**
+ * This interface describes a callback for files found by a DirectoryWalker
+ */
+public interface FileFoundCallback {
+
+	/**
+	 * A file has been found
+	 * @param file  The file that was found
+	 * @param attributes  Its attributes (size, modification time etc.), as read during the walk
+	 */
+	void foundFile(File file, BasicFileAttributes attributes);
+}
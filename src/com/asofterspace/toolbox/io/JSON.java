@@ -8,11 +8,12 @@ import com.asofterspace.toolbox.utils.Record;
 import com.asofterspace.toolbox.utils.RecordKind;
 import com.asofterspace.toolbox.utils.StrUtils;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
 
 public class JSON extends Record {
@@ -33,6 +34,14 @@ public class JSON extends Record {
 		super(other);
 	}
 
+	/**
+	 * Create a JSON record of the given kind directly from its contents
+	 */
+	JSON(RecordKind kind, Object simpleContents, List<Record> arrContents, Map<String, Record> objContents) {
+
+		super(kind, simpleContents, arrContents, objContents);
+	}
+
 	/**
 	 * Create a JSON object based on a given JSON string
 	 */
@@ -60,6 +69,98 @@ public class JSON extends Record {
 		return new JSON(jsonString);
 	}
 
+	/**
+	 * Create a JSON object based on a given JSON string lazily: the string is only scanned
+	 * once to find out where its objects and arrays start and end, and each object or array
+	 * is then parsed on its own when it is first accessed - which is much faster if only a
+	 * few parts of a large document are needed
+	 *
+	 * The resulting records behave exactly like eagerly parsed ones, but keep the string
+	 * alive until they are all parsed, and as parsing errors inside of nested objects and
+	 * arrays are only encountered when accessing them, they are thrown from there as
+	 * unchecked LazyJsonParseExceptions (see parseCompletely())
+	 */
+	public static JSON parseLazily(String jsonString) throws JsonParseException {
+
+		if (jsonString == null) {
+			throw new JsonParseException("No content given at all!");
+		}
+
+		int pos = 0;
+		int len = jsonString.length();
+
+		while (pos < len) {
+			char c = jsonString.charAt(pos);
+			if ((c != ' ') && (c != '\t') && (c != '\n') && (c != '\r')) {
+				break;
+			}
+			pos++;
+		}
+
+		if ((pos < len) && ((jsonString.charAt(pos) == '{') || (jsonString.charAt(pos) == '['))) {
+			return new LazyJsonSource(jsonString).createRecord(pos);
+		}
+
+		return new JsonParser().parse(jsonString);
+	}
+
+	/**
+	 * Parses all parts of a lazily parsed record which have not been accessed yet (which has
+	 * no effect on an eagerly parsed one), such that any parsing error is found right now
+	 * @throws LazyJsonParseException if any part turns out to be malformed
+	 */
+	public static void parseCompletely(Record record) {
+
+		// we go through the record without recursion, as it could be nested arbitrarily deep
+		List<Record> stack = new ArrayList<>();
+		stack.add(record);
+
+		while (stack.size() > 0) {
+
+			Record current = stack.remove(stack.size() - 1);
+
+			if (current == null) {
+				continue;
+			}
+
+			switch (current.getKind()) {
+				case OBJECT:
+					stack.addAll(current.getValueMap().values());
+					break;
+				case ARRAY:
+					stack.addAll(current.getValues());
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Create a JSON object based on a given JSON string, using the original recursive
+	 * parser rather than the JsonParser - this is slower and needs a lot more memory,
+	 * but is kept around to compare the two against each other
+	 */
+	public static JSON parseRecursively(String jsonString) throws JsonParseException {
+
+		JSON result = new JSON();
+		result.init(jsonString, 0);
+		return result;
+	}
+
+	/**
+	 * Initialize this JSON object based on a given JSON string
+	 */
+	private void init(String jsonString) throws JsonParseException {
+
+		JSON parsed = new JsonParser().parse(jsonString);
+
+		kind = parsed.kind;
+		simpleContents = parsed.simpleContents;
+		arrContents = parsed.arrContents;
+		objContents = parsed.objContents;
+	}
+
 	/**
 	 * Initialize this JSON object based on a given JSON string
 	 * and return the rest that is left over of the string after
@@ -77,10 +178,6 @@ public class JSON extends Record {
 	 *
 	 * @param jsonString
 	 */
-	private void init(String jsonString) throws JsonParseException {
-		init(jsonString, 0);
-	}
-
 	private int init(String jsonString, int pos) throws JsonParseException {
 
 		if (jsonString == null) {
@@ -100,7 +197,7 @@ public class JSON extends Record {
 
 		if (jsonString.charAt(pos) == '{') {
 
-			objContents = new TreeMap<String, Record>();
+			objContents = createObjectMap();
 
 			kind = RecordKind.OBJECT;
 
@@ -435,103 +532,15 @@ public class JSON extends Record {
 	 */
 	public String toString(Record item, int compressionLevel, String linePrefix) {
 
-		JSON jsonItem = null;
+		StringWriter result = new StringWriter();
 
-		if (item instanceof JSON) {
-			jsonItem = (JSON) item;
-		} else {
-			jsonItem = new JSON(item);
+		try {
+			new JsonWriter(result).write(item, compressionLevel, linePrefix);
+		} catch (IOException e) {
+			// writing into a string does not fail
 		}
 
-		switch (jsonItem.kind) {
-
-			case STRING:
-				if (jsonItem.simpleContents == null) {
-					return "null";
-				}
-				return "\"" + escapeJSONstr(jsonItem.simpleContents.toString()) + "\"";
-
-			case BOOLEAN:
-			case NUMBER:
-				if (jsonItem.simpleContents == null) {
-					return "null";
-				}
-				return jsonItem.simpleContents.toString();
-
-			case ARRAY:
-				StringBuilder arrResult = new StringBuilder();
-
-				arrResult.append("[");
-
-				if (compressionLevel > 0) {
-					arrResult.append("\n" + linePrefix + "\t");
-				}
-
-				boolean arrFirstEntry = true;
-
-				for (Record arrItem : jsonItem.arrContents) {
-
-					if (arrFirstEntry) {
-						arrFirstEntry = false;
-					} else {
-						arrResult.append(",");
-						if (compressionLevel > 0) {
-							arrResult.append("\n" + linePrefix + "\t");
-						}
-					}
-
-					arrResult.append(toString(arrItem, compressionLevel-1, linePrefix + "\t"));
-				}
-
-				if (compressionLevel > 0) {
-					arrResult.append("\n" + linePrefix);
-				}
-				arrResult.append("]");
-
-				return arrResult.toString();
-
-			case OBJECT:
-				StringBuilder objResult = new StringBuilder();
-
-				objResult.append("{");
-
-				if (compressionLevel > 0) {
-					objResult.append("\n" + linePrefix + "\t");
-				}
-
-				boolean objFirstEntry = true;
-
-				for (Map.Entry<String, Record> entry : jsonItem.objContents.entrySet()) {
-
-					if (objFirstEntry) {
-						objFirstEntry = false;
-					} else {
-						if (compressionLevel > 0) {
-							objResult.append(",\n" + linePrefix + "\t");
-						} else {
-							objResult.append(", ");
-						}
-					}
-
-					String key = entry.getKey();
-					Record content = entry.getValue();
-
-					objResult.append("\"");
-					objResult.append(key);
-					objResult.append("\": ");
-					objResult.append(toString(content, compressionLevel-1, linePrefix + "\t"));
-				}
-
-				if (compressionLevel > 0) {
-					objResult.append("\n" + linePrefix);
-				}
-				objResult.append("}");
-
-				return objResult.toString();
-
-			default:
-				return "null";
-		}
+		return result.toString();
 	}
 
 	/**
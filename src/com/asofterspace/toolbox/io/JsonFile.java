@@ -6,6 +6,7 @@ package com.asofterspace.toolbox.io;
 
 import com.asofterspace.toolbox.utils.Record;
 
+import java.io.IOException;
 import java.util.List;
 
 
@@ -15,6 +16,8 @@ public class JsonFile extends TextFile {
 
 	protected int compressionLevel = Integer.MAX_VALUE;
 
+	protected boolean lazyLoading = false;
+
 
 	/**
 	 * Please do not construct a file without a name ;)
@@ -52,7 +55,11 @@ public class JsonFile extends TextFile {
 
 	protected void loadJsonContents() throws JsonParseException {
 
-		jsonContent = new JSON(getContent(false));
+		if (lazyLoading) {
+			jsonContent = JSON.parseLazily(getContent(false));
+		} else {
+			jsonContent = new JSON(getContent(false));
+		}
 	}
 
 	/**
@@ -68,6 +75,26 @@ public class JsonFile extends TextFile {
 		return jsonContent;
 	}
 
+	/**
+	 * Set this to true before the contents are loaded to only parse the parts of the file
+	 * that are actually accessed, which is much faster for large files of which only a few
+	 * keys are needed (see JSON.parseLazily()) - a file whose content turns out to be malformed
+	 * somewhere is not saved
+	 */
+	public void setLazyLoading(boolean lazyLoading) {
+		this.lazyLoading = lazyLoading;
+	}
+
+	/**
+	 * Opens a reader going token by token through the file as it is on disk, such that
+	 * even huge files can be processed in bounded memory - the caller has to close it
+	 * @return a JsonReader for the file
+	 */
+	public JsonReader getReader() throws IOException {
+
+		return new JsonReader(this);
+	}
+
 	protected void ensureContent() throws JsonParseException {
 
 		if (jsonContent == null) {
@@ -267,13 +294,45 @@ public class JsonFile extends TextFile {
 		this.compressionLevel = compressionLevel;
 	}
 
+	/**
+	 * Saves the JSON content to disk, writing it out while it is being serialized (so that
+	 * even huge records do not need to be turned into one huge string first)
+	 */
 	public void save() {
 
-		String jsonText = jsonContent.toString(jsonContent, getCompressionLevel(), "");
+		if (!savingAllowed) {
+			return;
+		}
+
+		// if the content has only ever been set as text, we save that text
+		if (jsonContent == null) {
+			super.save();
+			return;
+		}
+
+		// parts of lazily loaded content that were never accessed are parsed before anything is
+		// written, such that a malformed part cannot lead to a half-written or emptied file
+		try {
+			JSON.parseCompletely(jsonContent);
+		} catch (LazyJsonParseException e) {
+			System.err.println("[ERROR] The file " + filename + " is not saved, as its content could not be parsed: " + e.getMessage());
+			return;
+		}
+
+		// the text is read from disk again if anyone asks for it
+		filecontent = null;
+
+		try (TextFileWriter fileWriter = openWriter(); JsonWriter writer = new JsonWriter(fileWriter)) {
 
-		setContent(jsonText);
+			writer.write(jsonContent, getCompressionLevel(), "");
 
-		super.save();
+			writer.flush();
+
+			fileWriter.commit();
+
+		} catch (IOException e) {
+			System.err.println("[ERROR] An IOException occurred when trying to write to the file " + filename + " - inconceivable!");
+		}
 	}
 
 	/**
@@ -0,0 +1,383 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * A JSON lines file (also known as NDJSON), containing one compact JSON record per line
+ *
+ * Records are appended to the end of the file without rewriting the rest of it, so this
+ * is well suited for append-only logs - and as each line is complete on its own, large
+ * files can be iterated lazily or parsed in parallel
+ */
+public class JsonLinesFile extends File implements Iterable<Record> {
+
+	static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+	// chunks parsed in parallel are at least this large, so that the splitting does not cost more than it brings
+	private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+	// ... and at most this large, so that each of them can be mapped into memory at once
+	private static final long MAX_CHUNK_SIZE = 256 * 1024 * 1024;
+
+
+	/**
+	 * You can construct a JsonLinesFile instance by directly from a path name.
+	 */
+	public JsonLinesFile(String fullyQualifiedFileName) {
+
+		super(fullyQualifiedFileName);
+	}
+
+	/**
+	 * You can construct a JsonLinesFile instance by basing it on an existing file object.
+	 */
+	public JsonLinesFile(File regularFile) {
+
+		super(regularFile);
+	}
+
+	/**
+	 * Create a new JsonLinesFile instance based on a Directory and the name of
+	 * the file inside the directory
+	 * @param directory The directory in which the file is located
+	 * @param filename The (local) name of the actual file
+	 */
+	public JsonLinesFile(Directory directory, String filename) {
+
+		super(directory, filename);
+	}
+
+	/**
+	 * Appends a record to the end of the file (creating the file if it does not exist yet)
+	 */
+	public void append(Record record) {
+
+		append(Collections.singletonList(record));
+	}
+
+	/**
+	 * Appends several records to the end of the file at once (creating the file if it does not
+	 * exist yet), which is faster than appending them one by one
+	 */
+	public synchronized void append(List<? extends Record> records) {
+
+		java.io.File javaFile = initSave();
+
+		try {
+			boolean needsLineBreak = !endsWithLineBreak(javaFile);
+
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(javaFile, true),
+				StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+
+				if (needsLineBreak) {
+					writer.write('\n');
+				}
+
+				writeRecords(writer, records);
+			}
+
+		} catch (IOException e) {
+			System.err.println("[ERROR] An IOException occurred when trying to append to the file " + filename + " - inconceivable!");
+		}
+	}
+
+	/**
+	 * Replaces the whole contents of the file with the given records, e.g. to compact a log
+	 */
+	public synchronized void save(List<? extends Record> records) {
+
+		java.io.File javaFile = initSave();
+
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(javaFile, false),
+			StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+
+			writeRecords(writer, records);
+
+		} catch (IOException e) {
+			System.err.println("[ERROR] An IOException occurred when trying to write to the file " + filename + " - inconceivable!");
+		}
+	}
+
+	/**
+	 * Iterates over the records of the file lazily, such that only one line is in memory at
+	 * a time - lines which cannot be parsed are reported and skipped
+	 */
+	@Override
+	public JsonLinesIterator iterator() {
+
+		return new JsonLinesIterator(this);
+	}
+
+	/**
+	 * Loads all records of the file, one line after another
+	 */
+	public List<Record> loadAll() {
+
+		List<Record> result = new ArrayList<>();
+
+		for (Record record : this) {
+			result.add(record);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Loads all records of the file in parallel in the common fork-join pool
+	 * @param keepOrder true to get the records in the order of the file, false to get them
+	 *                  in any order (which saves combining the results of the threads in order)
+	 */
+	public List<Record> loadAllInParallel(boolean keepOrder) {
+
+		return loadAllInParallel(ForkJoinPool.commonPool(), keepOrder);
+	}
+
+	/**
+	 * Loads all records of the file in parallel, by splitting the file into chunks at line
+	 * breaks and parsing the chunks in the given fork-join pool
+	 * @param pool the pool in which the chunks are parsed
+	 * @param keepOrder true to get the records in the order of the file, false to get them
+	 *                  in any order (which saves combining the results of the threads in order)
+	 */
+	public List<Record> loadAllInParallel(ForkJoinPool pool, boolean keepOrder) {
+
+		try (FileChannel channel = FileChannel.open(getJavaPath(), StandardOpenOption.READ)) {
+
+			long size = channel.size();
+
+			long chunkSize = size / (pool.getParallelism() * 4L);
+			chunkSize = Math.min(Math.max(chunkSize, MIN_CHUNK_SIZE), MAX_CHUNK_SIZE);
+
+			List<Long> chunkStarts = new ArrayList<>();
+			long pos = 0;
+			while (pos < size) {
+				chunkStarts.add(pos);
+				pos = findLineStart(channel, pos + chunkSize, size);
+			}
+			chunkStarts.add(size);
+
+			if (chunkStarts.size() < 2) {
+				return new ArrayList<>();
+			}
+
+			List<Record> unorderedResult = null;
+			if (!keepOrder) {
+				unorderedResult = Collections.synchronizedList(new ArrayList<Record>());
+			}
+
+			List<Record> result = pool.invoke(new ParseTask(channel, chunkStarts, 0, chunkStarts.size() - 1, unorderedResult));
+
+			if (keepOrder) {
+				return result;
+			}
+			return unorderedResult;
+
+		} catch (IOException e) {
+			System.err.println("[ERROR] Trying to load the file " + filename + ", an I/O Exception occurred - inconceivable!");
+			return new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Parses one line of the file, returning null for empty lines and for lines that
+	 * cannot be parsed (which are reported)
+	 */
+	static Record parseLine(JsonParser parser, String line, String filename, long lineNum, String chunkName) {
+
+		if (line.trim().length() < 1) {
+			return null;
+		}
+
+		try {
+			return parser.parse(line);
+		} catch (JsonParseException e) {
+			String chunkStr = "";
+			if (chunkName != null) {
+				chunkStr = " of " + chunkName;
+			}
+			System.err.println("[ERROR] Skipping line " + lineNum + chunkStr + " of the file " + filename +
+				", as it does not contain valid JSON: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeRecords(Writer writer, List<? extends Record> records) throws IOException {
+
+		JsonWriter jsonWriter = new JsonWriter(writer);
+
+		for (Record record : records) {
+			jsonWriter.write(record);
+			writer.write('\n');
+		}
+	}
+
+	private static boolean endsWithLineBreak(java.io.File javaFile) throws IOException {
+
+		try (RandomAccessFile file = new RandomAccessFile(javaFile, "r")) {
+
+			long length = file.length();
+
+			if (length < 1) {
+				return true;
+			}
+
+			file.seek(length - 1);
+
+			return file.read() == '\n';
+		}
+	}
+
+	/**
+	 * Returns the position right after the first line break at or after pos, or size if there is none
+	 */
+	private static long findLineStart(FileChannel channel, long pos, long size) throws IOException {
+
+		ByteBuffer buf = ByteBuffer.allocate(4096);
+
+		while (pos < size) {
+
+			buf.clear();
+
+			int amountRead = channel.read(buf, pos);
+			if (amountRead < 1) {
+				break;
+			}
+
+			for (int i = 0; i < amountRead; i++) {
+				// in UTF-8, this byte cannot occur inside of any multi-byte character
+				if (buf.get(i) == '\n') {
+					return pos + i + 1;
+				}
+			}
+
+			pos += amountRead;
+		}
+
+		return size;
+	}
+
+
+	private class ParseTask extends RecursiveTask<List<Record>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private FileChannel channel;
+
+		private List<Long> chunkStarts;
+
+		// the first chunk and the chunk after the last one that this task is responsible for
+		private int fromChunk;
+		private int toChunk;
+
+		// if set, records are put in here as soon as they are parsed, and nothing is returned
+		private List<Record> unorderedResult;
+
+
+		ParseTask(FileChannel channel, List<Long> chunkStarts, int fromChunk, int toChunk, List<Record> unorderedResult) {
+			this.channel = channel;
+			this.chunkStarts = chunkStarts;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+			this.unorderedResult = unorderedResult;
+		}
+
+		@Override
+		protected List<Record> compute() {
+
+			if (toChunk - fromChunk > 1) {
+
+				int middle = (fromChunk + toChunk) / 2;
+
+				ParseTask firstHalf = new ParseTask(channel, chunkStarts, fromChunk, middle, unorderedResult);
+				ParseTask secondHalf = new ParseTask(channel, chunkStarts, middle, toChunk, unorderedResult);
+
+				firstHalf.fork();
+				List<Record> secondResult = secondHalf.compute();
+				List<Record> result = firstHalf.join();
+
+				if (result != null) {
+					result.addAll(secondResult);
+				}
+				return result;
+			}
+
+			List<Record> result = parseChunk(chunkStarts.get(fromChunk), chunkStarts.get(toChunk));
+
+			if (unorderedResult == null) {
+				return result;
+			}
+
+			unorderedResult.addAll(result);
+			return null;
+		}
+
+		private List<Record> parseChunk(long start, long end) {
+
+			List<Record> result = new ArrayList<>();
+
+			String text;
+
+			try {
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				text = StandardCharsets.UTF_8.decode(mapped).toString();
+			} catch (IOException e) {
+				System.err.println("[ERROR] Trying to load the file " + filename + ", an I/O Exception occurred - inconceivable!");
+				return result;
+			}
+
+			int lineStart = 0;
+			if ((start == 0) && text.startsWith("\uFEFF")) {
+				lineStart = 1;
+			}
+
+			JsonParser parser = new JsonParser();
+
+			String chunkName = "the chunk starting at byte " + start;
+			long lineNum = 0;
+
+			while (lineStart < text.length()) {
+
+				int lineEnd = text.indexOf('\n', lineStart);
+				if (lineEnd < 0) {
+					lineEnd = text.length();
+				}
+
+				lineNum++;
+
+				Record record = parseLine(parser, text.substring(lineStart, lineEnd), filename, lineNum, chunkName);
+				if (record != null) {
+					result.add(record);
+				}
+
+				lineStart = lineEnd + 1;
+			}
+
+			return result;
+		}
+	}
+
+}
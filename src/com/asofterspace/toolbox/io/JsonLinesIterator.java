@@ -0,0 +1,117 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Iterates over the records of a JSON lines file, reading and parsing only one line at a time
+ *
+ * The file is closed automatically once the last record has been read - if the iteration
+ * is stopped before that, close() should be called
+ */
+public class JsonLinesIterator implements Iterator<Record>, Closeable {
+
+	private String filename;
+
+	private BufferedReader reader;
+
+	private JsonParser parser = new JsonParser();
+
+	private Record nextRecord = null;
+
+	private long lineNum = 0;
+
+
+	JsonLinesIterator(JsonLinesFile file) {
+
+		this.filename = file.getFilename();
+
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(file.getJavaFile()),
+				StandardCharsets.UTF_8), JsonLinesFile.READ_BUFFER_SIZE);
+		} catch (IOException e) {
+			// a file that does not exist yet simply does not contain any records
+			reader = null;
+		}
+
+		advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+
+		return nextRecord != null;
+	}
+
+	@Override
+	public Record next() {
+
+		if (nextRecord == null) {
+			throw new NoSuchElementException();
+		}
+
+		Record result = nextRecord;
+
+		advance();
+
+		return result;
+	}
+
+	@Override
+	public void close() {
+
+		nextRecord = null;
+
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// we were only reading, so nothing is lost
+			}
+			reader = null;
+		}
+	}
+
+	private void advance() {
+
+		nextRecord = null;
+
+		if (reader == null) {
+			return;
+		}
+
+		try {
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				lineNum++;
+				if ((lineNum == 1) && line.startsWith("\uFEFF")) {
+					line = line.substring(1);
+				}
+				nextRecord = JsonLinesFile.parseLine(parser, line, filename, lineNum, null);
+				if (nextRecord != null) {
+					return;
+				}
+			}
+
+		} catch (IOException e) {
+			System.err.println("[ERROR] Trying to read the file " + filename + ", an I/O Exception occurred - inconceivable!");
+		}
+
+		close();
+	}
+
+}
@@ -0,0 +1,572 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.RecordKind;
+import com.asofterspace.toolbox.utils.StrUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A single-pass JSON parser, which walks over the input once with a cursor instead of
+ * cutting it into substrings, and which keeps track of nested objects and arrays on its
+ * own stack rather than recursing (so arbitrarily deep nesting does not overflow the
+ * stack of the thread)
+ *
+ * It accepts exactly what the original recursive parser of the JSON class accepts -
+ * including keys without quotes, strings in single quotes and missing commas - and
+ * produces the same records
+ *
+ * A parser is not thread-safe, but can be used for several inputs after one another
+ */
+public class JsonParser {
+
+	// inputs shorter than this are parsed without the key cache, as it would not pay off
+	private static final int KEY_CACHE_MIN_INPUT_LENGTH = 4096;
+
+	private static final int KEY_CACHE_SIZE = 1024;
+
+	// longer keys are not cached, as they are unlikely to repeat
+	private static final int KEY_CACHE_MAX_KEY_LENGTH = 32;
+
+	private static final int INITIAL_STACK_SIZE = 16;
+
+	private boolean preserveKeyOrder = false;
+
+	private String json;
+
+	private int pos;
+
+	private int len;
+
+	// recently seen keys, such that repeated keys (which is most keys in large
+	// files) do not each become a new string
+	private String[] keyCache;
+
+	// the objects and arrays which have been opened but not yet closed, and the keys
+	// under which the next values of the open objects will be stored
+	private JSON[] stack;
+
+	private String[] stackKeys;
+
+	// if set, nested objects and arrays are not parsed, but left to be parsed lazily from this source
+	private LazyJsonSource lazySource;
+
+	private int depth;
+
+	private StringBuilder stringBuilder = new StringBuilder();
+
+
+	/**
+	 * By default, the keys of objects are sorted alphabetically (as for all records);
+	 * set this to keep them in the order in which they appear in the input instead
+	 */
+	public void setPreserveKeyOrder(boolean preserveKeyOrder) {
+		this.preserveKeyOrder = preserveKeyOrder;
+	}
+
+	/**
+	 * Parses the given JSON string
+	 */
+	public JSON parse(String jsonString) throws JsonParseException {
+
+		if (jsonString == null) {
+			throw new JsonParseException("No content given at all!");
+		}
+
+		try {
+			return parseFrom(jsonString, 0);
+		} finally {
+			if (keyCache != null) {
+				for (int i = 0; i < keyCache.length; i++) {
+					keyCache[i] = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parses only the object or array starting at the given position of the source - the
+	 * objects and arrays nested inside of it are not parsed, but become lazy records which
+	 * are parsed in the same way once they are accessed
+	 */
+	JSON parseLevel(LazyJsonSource source, int start) throws JsonParseException {
+
+		lazySource = source;
+
+		try {
+			return parseFrom(source.getText(), start);
+		} finally {
+			lazySource = null;
+		}
+	}
+
+	private JSON parseFrom(String jsonString, int start) throws JsonParseException {
+
+		json = jsonString;
+		pos = start;
+		len = jsonString.length();
+		depth = 0;
+
+		if (len >= KEY_CACHE_MIN_INPUT_LENGTH) {
+			if (keyCache == null) {
+				keyCache = new String[KEY_CACHE_SIZE];
+			}
+		}
+
+		if (stack == null) {
+			stack = new JSON[INITIAL_STACK_SIZE];
+			stackKeys = new String[INITIAL_STACK_SIZE];
+		}
+
+		try {
+			return parseDocument();
+		} finally {
+			// do not keep the input (or parts of the result) alive longer than necessary
+			json = null;
+			for (int i = 0; i < depth; i++) {
+				stack[i] = null;
+				stackKeys[i] = null;
+			}
+		}
+	}
+
+	private JSON parseDocument() throws JsonParseException {
+
+		while (true) {
+
+			// read one value - or open an object or array, in which case the value
+			// is only complete once it gets closed again
+			skipWhitespaces();
+
+			JSON value = null;
+
+			if (pos >= len) {
+				value = new JSON(RecordKind.NULL, null, null, null);
+			} else {
+				char c = json.charAt(pos);
+				if ((lazySource != null) && (depth > 0) && ((c == '{') || (c == '['))) {
+					value = lazySource.createRecord(pos);
+					pos = lazySource.getEnd(pos);
+				} else if (c == '{') {
+					pos++;
+					push(new JSON(RecordKind.OBJECT, null, null, createObjectMap()));
+				} else if (c == '[') {
+					pos++;
+					push(new JSON(RecordKind.ARRAY, null, new ArrayList<Record>(), null));
+					skipWhitespaces();
+				} else {
+					value = parseSimpleValue(c);
+				}
+			}
+
+			// store the value in the object or array it belongs to, close all objects and arrays
+			// that end afterwards, and find out where the next value starts
+			while (true) {
+
+				if (value != null) {
+					if (depth == 0) {
+						return value;
+					}
+					JSON container = stack[depth - 1];
+					if (container.getKind() == RecordKind.OBJECT) {
+						container.getValueMap().put(stackKeys[depth - 1], value);
+					} else {
+						container.getValues().add(value);
+					}
+					skipWhitespacesAndCommas();
+					value = null;
+				}
+
+				JSON container = stack[depth - 1];
+
+				if (container.getKind() == RecordKind.OBJECT) {
+					skipWhitespaces();
+					if (pos >= len) {
+						value = pop();
+						continue;
+					}
+					if (json.charAt(pos) == '}') {
+						pos++;
+						value = pop();
+						continue;
+					}
+					stackKeys[depth - 1] = parseKey();
+					break;
+				}
+
+				if (pos >= len) {
+					value = pop();
+					continue;
+				}
+				if (json.charAt(pos) == ']') {
+					pos++;
+					value = pop();
+					continue;
+				}
+				break;
+			}
+		}
+	}
+
+	private Map<String, Record> createObjectMap() {
+		if (preserveKeyOrder) {
+			return new LinkedHashMap<String, Record>();
+		}
+		return Record.createObjectMap();
+	}
+
+	private void push(JSON container) {
+
+		if (depth == stack.length) {
+			JSON[] newStack = new JSON[depth * 2];
+			System.arraycopy(stack, 0, newStack, 0, depth);
+			stack = newStack;
+			String[] newStackKeys = new String[depth * 2];
+			System.arraycopy(stackKeys, 0, newStackKeys, 0, depth);
+			stackKeys = newStackKeys;
+		}
+
+		stack[depth] = container;
+		stackKeys[depth] = null;
+		depth++;
+	}
+
+	private JSON pop() {
+
+		depth--;
+		JSON result = stack[depth];
+		stack[depth] = null;
+		stackKeys[depth] = null;
+		return result;
+	}
+
+	/**
+	 * Reads a key including the colon after it, leaving the cursor right behind the colon
+	 */
+	private String parseKey() throws JsonParseException {
+
+		// this is "foo": "bar" (here being in the "foo" part)
+		// this should be the case - keys should be inside quote marks
+		if (json.charAt(pos) == '"') {
+			int endIndex = json.indexOf('"', pos + 1);
+			if (endIndex < 0) {
+				throw new JsonParseException("Encountered an unclosed key", pos, json);
+			}
+			int start = pos + 1;
+			int end = endIndex;
+			while ((start < end) && (json.charAt(start) <= ' ')) {
+				start++;
+			}
+			while ((end > start) && (json.charAt(end - 1) <= ' ')) {
+				end--;
+			}
+			for (int i = start; i < end; i++) {
+				if (json.charAt(i) == '\n') {
+					String key = json.substring(start, end);
+					throw new JsonParseException("Encountered a key (\"" + StrUtils.replaceAll(key, "\n", "\\n") +
+						"\") containing a newline", pos, json);
+				}
+			}
+			int colon = json.indexOf(':', endIndex + 1);
+			if (colon < 0) {
+				throw new JsonParseException("Encountered a key without trailing :", endIndex, json);
+			}
+			pos = colon + 1;
+			return getKey(start, end);
+		}
+
+		// this is foo: "bar", or 'foo': "bar"
+		// this should NOT be the case - the key is not in a quote mark!
+		// but we will grudgingly accept it anyway, as we are nice people...
+		int colon = json.indexOf(':', pos);
+		if (colon < 0) {
+			throw new JsonParseException("Encountered an unescaped key without trailing :", pos, json);
+		}
+		int start = pos;
+		int end = colon;
+		while ((start < end) && (json.charAt(start) <= ' ')) {
+			start++;
+		}
+		while ((end > start) && (json.charAt(end - 1) <= ' ')) {
+			end--;
+		}
+		// in case someone did escape the key, but with ' instead of ", also handle that gracefully...
+		if ((end - start > 2) && (json.charAt(start) == '\'') && (json.charAt(end - 1) == '\'')) {
+			start++;
+			end--;
+		}
+		pos = colon + 1;
+		return getKey(start, end);
+	}
+
+	private String getKey(int start, int end) {
+
+		int keyLen = end - start;
+
+		if ((keyCache == null) || (keyLen > KEY_CACHE_MAX_KEY_LENGTH)) {
+			return json.substring(start, end);
+		}
+
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = (31 * hash) + json.charAt(i);
+		}
+		int slot = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+
+		String cached = keyCache[slot];
+		if ((cached != null) && (cached.length() == keyLen) && cached.regionMatches(0, json, start, keyLen)) {
+			return cached;
+		}
+
+		String key = json.substring(start, end);
+		keyCache[slot] = key;
+		return key;
+	}
+
+	private JSON parseSimpleValue(char c) throws JsonParseException {
+
+		// this is "foo": "bar" (here being in the "bar" part)
+		// or "foo": 'bar', which is WRONG, but we want to be so generous as to still accept it...
+		if ((c == '"') || (c == '\'')) {
+			return new JSON(RecordKind.STRING, parseString(c), null, null);
+		}
+
+		if (json.startsWith("null", pos)) {
+			pos += 4;
+			return new JSON(RecordKind.NULL, null, null, null);
+		}
+
+		if (json.startsWith("true", pos)) {
+			pos += 4;
+			return new JSON(RecordKind.BOOLEAN, true, null, null);
+		}
+
+		if (json.startsWith("false", pos)) {
+			pos += 5;
+			return new JSON(RecordKind.BOOLEAN, false, null, null);
+		}
+
+		return new JSON(RecordKind.NUMBER, parseNumber(), null, null);
+	}
+
+	/**
+	 * Reads a string starting at the cursor (which is on the opening quote), in which
+	 * \n, \r, \t, \b, \f, \\ and the quote itself are escaped, while other backslashes
+	 * are kept as they are
+	 */
+	private String parseString(char quote) throws JsonParseException {
+
+		int start = pos;
+
+		pos++;
+
+		int contentStart = pos;
+
+		// most strings do not contain any escapes, so they can be taken over as they are
+		while (pos < len) {
+			char c = json.charAt(pos);
+			if (c == quote) {
+				String result = json.substring(contentStart, pos);
+				pos++;
+				return result;
+			}
+			if (c == '\\') {
+				break;
+			}
+			if (c == '\n') {
+				throwNewlineInString(start);
+			}
+			pos++;
+		}
+
+		if (pos >= len) {
+			throw new JsonParseException("Encountered an unclosed string", contentStart, json);
+		}
+
+		StringBuilder result = stringBuilder;
+		result.setLength(0);
+		result.append(json, contentStart, pos);
+
+		while (pos < len) {
+			char c = json.charAt(pos);
+
+			if (c == quote) {
+				pos++;
+				return result.toString();
+			}
+
+			if (c == '\\') {
+				if (pos + 1 >= len) {
+					break;
+				}
+				char escaped = json.charAt(pos + 1);
+				switch (escaped) {
+					case 'n':
+						result.append('\n');
+						break;
+					case 'r':
+						result.append('\r');
+						break;
+					case 't':
+						result.append('\t');
+						break;
+					case 'b':
+						result.append('\b');
+						break;
+					case 'f':
+						result.append('\f');
+						break;
+					case '\\':
+						result.append('\\');
+						break;
+					default:
+						if (escaped == quote) {
+							result.append(quote);
+							break;
+						}
+						// keep the backslash, and look at the next character as if nothing happened
+						result.append('\\');
+						pos++;
+						continue;
+				}
+				pos += 2;
+				continue;
+			}
+
+			if (c == '\n') {
+				throwNewlineInString(start);
+			}
+
+			result.append(c);
+			pos++;
+		}
+
+		throw new JsonParseException("Encountered an unclosed string", contentStart, json);
+	}
+
+	private void throwNewlineInString(int start) throws JsonParseException {
+
+		int end = json.indexOf(json.charAt(start), start + 1);
+		if (end < 0) {
+			throw new JsonParseException("Encountered an unclosed string", start + 1, json);
+		}
+
+		String value = json.substring(start + 1, end);
+		throw new JsonParseException("Encountered a value (\"" +
+			StrUtils.replaceAll(value, "\n", "\\n") + "\") containing a newline", end + 1, json);
+	}
+
+	private Object parseNumber() throws JsonParseException {
+
+		int start = pos;
+
+		boolean simpleLong = true;
+		boolean hasDot = false;
+		boolean hasExponent = false;
+
+		while (pos < len) {
+			char c = json.charAt(pos);
+			if ((c >= '0') && (c <= '9')) {
+				pos++;
+			} else if (c == '-') {
+				if (pos > start) {
+					simpleLong = false;
+				}
+				pos++;
+			} else if (c == '.') {
+				hasDot = true;
+				pos++;
+			} else if ((c == 'e') || (c == 'E')) {
+				hasExponent = true;
+				pos++;
+			} else if ((c > 127) && Character.isDigit(c)) {
+				simpleLong = false;
+				pos++;
+			} else {
+				// we are not reading any further numerical digits - escape!
+				break;
+			}
+		}
+
+		// if we did not advance - so we are not starting with a digit - then we
+		// are starting with something VERY unexpected, and cannot parse this...
+		// in which case we should fail, and NOT silently, but very very loudly!
+		if (pos == start) {
+			String weirdChar = json.substring(pos, pos + 1);
+			String extraStr = "";
+			if (weirdChar.equals(":")) {
+				extraStr = " outside of object";
+			}
+			throw new JsonParseException("Invalid JSON found, character \"" + weirdChar + "\" is unexpected" +
+				extraStr, pos, json);
+		}
+
+		try {
+			if (hasDot) {
+				return Double.valueOf(json.substring(start, pos));
+			}
+
+			// most numbers are plain integers, which we add up ourselves instead of creating a string first
+			int digitStart = start;
+			if (json.charAt(start) == '-') {
+				digitStart++;
+			}
+			if (simpleLong && !hasExponent && (pos > digitStart) && (pos - digitStart <= 18)) {
+				long result = 0;
+				for (int i = digitStart; i < pos; i++) {
+					result = (result * 10) + (json.charAt(i) - '0');
+				}
+				if (digitStart > start) {
+					result = -result;
+				}
+				return Long.valueOf(result);
+			}
+
+			String numStr = json.substring(start, pos);
+
+			if (hasExponent) {
+				try {
+					return Long.valueOf(numStr);
+				} catch (NumberFormatException e) {
+					return Double.valueOf(numStr);
+				}
+			}
+
+			return Long.valueOf(numStr);
+
+		} catch (NumberFormatException e) {
+			throw new JsonParseException("Encountered an invalid number \"" + json.substring(start, pos) + "\"", start, json);
+		}
+	}
+
+	private void skipWhitespaces() {
+		while (pos < len) {
+			char c = json.charAt(pos);
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+				pos++;
+			} else {
+				break;
+			}
+		}
+	}
+
+	private void skipWhitespacesAndCommas() {
+		while (pos < len) {
+			char c = json.charAt(pos);
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == ',') {
+				pos++;
+			} else {
+				break;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,731 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.RecordKind;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A pull-based JSON reader, which reads JSON token by token from a stream, such that
+ * only the parts of a document that are actually needed are turned into records - e.g.
+ * one entry after another of a huge top-level array, or one key of a huge object
+ *
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     String name = reader.nextName();
+ *     if ("entries".equals(name)) {
+ *         reader.beginArray();
+ *         while (reader.hasNext()) {
+ *             JSON entry = reader.nextRecord();
+ *             ...
+ *         }
+ *         reader.endArray();
+ *     } else {
+ *         reader.skipValue();
+ *     }
+ * }
+ * reader.endObject();
+ *
+ * The reader accepts the same lenient JSON as the JsonParser (keys without quotes, strings in
+ * single quotes, missing commas) and several top-level values after one another, such as the
+ * lines of a JSON lines file
+ */
+public class JsonReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final int SCOPE_EMPTY_DOCUMENT = 0;
+	private static final int SCOPE_NONEMPTY_DOCUMENT = 1;
+	private static final int SCOPE_EMPTY_ARRAY = 2;
+	private static final int SCOPE_NONEMPTY_ARRAY = 3;
+	private static final int SCOPE_EMPTY_OBJECT = 4;
+	private static final int SCOPE_NONEMPTY_OBJECT = 5;
+	// in an object, after a name, before its value
+	private static final int SCOPE_DANGLING_NAME = 6;
+
+	private Reader in;
+
+	private char[] buf = new char[BUFFER_SIZE];
+
+	private int pos = 0;
+
+	private int limit = 0;
+
+	// how many characters of the input have been dropped from the buffer so far
+	private long charsBeforeBuffer = 0;
+
+	private int[] scopes = new int[32];
+
+	private int depth = 0;
+
+	// the next token, or null if it has not been looked at yet
+	private JsonToken peeked = null;
+
+	// the text of the peeked name, string, number or boolean
+	private String peekedText = null;
+
+	private StringBuilder textBuilder = new StringBuilder();
+
+
+	/**
+	 * Create a JSON reader reading from the given reader (which does not need to be buffered)
+	 */
+	public JsonReader(Reader in) {
+
+		this.in = in;
+
+		scopes[depth++] = SCOPE_EMPTY_DOCUMENT;
+	}
+
+	/**
+	 * Create a JSON reader reading UTF-8 encoded JSON from the given stream
+	 */
+	public JsonReader(InputStream in) {
+
+		this(new InputStreamReader(in, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Create a JSON reader reading UTF-8 encoded JSON from the given file
+	 */
+	public JsonReader(File file) throws IOException {
+
+		this(new BufferedInputStream(new FileInputStream(file.getJavaFile()), BUFFER_SIZE));
+	}
+
+	/**
+	 * Returns the kind of the next token, without consuming it
+	 */
+	public JsonToken peek() throws IOException, JsonParseException {
+
+		if (peeked != null) {
+			return peeked;
+		}
+
+		int scope = scopes[depth - 1];
+
+		switch (scope) {
+
+			case SCOPE_EMPTY_ARRAY:
+			case SCOPE_NONEMPTY_ARRAY:
+				skipWhitespaces(scope == SCOPE_NONEMPTY_ARRAY);
+				// just like the JsonParser, we accept input that ends inside of arrays and objects
+				if (!ensureAvailable(1) || (buf[pos] == ']')) {
+					peeked = JsonToken.END_ARRAY;
+					return peeked;
+				}
+				scopes[depth - 1] = SCOPE_NONEMPTY_ARRAY;
+				return peekValue();
+
+			case SCOPE_EMPTY_OBJECT:
+			case SCOPE_NONEMPTY_OBJECT:
+				skipWhitespaces(scope == SCOPE_NONEMPTY_OBJECT);
+				if (!ensureAvailable(1) || (buf[pos] == '}')) {
+					peeked = JsonToken.END_OBJECT;
+					return peeked;
+				}
+				peekedText = readName();
+				peeked = JsonToken.NAME;
+				return peeked;
+
+			case SCOPE_DANGLING_NAME:
+				skipWhitespaces(false);
+				scopes[depth - 1] = SCOPE_NONEMPTY_OBJECT;
+				// a key at the very end of the input has the value null
+				if (!ensureAvailable(1)) {
+					peeked = JsonToken.NULL;
+					return peeked;
+				}
+				return peekValue();
+
+			default:
+				// a byte order mark at the start of the input is ignored
+				if ((scope == SCOPE_EMPTY_DOCUMENT) && (charsBeforeBuffer == 0) && (pos == 0) &&
+					ensureAvailable(1) && (buf[0] == '\uFEFF')) {
+					pos++;
+				}
+				skipWhitespaces(false);
+				if (!ensureAvailable(1)) {
+					peeked = JsonToken.END_DOCUMENT;
+					return peeked;
+				}
+				scopes[depth - 1] = SCOPE_NONEMPTY_DOCUMENT;
+				return peekValue();
+		}
+	}
+
+	/**
+	 * Returns true if the current object or array (or the whole input) has another element
+	 */
+	public boolean hasNext() throws IOException, JsonParseException {
+
+		JsonToken token = peek();
+
+		return (token != JsonToken.END_OBJECT) && (token != JsonToken.END_ARRAY) && (token != JsonToken.END_DOCUMENT);
+	}
+
+	public void beginObject() throws IOException, JsonParseException {
+
+		expect(JsonToken.BEGIN_OBJECT);
+
+		pos++;
+		push(SCOPE_EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException, JsonParseException {
+
+		expect(JsonToken.END_OBJECT);
+
+		if (ensureAvailable(1)) {
+			pos++;
+		}
+		depth--;
+	}
+
+	public void beginArray() throws IOException, JsonParseException {
+
+		expect(JsonToken.BEGIN_ARRAY);
+
+		pos++;
+		push(SCOPE_EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException, JsonParseException {
+
+		expect(JsonToken.END_ARRAY);
+
+		if (ensureAvailable(1)) {
+			pos++;
+		}
+		depth--;
+	}
+
+	/**
+	 * Returns the key of the next entry of the current object
+	 */
+	public String nextName() throws IOException, JsonParseException {
+
+		expect(JsonToken.NAME);
+
+		scopes[depth - 1] = SCOPE_DANGLING_NAME;
+
+		return consumeText();
+	}
+
+	/**
+	 * Returns the next string - or the text of the next number or boolean
+	 */
+	public String nextString() throws IOException, JsonParseException {
+
+		JsonToken token = peek();
+
+		if ((token != JsonToken.STRING) && (token != JsonToken.NUMBER) && (token != JsonToken.BOOLEAN)) {
+			throw unexpected(JsonToken.STRING, token);
+		}
+
+		return consumeText();
+	}
+
+	/**
+	 * Returns the next number, as Long or as Double (just like in records)
+	 */
+	public Object nextNumber() throws IOException, JsonParseException {
+
+		expect(JsonToken.NUMBER);
+
+		String numStr = consumeText();
+
+		try {
+			if (numStr.contains(".")) {
+				return Double.valueOf(numStr);
+			}
+			try {
+				return Long.valueOf(numStr);
+			} catch (NumberFormatException e) {
+				if (numStr.contains("e") || numStr.contains("E")) {
+					return Double.valueOf(numStr);
+				}
+				throw e;
+			}
+		} catch (NumberFormatException e) {
+			throw new JsonParseException("Encountered an invalid number \"" + numStr + "\"" + getLocation());
+		}
+	}
+
+	public long nextLong() throws IOException, JsonParseException {
+
+		Object result = nextNumber();
+
+		if (result instanceof Long) {
+			return (Long) result;
+		}
+
+		return ((Double) result).longValue();
+	}
+
+	public double nextDouble() throws IOException, JsonParseException {
+
+		Object result = nextNumber();
+
+		if (result instanceof Long) {
+			return (Long) result;
+		}
+
+		return (Double) result;
+	}
+
+	public boolean nextBoolean() throws IOException, JsonParseException {
+
+		expect(JsonToken.BOOLEAN);
+
+		return "true".equals(consumeText());
+	}
+
+	public void nextNull() throws IOException, JsonParseException {
+
+		expect(JsonToken.NULL);
+
+		consumeText();
+	}
+
+	/**
+	 * Skips the next value, including everything inside of it if it is an object or array,
+	 * without creating any records for it
+	 */
+	public void skipValue() throws IOException, JsonParseException {
+
+		int skipDepth = 0;
+
+		do {
+			switch (peek()) {
+				case BEGIN_OBJECT:
+					beginObject();
+					skipDepth++;
+					break;
+				case BEGIN_ARRAY:
+					beginArray();
+					skipDepth++;
+					break;
+				case END_OBJECT:
+					endObject();
+					skipDepth--;
+					break;
+				case END_ARRAY:
+					endArray();
+					skipDepth--;
+					break;
+				case NAME:
+					nextName();
+					break;
+				case END_DOCUMENT:
+					return;
+				default:
+					consumeText();
+			}
+		} while (skipDepth > 0);
+	}
+
+	/**
+	 * Reads the next value (and everything inside of it, if it is an object or array) as record
+	 */
+	public JSON nextRecord() throws IOException, JsonParseException {
+
+		List<JSON> containers = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+
+		do {
+			JSON value = null;
+
+			switch (peek()) {
+
+				case BEGIN_OBJECT:
+					beginObject();
+					containers.add(new JSON(RecordKind.OBJECT, null, null, Record.createObjectMap()));
+					names.add(null);
+					break;
+
+				case BEGIN_ARRAY:
+					beginArray();
+					containers.add(new JSON(RecordKind.ARRAY, null, new ArrayList<Record>(), null));
+					names.add(null);
+					break;
+
+				case END_OBJECT:
+					endObject();
+					value = containers.remove(containers.size() - 1);
+					names.remove(names.size() - 1);
+					break;
+
+				case END_ARRAY:
+					endArray();
+					value = containers.remove(containers.size() - 1);
+					names.remove(names.size() - 1);
+					break;
+
+				case NAME:
+					names.set(names.size() - 1, nextName());
+					break;
+
+				case STRING:
+					value = new JSON(RecordKind.STRING, consumeText(), null, null);
+					break;
+
+				case NUMBER:
+					value = new JSON(RecordKind.NUMBER, nextNumber(), null, null);
+					break;
+
+				case BOOLEAN:
+					value = new JSON(RecordKind.BOOLEAN, nextBoolean(), null, null);
+					break;
+
+				case END_DOCUMENT:
+					if (containers.size() > 0) {
+						throw new JsonParseException("Encountered the end of the input inside of a value" + getLocation());
+					}
+					return new JSON(RecordKind.NULL, null, null, null);
+
+				default:
+					nextNull();
+					value = new JSON(RecordKind.NULL, null, null, null);
+			}
+
+			if (value != null) {
+				if (containers.size() == 0) {
+					return value;
+				}
+				JSON container = containers.get(containers.size() - 1);
+				if (container.getKind() == RecordKind.OBJECT) {
+					container.getValueMap().put(names.get(names.size() - 1), value);
+				} else {
+					container.getValues().add(value);
+				}
+			}
+
+		} while (true);
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		in.close();
+	}
+
+	private void push(int scope) {
+
+		if (depth == scopes.length) {
+			int[] newScopes = new int[depth * 2];
+			System.arraycopy(scopes, 0, newScopes, 0, depth);
+			scopes = newScopes;
+		}
+
+		scopes[depth++] = scope;
+
+		peeked = null;
+	}
+
+	private void expect(JsonToken expected) throws IOException, JsonParseException {
+
+		JsonToken token = peek();
+
+		if (token != expected) {
+			throw unexpected(expected, token);
+		}
+
+		peeked = null;
+	}
+
+	private String consumeText() {
+
+		String result = peekedText;
+
+		peekedText = null;
+		peeked = null;
+
+		return result;
+	}
+
+	private JsonParseException unexpected(JsonToken expected, JsonToken found) {
+
+		return new JsonParseException("Expected " + expected + " but found " + found + getLocation());
+	}
+
+	private String getLocation() {
+
+		return " at character " + (charsBeforeBuffer + pos);
+	}
+
+	/**
+	 * Looks at the value starting at the current position - objects and arrays are only
+	 * entered when beginObject() or beginArray() is called, while simple values are read
+	 * right away
+	 */
+	private JsonToken peekValue() throws IOException, JsonParseException {
+
+		char c = buf[pos];
+
+		switch (c) {
+
+			case '{':
+				peeked = JsonToken.BEGIN_OBJECT;
+				return peeked;
+
+			case '[':
+				peeked = JsonToken.BEGIN_ARRAY;
+				return peeked;
+
+			case '"':
+			case '\'':
+				peekedText = readString(c);
+				peeked = JsonToken.STRING;
+				return peeked;
+		}
+
+		if (matches("null")) {
+			pos += 4;
+			peekedText = null;
+			peeked = JsonToken.NULL;
+			return peeked;
+		}
+
+		if (matches("true")) {
+			pos += 4;
+			peekedText = "true";
+			peeked = JsonToken.BOOLEAN;
+			return peeked;
+		}
+
+		if (matches("false")) {
+			pos += 5;
+			peekedText = "false";
+			peeked = JsonToken.BOOLEAN;
+			return peeked;
+		}
+
+		textBuilder.setLength(0);
+
+		while (ensureAvailable(1)) {
+			c = buf[pos];
+			if (((c >= '0') && (c <= '9')) || (c == '.') || (c == '-') || (c == 'e') || (c == 'E') ||
+				((c > 127) && Character.isDigit(c))) {
+				textBuilder.append(c);
+				pos++;
+			} else {
+				break;
+			}
+		}
+
+		if (textBuilder.length() == 0) {
+			String extraStr = "";
+			if (c == ':') {
+				extraStr = " outside of object";
+			}
+			throw new JsonParseException("Invalid JSON found, character \"" + c + "\" is unexpected" +
+				extraStr + getLocation());
+		}
+
+		peekedText = textBuilder.toString();
+		peeked = JsonToken.NUMBER;
+		return peeked;
+	}
+
+	private boolean matches(String literal) throws IOException {
+
+		if (!ensureAvailable(literal.length())) {
+			return false;
+		}
+
+		for (int i = 0; i < literal.length(); i++) {
+			if (buf[pos + i] != literal.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Reads a key including the colon after it, in the same way as the JsonParser does
+	 */
+	private String readName() throws IOException, JsonParseException {
+
+		textBuilder.setLength(0);
+
+		if (buf[pos] == '"') {
+			pos++;
+			while (true) {
+				if (!ensureAvailable(1)) {
+					throw new JsonParseException("Encountered an unclosed key" + getLocation());
+				}
+				char c = buf[pos++];
+				if (c == '"') {
+					break;
+				}
+				textBuilder.append(c);
+			}
+			String key = textBuilder.toString().trim();
+			if (key.contains("\n")) {
+				throw new JsonParseException("Encountered a key (\"" + key.replace("\n", "\\n") +
+					"\") containing a newline" + getLocation());
+			}
+			// anything between the key and the colon is ignored
+			while (true) {
+				if (!ensureAvailable(1)) {
+					throw new JsonParseException("Encountered a key without trailing :" + getLocation());
+				}
+				if (buf[pos++] == ':') {
+					return key;
+				}
+			}
+		}
+
+		// this is foo: "bar", or 'foo': "bar", which we grudgingly accept
+		while (true) {
+			if (!ensureAvailable(1)) {
+				throw new JsonParseException("Encountered an unescaped key without trailing :" + getLocation());
+			}
+			char c = buf[pos++];
+			if (c == ':') {
+				break;
+			}
+			textBuilder.append(c);
+		}
+
+		String key = textBuilder.toString().trim();
+		if ((key.length() > 2) && (key.charAt(0) == '\'') && (key.charAt(key.length() - 1) == '\'')) {
+			key = key.substring(1, key.length() - 1);
+		}
+		return key;
+	}
+
+	/**
+	 * Reads a string with the same escapes as the JsonParser
+	 */
+	private String readString(char quote) throws IOException, JsonParseException {
+
+		pos++;
+
+		textBuilder.setLength(0);
+
+		while (true) {
+
+			if (!ensureAvailable(1)) {
+				throw new JsonParseException("Encountered an unclosed string" + getLocation());
+			}
+
+			// take over everything up to the next special character at once
+			int start = pos;
+			while ((pos < limit) && (buf[pos] != quote) && (buf[pos] != '\\') && (buf[pos] != '\n')) {
+				pos++;
+			}
+			textBuilder.append(buf, start, pos - start);
+
+			if (pos == limit) {
+				continue;
+			}
+
+			char c = buf[pos];
+
+			if (c == quote) {
+				pos++;
+				return textBuilder.toString();
+			}
+
+			if (c == '\n') {
+				throw new JsonParseException("Encountered a value (\"" + textBuilder.toString().replace("\n", "\\n") +
+					"...\") containing a newline" + getLocation());
+			}
+
+			// c is a backslash
+			if (!ensureAvailable(2)) {
+				throw new JsonParseException("Encountered an unclosed string" + getLocation());
+			}
+
+			char escaped = buf[pos + 1];
+			switch (escaped) {
+				case 'n':
+					textBuilder.append('\n');
+					break;
+				case 'r':
+					textBuilder.append('\r');
+					break;
+				case 't':
+					textBuilder.append('\t');
+					break;
+				case 'b':
+					textBuilder.append('\b');
+					break;
+				case 'f':
+					textBuilder.append('\f');
+					break;
+				case '\\':
+					textBuilder.append('\\');
+					break;
+				default:
+					if (escaped == quote) {
+						textBuilder.append(quote);
+						break;
+					}
+					// keep the backslash, and look at the next character as if nothing happened
+					textBuilder.append('\\');
+					pos++;
+					continue;
+			}
+			pos += 2;
+		}
+	}
+
+	private void skipWhitespaces(boolean alsoCommas) throws IOException {
+
+		while (ensureAvailable(1)) {
+			char c = buf[pos];
+			if ((c == ' ') || (c == '\t') || (c == '\n') || (c == '\r') || (alsoCommas && (c == ','))) {
+				pos++;
+			} else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Makes sure that at least the given amount of characters can be read from the buffer,
+	 * returning false if the input ends before
+	 */
+	private boolean ensureAvailable(int amount) throws IOException {
+
+		if (limit - pos >= amount) {
+			return true;
+		}
+
+		if (pos > 0) {
+			charsBeforeBuffer += pos;
+			System.arraycopy(buf, pos, buf, 0, limit - pos);
+			limit -= pos;
+			pos = 0;
+		}
+
+		while (limit < amount) {
+			int amountRead = in.read(buf, limit, buf.length - limit);
+			if (amountRead < 0) {
+				return false;
+			}
+			limit += amountRead;
+		}
+
+		return true;
+	}
+
+}
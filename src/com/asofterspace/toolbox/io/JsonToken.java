@@ -0,0 +1,34 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+
+/**
+ * The kinds of tokens which a JsonReader can encounter
+ */
+public enum JsonToken {
+
+	BEGIN_OBJECT,
+
+	END_OBJECT,
+
+	BEGIN_ARRAY,
+
+	END_ARRAY,
+
+	// the key of an entry of an object
+	NAME,
+
+	STRING,
+
+	NUMBER,
+
+	BOOLEAN,
+
+	NULL,
+
+	// the input has ended (after any amount of top-level values, such as the lines of a JSON lines file)
+	END_DOCUMENT
+}
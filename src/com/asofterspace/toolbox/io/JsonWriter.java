@@ -0,0 +1,352 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.RecordKind;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+
+/**
+ * Writes records as JSON directly into a Writer or OutputStream, such that no string
+ * containing the whole document (or any of its parts) has to be built first
+ *
+ * The output is exactly the same as the one of JSON.toString(), including the compression
+ * levels - and just like the JsonParser, the writer keeps track of nested objects and
+ * arrays on its own stack, so arbitrarily deep records can be written
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private Writer out;
+
+	// the objects and arrays that are currently being written
+	private List<Frame> stack = new ArrayList<>();
+
+	private String linePrefix = "";
+
+	private char[] tabs = new char[0];
+
+	private boolean sortKeys = true;
+
+	private static final Comparator<Map.Entry<String, Record>> KEY_ORDER = new Comparator<Map.Entry<String, Record>>() {
+		public int compare(Map.Entry<String, Record> a, Map.Entry<String, Record> b) {
+			return a.getKey().compareTo(b.getKey());
+		}
+	};
+
+
+	/**
+	 * Create a JSON writer writing into the given writer (which should be buffered,
+	 * as the JSON is written in lots of small pieces)
+	 */
+	public JsonWriter(Writer out) {
+
+		this.out = out;
+	}
+
+	/**
+	 * Create a JSON writer writing into the given stream in the given charset
+	 */
+	public JsonWriter(OutputStream out, Charset charset) {
+
+		this.out = new BufferedWriter(new OutputStreamWriter(out, charset), BUFFER_SIZE);
+	}
+
+	/**
+	 * By default, the entries of objects are written sorted by key (no matter whether they
+	 * are stored in TreeMaps or in RecordMaps, which keep the order of insertion), except
+	 * for LinkedHashMaps - set this to false to write them in the order in which they are stored
+	 */
+	public void setSortKeys(boolean sortKeys) {
+		this.sortKeys = sortKeys;
+	}
+
+	/**
+	 * Writes the given record fully compressed, just like JSON.toString()
+	 */
+	public void write(Record item) throws IOException {
+
+		write(item, 0, "");
+	}
+
+	/**
+	 * available compression levels:
+	 * 0 .. fully compressed (no indentation)
+	 * 1 .. indent first level, compress everything inside
+	 * 2 .. indent first and second level, compress everything inside
+	 * ...
+	 * Integer.MAX_VALUE .. indent everything / not compressed at all
+	 */
+	public void write(Record item, int compressionLevel, String linePrefix) throws IOException {
+
+		stack.clear();
+
+		this.linePrefix = linePrefix;
+
+		writeValue(item, compressionLevel);
+
+		while (stack.size() > 0) {
+
+			Frame frame = stack.get(stack.size() - 1);
+
+			int depth = stack.size() - 1;
+
+			if (frame.hasNext()) {
+
+				if (frame.first) {
+					frame.first = false;
+				} else {
+					if (frame.isObject) {
+						if (frame.compressionLevel > 0) {
+							out.write(",\n");
+							writeIndentation(depth + 1);
+						} else {
+							out.write(", ");
+						}
+					} else {
+						out.write(',');
+						if (frame.compressionLevel > 0) {
+							out.write('\n');
+							writeIndentation(depth + 1);
+						}
+					}
+				}
+
+				Record child;
+
+				if (frame.isObject) {
+					Map.Entry<String, Record> entry = frame.objIterator.next();
+					out.write('"');
+					out.write(entry.getKey());
+					out.write("\": ");
+					child = entry.getValue();
+				} else {
+					child = frame.arrIterator.next();
+				}
+
+				writeValue(child, frame.compressionLevel - 1);
+
+			} else {
+
+				if (frame.compressionLevel > 0) {
+					out.write('\n');
+					writeIndentation(depth);
+				}
+
+				if (frame.isObject) {
+					out.write('}');
+				} else {
+					out.write(']');
+				}
+
+				stack.remove(stack.size() - 1);
+			}
+		}
+	}
+
+	/**
+	 * Writes a simple value completely, or the opening bracket of an object or array
+	 * (including the start of its first line) and puts it on the stack
+	 */
+	private void writeValue(Record item, int compressionLevel) throws IOException {
+
+		if (item == null) {
+			out.write("null");
+			return;
+		}
+
+		RecordKind kind = item.getKind();
+
+		if (kind == null) {
+			out.write("null");
+			return;
+		}
+
+		Object simpleContents;
+
+		switch (kind) {
+
+			case STRING:
+				simpleContents = item.asObject();
+				if (simpleContents == null) {
+					out.write("null");
+					return;
+				}
+				out.write('"');
+				writeEscaped(simpleContents.toString());
+				out.write('"');
+				return;
+
+			case BOOLEAN:
+			case NUMBER:
+				simpleContents = item.asObject();
+				if (simpleContents == null) {
+					out.write("null");
+					return;
+				}
+				out.write(simpleContents.toString());
+				return;
+
+			case ARRAY:
+				out.write('[');
+				stack.add(new Frame(null, item.getValues().iterator(), compressionLevel));
+				startFirstLine(compressionLevel);
+				return;
+
+			case OBJECT:
+				out.write('{');
+				stack.add(new Frame(getEntryIterator(item.getValueMap()), null, compressionLevel));
+				startFirstLine(compressionLevel);
+				return;
+
+			default:
+				out.write("null");
+				return;
+		}
+	}
+
+	private Iterator<Map.Entry<String, Record>> getEntryIterator(Map<String, Record> map) {
+
+		// maps which are sorted anyway, or which were explicitly chosen to keep their order, are left alone
+		if (!sortKeys || (map instanceof SortedMap) || (map instanceof LinkedHashMap) || (map.size() < 2)) {
+			return map.entrySet().iterator();
+		}
+
+		List<Map.Entry<String, Record>> entries = new ArrayList<>(map.entrySet());
+		Collections.sort(entries, KEY_ORDER);
+		return entries.iterator();
+	}
+
+	private void startFirstLine(int compressionLevel) throws IOException {
+		if (compressionLevel > 0) {
+			out.write('\n');
+			writeIndentation(stack.size());
+		}
+	}
+
+	private void writeIndentation(int depth) throws IOException {
+
+		out.write(linePrefix);
+
+		if (tabs.length < depth) {
+			tabs = new char[Math.max(depth, tabs.length * 2)];
+			for (int i = 0; i < tabs.length; i++) {
+				tabs[i] = '\t';
+			}
+		}
+
+		out.write(tabs, 0, depth);
+	}
+
+	/**
+	 * Writes the string escaped just like JSON.escapeJSONstr() does it, but without creating
+	 * any new strings
+	 */
+	private void writeEscaped(String str) throws IOException {
+
+		int len = str.length();
+		int runStart = 0;
+
+		for (int i = 0; i < len; i++) {
+
+			char c = str.charAt(i);
+
+			String replacement;
+
+			switch (c) {
+				case '\\':
+					replacement = "\\\\";
+					break;
+				case '"':
+					replacement = "\\\"";
+					break;
+				case '\n':
+					replacement = "\\n";
+					break;
+				case '\r':
+					replacement = "\\r";
+					break;
+				case '\t':
+					replacement = "\\t";
+					break;
+				case '\b':
+					replacement = "\\b";
+					break;
+				case '\f':
+					replacement = "\\f";
+					break;
+				default:
+					continue;
+			}
+
+			if (i > runStart) {
+				out.write(str, runStart, i - runStart);
+			}
+			out.write(replacement);
+			runStart = i + 1;
+		}
+
+		if (len > runStart) {
+			out.write(str, runStart, len - runStart);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+
+	private static class Frame {
+
+		private Iterator<Map.Entry<String, Record>> objIterator;
+
+		private Iterator<Record> arrIterator;
+
+		private boolean isObject;
+
+		private int compressionLevel;
+
+		private boolean first = true;
+
+		Frame(Iterator<Map.Entry<String, Record>> objIterator, Iterator<Record> arrIterator, int compressionLevel) {
+			this.objIterator = objIterator;
+			this.arrIterator = arrIterator;
+			this.isObject = objIterator != null;
+			this.compressionLevel = compressionLevel;
+		}
+
+		boolean hasNext() {
+			if (isObject) {
+				return objIterator.hasNext();
+			}
+			return arrIterator.hasNext();
+		}
+	}
+
+}
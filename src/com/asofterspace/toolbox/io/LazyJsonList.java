@@ -0,0 +1,87 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * The contents of a lazily parsed JSON array, which are only parsed when they are first
+ * accessed in any way - after that, this behaves exactly like the list of an eagerly
+ * parsed array
+ */
+class LazyJsonList extends AbstractList<Record> {
+
+	private LazyJsonSource source;
+
+	private int start;
+
+	private volatile List<Record> contents = null;
+
+
+	LazyJsonList(LazyJsonSource source, int start) {
+
+		this.source = source;
+
+		this.start = start;
+	}
+
+	private List<Record> getContents() {
+
+		List<Record> result = contents;
+
+		if (result == null) {
+			synchronized (this) {
+				result = contents;
+				if (result == null) {
+					// if this throws, we stay unparsed, and every further access throws again
+					result = source.parseLevel(start).getValues();
+					contents = result;
+					// the source is no longer needed by us, so it can be freed once all others are parsed
+					source = null;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public Record get(int index) {
+		return getContents().get(index);
+	}
+
+	@Override
+	public int size() {
+		return getContents().size();
+	}
+
+	@Override
+	public Record set(int index, Record element) {
+		return getContents().set(index, element);
+	}
+
+	@Override
+	public void add(int index, Record element) {
+		getContents().add(index, element);
+		modCount++;
+	}
+
+	@Override
+	public Record remove(int index) {
+		modCount++;
+		return getContents().remove(index);
+	}
+
+	@Override
+	public Iterator<Record> iterator() {
+		return getContents().iterator();
+	}
+
+}
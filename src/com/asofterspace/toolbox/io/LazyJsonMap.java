@@ -0,0 +1,101 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * The contents of a lazily parsed JSON object, which are only parsed when they are first
+ * accessed in any way - after that, this behaves exactly like the map of an eagerly
+ * parsed object
+ */
+class LazyJsonMap extends AbstractMap<String, Record> {
+
+	private LazyJsonSource source;
+
+	private int start;
+
+	private volatile Map<String, Record> contents = null;
+
+
+	LazyJsonMap(LazyJsonSource source, int start) {
+
+		this.source = source;
+
+		this.start = start;
+	}
+
+	private Map<String, Record> getContents() {
+
+		Map<String, Record> result = contents;
+
+		if (result == null) {
+			synchronized (this) {
+				result = contents;
+				if (result == null) {
+					// if this throws, we stay unparsed, and every further access throws again
+					result = source.parseLevel(start).getValueMap();
+					contents = result;
+					// the source is no longer needed by us, so it can be freed once all others are parsed
+					source = null;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Record>> entrySet() {
+		return getContents().entrySet();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return getContents().keySet();
+	}
+
+	@Override
+	public Collection<Record> values() {
+		return getContents().values();
+	}
+
+	@Override
+	public int size() {
+		return getContents().size();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return getContents().containsKey(key);
+	}
+
+	@Override
+	public Record get(Object key) {
+		return getContents().get(key);
+	}
+
+	@Override
+	public Record put(String key, Record value) {
+		return getContents().put(key, value);
+	}
+
+	@Override
+	public Record remove(Object key) {
+		return getContents().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		getContents().clear();
+	}
+
+}
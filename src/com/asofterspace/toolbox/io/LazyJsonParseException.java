@@ -0,0 +1,21 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+
+/**
+ * Thrown when the contents of a lazily parsed JSON object or array are accessed, but turn
+ * out to be malformed - which is unchecked, as it is thrown by the maps and lists of the
+ * records (the JsonParseException describing the problem is the cause)
+ */
+public class LazyJsonParseException extends RuntimeException {
+
+	public static final long serialVersionUID = 73490283475619l;
+
+
+	public LazyJsonParseException(JsonParseException cause) {
+		super(cause.getMessage(), cause);
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.RecordKind;
+
+import java.util.Arrays;
+
+
+/**
+ * The text of a lazily parsed JSON document, together with an index of where each of its
+ * objects and arrays starts and ends - which is built in one fast scan over the text that
+ * does nothing but keep track of brackets and strings
+ *
+ * Lazy records refer to this source, and each object or array is only parsed (one level
+ * at a time, via the JsonParser) when its contents are first accessed
+ */
+class LazyJsonSource {
+
+	private String text;
+
+	// the start and end positions of all objects and arrays, in the order of their starts
+	private int[] starts;
+	private int[] ends;
+	private int containerAmount = 0;
+
+	private JsonParser parser = new JsonParser();
+
+
+	LazyJsonSource(String text) {
+
+		this.text = text;
+
+		int len = text.length();
+
+		starts = new int[64];
+		ends = new int[64];
+
+		// the indices (into starts) of the objects and arrays which are currently open
+		int[] openStack = new int[64];
+		int depth = 0;
+
+		for (int pos = 0; pos < len; pos++) {
+
+			char c = text.charAt(pos);
+
+			switch (c) {
+
+				case '{':
+				case '[':
+					if (containerAmount == starts.length) {
+						starts = Arrays.copyOf(starts, containerAmount * 2);
+						ends = Arrays.copyOf(ends, containerAmount * 2);
+					}
+					if (depth == openStack.length) {
+						openStack = Arrays.copyOf(openStack, depth * 2);
+					}
+					starts[containerAmount] = pos;
+					// just like the JsonParser, we accept objects and arrays which are not closed before the end
+					ends[containerAmount] = len;
+					openStack[depth++] = containerAmount;
+					containerAmount++;
+					break;
+
+				case '}':
+				case ']':
+					if (depth > 0) {
+						depth--;
+						ends[openStack[depth]] = pos + 1;
+					}
+					break;
+
+				case '"':
+				case '\'':
+					// jump over the string, such that brackets inside of it are ignored
+					pos++;
+					while (pos < len) {
+						char strC = text.charAt(pos);
+						if (strC == c) {
+							break;
+						}
+						if (strC == '\\') {
+							pos++;
+						}
+						pos++;
+					}
+					break;
+			}
+		}
+	}
+
+	String getText() {
+		return text;
+	}
+
+	/**
+	 * Creates a lazy record for the object or array starting at the given position
+	 */
+	JSON createRecord(int start) {
+
+		if (text.charAt(start) == '{') {
+			return new JSON(RecordKind.OBJECT, null, null, new LazyJsonMap(this, start));
+		}
+
+		return new JSON(RecordKind.ARRAY, null, new LazyJsonList(this, start), null);
+	}
+
+	/**
+	 * Returns the position right after the object or array starting at the given position
+	 */
+	int getEnd(int start) {
+
+		int index = Arrays.binarySearch(starts, 0, containerAmount, start);
+
+		return ends[index];
+	}
+
+	/**
+	 * Parses one level of the object or array starting at the given position
+	 * @throws LazyJsonParseException if it cannot be parsed
+	 */
+	synchronized Record parseLevel(int start) {
+
+		try {
+			return parser.parseLevel(this, start);
+		} catch (JsonParseException e) {
+			throw new LazyJsonParseException(e);
+		}
+	}
+
+}
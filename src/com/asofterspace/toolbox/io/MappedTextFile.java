@@ -0,0 +1,563 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import com.asofterspace.toolbox.utils.ProgressIndicator;
+import com.asofterspace.toolbox.utils.TextEncoding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * A read-only view of a (potentially huge) text file, which is mapped into memory rather
+ * than loaded, such that only the lines which are actually asked for are ever decoded
+ *
+ * To get to a line by its number quickly, an index is built in a background thread, which
+ * only remembers where every 64th line starts - so even a file with hundreds of millions of
+ * lines needs just a few megabytes of heap; lines that have already been indexed can be
+ * accessed while the rest of the file is still being indexed
+ *
+ * The encoding is determined just like in TextFile: if none is set explicitly, a file with
+ * a BOM is read as UTF-8 with BOM, and any other file as UTF-8 without BOM
+ *
+ * Lines can end with \n or with \r\n, and a line break at the very end of the file does not
+ * start another (empty) line
+ */
+public class MappedTextFile extends File implements Closeable {
+
+	// each segment of the file is mapped on its own, as one buffer can hold at most 2 GB
+	private static final int SEGMENT_BITS = 30;
+
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+	private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	// how many lines there are between two lines whose starts are remembered in the index
+	private static final int LINES_PER_CHECKPOINT = 64;
+
+	// after this many bytes, the indexer makes the lines it found so far accessible
+	private static final long PUBLISH_STEP = 4 * 1024 * 1024;
+
+	private TextEncoding usingEncoding = null;
+
+	private Charset charset;
+
+	private MappedByteBuffer[] segments = null;
+
+	private long size;
+
+	// where the first line starts (after the BOM, if there is one)
+	private long contentStart;
+
+	// checkpoints[i] is where line i * LINES_PER_CHECKPOINT starts
+	private volatile long[] checkpoints;
+
+	// the amount of lines that have been indexed so far
+	private volatile long indexedLineCount;
+
+	private volatile boolean indexed;
+
+	private volatile boolean stopIndexing;
+
+	private Thread indexThread = null;
+
+	private final Object indexLock = new Object();
+
+
+	/**
+	 * You can construct a MappedTextFile instance by directly from a path name.
+	 */
+	public MappedTextFile(String fullyQualifiedFileName) {
+
+		super(fullyQualifiedFileName);
+	}
+
+	/**
+	 * You can construct a MappedTextFile instance by basing it on an existing file object.
+	 */
+	public MappedTextFile(File regularFile) {
+
+		super(regularFile);
+	}
+
+	/**
+	 * Create a new MappedTextFile instance based on a Directory and the name of
+	 * the file inside the directory
+	 * @param directory The directory in which the file is located
+	 * @param filename The (local) name of the actual file
+	 */
+	public MappedTextFile(Directory directory, String filename) {
+
+		super(directory, filename);
+	}
+
+	/**
+	 * Returns the encoding which was set explicitly, or else the one which was detected
+	 */
+	public TextEncoding getEncoding() {
+
+		ensureOpen();
+
+		return usingEncoding;
+	}
+
+	/**
+	 * Sets the encoding with which the file is read (which is detected if none is set),
+	 * which has to be done before any line is read
+	 */
+	public synchronized void setEncoding(TextEncoding encoding) {
+
+		if (segments != null) {
+			close();
+		}
+
+		usingEncoding = encoding;
+	}
+
+	/**
+	 * Starts building the index in a background thread, if that has not happened yet
+	 * @param progress an indicator to which the progress of the indexing is reported, or null
+	 */
+	public synchronized void startIndexing(final ProgressIndicator progress) {
+
+		if (indexThread != null) {
+			return;
+		}
+
+		ensureOpen();
+
+		stopIndexing = false;
+
+		indexThread = new Thread(new Runnable() {
+			public void run() {
+				buildIndex(progress);
+			}
+		});
+		indexThread.setDaemon(true);
+		indexThread.start();
+	}
+
+	/**
+	 * Builds the index (if that has not happened yet) and waits until it is complete
+	 */
+	public void waitForIndex() {
+
+		startIndexing(null);
+
+		synchronized (indexLock) {
+			while (!indexed) {
+				try {
+					indexLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	public boolean isIndexed() {
+		return indexed;
+	}
+
+	/**
+	 * Returns the amount of lines in the file, waiting for the index to be complete
+	 */
+	public long getLineCount() {
+
+		waitForIndex();
+
+		return indexedLineCount;
+	}
+
+	/**
+	 * Returns the amount of lines which have been indexed so far, which can already be
+	 * accessed even while the rest of the file is still being indexed
+	 */
+	public long getIndexedLineCount() {
+		return indexedLineCount;
+	}
+
+	/**
+	 * Returns the line with the given number (starting at 0), or null if there is no such
+	 * line - waiting for the index to reach the line if necessary
+	 */
+	public String getLine(long lineNum) {
+
+		if (!ensureIndexed(lineNum)) {
+			return null;
+		}
+
+		long start = getLineStart(lineNum);
+
+		return decode(start, getLineEnd(start));
+	}
+
+	/**
+	 * Returns up to amount lines starting with the line with the given number (starting at 0)
+	 */
+	public List<String> getLines(long fromLineNum, int amount) {
+
+		List<String> result = new ArrayList<>();
+
+		if ((amount < 1) || !ensureIndexed(fromLineNum)) {
+			return result;
+		}
+
+		// we only look up the first line in the index, and then just go on from there
+		long start = getLineStart(fromLineNum);
+
+		while ((result.size() < amount) && (start < size)) {
+			long end = getLineEnd(start);
+			result.add(decode(start, end));
+			start = end + 1;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Finds the first line at or after the line with the given number which contains the text
+	 * @return the number of the line, or -1 if the text does not occur there
+	 */
+	public long findNext(String text, long fromLineNum) {
+
+		if (!ensureIndexed(fromLineNum)) {
+			return -1;
+		}
+
+		byte[] needle = text.getBytes(charset);
+
+		if (needle.length < 1) {
+			return fromLineNum;
+		}
+
+		// we search the raw bytes rather than decoding anything, which works as in UTF-8 no
+		// character is ever contained in another one - and count the lines while we go along
+		long lineNum = fromLineNum;
+		long last = size - needle.length;
+
+		for (long pos = getLineStart(fromLineNum); pos <= last; pos++) {
+			byte b = getByte(pos);
+			if ((b == needle[0]) && matchesAt(pos, needle)) {
+				return lineNum;
+			}
+			if (b == '\n') {
+				lineNum++;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Finds the last line at or before the line with the given number which contains the text
+	 * @return the number of the line, or -1 if the text does not occur there
+	 */
+	public long findPrevious(String text, long fromLineNum) {
+
+		if (fromLineNum < 0) {
+			return -1;
+		}
+
+		if (!ensureIndexed(fromLineNum)) {
+			fromLineNum = indexedLineCount - 1;
+			if (fromLineNum < 0) {
+				return -1;
+			}
+		}
+
+		byte[] needle = text.getBytes(charset);
+
+		if (needle.length < 1) {
+			return fromLineNum;
+		}
+
+		long lineNum = fromLineNum;
+
+		for (long pos = getLineEnd(getLineStart(fromLineNum)) - 1; pos >= contentStart; pos--) {
+			byte b = getByte(pos);
+			if (b == '\n') {
+				lineNum--;
+			}
+			if ((b == needle[0]) && (pos + needle.length <= size) && matchesAt(pos, needle)) {
+				return lineNum;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Stops the indexing and releases the mapped file (which is mapped again when it is next
+	 * accessed)
+	 */
+	@Override
+	public void close() {
+
+		Thread thread;
+
+		synchronized (this) {
+			thread = indexThread;
+			stopIndexing = true;
+		}
+
+		if (thread != null) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		synchronized (this) {
+			indexThread = null;
+			segments = null;
+			checkpoints = null;
+			indexedLineCount = 0;
+			indexed = false;
+		}
+	}
+
+	private synchronized void ensureOpen() {
+
+		if (segments != null) {
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(getJavaPath(), StandardOpenOption.READ)) {
+
+			size = channel.size();
+
+			int segmentCount = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+			MappedByteBuffer[] newSegments = new MappedByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				long start = ((long) i) << SEGMENT_BITS;
+				newSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+			}
+			segments = newSegments;
+
+		} catch (IOException e) {
+			System.err.println("[ERROR] Trying to load the file " + filename + ", an I/O Exception occurred - inconceivable!");
+			size = 0;
+			segments = new MappedByteBuffer[0];
+		}
+
+		boolean hasBom = (size > 2) &&
+			(getByte(0) == (byte) 239) && (getByte(1) == (byte) 187) && (getByte(2) == (byte) 191);
+
+		// autodetect encoding just like TextFile
+		if (usingEncoding == null) {
+			if (hasBom) {
+				usingEncoding = TextEncoding.UTF8_WITH_BOM;
+			} else {
+				usingEncoding = TextEncoding.UTF8_WITHOUT_BOM;
+			}
+		}
+
+		if (usingEncoding == TextEncoding.ISO_LATIN_1) {
+			charset = StandardCharsets.ISO_8859_1;
+		} else {
+			charset = StandardCharsets.UTF_8;
+		}
+
+		contentStart = 0;
+		if (hasBom && (usingEncoding == TextEncoding.UTF8_WITH_BOM)) {
+			contentStart = 3;
+		}
+
+		checkpoints = new long[] {contentStart};
+		indexedLineCount = 0;
+		indexed = false;
+	}
+
+	/**
+	 * Goes once through the whole file, remembering where every 64th line starts
+	 */
+	private void buildIndex(ProgressIndicator progress) {
+
+		long[] foundCheckpoints = new long[1024];
+		foundCheckpoints[0] = contentStart;
+		int checkpointCount = 1;
+
+		long lineCount = 0;
+		long nextPublish = contentStart + PUBLISH_STEP;
+
+		for (int s = 0; s < segments.length; s++) {
+
+			MappedByteBuffer segment = segments[s];
+			long segmentStart = ((long) s) << SEGMENT_BITS;
+			int limit = segment.limit();
+
+			int i = 0;
+			if (segmentStart < contentStart) {
+				i = (int) contentStart;
+			}
+
+			for (; i < limit; i++) {
+
+				if (segment.get(i) != '\n') {
+					continue;
+				}
+
+				lineCount++;
+
+				if (lineCount % LINES_PER_CHECKPOINT == 0) {
+					if (checkpointCount == foundCheckpoints.length) {
+						foundCheckpoints = Arrays.copyOf(foundCheckpoints, checkpointCount * 2);
+					}
+					foundCheckpoints[checkpointCount++] = segmentStart + i + 1;
+				}
+
+				if (segmentStart + i >= nextPublish) {
+					if (stopIndexing) {
+						return;
+					}
+					// the array is handed over before the count, such that readers which see the
+					// count also see the checkpoints of the lines it covers
+					checkpoints = foundCheckpoints;
+					synchronized (indexLock) {
+						indexedLineCount = lineCount;
+						indexLock.notifyAll();
+					}
+					if (progress != null) {
+						progress.setProgress((double) (segmentStart + i) / size);
+					}
+					nextPublish = segmentStart + i + PUBLISH_STEP;
+				}
+			}
+		}
+
+		// the last line does not need to end with a line break
+		if ((size > contentStart) && (getByte(size - 1) != '\n')) {
+			lineCount++;
+		}
+
+		// the progress is done before anyone waiting for the index is woken up
+		if (progress != null) {
+			progress.setProgress(1);
+			progress.done();
+		}
+
+		checkpoints = foundCheckpoints;
+		synchronized (indexLock) {
+			indexedLineCount = lineCount;
+			indexed = true;
+			indexLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until the line with the given number has been indexed
+	 * @return true if that line exists, false if it does not
+	 */
+	private boolean ensureIndexed(long lineNum) {
+
+		if (lineNum < 0) {
+			return false;
+		}
+
+		if (lineNum < indexedLineCount) {
+			return true;
+		}
+
+		startIndexing(null);
+
+		synchronized (indexLock) {
+			while (!indexed && (lineNum >= indexedLineCount)) {
+				try {
+					indexLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			return lineNum < indexedLineCount;
+		}
+	}
+
+	/**
+	 * Returns where the line with the given (already indexed) number starts
+	 */
+	private long getLineStart(long lineNum) {
+
+		long pos = checkpoints[(int) (lineNum / LINES_PER_CHECKPOINT)];
+
+		for (long linesToSkip = lineNum % LINES_PER_CHECKPOINT; linesToSkip > 0; linesToSkip--) {
+			pos = getLineEnd(pos) + 1;
+		}
+
+		return pos;
+	}
+
+	/**
+	 * Returns where the line break ending the line starting at the given position is
+	 * (or the end of the file, if there is none)
+	 */
+	private long getLineEnd(long start) {
+
+		for (long pos = start; pos < size; pos++) {
+			if (getByte(pos) == '\n') {
+				return pos;
+			}
+		}
+
+		return size;
+	}
+
+	private byte getByte(long pos) {
+		return segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & SEGMENT_MASK));
+	}
+
+	private boolean matchesAt(long pos, byte[] needle) {
+
+		for (int i = 1; i < needle.length; i++) {
+			if (getByte(pos + i) != needle[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private String decode(long start, long end) {
+
+		if ((end > start) && (getByte(end - 1) == '\r')) {
+			end--;
+		}
+
+		int segment = (int) (start >>> SEGMENT_BITS);
+
+		// usually the line lies within one segment, and we can decode it right from there
+		if ((end - start < SEGMENT_SIZE) && ((int) ((end - 1) >>> SEGMENT_BITS) == segment)) {
+			ByteBuffer buffer = segments[segment].duplicate();
+			buffer.limit((int) ((end - 1) & SEGMENT_MASK) + 1);
+			buffer.position((int) (start & SEGMENT_MASK));
+			return charset.decode(buffer).toString();
+		}
+
+		if (end <= start) {
+			return "";
+		}
+
+		byte[] bytes = new byte[(int) (end - start)];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = getByte(start + i);
+		}
+
+		return new String(bytes, charset);
+	}
+
+}
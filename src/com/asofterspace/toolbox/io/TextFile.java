@@ -8,10 +8,24 @@ import com.asofterspace.toolbox.utils.TextEncoding;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -19,6 +33,8 @@ import java.nio.file.Files;
  */
 public class TextFile extends File {
 
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
 	protected String filecontent;
 
 	protected TextEncoding usingEncoding = null;
@@ -27,6 +43,37 @@ public class TextFile extends File {
 
 	private boolean useISOorUTFreadAndUTFwriteEncoding = false;
 
+	private boolean atomicSaving = false;
+
+	private boolean incrementalSaving = false;
+
+	private boolean syncOnSave = false;
+
+	private long writeBehindMillis = 0;
+
+	// the content as it is on disk since we last loaded or saved it (if we are saving
+	// incrementally), and the encoding, size and modification time of the file back then
+	private String savedContent = null;
+
+	private TextEncoding savedEncoding = null;
+
+	private long savedLength = -1;
+
+	private long savedModified = -1;
+
+	// the content that is to be written by the write-behind, or null if nothing is pending
+	private String pendingContent = null;
+
+	// ensures that the same file is not written by several threads at once
+	private final Object writeLock = new Object();
+
+	private static ScheduledExecutorService writeBehindExecutor = null;
+
+	// the files for which a write-behind is pending, which are all written when the program ends
+	private static final Set<TextFile> filesPendingWrite = Collections.synchronizedSet(new HashSet<TextFile>());
+
+	private static final AtomicLong tempFileCounter = new AtomicLong();
+
 
 	/**
 	 * Please do not construct a file without a name ;)
@@ -130,6 +177,63 @@ public class TextFile extends File {
 		}
 	}
 
+	/**
+	 * When saving atomically, the content is first written into a temporary file next to
+	 * this one, which then replaces this file - such that even if the program or the computer
+	 * crashes during saving, the file either has the old or the new content, but never
+	 * something in between (default: false) - the POSIX permissions of the file are kept,
+	 * but as the file is replaced, its owner and group become those of the saving process
+	 */
+	public void setAtomicSaving(boolean atomicSaving) {
+		this.atomicSaving = atomicSaving;
+	}
+
+	/**
+	 * When saving incrementally, the content that is saved is compared to the content that
+	 * was last loaded or saved, and if the file on disk has not been changed by anyone else
+	 * since (judging by its size and modification time), only the part after the first change
+	 * is written - such that after appending a line, only that line is written rather than
+	 * the whole file (default: false)
+	 * When also saving atomically, only appending is done incrementally, as everything else
+	 * would change the existing part of the file in place
+	 * This keeps a copy of the saved content around, so it needs up to twice as much memory
+	 */
+	public void setIncrementalSaving(boolean incrementalSaving) {
+
+		this.incrementalSaving = incrementalSaving;
+
+		if (!incrementalSaving) {
+			savedContent = null;
+		}
+	}
+
+	/**
+	 * When syncing on save, saving only returns once the content has actually arrived on
+	 * the disk, rather than just in the caches of the operating system (default: false)
+	 */
+	public void setSyncOnSave(boolean syncOnSave) {
+		this.syncOnSave = syncOnSave;
+	}
+
+	/**
+	 * With a write-behind, save() does not write immediately, but at most once per interval
+	 * in the background - such that saving very frequently only leads to one write per interval,
+	 * always writing the content of the latest save (default: 0, meaning that save() writes
+	 * immediately)
+	 * Whatever has not been written yet is written when flush() is called, when the file is
+	 * loaded again, when the write-behind is switched off, and when the program ends
+	 * (JsonFiles which contain records write them immediately, without a write-behind)
+	 * @param intervalMillis the interval in milliseconds, or 0 to switch the write-behind off
+	 */
+	public void setWriteBehind(long intervalMillis) {
+
+		this.writeBehindMillis = intervalMillis;
+
+		if (intervalMillis <= 0) {
+			flush();
+		}
+	}
+
 	/**
 	 * Creates this file on the disk, which entails:
 	 * - creating the parent directory
@@ -160,8 +264,13 @@ public class TextFile extends File {
 	 */
 	public String loadContent(boolean complainIfMissing) {
 
+		// whatever the write-behind still has to write should be read back
+		flush();
+
 		filecontent = null;
 
+		savedContent = null;
+
 		try {
 			byte[] binaryContent = Files.readAllBytes(this.getJavaPath());
 
@@ -197,6 +306,15 @@ public class TextFile extends File {
 				filecontent = filecontent.substring(1);
 			}
 
+			// we can only save incrementally if saving the content again leads to the same bytes
+			if (incrementalSaving && (loadEncoding == getEncoding())) {
+				byte[] savedBytes = filecontent.getBytes(encodingToCharset(loadEncoding));
+				int bomLength = getBomLength(loadEncoding);
+				if (Arrays.equals(savedBytes, Arrays.copyOfRange(binaryContent, bomLength, binaryContent.length))) {
+					rememberSaved(filecontent);
+				}
+			}
+
 		} catch (IOException e) {
 			if (complainIfMissing) {
 				System.err.println("[ERROR] Trying to load the file " + filename + ", an I/O Exception occurred - inconceivable!");
@@ -289,38 +407,285 @@ public class TextFile extends File {
 			return;
 		}
 
-		// the following line works also if usingEncoding is null, in which case
-		// we want to default to UTF8_WITHOUT_BOM anyway
-		boolean usingBom = usingEncoding == TextEncoding.UTF8_WITH_BOM;
+		if (writeBehindMillis > 0) {
+			scheduleWrite(filecontent);
+			return;
+		}
 
-		java.io.File targetFile = initSave();
+		synchronized (writeLock) {
+			writeContent(filecontent);
+		}
+	}
 
-		if (usingBom) {
-			// initialize the file with the BOM
-			try (FileOutputStream stream = new FileOutputStream(targetFile, false)) {
+	/**
+	 * Writes whatever the write-behind has not written yet (if anything) right now
+	 */
+	public void flush() {
 
-				// 0xEF 0xBB 0xBF
-				byte[] utf8Bom = {(byte) 239, (byte) 187, (byte) 191};
+		synchronized (writeLock) {
 
-				stream.write(utf8Bom);
+			String content;
 
-			} catch (IOException e) {
-				System.err.println("[ERROR] An IOException occurred when trying to write the UTF8 BOM to the file " + filename + " - inconceivable!");
+			synchronized (this) {
+				content = pendingContent;
+				pendingContent = null;
 			}
+
+			filesPendingWrite.remove(this);
+
+			if (content != null) {
+				writeContent(content);
+			}
+		}
+	}
+
+	private void scheduleWrite(String content) {
+
+		boolean alreadyScheduled;
+
+		synchronized (this) {
+			alreadyScheduled = pendingContent != null;
+			pendingContent = content;
 		}
 
-		// fill file with the actual data
-		// if we are using a UTF8 BOM, append now (to the BOM we just wrote)
-		// if we are not using a UTF8 BOM, do not append (but just overwrite), as we have not yet written
-		// to the file (as we have not written any BOM or anything else)
-		try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(targetFile, usingBom),
-			encodingToCharset(usingEncoding))) {
+		if (alreadyScheduled) {
+			return;
+		}
 
-			writer.write(filecontent);
+		filesPendingWrite.add(this);
+
+		getWriteBehindExecutor().schedule(new Runnable() {
+			public void run() {
+				flush();
+			}
+		}, writeBehindMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private static synchronized ScheduledExecutorService getWriteBehindExecutor() {
+
+		if (writeBehindExecutor == null) {
+
+			writeBehindExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "TextFile write-behind");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					List<TextFile> pendingFiles;
+					synchronized (filesPendingWrite) {
+						pendingFiles = new ArrayList<>(filesPendingWrite);
+					}
+					for (TextFile pendingFile : pendingFiles) {
+						pendingFile.flush();
+					}
+				}
+			});
+		}
+
+		return writeBehindExecutor;
+	}
+
+	/**
+	 * Writes the content to disk, incrementally if possible - has to be called with the write lock
+	 */
+	private void writeContent(String content) {
+
+		if (incrementalSaving && (content != null) && writeIncrementally(content)) {
+			return;
+		}
+
+		try (TextFileWriter writer = openWriter()) {
+
+			writer.write(content);
+
+			writer.commit();
 
 		} catch (IOException e) {
 			System.err.println("[ERROR] An IOException occurred when trying to write to the file " + filename + " - inconceivable!");
+			return;
+		}
+
+		if (incrementalSaving) {
+			rememberSaved(content);
+		}
+	}
+
+	/**
+	 * Writes only the part of the content which differs from what is on disk
+	 * @return true if that worked, false if the whole content has to be written instead
+	 */
+	private boolean writeIncrementally(String content) {
+
+		if ((savedContent == null) || (savedEncoding != getEncoding())) {
+			return false;
+		}
+
+		java.io.File javaFile = getJavaFile();
+		if ((javaFile.length() != savedLength) || (javaFile.lastModified() != savedModified)) {
+			return false;
+		}
+
+		int len = Math.min(savedContent.length(), content.length());
+		int common = 0;
+		while ((common < len) && (savedContent.charAt(common) == content.charAt(common))) {
+			common++;
+		}
+
+		// we do not split characters consisting of two chars
+		if ((common > 0) && Character.isHighSurrogate(content.charAt(common - 1))) {
+			common--;
+		}
+
+		if ((common == savedContent.length()) && (common == content.length())) {
+			rememberSaved(content);
+			return true;
+		}
+
+		boolean appending = common == savedContent.length();
+
+		if (atomicSaving && !appending) {
+			return false;
+		}
+
+		Charset charset = encodingToCharset(getEncoding());
+
+		long offset = getBomLength(getEncoding()) + getEncodedLength(content, common, charset);
+
+		ByteBuffer tail = charset.encode(CharBuffer.wrap(content, common, content.length()));
+
+		try (FileChannel channel = FileChannel.open(getJavaPath(), StandardOpenOption.WRITE)) {
+
+			long pos = offset;
+			while (tail.hasRemaining()) {
+				pos += channel.write(tail, pos);
+			}
+
+			// if the content got shorter, we cut off whatever came after it
+			if (!appending) {
+				channel.truncate(pos);
+			}
+
+			if (syncOnSave) {
+				channel.force(false);
+			}
+
+		} catch (IOException e) {
+			System.err.println("[ERROR] An IOException occurred when trying to write to the file " + filename + " - inconceivable!");
+			savedContent = null;
+			return true;
+		}
+
+		rememberSaved(content);
+
+		return true;
+	}
+
+	private void rememberSaved(String content) {
+
+		java.io.File javaFile = getJavaFile();
+
+		savedContent = content;
+		savedEncoding = getEncoding();
+		savedLength = javaFile.length();
+		savedModified = javaFile.lastModified();
+	}
+
+	private static int getBomLength(TextEncoding encoding) {
+
+		if (encoding == TextEncoding.UTF8_WITH_BOM) {
+			return 3;
 		}
+
+		return 0;
+	}
+
+	/**
+	 * Returns how many bytes the first len chars of the content take up in the charset,
+	 * without actually encoding them
+	 */
+	private static long getEncodedLength(String content, int len, Charset charset) {
+
+		if (!StandardCharsets.UTF_8.equals(charset)) {
+			return len;
+		}
+
+		long result = 0;
+
+		for (int i = 0; i < len; i++) {
+			char c = content.charAt(i);
+			if (c < 0x80) {
+				result += 1;
+			} else if (c < 0x800) {
+				result += 2;
+			} else if (Character.isHighSurrogate(c) && (i + 1 < len) && Character.isLowSurrogate(content.charAt(i + 1))) {
+				result += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				// a lone surrogate is encoded as a question mark
+				result += 1;
+			} else {
+				result += 3;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Opens a buffered writer into this file (overwriting it), which starts with the UTF8 BOM
+	 * if one is used and encodes text in the encoding of this file - such that content can be
+	 * saved while it is being generated, without building it as one string first
+	 * Once everything has been written, commit() has to be called on the writer, as otherwise
+	 * the content does not end up in the file when saving atomically
+	 */
+	protected TextFileWriter openWriter() throws IOException {
+
+		// whatever is written now is not known to us when saving incrementally
+		savedContent = null;
+
+		// the following line works also if usingEncoding is null, in which case
+		// we want to default to UTF8_WITHOUT_BOM anyway
+		boolean usingBom = usingEncoding == TextEncoding.UTF8_WITH_BOM;
+
+		java.io.File targetFile;
+		java.io.File tempFile = null;
+
+		if (atomicSaving) {
+			targetFile = getJavaFile();
+			createParentDirectory();
+			tempFile = new java.io.File(targetFile.getAbsoluteFile().getParentFile(),
+				"." + targetFile.getName() + "." + tempFileCounter.incrementAndGet() + ".tmp");
+		} else {
+			targetFile = initSave();
+		}
+
+		FileOutputStream stream;
+		if (tempFile == null) {
+			stream = new FileOutputStream(targetFile, false);
+		} else {
+			stream = new FileOutputStream(tempFile, false);
+		}
+
+		if (usingBom) {
+			// 0xEF 0xBB 0xBF
+			byte[] utf8Bom = {(byte) 239, (byte) 187, (byte) 191};
+
+			try {
+				stream.write(utf8Bom);
+			} catch (IOException e) {
+				stream.close();
+				if (tempFile != null) {
+					tempFile.delete();
+				}
+				throw e;
+			}
+		}
+
+		return new TextFileWriter(stream, encodingToCharset(usingEncoding), WRITE_BUFFER_SIZE, tempFile, targetFile, syncOnSave);
 	}
 
 	/**
@@ -0,0 +1,146 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * The writer into which a TextFile is saved - once everything has been written, commit()
+ * has to be called, which (if requested) syncs the content to the disk and (when saving
+ * atomically) replaces the actual file with the temporary file that was written into
+ *
+ * If the writer is closed without having been committed, the temporary file is thrown away
+ * and the actual file stays as it was
+ */
+class TextFileWriter extends BufferedWriter {
+
+	private FileOutputStream stream;
+
+	// the file being written into, if it is not the target file itself
+	private java.io.File tempFile;
+
+	private java.io.File targetFile;
+
+	private boolean sync;
+
+	private boolean committed = false;
+
+
+	TextFileWriter(FileOutputStream stream, Charset charset, int bufferSize, java.io.File tempFile,
+		java.io.File targetFile, boolean sync) {
+
+		super(new OutputStreamWriter(stream, charset), bufferSize);
+
+		this.stream = stream;
+		this.tempFile = tempFile;
+		this.targetFile = targetFile;
+		this.sync = sync;
+	}
+
+	/**
+	 * Finishes the writing, after which the content is in the actual file
+	 */
+	void commit() throws IOException {
+
+		if (committed) {
+			return;
+		}
+
+		flush();
+
+		if (sync) {
+			stream.getFD().sync();
+		}
+
+		super.close();
+
+		if (tempFile == null) {
+			committed = true;
+			return;
+		}
+
+		// only once the temporary file has replaced the actual file are we committed - until then,
+		// close() still throws the temporary file away if anything goes wrong
+		try {
+			copyPermissions(targetFile, tempFile);
+			try {
+				Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+
+		committed = true;
+
+		if (sync) {
+			syncDirectory(targetFile.getAbsoluteFile().getParentFile());
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (committed) {
+			return;
+		}
+
+		try {
+			super.close();
+		} finally {
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Gives the temporary file the POSIX permissions of the file that it is going to replace,
+	 * as it would otherwise end up with the default permissions of newly created files
+	 */
+	private static void copyPermissions(java.io.File from, java.io.File to) {
+
+		if (!from.exists()) {
+			return;
+		}
+
+		try {
+			Files.setPosixFilePermissions(to.toPath(), Files.getPosixFilePermissions(from.toPath()));
+		} catch (UnsupportedOperationException | IOException e) {
+			// not every file system has POSIX permissions, and then there are none to be kept
+		}
+	}
+
+	/**
+	 * Syncs a directory, such that a file which has just been renamed within it is still
+	 * there after a crash
+	 */
+	static void syncDirectory(java.io.File dir) {
+
+		if (dir == null) {
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// not every operating system allows to open or sync directories, and there is
+			// nothing more that we could do about it then
+		}
+	}
+
+}
@@ -11,7 +11,6 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 
 /**
@@ -88,7 +87,7 @@ public class XML extends Record {
 			simpleContents = other.getInnerText();
 		} else {
 			kind = RecordKind.OBJECT;
-			objContents = new TreeMap<String, Record>();
+			objContents = createObjectMap();
 
 			for (XmlElement child : xmlChildren) {
 				if (objContents.containsKey(child.getTagName())) {
@@ -0,0 +1,21 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import java.util.List;
+
+
+/**
+ * This interface describes a callback for elements found by an XmlStreamReader
+ */
+public interface XmlElementFoundCallback {
+
+	/**
+	 * An element matching a tag path has been found and read completely
+	 * @param element  The element together with all of its children (but without any parent)
+	 * @param path  The tag names of the element and all of its ancestors, starting with the root
+	 */
+	void foundElement(XmlElement element, List<String> path);
+}
@@ -80,6 +80,28 @@ public class XmlFile extends File {
 		return mode;
 	}
 
+	/**
+	 * Returns whether the contents have already been loaded (or set)
+	 */
+	public boolean isLoaded() {
+		return rootElement != null;
+	}
+
+	/**
+	 * Streams through the file as it is on disk, without loading all of it at once, calling
+	 * the callback for each element matching the tag path (such as sheetData/row) together
+	 * with its children - see XmlStreamReader
+	 * @return true if the file was read, false if it could not be read
+	 */
+	public boolean streamElems(String tagPath, XmlElementFoundCallback callback) {
+
+		XmlStreamReader reader = new XmlStreamReader(this);
+
+		reader.addMatch(tagPath, callback);
+
+		return reader.read();
+	}
+
 	protected void loadXmlContents() {
 
 		rootElement = XmlParser.parseXml(getJavaFile());
@@ -0,0 +1,322 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+
+/**
+ * A streaming XML reader, which goes through a document once from start to end and only
+ * builds XmlElements for the elements matching one of the given tag paths - such that even
+ * huge XML files can be processed with memory for just one matching element at a time
+ *
+ * XmlStreamReader reader = new XmlStreamReader(file);
+ * reader.addMatch("sheetData/row", new XmlElementFoundCallback() { ... });
+ * reader.read();
+ *
+ * A tag path is a list of tag names separated by slashes, in which * stands for any tag name;
+ * if it starts with a slash, it has to match the whole path of an element starting at the root
+ * (such as /worksheet/sheetData/row), and otherwise just the end of it (such as sheetData/row)
+ *
+ * The XmlElements look just like the ones built by XmlParser (with tag and attribute names
+ * including their namespace prefixes), except that the matching elements have no parents
+ */
+public class XmlStreamReader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private Object source;
+
+	private List<String[]> matchPaths = new ArrayList<>();
+
+	private List<Boolean> matchAbsolute = new ArrayList<>();
+
+	private List<XmlElementFoundCallback> matchCallbacks = new ArrayList<>();
+
+	private volatile boolean stopped = false;
+
+
+	/**
+	 * Create a reader for the given file
+	 */
+	public XmlStreamReader(File file) {
+
+		this.source = file.getJavaFile();
+	}
+
+	/**
+	 * Create a reader for the given stream (which does not need to be buffered, and which is
+	 * not closed by the reader)
+	 */
+	public XmlStreamReader(InputStream stream) {
+
+		this.source = stream;
+	}
+
+	/**
+	 * Create a reader for the given XML text
+	 */
+	public XmlStreamReader(String xml) {
+
+		this.source = xml;
+	}
+
+	/**
+	 * Call the callback for each element matching the tag path, with the element and all of
+	 * its children - if several tag paths match, the callbacks of all of them are called, and
+	 * if a matching element contains another matching element, the inner one is reported first
+	 */
+	public void addMatch(String tagPath, XmlElementFoundCallback callback) {
+
+		boolean absolute = tagPath.startsWith("/");
+
+		if (absolute) {
+			tagPath = tagPath.substring(1);
+		}
+
+		matchPaths.add(tagPath.split("/"));
+		matchAbsolute.add(absolute);
+		matchCallbacks.add(callback);
+	}
+
+	/**
+	 * Stops the reading - which can be called from within a callback, e.g. once the element
+	 * that we were looking for has been found
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Reads through the document, calling the callbacks for the matching elements
+	 * @return true if the document was read (or stopped), false if it could not be read
+	 */
+	public boolean read() {
+
+		stopped = false;
+
+		try {
+			if (source instanceof java.io.File) {
+				try (InputStream stream = new BufferedInputStream(new FileInputStream((java.io.File) source), BUFFER_SIZE)) {
+					readStream(stream);
+				}
+			} else if (source instanceof String) {
+				readStream(new ByteArrayInputStream(((String) source).getBytes(StandardCharsets.UTF_8)));
+			} else {
+				readStream(new BufferedInputStream((InputStream) source, BUFFER_SIZE));
+			}
+		} catch (IOException | XMLStreamException e) {
+			System.err.println("[ERROR] The XML could not be read: " + e);
+			return false;
+		}
+
+		return true;
+	}
+
+	private void readStream(InputStream stream) throws XMLStreamException {
+
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+
+		// we get each text in one piece, rather than appending it together bit by bit
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		XMLStreamReader reader = factory.createXMLStreamReader(stream);
+
+		try {
+			walk(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void walk(XMLStreamReader reader) throws XMLStreamException {
+
+		// the tag names of the current element and all of its ancestors
+		String[] path = new String[16];
+		int depth = 0;
+
+		// for each level, the element that is being built there (if any) and the matches it has
+		XmlElement[] elements = new XmlElement[16];
+		List<List<Integer>> matchesPerLevel = new ArrayList<>();
+
+		// the amount of elements being built which contain the current one
+		int building = 0;
+
+		while (reader.hasNext() && !stopped) {
+
+			switch (reader.next()) {
+
+				case XMLStreamConstants.START_ELEMENT:
+
+					if (depth == path.length) {
+						path = Arrays.copyOf(path, depth * 2);
+						elements = Arrays.copyOf(elements, depth * 2);
+					}
+
+					String name = getQName(reader.getPrefix(), reader.getLocalName()).intern();
+					path[depth] = name;
+
+					List<Integer> matches = getMatches(path, depth + 1);
+
+					XmlElement element = null;
+					if ((building > 0) || (matches != null)) {
+						element = new XmlElement(name, getAttributes(reader));
+						if (building > 0) {
+							elements[depth - 1].addChild(element);
+						}
+						building++;
+					}
+
+					elements[depth] = element;
+					if (matchesPerLevel.size() == depth) {
+						matchesPerLevel.add(matches);
+					} else {
+						matchesPerLevel.set(depth, matches);
+					}
+
+					depth++;
+					break;
+
+				case XMLStreamConstants.END_ELEMENT:
+
+					depth--;
+
+					XmlElement finished = elements[depth];
+					elements[depth] = null;
+
+					if (finished == null) {
+						break;
+					}
+
+					building--;
+
+					List<Integer> finishedMatches = matchesPerLevel.get(depth);
+					if (finishedMatches != null) {
+						List<String> finishedPath = Arrays.asList(Arrays.copyOf(path, depth + 1));
+						for (Integer match : finishedMatches) {
+							matchCallbacks.get(match).foundElement(finished, finishedPath);
+						}
+					}
+					break;
+
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+
+					if (building > 0) {
+						elements[depth - 1].appendInnerText(reader.getText());
+					}
+					break;
+
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the indices of the tag paths matching the path of the current element, or null
+	 */
+	private List<Integer> getMatches(String[] path, int depth) {
+
+		List<Integer> result = null;
+
+		for (int m = 0; m < matchPaths.size(); m++) {
+
+			String[] matchPath = matchPaths.get(m);
+
+			if (matchAbsolute.get(m)) {
+				if (matchPath.length != depth) {
+					continue;
+				}
+			} else {
+				if (matchPath.length > depth) {
+					continue;
+				}
+			}
+
+			boolean matching = true;
+			int offset = depth - matchPath.length;
+			for (int i = 0; i < matchPath.length; i++) {
+				if (!"*".equals(matchPath[i]) && !matchPath[i].equals(path[offset + i])) {
+					matching = false;
+					break;
+				}
+			}
+
+			if (matching) {
+				if (result == null) {
+					result = new ArrayList<>();
+				}
+				result.add(m);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the attributes of the current element just like XmlParser does, including the
+	 * declarations of namespaces
+	 */
+	private static TinyXmlMap getAttributes(XMLStreamReader reader) {
+
+		int namespaceCount = reader.getNamespaceCount();
+		int attributeCount = reader.getAttributeCount();
+
+		TinyXmlMap result = new TinyXmlMap(namespaceCount + attributeCount);
+
+		for (int i = 0; i < namespaceCount; i++) {
+			String prefix = reader.getNamespacePrefix(i);
+			String key = "xmlns";
+			if ((prefix != null) && (prefix.length() > 0)) {
+				key = "xmlns:" + prefix;
+			}
+			result.putFast(key.intern(), reader.getNamespaceURI(i));
+		}
+
+		for (int i = 0; i < attributeCount; i++) {
+
+			// internalize all keys
+			String key = getQName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)).intern();
+
+			// only internalize a FEW values, based on their keys
+			String val = reader.getAttributeValue(i);
+
+			// we can use == comparison as the key has already been internalized
+			if (key == "xsi:type") {
+				val = val.intern();
+			}
+
+			result.putFast(key, val);
+		}
+
+		return result;
+	}
+
+	private static String getQName(String prefix, String localName) {
+
+		if ((prefix == null) || (prefix.length() < 1)) {
+			return localName;
+		}
+
+		return prefix + ":" + localName;
+	}
+
+}
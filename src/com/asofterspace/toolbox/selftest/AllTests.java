@@ -47,6 +47,10 @@ public class AllTests {
 
 		TestUtils.run(new ConfigFileTest());
 
+		TestUtils.run(new DirectoryTest());
+
+		TestUtils.run(new CsvTest());
+
 		TestUtils.run(new CoderTest());
 
 		TestUtils.run(new CoderJavaTest());
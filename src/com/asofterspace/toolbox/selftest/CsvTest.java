@@ -0,0 +1,265 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.selftest;
+
+import com.asofterspace.toolbox.io.CsvColumnType;
+import com.asofterspace.toolbox.io.CsvFile;
+import com.asofterspace.toolbox.io.CsvFileGerman;
+import com.asofterspace.toolbox.io.CsvReader;
+import com.asofterspace.toolbox.io.CsvTable;
+import com.asofterspace.toolbox.io.CsvWriter;
+import com.asofterspace.toolbox.test.Test;
+import com.asofterspace.toolbox.test.TestUtils;
+import com.asofterspace.toolbox.utils.DateUtils;
+import com.asofterspace.toolbox.utils.Record;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class CsvTest implements Test {
+
+	@Override
+	public void runAll() {
+
+		columnsTest();
+
+		streamingTest();
+
+		columnsLoadingTest();
+	}
+
+	public void columnsTest() {
+
+		TestUtils.start("CSV Columns");
+
+		CsvFile csv = new CsvFile(AllTests.TEST_PATH + "/columns.csv");
+		csv.saveContent("name,quote,count\n\"Doe, Jane\",\"She said \"\"hi\"\"\",3\n");
+
+		List<String> head = csv.getHeadLineInColumns();
+		List<String> line = csv.getContentLineInColumns();
+
+		if (!Arrays.asList("name", "quote", "count").equals(head) ||
+			!Arrays.asList("Doe, Jane", "She said \"hi\"", "3").equals(line)) {
+			TestUtils.fail("We read the columns of a CSV file and got " + head + " and " + line + "!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void streamingTest() {
+
+		TestUtils.start("CSV Streaming");
+
+		try {
+			// cells with separators, quotes and line breaks survive writing and reading
+			List<String> tricky = Arrays.asList("plain", "with;separator", "with \"quotes\"", "two\nlines", "", "crlf\r\nend");
+
+			CsvFileGerman germanCsv = new CsvFileGerman(AllTests.TEST_PATH + "/streaming/german.csv");
+			try (CsvWriter writer = germanCsv.getWriter()) {
+				writer.writeRow("a", "b", "c", "d", "e", "f");
+				writer.writeRow(tricky);
+				for (int i = 0; i < 100000; i++) {
+					writer.writeRow("" + i, "row " + i, "x", "y", "z", "" + (i * 2));
+				}
+			}
+
+			if (!germanCsv.getContent().startsWith("a;b;c")) {
+				TestUtils.fail("We wrote a German CSV file and it started with " + germanCsv.getContent().substring(0, 10) + "!");
+				return;
+			}
+
+			int count = 0;
+			try (CsvReader reader = germanCsv.getReader()) {
+				List<String> head = reader.readHeadLine();
+				List<String> row = reader.nextRow();
+				if (!Arrays.asList("a", "b", "c", "d", "e", "f").equals(head) || !tricky.equals(row)) {
+					TestUtils.fail("We wrote tricky cells to a CSV file and read back " + head + " and " + row + "!");
+					return;
+				}
+				Record rec;
+				while ((rec = reader.nextRecord()) != null) {
+					if (!("row " + count).equals(rec.getString("b")) || !("" + (count * 2)).equals(rec.getString("f"))) {
+						TestUtils.fail("We read the record " + rec + " from a CSV file in row " + reader.getRowNum() + "!");
+						return;
+					}
+					count++;
+				}
+			}
+
+			if (count != 100000) {
+				TestUtils.fail("We wrote 100000 rows to a CSV file and read back " + count + "!");
+				return;
+			}
+
+			// rows ending with \r\n, a last row without line break and column views
+			CsvReader reader = new CsvReader(new StringReader("x,y\r\n1,\"2\"\r\n3,4"), ',');
+			List<String> views = new ArrayList<>();
+			while (reader.readRow()) {
+				views.add(reader.getColumnView(1).toString());
+			}
+			reader.close();
+			if (!Arrays.asList("y", "2", "4").equals(views)) {
+				TestUtils.fail("We read rows ending in different ways and got " + views + "!");
+				return;
+			}
+
+		} catch (IOException e) {
+			TestUtils.fail("There was an I/O exception: " + e);
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void columnsLoadingTest() {
+
+		TestUtils.start("CSV Columns Loading");
+
+		try {
+			// several megabytes, such that the file is split into several chunks, with quoted
+			// line breaks all over the place that must not be mistaken for row boundaries
+			CsvFile csv = new CsvFile(AllTests.TEST_PATH + "/columns/big.csv");
+			try (CsvWriter writer = csv.getWriter()) {
+				writer.writeRow("id", "big", "price", "city", "note");
+				for (int i = 0; i < 100000; i++) {
+					writer.writeRow("" + i, "" + (i * 100000L), "" + (i % 10) + ".5", "city " + (i % 3), "line\nbreak, " + i);
+				}
+				writer.writeRow("100000", "", "", "", "");
+			}
+
+			CsvTable table = csv.loadColumns(null, new ForkJoinPool(4));
+
+			if ((table.getRowCount() != 100001) ||
+				(table.getColumnType("id") != CsvColumnType.INT) ||
+				(table.getColumnType("big") != CsvColumnType.LONG) ||
+				(table.getColumnType("price") != CsvColumnType.DOUBLE) ||
+				(table.getColumnType("city") != CsvColumnType.STRING)) {
+				TestUtils.fail("We loaded a CSV file with " + table.getRowCount() + " rows into columns of the types " +
+					table.getColumnType("id") + ", " + table.getColumnType("big") + ", " +
+					table.getColumnType("price") + " and " + table.getColumnType("city") + "!");
+				return;
+			}
+
+			int[] ids = table.getIntColumn("id");
+			for (int i = 0; i <= 100000; i++) {
+				if (ids[i] != i) {
+					TestUtils.fail("We loaded the id " + ids[i] + " into row " + i + "!");
+					return;
+				}
+			}
+
+			if (!("line\nbreak, 77777".equals(table.getString("note", 77777))) ||
+				(table.getLongColumn("big")[99999] != 9999900000L) ||
+				!table.isNull("price", 100000) || table.isNull("price", 99999)) {
+				TestUtils.fail("We loaded the cells " + table.getString("note", 77777) + ", " +
+					table.getLongColumn("big")[99999] + " and " + table.getString("price", 100000) + "!");
+				return;
+			}
+
+			Map<String, Integer> counts = table.countBy("city");
+			Map<String, Double> sums = table.sumBy("city", "id");
+			if ((table.getDictionary("city").length != 3) || (counts.get("city 1") != 33333) ||
+				(sums.get("city 0") != 1666683333.0) || (table.sum("id") != 5000050000.0) ||
+				(table.min("price") != 0.5) || (table.max("price") != 9.5) || (table.sum("city") != null)) {
+				TestUtils.fail("We aggregated the columns and got " + counts + ", " + sums + ", " + table.sum("id") +
+					", " + table.min("price") + " and " + table.max("price") + "!");
+				return;
+			}
+
+			// a German file with decimal commas and a given schema
+			CsvFileGerman germanCsv = new CsvFileGerman(AllTests.TEST_PATH + "/columns/german.csv");
+			germanCsv.saveContent("Datum;Betrag;Nummer\n2026-01-15;1.234,5;007\n2026-02-01;-3,25;\n");
+
+			Map<String, CsvColumnType> schema = new HashMap<>();
+			schema.put("Datum", CsvColumnType.DATE);
+			schema.put("Nummer", CsvColumnType.STRING);
+
+			table = germanCsv.loadColumns(schema);
+
+			if ((table.getRowCount() != 2) || (table.getColumnType("Betrag") != CsvColumnType.DOUBLE) ||
+				(table.getDoubleColumn("Betrag")[0] != 1234.5) || (table.getDoubleColumn("Betrag")[1] != -3.25) ||
+				!"007".equals(table.getString("Nummer", 0)) || !table.isNull("Nummer", 1) ||
+				(table.getLongColumn("Datum")[1] <= table.getLongColumn("Datum")[0])) {
+				TestUtils.fail("We loaded a German CSV file into columns and got " + table.getColumnNames() + " with " +
+					table.getRowCount() + " rows, " + table.getString("Betrag", 0) + " and " + table.getString("Nummer", 0) + "!");
+				return;
+			}
+
+			// values further down than the rows from which the types are guessed, which do not
+			// fit the guessed types, must neither be rounded nor dropped
+			CsvFile lateCsv = new CsvFile(AllTests.TEST_PATH + "/columns/late.csv");
+			try (CsvWriter writer = lateCsv.getWriter()) {
+				writer.writeRow("whole", "decimal", "text", "fixed");
+				for (int i = 0; i < 1500; i++) {
+					writer.writeRow("" + i, "" + i, "" + i, "" + i);
+				}
+				writer.writeRow("5000000000", "2.7", "abc", "2.7");
+			}
+
+			schema = new HashMap<>();
+			schema.put("fixed", CsvColumnType.INT);
+
+			table = lateCsv.loadColumns(schema);
+
+			if ((table.getColumnType("whole") != CsvColumnType.LONG) ||
+				(table.getColumnType("decimal") != CsvColumnType.DOUBLE) ||
+				(table.getColumnType("text") != CsvColumnType.STRING) ||
+				(table.getColumnType("fixed") != CsvColumnType.INT)) {
+				TestUtils.fail("We loaded values that do not fit the guessed types into columns of the types " +
+					table.getColumnType("whole") + ", " + table.getColumnType("decimal") + ", " +
+					table.getColumnType("text") + " and " + table.getColumnType("fixed") + "!");
+				return;
+			}
+
+			if ((table.getLongColumn("whole")[1500] != 5000000000L) || (table.getLongColumn("whole")[1499] != 1499) ||
+				(table.getDoubleColumn("decimal")[1500] != 2.7) || (table.getDoubleColumn("decimal")[1499] != 1499.0) ||
+				!"abc".equals(table.getString("text", 1500)) || !"1499".equals(table.getString("text", 1499)) ||
+				!table.isNull("fixed", 1500) || (table.getIntColumn("fixed")[1499] != 1499)) {
+				TestUtils.fail("We loaded the late values " + table.getString("whole", 1500) + ", " +
+					table.getString("decimal", 1500) + ", " + table.getString("text", 1500) + " and " +
+					table.getString("fixed", 1500) + "!");
+				return;
+			}
+
+			// dates in several chunks that are parsed at the same time
+			CsvFile datedCsv = new CsvFile(AllTests.TEST_PATH + "/columns/dated.csv");
+			try (CsvWriter writer = datedCsv.getWriter()) {
+				writer.writeRow("day", "note");
+				for (int i = 0; i < 30000; i++) {
+					writer.writeRow((2000 + (i % 27)) + "-" + (1 + (i % 12)) + "-" + (1 + (i % 28)),
+						"some padding such that there are several chunks, some padding such that there are several chunks");
+				}
+			}
+
+			schema = new HashMap<>();
+			schema.put("day", CsvColumnType.DATE);
+
+			table = datedCsv.loadColumns(schema, new ForkJoinPool(4));
+
+			long[] days = table.getLongColumn("day");
+			for (int i = 0; i < 30000; i++) {
+				String day = (2000 + (i % 27)) + "-" + (1 + (i % 12)) + "-" + (1 + (i % 28));
+				if (table.isNull("day", i) || (days[i] != DateUtils.parseDate(day).getTime())) {
+					TestUtils.fail("We loaded the date " + day + " in parallel and got " + table.getString("day", i) + "!");
+					return;
+				}
+			}
+
+		} catch (IOException e) {
+			TestUtils.fail("There was an I/O exception: " + e);
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+}
@@ -0,0 +1,249 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.selftest;
+
+import com.asofterspace.toolbox.io.Directory;
+import com.asofterspace.toolbox.io.DirectoryChangeCallback;
+import com.asofterspace.toolbox.io.DirectoryWalker;
+import com.asofterspace.toolbox.io.DirectoryWatcher;
+import com.asofterspace.toolbox.io.File;
+import com.asofterspace.toolbox.io.SimpleFile;
+import com.asofterspace.toolbox.test.Test;
+import com.asofterspace.toolbox.test.TestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+public class DirectoryTest implements Test {
+
+	@Override
+	public void runAll() {
+
+		walkerTest();
+
+		watcherTest();
+	}
+
+	private Directory createTestTree(String name) {
+
+		Directory baseDir = new Directory(AllTests.TEST_PATH + "/" + name);
+		baseDir.clear();
+
+		for (int i = 0; i < 10; i++) {
+			Directory subDir = new Directory(baseDir, "sub" + i + "/inner");
+			subDir.create();
+			for (int j = 0; j < 10; j++) {
+				SimpleFile file = new SimpleFile(subDir, "file" + j + ((j % 2 == 0) ? ".json" : ".txt"));
+				file.saveContent("content " + i + " " + j);
+			}
+		}
+
+		SimpleFile topFile = new SimpleFile(baseDir, "top.json");
+		topFile.saveContent("top");
+
+		return baseDir;
+	}
+
+	private static List<String> getSortedNames(List<File> files) {
+		List<String> result = new ArrayList<>();
+		for (File file : files) {
+			result.add(file.getCanonicalFilename());
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	public void walkerTest() {
+
+		TestUtils.start("Directory Walker");
+
+		Directory baseDir = createTestTree("walker");
+
+		List<File> allFiles = baseDir.getAllFiles(true);
+		if (allFiles.size() != 101) {
+			TestUtils.fail("We created 101 files and walked through them, but found " + allFiles.size() + "!");
+			return;
+		}
+
+		if (baseDir.getAllFiles(false).size() != 1) {
+			TestUtils.fail("We walked through a directory non-recursively and found " + baseDir.getAllFiles(false) + "!");
+			return;
+		}
+
+		// walking in parallel finds the same files
+		DirectoryWalker walker = baseDir.createWalker();
+		walker.setParallel(true);
+		List<String> parallelNames = getSortedNames(walker.getAllFiles());
+		if (!parallelNames.equals(getSortedNames(allFiles))) {
+			TestUtils.fail("We walked through a directory in parallel and found " + parallelNames + "!");
+			return;
+		}
+
+		// the files are named just like when created from a java.io.File
+		File expected = new File(new java.io.File(AllTests.TEST_PATH + "/walker/sub3/inner/file4.json"));
+		if (!parallelNames.contains(expected.getCanonicalFilename())) {
+			TestUtils.fail("We walked through a directory and did not find " + expected.getCanonicalFilename() + "!");
+			return;
+		}
+
+		if ((baseDir.getAllFilesEndingWith(".json", true).size() != 51) ||
+			(baseDir.getAllFilesStartingAndEndingWith("file1", ".txt", true).size() != 10)) {
+			TestUtils.fail("We walked through a directory looking for specific files and found a wrong amount!");
+			return;
+		}
+
+		walker = baseDir.createWalker();
+		walker.setGlob("sub[12]/**/*.{json,txt}");
+		int pathGlobCount = walker.getAllFiles().size();
+		walker.setGlob("file[0-4].*");
+		int nameGlobCount = walker.getAllFiles().size();
+		if ((pathGlobCount != 20) || (nameGlobCount != 50)) {
+			TestUtils.fail("We walked through a directory using globs and found " + pathGlobCount + " and " +
+				nameGlobCount + " files instead of 20 and 50!");
+			return;
+		}
+
+		// a link leading back up is only followed once
+		Path link = new Directory(baseDir, "sub0/inner/loop").getJavaPath();
+		try {
+			Files.createSymbolicLink(link, baseDir.getJavaPath().toAbsolutePath());
+		} catch (IOException | UnsupportedOperationException e) {
+			// some systems do not let us create links, so that part cannot be tested there
+			TestUtils.succeed();
+			return;
+		}
+
+		int linkedCount = baseDir.getAllFiles(true).size();
+		int followedCount = baseDir.getAllFiles(true, true).size();
+
+		// deleting the directory would otherwise follow the link forever
+		try {
+			Files.delete(link);
+		} catch (IOException e) {
+			TestUtils.fail("We could not delete the link " + link + " again!");
+			return;
+		}
+
+		if ((linkedCount != 101) || (followedCount != 101)) {
+			TestUtils.fail("We walked through a directory containing a link back to itself and found " +
+				baseDir.getAllFiles(true, true).size() + " files!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void watcherTest() {
+
+		TestUtils.start("Directory Watcher");
+
+		Directory baseDir = createTestTree("watcher");
+
+		final List<String> added = new ArrayList<>();
+		final List<String> modified = new ArrayList<>();
+		final List<String> deleted = new ArrayList<>();
+
+		DirectoryChangeCallback callback = new DirectoryChangeCallback() {
+			public void fileAdded(File file) {
+				synchronized (added) {
+					added.add(file.getLocalFilename());
+				}
+			}
+			public void fileModified(File file) {
+				synchronized (added) {
+					modified.add(file.getLocalFilename());
+				}
+			}
+			public void fileDeleted(File file) {
+				synchronized (added) {
+					deleted.add(file.getLocalFilename());
+				}
+			}
+		};
+
+		DirectoryWatcher watcher = baseDir.watch(callback);
+
+		if ((baseDir.getAllFiles(true).size() != 101) || (baseDir.getAllFiles(false).size() != 1) ||
+			(baseDir.findFile("file3.txt") == null) || (baseDir.findFile("nothing.txt") != null)) {
+			TestUtils.fail("We started watching a directory and its index did not contain what we expected!");
+			baseDir.stopWatching();
+			return;
+		}
+
+		new SimpleFile(baseDir, "sub1/inner/new.txt").saveContent("new");
+		new SimpleFile(baseDir, "sub2/inner/file3.txt").saveContent("changed and longer");
+		new SimpleFile(baseDir, "sub3/inner/file5.txt").delete();
+		new SimpleFile(baseDir, "sub10/fresh/newest.json").saveContent("newest");
+
+		// give the watch service some time to tell us about the changes
+		for (int i = 0; i < 100; i++) {
+			synchronized (added) {
+				if ((added.size() >= 2) && (modified.size() >= 1) && (deleted.size() >= 1)) {
+					break;
+				}
+			}
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+
+		// and if it did not (e.g. on network drives), rescanning has to find them
+		watcher.rescan();
+
+		baseDir.stopWatching();
+
+		synchronized (added) {
+			Collections.sort(added);
+			if (!added.toString().equals("[new.txt, newest.json]") || !modified.contains("file3.txt") ||
+				!deleted.toString().equals("[file5.txt]")) {
+				TestUtils.fail("We changed a watched directory and got told that " + added + " were added, " +
+					modified + " were modified and " + deleted + " were deleted!");
+				return;
+			}
+		}
+
+		if ((watcher.getAllFiles(true).size() != 102) || (baseDir.getAllFiles(true).size() != 102) ||
+			(watcher.findFile("newest.json") == null) || (watcher.findFile("file5.txt") == null)) {
+			TestUtils.fail("We changed a watched directory and its index did not follow along!");
+			return;
+		}
+
+		// polling finds changes as well
+		DirectoryWatcher poller = new DirectoryWatcher(baseDir, callback);
+		poller.setUsePolling(true);
+		poller.setPollingInterval(60000);
+		poller.start();
+
+		synchronized (added) {
+			added.clear();
+			deleted.clear();
+		}
+		new SimpleFile(baseDir, "sub1/inner/new.txt").delete();
+		new SimpleFile(baseDir, "polled.txt").saveContent("polled");
+		poller.rescan();
+		poller.stop();
+
+		File polledFile = new File(baseDir, "polled.txt");
+		Long polledSize = poller.getSize(polledFile);
+
+		synchronized (added) {
+			if (!added.toString().equals("[polled.txt]") || !deleted.toString().equals("[new.txt]") ||
+				(polledSize == null) || (polledSize != polledFile.getJavaFile().length())) {
+				TestUtils.fail("We changed a polled directory and got told that " + added + " were added and " +
+					deleted + " were deleted!");
+				return;
+			}
+		}
+
+		TestUtils.succeed();
+	}
+}
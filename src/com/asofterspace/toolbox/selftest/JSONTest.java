@@ -6,10 +6,24 @@ package com.asofterspace.toolbox.selftest;
 
 import com.asofterspace.toolbox.io.JSON;
 import com.asofterspace.toolbox.io.JsonFile;
+import com.asofterspace.toolbox.io.JsonLinesFile;
 import com.asofterspace.toolbox.io.JsonParseException;
+import com.asofterspace.toolbox.io.JsonReader;
+import com.asofterspace.toolbox.io.JsonToken;
+import com.asofterspace.toolbox.io.JsonWriter;
+import com.asofterspace.toolbox.io.LazyJsonParseException;
 import com.asofterspace.toolbox.io.SimpleFile;
 import com.asofterspace.toolbox.test.Test;
 import com.asofterspace.toolbox.test.TestUtils;
+import com.asofterspace.toolbox.utils.Record;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 
 public class JSONTest implements Test {
@@ -64,6 +78,18 @@ public class JSONTest implements Test {
 		alphabeticalSortingTest();
 
 		throwsExceptionTest();
+
+		parserMatchesRecursiveParserTest();
+
+		deeplyNestedTest();
+
+		writerTest();
+
+		readerTest();
+
+		jsonLinesTest();
+
+		lazyParsingTest();
 	}
 
 	public void fromSimpleFileTest() throws JsonParseException {
@@ -511,4 +537,297 @@ public class JSONTest implements Test {
 		TestUtils.succeed();
 	}
 
+	public void parserMatchesRecursiveParserTest() throws JsonParseException {
+
+		TestUtils.start("JSON Parser matches Recursive Parser");
+
+		List<String> inputs = new ArrayList<>();
+		inputs.add(new SimpleFile(AllTests.JSON_TEST_DATA_PATH + "/advanced.json").getContent());
+		inputs.add(new SimpleFile(AllTests.JSON_TEST_DATA_PATH + "/utf8.json").getContent());
+		inputs.add("{\"a\": [1, -2, 3.5, -0.25, 1.5e3, true, false, null, \"\", [], {}], \"b\": {\"c\": [[[\"d\"]]]}}");
+		inputs.add("{\"esc\": \"a\\\\b\\\"c\\n\\t\\u00e4\\/\", 'single': 'it\\'s \\\"', \"  spaced key \" : 1}");
+		inputs.add("{unquoted: 1, 'quoted': 2, '': 3,, \"trailing\": 4,}");
+		inputs.add("[1 2 3, , 4]");
+		inputs.add("{\"open\": [1, 2");
+		inputs.add("   ");
+		inputs.add("\"just a string\"");
+		inputs.add("12345678901234567");
+		inputs.add("-9223372036854775808");
+
+		for (String input : inputs) {
+			JSON parsed = new JSON(input);
+			JSON reference = JSON.parseRecursively(input);
+			if (!parsed.equals(reference) || !parsed.toString().equals(reference.toString())) {
+				TestUtils.fail("We parsed " + input + " and got " + parsed + " instead of " + reference + "!");
+				return;
+			}
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void deeplyNestedTest() throws JsonParseException {
+
+		TestUtils.start("JSON Deeply Nested");
+
+		int depth = 100000;
+
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			input.append("{\"a\": [");
+		}
+		input.append("42");
+		for (int i = 0; i < depth; i++) {
+			input.append("]}");
+		}
+
+		Record cur = new JSON(input.toString());
+		for (int i = 0; i < depth; i++) {
+			cur = cur.get("a").get(0);
+		}
+
+		if (!Long.valueOf(42).equals(cur.asObject())) {
+			TestUtils.fail("We parsed a very deeply nested JSON object and did not find the innermost value!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void writerTest() throws JsonParseException {
+
+		TestUtils.start("JSON Writer");
+
+		JSON testObject = new JsonFile(AllTests.JSON_TEST_DATA_PATH + "/advanced.json").getAllContents();
+
+		int[] compressionLevels = {0, 1, 2, Integer.MAX_VALUE};
+
+		for (int compressionLevel : compressionLevels) {
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+			try (JsonWriter writer = new JsonWriter(out, StandardCharsets.UTF_8)) {
+				writer.write(testObject, compressionLevel, "");
+			} catch (IOException e) {
+				TestUtils.fail("We wrote JSON into memory and got an exception: " + e);
+				return;
+			}
+
+			String written = new String(out.toByteArray(), StandardCharsets.UTF_8);
+			String expected = testObject.toString(testObject, compressionLevel, "");
+
+			if (!written.equals(expected)) {
+				TestUtils.fail("We wrote JSON with compression level " + compressionLevel + " into a stream and got:\n" +
+					written + "\ninstead of:\n" + expected);
+				return;
+			}
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void readerTest() throws JsonParseException {
+
+		TestUtils.start("JSON Reader");
+
+		JsonFile advancedFile = new JsonFile(AllTests.JSON_TEST_DATA_PATH + "/advanced.json");
+
+		try (JsonReader reader = advancedFile.getReader()) {
+			JSON read = reader.nextRecord();
+			if (!read.equals(advancedFile.getAllContents())) {
+				TestUtils.fail("We read a JSON file with a JsonReader and got:\n" + read +
+					"\ninstead of:\n" + advancedFile.getAllContents());
+				return;
+			}
+			if (reader.peek() != JsonToken.END_DOCUMENT) {
+				TestUtils.fail("We read a JSON file with a JsonReader and did not reach its end!");
+				return;
+			}
+		} catch (IOException e) {
+			TestUtils.fail("We read a JSON file with a JsonReader and got an exception: " + e);
+			return;
+		}
+
+		// JSON lines, handed to the reader one character at a time to cross all buffer boundaries
+		final StringReader lines = new StringReader(
+			"{\"id\": 1, \"skip\": [1, 2, {\"x\": \"a\\\"b\"}], \"name\": \"one\"}\n" +
+			"{\"skip\": {}, \"id\": 2, \"name\": 'two'}\n");
+
+		Reader slowReader = new Reader() {
+			public int read(char[] buf, int off, int len) throws IOException {
+				return lines.read(buf, off, Math.min(len, 1));
+			}
+			public void close() {
+				lines.close();
+			}
+		};
+
+		StringBuilder result = new StringBuilder();
+
+		try (JsonReader reader = new JsonReader(slowReader)) {
+			while (reader.peek() != JsonToken.END_DOCUMENT) {
+				reader.beginObject();
+				while (reader.hasNext()) {
+					String name = reader.nextName();
+					if ("id".equals(name)) {
+						result.append(reader.nextLong());
+					} else if ("name".equals(name)) {
+						result.append(reader.nextString());
+					} else {
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
+				result.append(";");
+			}
+		} catch (IOException e) {
+			TestUtils.fail("We read JSON lines with a JsonReader and got an exception: " + e);
+			return;
+		}
+
+		if (!"1one;2two;".equals(result.toString())) {
+			TestUtils.fail("We read JSON lines with a JsonReader and got " + result + " instead of 1one;2two;");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void jsonLinesTest() {
+
+		TestUtils.start("JSON Lines");
+
+		JsonLinesFile file = new JsonLinesFile(AllTests.TEST_PATH + "/log.jsonl");
+		file.delete();
+
+		// enough records that the parallel loading splits the file into several chunks
+		int amount = 40000;
+
+		List<Record> batch = new ArrayList<>();
+		for (int i = 0; i < amount - 1; i++) {
+			Record record = Record.emptyObject();
+			record.set("id", i);
+			record.set("text", "entry \"" + i + "\"\nwith two lines");
+			batch.add(record);
+		}
+		file.append(batch);
+
+		Record last = Record.emptyObject();
+		last.set("id", amount - 1);
+		file.append(last);
+
+		List<Record> loaded = file.loadAll();
+		List<Record> loadedInOrder = file.loadAllInParallel(true);
+		List<Record> loadedUnordered = file.loadAllInParallel(false);
+
+		if ((loaded.size() != amount) || (loadedInOrder.size() != amount) || (loadedUnordered.size() != amount)) {
+			TestUtils.fail("We appended " + amount + " records to a JSON lines file and loaded " + loaded.size() +
+				" sequentially, " + loadedInOrder.size() + " in parallel in order and " + loadedUnordered.size() +
+				" in parallel in any order!");
+			return;
+		}
+
+		boolean[] foundUnordered = new boolean[amount];
+
+		for (int i = 0; i < amount; i++) {
+			if ((loaded.get(i).getInteger("id") != i) || (loadedInOrder.get(i).getInteger("id") != i)) {
+				TestUtils.fail("We loaded a JSON lines file and found the records out of order at " + i + "!");
+				return;
+			}
+			foundUnordered[loadedUnordered.get(i).getInteger("id")] = true;
+		}
+
+		for (int i = 0; i < amount; i++) {
+			if (!foundUnordered[i]) {
+				TestUtils.fail("We loaded a JSON lines file in parallel in any order and did not find record " + i + "!");
+				return;
+			}
+		}
+
+		String expectedText = batch.get(7).getString("text");
+		if (!expectedText.equals(loadedInOrder.get(7).getString("text"))) {
+			TestUtils.fail("We loaded " + loadedInOrder.get(7) + " from a JSON lines file, but expected the text " +
+				expectedText + "!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void lazyParsingTest() throws JsonParseException {
+
+		TestUtils.start("JSON Lazy Parsing");
+
+		List<String> inputs = new ArrayList<>();
+		inputs.add(new SimpleFile(AllTests.JSON_TEST_DATA_PATH + "/advanced.json").getContent());
+		inputs.add(new SimpleFile(AllTests.JSON_TEST_DATA_PATH + "/utf8.json").getContent());
+		inputs.add("{\"a\": [1, -2, 3.5, true, null, \"\", [], {}], \"b\": {\"c\": [[[\"d\"]]]}}");
+		inputs.add("{\"brackets\": \"}]{[\\\"]\", 'single': '{it\\'s ]', \"after\": {\"x\": [1]}}");
+		inputs.add("{unquoted: {\"x\": 1}, 'quoted': [2],, \"trailing\": 4,}");
+		inputs.add("[[1 2 3], , {\"a\": 4} [5]]");
+		inputs.add("{\"open\": [1, {\"b\": 2");
+		inputs.add("\"just a string\"");
+
+		for (String input : inputs) {
+			JSON eager = new JSON(input);
+			JSON lazy = JSON.parseLazily(input);
+			if (!lazy.equals(eager) || !lazy.toString().equals(eager.toString())) {
+				TestUtils.fail("We parsed " + input + " lazily and got " + lazy + " instead of " + eager + "!");
+				return;
+			}
+		}
+
+		JSON lazy = JSON.parseLazily("{\"config\": {\"name\": \"test\", \"values\": [1, 2]}, \"other\": {\"x\": 1}}");
+		lazy.get("config").set("name", "changed");
+		lazy.get("config").get("values").append(3);
+		lazy.set("added", true);
+		String expected = "{\"added\": true, \"config\": {\"name\": \"changed\", \"values\": [1,2,3]}, \"other\": {\"x\": 1}}";
+		if (!expected.equals(lazy.toString())) {
+			TestUtils.fail("We changed a lazily parsed record and got " + lazy + " instead of " + expected + "!");
+			return;
+		}
+
+		JsonFile lazyFile = new JsonFile(AllTests.JSON_TEST_DATA_PATH + "/advanced.json");
+		lazyFile.setLazyLoading(true);
+		JsonFile eagerFile = new JsonFile(AllTests.JSON_TEST_DATA_PATH + "/advanced.json");
+		if (!lazyFile.getAllContents().equals(eagerFile.getAllContents())) {
+			TestUtils.fail("We loaded a JSON file lazily and got something else than when loading it eagerly!");
+			return;
+		}
+
+		// a malformed nested value is reported when it is accessed, and keeps the file from being saved
+		String[] malformedInputs = {
+			"{\"keep\":1,\"a\":{\"b\" 1}}",
+			"{\"keep\":1,\"a\":[1,{\"q\":]}]}",
+		};
+
+		for (String malformedInput : malformedInputs) {
+
+			SimpleFile malformedText = new SimpleFile(AllTests.TEST_PATH + "/lazy/malformed.json");
+			malformedText.saveContent(malformedInput);
+
+			JsonFile malformedFile = new JsonFile(AllTests.TEST_PATH + "/lazy/malformed.json");
+			malformedFile.setLazyLoading(true);
+			JSON malformed = malformedFile.getAllContents();
+
+			try {
+				malformed.get("a").getValues().size();
+				TestUtils.fail("We accessed the malformed part of " + malformedInput + " lazily, but no exception occurred!");
+				return;
+			} catch (LazyJsonParseException e) {
+				// this is what we expected
+			}
+
+			malformedFile.save();
+
+			String savedText = new SimpleFile(AllTests.TEST_PATH + "/lazy/malformed.json").getContent();
+			if (!malformedInput.equals(savedText)) {
+				TestUtils.fail("We saved the lazily loaded malformed " + malformedInput + " and the file became " + savedText + "!");
+				return;
+			}
+		}
+
+		TestUtils.succeed();
+	}
+
 }
@@ -0,0 +1,157 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.selftest;
+
+import com.asofterspace.toolbox.io.JSON;
+import com.asofterspace.toolbox.io.JsonParseException;
+import com.asofterspace.toolbox.io.JsonParser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+
+/**
+ * Compares the JsonParser against the original recursive parser of the JSON class on a
+ * generated document, in the way of a JMH benchmark: first some warmup rounds are run
+ * so that the JIT compiler is done, and then the average time (and where the JVM can
+ * tell us, the allocated memory) per parse is measured over several rounds
+ *
+ * Run with: java -Xss64m -cp bin com.asofterspace.toolbox.selftest.JsonParserBenchmark [sizeInMB]
+ * (the large stack is only needed by the recursive parser)
+ */
+public class JsonParserBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+
+	private static final int MEASURED_ROUNDS = 10;
+
+	// results are stored here so that the JIT compiler cannot optimize the parsing away
+	private static volatile Object sink;
+
+
+	public static void main(String[] args) throws JsonParseException {
+
+		int sizeInMB = 20;
+		if (args.length > 0) {
+			sizeInMB = Integer.parseInt(args[0]);
+		}
+
+		String input = generateDocument(sizeInMB * 1024 * 1024);
+
+		System.out.println("Benchmarking on " + (input.length() / (1024 * 1024)) + " MB of JSON...");
+
+		if (!JSON.parseRecursively(input).equals(new JSON(input))) {
+			System.err.println("The parsers do not produce the same records!");
+			System.exit(1);
+		}
+
+		run("recursive parser", input, new ParseFunction() {
+			public Object parse(String json) throws JsonParseException {
+				return JSON.parseRecursively(json);
+			}
+		});
+
+		run("JsonParser", input, new ParseFunction() {
+			public Object parse(String json) throws JsonParseException {
+				return new JsonParser().parse(json);
+			}
+		});
+
+		run("JsonParser (key order)", input, new ParseFunction() {
+			public Object parse(String json) throws JsonParseException {
+				JsonParser parser = new JsonParser();
+				parser.setPreserveKeyOrder(true);
+				return parser.parse(json);
+			}
+		});
+	}
+
+	private static void run(String name, String input, ParseFunction function) throws JsonParseException {
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink = function.parse(input);
+		}
+
+		long allocatedBefore = getAllocatedBytes();
+		long start = System.nanoTime();
+
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			sink = function.parse(input);
+		}
+
+		long nanos = (System.nanoTime() - start) / MEASURED_ROUNDS;
+		long allocated = (getAllocatedBytes() - allocatedBefore) / MEASURED_ROUNDS;
+
+		double millis = nanos / 1000000.0;
+		double mbPerSecond = (input.length() / (1024.0 * 1024.0)) / (nanos / 1000000000.0);
+
+		String allocatedStr = "";
+		if (allocatedBefore >= 0) {
+			allocatedStr = ", " + (allocated / (1024 * 1024)) + " MB allocated";
+		}
+
+		System.out.println(name + ": " + String.format("%.1f", millis) + " ms/op, " +
+			String.format("%.1f", mbPerSecond) + " MB/s" + allocatedStr);
+	}
+
+	/**
+	 * Returns how many bytes the current thread has allocated so far, or -1 if the JVM cannot tell
+	 */
+	static long getAllocatedBytes() {
+
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Generates a document looking like a typical data dump: an array of objects with the
+	 * same keys, containing numbers, strings with and without escapes and small nested parts
+	 */
+	static String generateDocument(int targetLength) {
+
+		StringBuilder result = new StringBuilder(targetLength + 1024);
+
+		result.append("{\"version\": 3, \"entries\": [\n");
+
+		int i = 0;
+
+		while (result.length() < targetLength) {
+			if (i > 0) {
+				result.append(",\n");
+			}
+			result.append("\t{\"id\": ");
+			result.append(i);
+			result.append(", \"name\": \"entry number ");
+			result.append(i);
+			result.append("\", \"value\": ");
+			result.append(i * 0.25);
+			result.append(", \"active\": ");
+			result.append(i % 2 == 0);
+			result.append(", \"comment\": \"a \\\"quoted\\\" word\\nand a second line\"");
+			result.append(", \"tags\": [\"red\", \"green\", \"blue\"]");
+			result.append(", \"position\": {\"x\": ");
+			result.append(i % 1000);
+			result.append(", \"y\": ");
+			result.append(-(i % 777));
+			result.append(", \"parent\": null}}");
+			i++;
+		}
+
+		result.append("\n]}");
+
+		return result.toString();
+	}
+
+	private interface ParseFunction {
+
+		Object parse(String json) throws JsonParseException;
+	}
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.selftest;
+
+import com.asofterspace.toolbox.io.JSON;
+import com.asofterspace.toolbox.io.JsonParseException;
+import com.asofterspace.toolbox.utils.PersistentRecord;
+import com.asofterspace.toolbox.utils.Record;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Compares keeping an undo history of a document by taking a deep copy of a Record before
+ * every edit against keeping it as a series of PersistentRecords, on the same generated
+ * document as the JsonParserBenchmark: how long the edits take, and how much memory the
+ * whole history keeps alive
+ *
+ * Run with: java -cp bin com.asofterspace.toolbox.selftest.PersistentRecordBenchmark [sizeInMB] [edits]
+ */
+public class PersistentRecordBenchmark {
+
+	// the histories are stored here so that they are surely still alive while we measure them
+	private static volatile Object sink;
+
+
+	public static void main(String[] args) throws JsonParseException {
+
+		int sizeInMB = 5;
+		if (args.length > 0) {
+			sizeInMB = Integer.parseInt(args[0]);
+		}
+
+		int edits = 100;
+		if (args.length > 1) {
+			edits = Integer.parseInt(args[1]);
+		}
+
+		String input = JsonParserBenchmark.generateDocument(sizeInMB * 1024 * 1024);
+
+		System.out.println("Benchmarking " + edits + " edits on " + (input.length() / (1024 * 1024)) + " MB of JSON...");
+
+		JSON document = new JSON(input);
+		int entryCount = document.getValues("entries").size();
+
+		// deep copies
+		long usedBefore = getUsedMemory();
+		long start = System.nanoTime();
+
+		List<Record> copyHistory = new ArrayList<>();
+		Record current = document;
+		for (int i = 0; i < edits; i++) {
+			copyHistory.add(current.createDeepCopy());
+			current.get("entries").get((i * 7919) % entryCount).set("name", "edit " + i);
+		}
+
+		long nanos = System.nanoTime() - start;
+		sink = copyHistory;
+		long retained = getUsedMemory() - usedBefore;
+
+		System.out.println("Deep copies: " + String.format("%.1f", nanos / 1000000.0) + " ms, history keeps " +
+			(retained / (1024 * 1024)) + " MB alive");
+
+		sink = null;
+		copyHistory = null;
+		current = null;
+
+		// persistent records
+		PersistentRecord persistent = document.toPersistentRecord();
+
+		usedBefore = getUsedMemory();
+		start = System.nanoTime();
+
+		List<PersistentRecord> persistentHistory = new ArrayList<>();
+		for (int i = 0; i < edits; i++) {
+			persistentHistory.add(persistent);
+			persistent = persistent.setIn(new Object[] {"entries", (i * 7919) % entryCount, "name"}, "edit " + i);
+		}
+
+		nanos = System.nanoTime() - start;
+		sink = persistentHistory;
+		retained = getUsedMemory() - usedBefore;
+
+		System.out.println("Persistent records: " + String.format("%.1f", nanos / 1000000.0) + " ms, history keeps " +
+			(retained / (1024 * 1024)) + " MB alive (on top of the document)");
+	}
+
+	private static long getUsedMemory() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
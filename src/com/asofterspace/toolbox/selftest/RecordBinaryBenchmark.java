@@ -0,0 +1,123 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.selftest;
+
+import com.asofterspace.toolbox.io.JSON;
+import com.asofterspace.toolbox.io.JsonParseException;
+import com.asofterspace.toolbox.utils.Record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Compares the binary encoding of records against JSON in size and speed, on the same
+ * generated document as the JsonParserBenchmark and in the same way (first warmup rounds,
+ * then the average time and allocated memory per operation over several rounds)
+ *
+ * Run with: java -cp bin com.asofterspace.toolbox.selftest.RecordBinaryBenchmark [sizeInMB]
+ */
+public class RecordBinaryBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+
+	private static final int MEASURED_ROUNDS = 10;
+
+	// results are stored here so that the JIT compiler cannot optimize the work away
+	private static volatile Object sink;
+
+
+	public static void main(String[] args) throws IOException, JsonParseException {
+
+		int sizeInMB = 20;
+		if (args.length > 0) {
+			sizeInMB = Integer.parseInt(args[0]);
+		}
+
+		final JSON record = new JSON(JsonParserBenchmark.generateDocument(sizeInMB * 1024 * 1024));
+
+		final String jsonStr = record.toString();
+		final byte[] jsonBytes = jsonStr.getBytes(StandardCharsets.UTF_8);
+		final byte[] binary = record.toBinary();
+
+		final ByteBuffer direct = ByteBuffer.allocateDirect(binary.length);
+		direct.put(binary);
+
+		if (!record.equals(Record.fromBinary(binary))) {
+			System.err.println("The binary encoding does not round-trip the record!");
+			System.exit(1);
+		}
+
+		System.out.println("Size as compressed JSON: " + (jsonBytes.length / 1024) + " KB");
+		System.out.println("Size as binary record: " + (binary.length / 1024) + " KB (" +
+			String.format("%.1f", (100.0 * binary.length) / jsonBytes.length) + " %)");
+
+		run("JSON.toString", jsonBytes.length, new Operation() {
+			public Object run() {
+				return record.toString().getBytes(StandardCharsets.UTF_8);
+			}
+		});
+
+		run("Record.toBinary", binary.length, new Operation() {
+			public Object run() {
+				return record.toBinary();
+			}
+		});
+
+		run("JSON.parse", jsonBytes.length, new Operation() {
+			public Object run() throws IOException, JsonParseException {
+				return new JSON(new String(jsonBytes, StandardCharsets.UTF_8));
+			}
+		});
+
+		run("Record.fromBinary", binary.length, new Operation() {
+			public Object run() throws IOException {
+				return Record.fromBinary(binary);
+			}
+		});
+
+		run("Record.fromBinary (direct buffer)", binary.length, new Operation() {
+			public Object run() throws IOException {
+				direct.rewind();
+				return Record.fromBinary(direct);
+			}
+		});
+	}
+
+	private static void run(String name, int byteLength, Operation operation) throws IOException, JsonParseException {
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink = operation.run();
+		}
+
+		long allocatedBefore = JsonParserBenchmark.getAllocatedBytes();
+		long start = System.nanoTime();
+
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			sink = operation.run();
+		}
+
+		long nanos = (System.nanoTime() - start) / MEASURED_ROUNDS;
+		long allocated = (JsonParserBenchmark.getAllocatedBytes() - allocatedBefore) / MEASURED_ROUNDS;
+
+		double millis = nanos / 1000000.0;
+		double mbPerSecond = (byteLength / (1024.0 * 1024.0)) / (nanos / 1000000000.0);
+
+		String allocatedStr = "";
+		if (allocatedBefore >= 0) {
+			allocatedStr = ", " + (allocated / (1024 * 1024)) + " MB allocated";
+		}
+
+		System.out.println(name + ": " + String.format("%.1f", millis) + " ms/op, " +
+			String.format("%.1f", mbPerSecond) + " MB/s" + allocatedStr);
+	}
+
+	private interface Operation {
+
+		Object run() throws IOException, JsonParseException;
+	}
+
+}
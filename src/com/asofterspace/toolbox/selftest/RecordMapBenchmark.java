@@ -0,0 +1,157 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.selftest;
+
+import com.asofterspace.toolbox.io.JSON;
+import com.asofterspace.toolbox.io.JsonParseException;
+import com.asofterspace.toolbox.utils.Record;
+
+
+/**
+ * Compares objects storing their entries in TreeMaps (as records used to) against objects
+ * storing them in compact RecordMaps, on the same generated document as the JsonParserBenchmark:
+ * how much memory the parsed document keeps alive, and how long parsing, deep copying,
+ * looking up keys and removing all keys of a large object take (after some warmup rounds,
+ * averaged over several rounds)
+ *
+ * Run with: java -cp bin com.asofterspace.toolbox.selftest.RecordMapBenchmark [sizeInMB] [RecordMap|TreeMap]
+ */
+public class RecordMapBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+
+	private static final int MEASURED_ROUNDS = 10;
+
+	// the amount of keys of the object that is filled and then emptied again
+	private static final int LARGE_OBJECT_SIZE = 40000;
+
+	// results are stored here so that the JIT compiler cannot optimize the work away
+	private static volatile Object sink;
+
+
+	public static void main(String[] args) throws JsonParseException {
+
+		int sizeInMB = 20;
+		if (args.length > 0) {
+			sizeInMB = Integer.parseInt(args[0]);
+		}
+
+		String input = JsonParserBenchmark.generateDocument(sizeInMB * 1024 * 1024);
+
+		System.out.println("Benchmarking on " + (input.length() / (1024 * 1024)) + " MB of JSON...");
+
+		// as the JIT compiler optimizes for the maps it sees first, the comparison is fairest
+		// when each kind of map is measured in its own run
+		String only = "";
+		if (args.length > 1) {
+			only = args[1];
+		}
+
+		if (!only.equals("TreeMap")) {
+			run("RecordMap", true, input);
+		}
+
+		if (!only.equals("RecordMap")) {
+			run("TreeMap", false, input);
+		}
+
+		Record.setCompactObjects(true);
+	}
+
+	private static void run(String name, boolean compactObjects, final String input) throws JsonParseException {
+
+		Record.setCompactObjects(compactObjects);
+
+		sink = null;
+
+		long usedBefore = getUsedMemory();
+		final JSON parsed = new JSON(input);
+		long retained = getUsedMemory() - usedBefore;
+
+		System.out.println(name + ": the parsed document keeps " + (retained / (1024 * 1024)) + " MB alive");
+
+		time(name + " parsing", new Operation() {
+			public Object run() throws JsonParseException {
+				return new JSON(input);
+			}
+		});
+
+		time(name + " deep copy", new Operation() {
+			public Object run() {
+				return parsed.createDeepCopy();
+			}
+		});
+
+		time(name + " key lookups", new Operation() {
+			public Object run() {
+				long sum = 0;
+				for (Record entry : parsed.getValues("entries")) {
+					sum += entry.getLong("id");
+					sum += entry.get("position").getLong("x");
+					if (entry.getString("name") != null) {
+						sum++;
+					}
+				}
+				return sum;
+			}
+		});
+
+		final String[] largeObjectKeys = new String[LARGE_OBJECT_SIZE];
+		for (int i = 0; i < LARGE_OBJECT_SIZE; i++) {
+			largeObjectKeys[i] = "key" + i;
+		}
+
+		time(name + " filling and emptying a " + (LARGE_OBJECT_SIZE / 1000) + "k-key object", new Operation() {
+			public Object run() {
+				Record largeObject = Record.emptyObject();
+				for (String key : largeObjectKeys) {
+					largeObject.set(key, 1);
+				}
+				// removing the keys in the order of insertion, which is the worst case for a
+				// map that moves all following entries forward on each removal
+				for (String key : largeObjectKeys) {
+					largeObject.remove(key);
+				}
+				return largeObject;
+			}
+		});
+
+		sink = parsed;
+	}
+
+	private static void time(String name, Operation operation) throws JsonParseException {
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink = operation.run();
+		}
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			sink = operation.run();
+		}
+
+		long nanos = (System.nanoTime() - start) / MEASURED_ROUNDS;
+
+		System.out.println(name + ": " + String.format("%.1f", nanos / 1000000.0) + " ms/op");
+	}
+
+	private static long getUsedMemory() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private interface Operation {
+
+		Object run() throws JsonParseException;
+	}
+
+}
@@ -4,10 +4,27 @@
  */
 package com.asofterspace.toolbox.selftest;
 
+import com.asofterspace.toolbox.io.JSON;
 import com.asofterspace.toolbox.io.JsonParseException;
 import com.asofterspace.toolbox.test.Test;
 import com.asofterspace.toolbox.test.TestUtils;
+import com.asofterspace.toolbox.utils.PersistentRecord;
 import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.RecordIndex;
+import com.asofterspace.toolbox.utils.RecordKind;
+import com.asofterspace.toolbox.utils.RecordMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 
 public class RecordTest implements Test {
@@ -18,6 +35,14 @@ public class RecordTest implements Test {
 		incDecTest();
 
 		advancedListAccessTest();
+
+		binaryTest();
+
+		recordMapTest();
+
+		indexTest();
+
+		persistentTest();
 	}
 
 	private void incDecTest() throws JsonParseException {
@@ -116,4 +141,352 @@ public class RecordTest implements Test {
 
 		TestUtils.succeed();
 	}
+
+	private void binaryTest() {
+
+		TestUtils.start("Record binary encoding");
+
+		Record rec = Record.emptyObject();
+		rec.set("int", -12345);
+		rec.set("long", 1234567890123L);
+		rec.set("double", 0.1);
+		rec.set("float", 2.5f);
+		rec.set("bool", true);
+		rec.set("string", "äöü \u20AC and a \"quote\"");
+		rec.set("null", Record.nullRecord());
+
+		Record big = Record.emptyObject();
+		big.makeSimpleType(RecordKind.NUMBER, new BigInteger("123456789012345678901234567890"));
+		rec.set("bigInteger", big);
+
+		Record bigDec = Record.emptyObject();
+		bigDec.makeSimpleType(RecordKind.NUMBER, new BigDecimal("0.10000000000000000000001"));
+		rec.set("bigDecimal", bigDec);
+
+		Record emptyString = Record.emptyObject();
+		emptyString.makeSimpleType(RecordKind.STRING, null);
+		rec.set("emptyString", emptyString);
+
+		// many objects with the same keys, which are only stored once
+		Record arr = Record.emptyArray();
+		for (int i = 0; i < 100; i++) {
+			Record entry = Record.emptyObject();
+			entry.set("id", i);
+			entry.set("name", "entry " + i);
+			entry.set("tags", Record.emptyArray());
+			arr.append(entry);
+		}
+		rec.set("entries", arr);
+
+		// nesting deep enough that a recursive encoder would overflow the stack
+		Record deep = new Record(42);
+		for (int i = 0; i < 100000; i++) {
+			Record wrapper = Record.emptyArray();
+			wrapper.append(deep);
+			deep = wrapper;
+		}
+
+		byte[] binary = rec.toBinary();
+
+		try {
+			Record decoded = Record.fromBinary(binary);
+			if (!rec.equals(decoded)) {
+				TestUtils.fail("We encoded a record as binary and decoded something different!");
+				return;
+			}
+			if (!(decoded.get("int").asObject() instanceof Integer) || !(decoded.get("float").asObject() instanceof Float)) {
+				TestUtils.fail("We encoded a record as binary and decoded numbers of different types!");
+				return;
+			}
+
+			ByteBuffer direct = ByteBuffer.allocateDirect(binary.length);
+			direct.put(binary);
+			direct.flip();
+			if (!rec.equals(Record.fromBinary(direct))) {
+				TestUtils.fail("We decoded a binary record from a direct buffer and got something different!");
+				return;
+			}
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			rec.toBinary(out);
+			if (!rec.equals(Record.fromBinary(out.toByteArray()))) {
+				TestUtils.fail("We encoded a record as binary into a stream and decoded something different!");
+				return;
+			}
+
+			// Record.equals() is recursive itself, so we walk down the deep record on our own
+			Record cur = Record.fromBinary(deep.toBinary());
+			for (int i = 0; i < 100000; i++) {
+				cur = cur.get(0);
+			}
+			if ((cur == null) || !Integer.valueOf(42).equals(cur.asObject())) {
+				TestUtils.fail("We encoded a very deeply nested record as binary and did not find the innermost value!");
+				return;
+			}
+
+		} catch (IOException e) {
+			TestUtils.fail("We decoded a binary record and got an exception: " + e);
+			return;
+		}
+
+		try {
+			byte[] truncated = new byte[binary.length / 2];
+			System.arraycopy(binary, 0, truncated, 0, truncated.length);
+			Record.fromBinary(truncated);
+			TestUtils.fail("We decoded a truncated binary record and did not get an exception!");
+			return;
+		} catch (IOException e) {
+			// this is expected
+		}
+
+		TestUtils.succeed();
+	}
+
+	private void recordMapTest() throws JsonParseException {
+
+		TestUtils.start("Record Map");
+
+		RecordMap map = new RecordMap();
+
+		// enough entries that the map starts using its hash index
+		for (int i = 0; i < 100; i++) {
+			map.put("key" + (99 - i), new Record(i));
+		}
+		map.put("key50", new Record("replaced"));
+		map.remove("key98");
+
+		Iterator<Map.Entry<String, Record>> iterator = map.entrySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().getKey().equals("key3")) {
+				iterator.remove();
+			}
+		}
+
+		if ((map.size() != 98) || !"replaced".equals(map.get("key50").asString()) ||
+			map.containsKey("key98") || map.containsKey("key3") || !Integer.valueOf(99).equals(map.get("key0").asObject())) {
+			TestUtils.fail("We put entries into a RecordMap, changed and removed some, and got " + map + "!");
+			return;
+		}
+
+		if (!"key99".equals(map.getKey(0)) || !"key97".equals(map.getKey(1)) || !"key0".equals(map.getKey(97))) {
+			TestUtils.fail("We put entries into a RecordMap and they did not stay in the order of insertion!");
+			return;
+		}
+
+		// removing and adding many entries in a mixed-up order must behave just like a LinkedHashMap
+		RecordMap mixedMap = new RecordMap();
+		Map<String, Record> expectedMap = new LinkedHashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			String key = "k" + random.nextInt(500);
+			if (random.nextInt(3) == 0) {
+				Record value = new Record(i);
+				mixedMap.put(key, value);
+				expectedMap.put(key, value);
+			} else {
+				mixedMap.remove(key);
+				expectedMap.remove(key);
+			}
+			if ((i % 1000 == 0) && !new ArrayList<>(expectedMap.entrySet()).equals(new ArrayList<>(mixedMap.entrySet()))) {
+				TestUtils.fail("We added and removed entries of a RecordMap and got " + mixedMap + " instead of " + expectedMap + "!");
+				return;
+			}
+		}
+		for (String key : expectedMap.keySet()) {
+			if (mixedMap.get(key) != expectedMap.get(key)) {
+				TestUtils.fail("We added and removed entries of a RecordMap and then could not find " + key + "!");
+				return;
+			}
+		}
+
+		// removing every other entry while iterating, so that the gaps get closed in the middle of it
+		Iterator<Map.Entry<String, Record>> mixedIterator = mixedMap.entrySet().iterator();
+		int iterated = 0;
+		while (mixedIterator.hasNext()) {
+			mixedIterator.next();
+			if (iterated % 2 == 0) {
+				mixedIterator.remove();
+			}
+			iterated++;
+		}
+		if ((iterated != expectedMap.size()) || (mixedMap.size() != iterated / 2)) {
+			TestUtils.fail("We iterated over a RecordMap with " + expectedMap.size() + " entries, removing every other one, and saw " +
+				iterated + " entries, leaving " + mixedMap.size() + "!");
+			return;
+		}
+
+		// removing the entry last returned after hasNext() has already skipped past a gap
+		RecordMap gapMap = new RecordMap();
+		Map<String, Record> expectedGapMap = new LinkedHashMap<>();
+		for (int i = 0; i < 20; i++) {
+			Record value = new Record(i);
+			gapMap.put("k" + i, value);
+			expectedGapMap.put("k" + i, value);
+		}
+		gapMap.remove("k3");
+		expectedGapMap.remove("k3");
+		Iterator<Map.Entry<String, Record>> gapIterator = gapMap.entrySet().iterator();
+		Iterator<Map.Entry<String, Record>> expectedGapIterator = expectedGapMap.entrySet().iterator();
+		for (int i = 0; i < 3; i++) {
+			gapIterator.next();
+			expectedGapIterator.next();
+		}
+		gapIterator.hasNext();
+		gapIterator.remove();
+		expectedGapIterator.remove();
+		if (!new ArrayList<>(expectedGapMap.entrySet()).equals(new ArrayList<>(gapMap.entrySet())) ||
+			gapMap.containsKey("k2") || !"k4".equals(gapIterator.next().getKey())) {
+			TestUtils.fail("We removed an entry of a RecordMap via its iterator after a gap and got " + gapMap +
+				" instead of " + expectedGapMap + "!");
+			return;
+		}
+
+		// records keep the order of insertion, but are still written sorted by key
+		Record rec = Record.emptyObject();
+		rec.set("b", 1);
+		rec.set("c", 2);
+		rec.set("a", 3);
+
+		if (!"b".equals(rec.getKeys().iterator().next())) {
+			TestUtils.fail("We created a record and its keys were not in the order of insertion!");
+			return;
+		}
+
+		String expected = "{\"a\": 3, \"b\": 1, \"c\": 2}";
+		if (!expected.equals(new JSON(rec).toString())) {
+			TestUtils.fail("We wrote a record as JSON and got " + new JSON(rec) + " instead of " + expected + "!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	private void indexTest() throws JsonParseException {
+
+		TestUtils.start("Record Index");
+
+		JSON rec = new JSON("{\"people\": [{\"name\": \"Anna\", \"role\": \"admin\"}, " +
+			"{\"name\": \"Bert\", \"role\": \"user\", \"friends\": [{\"name\": \"Anna\"}]}], " +
+			"\"owner\": {\"name\": \"Anna\"}}");
+
+		RecordIndex index = rec.createIndex();
+
+		List<Record> found = rec.searchForKeyValue("name", "Anna");
+		if (found.size() != 3) {
+			TestUtils.fail("We searched an indexed record for name Anna and found " + found.size() + " entries instead of 3!");
+			return;
+		}
+
+		found = rec.get("people").searchForKeyValue("name", "Anna");
+		if (found.size() != 2) {
+			TestUtils.fail("We searched the people of an indexed record for name Anna and found " + found.size() + " entries instead of 2!");
+			return;
+		}
+
+		Record bert = index.getByPath("root.people[1]");
+		if ((bert == null) || !"Bert".equals(bert.getString("name")) ||
+			!"root.people[1].friends[0].name".equals(bert.get("friends").get(0).get("name").getPath())) {
+			TestUtils.fail("We looked up a record by its path in an index and got " + bert + "!");
+			return;
+		}
+
+		// changes via the record methods have to be reflected in the index
+		rec.get("owner").set("name", "Carl");
+		rec.get("people").get(0).remove("name");
+		rec.get("people").append(new JSON("{\"name\": \"Anna\"}"));
+		rec.get("people").remove(0);
+		bert.get("friends").get(0).setString("name", "Dora");
+
+		found = rec.searchForKeyValue("name", "Anna");
+		if ((found.size() != 1) || (found.get(0) != index.getByPath("root.people[1].name"))) {
+			TestUtils.fail("We changed an indexed record and then searched for name Anna and found " + found + "!");
+			return;
+		}
+
+		if ((rec.searchForKeyValue("name", "Carl").size() != 1) || (rec.searchForKeyValue("name", "Dora").size() != 1) ||
+			(index.getByPath("root.people[0]") != bert) || (index.getByPath("root.people[2]") != null)) {
+			TestUtils.fail("We changed an indexed record and the index did not follow along!");
+			return;
+		}
+
+		// after dropping the index, the search walks the structure and finds the same
+		rec.dropIndex();
+
+		if ((rec.getIndex() != null) || (rec.searchForKeyValue("name", "Anna").size() != 1) ||
+			(rec.searchForKeyValue("name", "Dora").size() != 1)) {
+			TestUtils.fail("We dropped the index of a record and searching it did not work anymore!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	private void persistentTest() throws JsonParseException {
+
+		TestUtils.start("Persistent Record");
+
+		JSON json = new JSON("{\"name\": \"Anna\", \"tags\": [\"a\", \"b\"], \"address\": {\"city\": \"Bremen\"}}");
+
+		PersistentRecord first = json.toPersistentRecord();
+
+		// changing the mutable record afterwards does not affect the persistent one
+		json.set("name", "Bert");
+
+		PersistentRecord second = first.set("name", "Carl").setIn(new Object[] {"address", "zip", 0}, "28195");
+
+		if (!"Anna".equals(first.getString("name")) || (first.get("address").size() != 1) ||
+			!"Carl".equals(second.getString("name")) || !"28195".equals(second.get("address").get("zip").getString(0))) {
+			TestUtils.fail("We changed a persistent record and got " + first + " and " + second + "!");
+			return;
+		}
+
+		// unchanged parts are shared rather than copied
+		if ((first.get("tags") != second.get("tags")) || (first.getKind() != RecordKind.OBJECT)) {
+			TestUtils.fail("We changed a persistent record and the unchanged parts were not shared!");
+			return;
+		}
+
+		Record converted = first.toRecord();
+		converted.set("name", "Bert");
+		if (!converted.equals(json) || !first.equals(new JSON(new JSON(first.toRecord()).toString()).toPersistentRecord())) {
+			TestUtils.fail("We converted a persistent record to a record and back and got " + first.toRecord() + "!");
+			return;
+		}
+
+		// arrays which need several levels of chunks
+		PersistentRecord arr = PersistentRecord.emptyArray();
+		for (int i = 0; i < 40000; i++) {
+			arr = arr.append(i);
+		}
+		PersistentRecord changedArr = arr.set(1234, "x").set(39999, "y").remove(0);
+		for (int i = 0; i < 40000; i++) {
+			if (!Integer.valueOf(i).equals(arr.get(i).asObject())) {
+				TestUtils.fail("We appended " + i + " to a persistent array and got " + arr.get(i) + "!");
+				return;
+			}
+		}
+		if ((changedArr.size() != 39999) || !"x".equals(changedArr.getString(1233)) ||
+			!"y".equals(changedArr.getString(39998)) || !Integer.valueOf(1).equals(changedArr.get(0).asObject())) {
+			TestUtils.fail("We changed a large persistent array and it did not contain what we expected!");
+			return;
+		}
+
+		// objects with many keys, including ones with equal hashes ("Aa" and "BB")
+		PersistentRecord obj = PersistentRecord.emptyObject().set("Aa", 1).set("BB", 2);
+		for (int i = 0; i < 5000; i++) {
+			obj = obj.set("key" + i, i);
+		}
+		PersistentRecord removed = obj.remove("Aa");
+		for (int i = 0; i < 5000; i += 2) {
+			removed = removed.remove("key" + i);
+		}
+		if ((obj.size() != 5002) || (removed.size() != 2501) || !"1".equals(obj.getString("Aa")) ||
+			removed.contains("Aa") || !"2".equals(removed.getString("BB")) || removed.contains("key42") ||
+			!"43".equals(removed.getString("key43")) || !"42".equals(obj.getString("key42"))) {
+			TestUtils.fail("We changed a persistent object with many keys and it did not contain what we expected!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
 }
@@ -4,11 +4,25 @@
  */
 package com.asofterspace.toolbox.selftest;
 
+import com.asofterspace.toolbox.io.Directory;
+import com.asofterspace.toolbox.io.MappedTextFile;
 import com.asofterspace.toolbox.io.SimpleFile;
+import com.asofterspace.toolbox.io.TextFile;
 import com.asofterspace.toolbox.test.Test;
 import com.asofterspace.toolbox.test.TestUtils;
+import com.asofterspace.toolbox.utils.ProgressIndicator;
 import com.asofterspace.toolbox.utils.TextEncoding;
 
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.Files;
+import java.nio.file.FileSystems;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
 
 public class SimpleFileTest implements Test {
 
@@ -18,6 +32,10 @@ public class SimpleFileTest implements Test {
 		createTest();
 
 		switchEncodingsTest();
+
+		mappedTest();
+
+		saveModesTest();
 	}
 
 	public void createTest() {
@@ -82,4 +100,181 @@ public class SimpleFileTest implements Test {
 		TestUtils.succeed();
 	}
 
+	public void mappedTest() {
+
+		TestUtils.start("Mapped Text File");
+
+		String testFileName = AllTests.TEST_PATH + "/mappedTestFile.txt";
+
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			content.append("line ");
+			content.append(i);
+			if (i % 1000 == 0) {
+				content.append(" Grüße");
+			}
+			content.append((i % 2 == 0) ? "\r\n" : "\n");
+		}
+		// saving adds the last line break again
+		content.setLength(content.length() - 1);
+
+		SimpleFile testFile = new SimpleFile(testFileName);
+		testFile.setEncoding(TextEncoding.UTF8_WITH_BOM);
+		testFile.saveContent(content);
+
+		MappedTextFile mappedFile = new MappedTextFile(testFileName);
+
+		final boolean[] progressDone = new boolean[1];
+		mappedFile.startIndexing(new ProgressIndicator() {
+			public void setProgress(double currentProgress) {
+			}
+			public void done() {
+				progressDone[0] = true;
+			}
+		});
+
+		// lines can be accessed while the index is still being built
+		String firstLine = mappedFile.getLine(0);
+
+		if (!"line 0 Grüße".equals(firstLine) || (mappedFile.getEncoding() != TextEncoding.UTF8_WITH_BOM)) {
+			TestUtils.fail("We read the first line of a mapped file with BOM as '" + firstLine + "'!");
+			return;
+		}
+
+		if ((mappedFile.getLineCount() != 100000) || !progressDone[0]) {
+			TestUtils.fail("We mapped a file with 100000 lines and found " + mappedFile.getLineCount() + "!");
+			return;
+		}
+
+		List<String> lines = mappedFile.getLines(77776, 3);
+		if (!"line 12345".equals(mappedFile.getLine(12345)) || (mappedFile.getLine(100000) != null) ||
+			!Arrays.asList("line 77776", "line 77777", "line 77778").equals(lines)) {
+			TestUtils.fail("We read the lines '" + mappedFile.getLine(12345) + "' and " + lines + " of a mapped file!");
+			return;
+		}
+
+		long next = mappedFile.findNext("Grüße", 1001);
+		long previous = mappedFile.findPrevious("Grüße", 1999);
+		long missing = mappedFile.findNext("line 0 ", 1);
+		if ((next != 2000) || (previous != 1000) || (missing != -1) || (mappedFile.findPrevious("line 99999", 99999) != 99999)) {
+			TestUtils.fail("We searched a mapped file and found the lines " + next + ", " + previous + " and " + missing + "!");
+			return;
+		}
+
+		mappedFile.close();
+
+		TestUtils.succeed();
+	}
+
+	public void saveModesTest() {
+
+		TestUtils.start("Save Modes");
+
+		Directory saveDir = new Directory(AllTests.TEST_PATH + "/saveModes");
+		saveDir.clear();
+
+		try {
+			// saving incrementally after appending a line only writes that line - which we notice
+			// by secretly changing the beginning of the file without changing its size or date
+			SimpleFile logFile = new SimpleFile(saveDir, "log.txt");
+			logFile.setEncoding(TextEncoding.UTF8_WITH_BOM);
+			logFile.setIncrementalSaving(true);
+			logFile.saveContent("first line äöü\nsecond line");
+
+			long modified = logFile.getJavaFile().lastModified();
+			try (RandomAccessFile raf = new RandomAccessFile(logFile.getJavaFile(), "rw")) {
+				raf.seek(3);
+				raf.write('F');
+			}
+			logFile.getJavaFile().setLastModified(modified);
+
+			logFile.appendContent("third line");
+			logFile.save();
+
+			SimpleFile checkFile = new SimpleFile(saveDir, "log.txt");
+			if (!Arrays.asList("First line äöü", "second line", "third line").equals(checkFile.getContents())) {
+				TestUtils.fail("We appended a line to an incrementally saved file and got " + checkFile.getContents() + "!");
+				return;
+			}
+
+			// changing something in the middle rewrites from there on, and shortens the file
+			logFile.setContent("first line äöü\nsecond");
+			logFile.save();
+			checkFile = new SimpleFile(saveDir, "log.txt");
+			if (!Arrays.asList("First line äöü", "second").equals(checkFile.getContents())) {
+				TestUtils.fail("We changed a line of an incrementally saved file and got " + checkFile.getContents() + "!");
+				return;
+			}
+
+			// saving atomically leaves no temporary files behind
+			TextFile atomicFile = new TextFile(saveDir, "atomic.txt");
+			atomicFile.setAtomicSaving(true);
+			atomicFile.setSyncOnSave(true);
+			atomicFile.saveContent("old");
+			atomicFile.saveContent("new");
+			if (!"new".equals(new TextFile(saveDir, "atomic.txt").getContent()) ||
+				(saveDir.getAllFiles(false).size() != 2)) {
+				TestUtils.fail("We saved a file atomically and got '" + new TextFile(saveDir, "atomic.txt").getContent() +
+					"' with the files " + saveDir.getAllFiles(false) + "!");
+				return;
+			}
+
+			// saving atomically keeps the permissions of the file that is replaced
+			if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+				Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+				Files.setPosixFilePermissions(atomicFile.getJavaPath(), permissions);
+				atomicFile.saveContent("newer");
+				if (!permissions.equals(Files.getPosixFilePermissions(atomicFile.getJavaPath()))) {
+					TestUtils.fail("We saved a file atomically and its permissions became " +
+						Files.getPosixFilePermissions(atomicFile.getJavaPath()) + "!");
+					return;
+				}
+			}
+
+			// if the temporary file cannot replace the actual file, it is not left behind either
+			Directory blockingDir = new Directory(saveDir, "blocked.txt");
+			new TextFile(blockingDir, "inside.txt").saveContent("blocking");
+			TextFile blockedFile = new TextFile(saveDir, "blocked.txt");
+			blockedFile.setAtomicSaving(true);
+			blockedFile.saveContent("cannot be saved");
+			String[] remainingFiles = saveDir.getJavaFile().list();
+			Arrays.sort(remainingFiles);
+			if (!Arrays.asList("atomic.txt", "blocked.txt", "log.txt").equals(Arrays.asList(remainingFiles))) {
+				TestUtils.fail("We failed to save a file atomically and were left with the files " +
+					Arrays.asList(remainingFiles) + "!");
+				return;
+			}
+
+			// with a write-behind, many saves lead to one write of the last content
+			TextFile behindFile = new TextFile(saveDir, "behind.txt");
+			behindFile.setWriteBehind(60 * 1000);
+			for (int i = 0; i <= 1000; i++) {
+				behindFile.saveContent("save " + i);
+			}
+			if (behindFile.exists()) {
+				TestUtils.fail("We saved a file with write-behind and it was written immediately!");
+				return;
+			}
+			behindFile.flush();
+			if (!"save 1000".equals(new TextFile(saveDir, "behind.txt").getContent())) {
+				TestUtils.fail("We flushed a file with write-behind and got '" + new TextFile(saveDir, "behind.txt").getContent() + "'!");
+				return;
+			}
+
+			behindFile.setWriteBehind(10);
+			behindFile.saveContent("later");
+			Thread.sleep(1000);
+			if (!"later".equals(new TextFile(saveDir, "behind.txt").getContent())) {
+				TestUtils.fail("We saved a file with write-behind, waited, and got '" + new TextFile(saveDir, "behind.txt").getContent() + "'!");
+				return;
+			}
+
+		} catch (IOException | InterruptedException e) {
+			TestUtils.fail("There was an exception: " + e);
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
 }
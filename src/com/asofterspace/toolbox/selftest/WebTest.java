@@ -15,10 +15,31 @@ import com.asofterspace.toolbox.test.TestUtils;
 import com.asofterspace.toolbox.utils.Record;
 import com.asofterspace.toolbox.web.WebAccessor;
 import com.asofterspace.toolbox.web.WebExtractor;
+import com.asofterspace.toolbox.web.WebRequestMultipartParser;
 import com.asofterspace.toolbox.web.WebServer;
-
+import com.asofterspace.toolbox.web.WebServerAnswer;
+import com.asofterspace.toolbox.web.WebServerAnswerInJson;
+import com.asofterspace.toolbox.web.WebServerCompression;
+import com.asofterspace.toolbox.web.WebServerExecutionMode;
+import com.asofterspace.toolbox.web.WebServerFileCache;
+import com.asofterspace.toolbox.web.WebServerFileCacheEntry;
+import com.asofterspace.toolbox.web.WebServerMetrics;
+import com.asofterspace.toolbox.web.WebServerRouteHandler;
+import com.asofterspace.toolbox.web.WebServerRouter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 
 public class WebTest implements Test {
@@ -43,10 +64,34 @@ public class WebTest implements Test {
 
 		sendUtf8JsonToServerTest();
 
+		uploadFormDataTest();
+
+		interruptedUploadTest();
+
 		getFileTest();
 
+		oversizedHeadersTest();
+
+		pipelinedRequestsTest();
+
+		conditionalGetTest();
+
+		rangeRequestTest();
+
+		compressedAnswerTest();
+
+		fileCacheSizeTest();
+
+		routedRequestTest();
+
+		metricsTest();
+
 		stopServer();
 
+		threadPoolServerTest();
+
+		idleKeepAliveConnectionsTest();
+
 
 		extractDataTest();
 
@@ -70,6 +115,8 @@ public class WebTest implements Test {
 
 		this.server = new WebTestServer(new Directory(AllTests.TEST_DATA_PATH), 8081);
 
+		server.setFileCacheSize(1024 * 1024);
+
 		server.serveAsync();
 	}
 
@@ -210,6 +257,139 @@ public class WebTest implements Test {
 		TestUtils.succeed();
 	}
 
+	public void uploadFormDataTest() {
+
+		TestUtils.start("Upload Form Data");
+
+		server.setFormDataMemoryThreshold(16 * 1024);
+
+		// a file containing all kinds of bytes, including line breaks and parts of the boundary
+		byte[] fileContent = new byte[100 * 1024];
+		for (int i = 0; i < fileContent.length; i++) {
+			fileContent[i] = (byte) ((i * 31) ^ (i >> 8));
+		}
+		byte[] almostBoundary = "\r\n--boundaryX".getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(almostBoundary, 0, fileContent, 5000, almostBoundary.length);
+
+		try {
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			body.write(("--boundaryXYZ\r\n" +
+				// the names of the fields are found no matter in which case they were sent
+				"Content-Disposition: form-data; name=\"Field\"\r\n" +
+				"\r\n" +
+				"россияне\r\n" +
+				"--boundaryXYZ\r\n" +
+				"Content-Disposition: form-data; name=\"upload\"; filename=\"Data.bin\"\r\n" +
+				"Content-Type: application/octet-stream\r\n" +
+				"\r\n").getBytes(StandardCharsets.UTF_8));
+			body.write(fileContent);
+			body.write("\r\n--boundaryXYZ--\r\n".getBytes(StandardCharsets.UTF_8));
+
+			ByteArrayOutputStream request = new ByteArrayOutputStream();
+			request.write(("POST /upload HTTP/1.1\r\n" +
+				"Host: localhost\r\n" +
+				"Content-Type: multipart/form-data; boundary=boundaryXYZ\r\n" +
+				"Content-Length: " + body.size() + "\r\n" +
+				"Connection: close\r\n" +
+				"\r\n").getBytes(StandardCharsets.UTF_8));
+			body.writeTo(request);
+
+			String response = new String(sendRawRequestBytes(8081, request.toByteArray()), StandardCharsets.UTF_8);
+
+			if (!response.startsWith("HTTP/1.1 200")) {
+				TestUtils.fail("We uploaded form data and got: " + response);
+				return;
+			}
+		} catch (IOException e) {
+			TestUtils.fail("We could not assemble form data to upload: " + e);
+			return;
+		}
+
+		if (!"россияне".equals(WebTestServerRequestHandler.lastUploadField)) {
+			TestUtils.fail("We uploaded a text field and received: " + WebTestServerRequestHandler.lastUploadField);
+			return;
+		}
+
+		if (!"Data.bin".equals(WebTestServerRequestHandler.lastUploadFilename)) {
+			TestUtils.fail("We uploaded Data.bin and received the filename: " + WebTestServerRequestHandler.lastUploadFilename);
+			return;
+		}
+
+		if (!Arrays.equals(fileContent, WebTestServerRequestHandler.lastUploadBytes)) {
+			TestUtils.fail("We uploaded a binary file, but did not receive the same bytes!");
+			return;
+		}
+
+		if (!WebTestServerRequestHandler.lastUploadWasOnDisk) {
+			TestUtils.fail("We uploaded a file larger than the memory threshold, but it was not written to disk!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void interruptedUploadTest() {
+
+		TestUtils.start("Interrupted Form Data Upload");
+
+		Directory spoolDir = new Directory(AllTests.TEST_PATH + "/spool");
+		spoolDir.clear();
+
+		byte[] head = ("--boundaryXYZ\r\n" +
+			"Content-Disposition: form-data; name=\"upload\"; filename=\"Data.bin\"\r\n" +
+			"\r\n").getBytes(StandardCharsets.UTF_8);
+
+		// a client sending part of a large file and then falling silent
+		final ByteArrayInputStream sentBytes = new ByteArrayInputStream(
+			concat(head, new byte[64 * 1024]));
+
+		InputStream interruptedInput = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				byte[] b = new byte[1];
+				return (read(b, 0, 1) < 0) ? -1 : (b[0] & 0xFF);
+			}
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int result = sentBytes.read(b, off, len);
+				if (result < 0) {
+					throw new SocketTimeoutException("The client fell silent");
+				}
+				return result;
+			}
+		};
+
+		WebRequestMultipartParser parser = new WebRequestMultipartParser("boundaryXYZ", StandardCharsets.UTF_8);
+		parser.setMemoryThreshold(1024);
+		parser.setSpoolDirectory(spoolDir.getJavaFile());
+
+		try {
+			parser.parse(interruptedInput);
+			TestUtils.fail("We parsed an upload that was interrupted, but no exception occurred!");
+			return;
+		} catch (SocketTimeoutException e) {
+			// this is what we expected
+		} catch (IOException e) {
+			TestUtils.fail("We parsed an upload that was interrupted and got: " + e);
+			return;
+		}
+
+		String[] leftovers = spoolDir.getJavaFile().list();
+		if ((leftovers == null) || (leftovers.length > 0)) {
+			TestUtils.fail("We parsed an upload that was interrupted and were left with the files " +
+				((leftovers == null) ? null : Arrays.asList(leftovers)) + "!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
 	public void getFileTest() {
 
 		TestUtils.start("Get File from Server");
@@ -235,11 +415,580 @@ public class WebTest implements Test {
 		TestUtils.succeed();
 	}
 
+	public void oversizedHeadersTest() {
+
+		TestUtils.start("Oversized Headers and Bodies");
+
+		StringBuilder request = new StringBuilder();
+		request.append("GET /json/simple.json HTTP/1.1\r\n");
+		request.append("Host: localhost\r\n");
+		for (int i = 0; i < 2000; i++) {
+			request.append("X-Padding-" + i + ": " + "padding padding padding padding padding\r\n");
+		}
+		request.append("\r\n");
+
+		String response = sendRawRequest(8081, request.toString());
+
+		if ((response == null) || !response.startsWith("HTTP/1.1 431")) {
+			TestUtils.fail("We sent a request with too many headers and expected HTTP 431, but got:\n" + response);
+			return;
+		}
+
+		// a body announced to be huge is refused by default, rather than memory being allocated for it
+		response = sendRawRequest(8081, "POST /post HTTP/1.1\r\nHost: localhost\r\n" +
+			"Content-Type: application/json\r\nContent-Length: 2000000000\r\n\r\n{}");
+
+		if ((response == null) || !response.startsWith("HTTP/1.1 413")) {
+			TestUtils.fail("We announced a body of 2 GB and expected HTTP 413, but got:\n" + response);
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void pipelinedRequestsTest() {
+
+		TestUtils.start("Pipelined Requests");
+
+		// three requests sent at once on one connection, the last one asking to close it
+		String request =
+			"GET /json/simple.json HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+			"POST /post HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n" +
+			"Content-Length: 14\r\n\r\n{\"foo\": \"baz\"}" +
+			"GET /json/simple.json HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+
+		String response = sendRawRequest(8081, request);
+
+		if (response == null) {
+			TestUtils.fail("We sent pipelined requests, but got no response at all!");
+			return;
+		}
+
+		String[] responses = response.split("HTTP/1.1 200 OK");
+
+		if (responses.length != 4) {
+			TestUtils.fail("We sent three pipelined requests and expected three responses, but got:\n" + response);
+			return;
+		}
+
+		if (!responses[1].contains("Connection: keep-alive") || !responses[1].endsWith("{\"foo\": \"bar\"}")) {
+			TestUtils.fail("The first response to our pipelined requests was not kept alive or had the wrong body:\n" + response);
+			return;
+		}
+
+		if (!"baz".equals(WebTestServerRequestHandler.lastPostContentJSON.getString("foo"))) {
+			TestUtils.fail("The pipelined POST did not arrive correctly, instead we got: " +
+				WebTestServerRequestHandler.lastPostContentStr);
+			return;
+		}
+
+		if (!responses[3].contains("Connection: close") || !responses[3].endsWith("{\"foo\": \"bar\"}")) {
+			TestUtils.fail("The last response to our pipelined requests did not close the connection or had the wrong body:\n" + response);
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void conditionalGetTest() {
+
+		TestUtils.start("Conditional Get");
+
+		String response = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" +
+			"Host: localhost\r\nConnection: close\r\n\r\n");
+
+		String eTag = WebExtractor.extract(response, "ETag: ", "\r\n");
+
+		if ((eTag == null) || !response.startsWith("HTTP/1.1 200")) {
+			TestUtils.fail("We requested a file and expected it to come with an ETag, but got:\n" + response);
+			return;
+		}
+
+		response = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" +
+			"Host: localhost\r\nIf-None-Match: " + eTag + "\r\nConnection: close\r\n\r\n");
+
+		if (!response.startsWith("HTTP/1.1 304") || response.contains("{")) {
+			TestUtils.fail("We requested a file with its current ETag and expected HTTP 304 without body, but got:\n" + response);
+			return;
+		}
+
+		response = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" +
+			"Host: localhost\r\nIf-None-Match: \"outdated\"\r\nConnection: close\r\n\r\n");
+
+		if (!response.startsWith("HTTP/1.1 200") || !response.endsWith("{\"foo\": \"bar\"}")) {
+			TestUtils.fail("We requested a file with an outdated ETag and expected to get the file, but got:\n" + response);
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void rangeRequestTest() {
+
+		TestUtils.start("Range Request");
+
+		// stream every file, no matter how small
+		server.setStreamingThreshold(0);
+
+		String response = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" +
+			"Host: localhost\r\nRange: bytes=2-5\r\nConnection: close\r\n\r\n");
+
+		String fullResponse = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" +
+			"Host: localhost\r\nConnection: close\r\n\r\n");
+
+		String unsatisfiableResponse = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" +
+			"Host: localhost\r\nRange: bytes=100-\r\nConnection: close\r\n\r\n");
+
+		server.setStreamingThreshold(WebServer.DEFAULT_STREAMING_THRESHOLD);
+
+		if (!response.startsWith("HTTP/1.1 206") || !response.contains("Content-Range: bytes 2-5/14") ||
+			!response.endsWith("\r\n\r\nfoo\"")) {
+			TestUtils.fail("We requested part of a streamed file and expected HTTP 206, but got:\n" + response);
+			return;
+		}
+
+		if (!fullResponse.startsWith("HTTP/1.1 200") || !fullResponse.endsWith("{\"foo\": \"bar\"}")) {
+			TestUtils.fail("We requested a streamed file completely and expected it in full, but got:\n" + fullResponse);
+			return;
+		}
+
+		if (!unsatisfiableResponse.startsWith("HTTP/1.1 416")) {
+			TestUtils.fail("We requested a range beyond the end of a file and expected HTTP 416, but got:\n" + unsatisfiableResponse);
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void compressedAnswerTest() {
+
+		TestUtils.start("Compressed Answer");
+
+		// compress everything, no matter how small
+		server.setCompressionMinSize(0);
+
+		byte[] response = sendRawRequestBytes(8081, "GET /json/simple.json HTTP/1.1\r\n" +
+			"Host: localhost\r\nAccept-Encoding: deflate, gzip;q=0.8\r\nConnection: close\r\n\r\n");
+
+		server.setCompressionMinSize(WebServer.DEFAULT_COMPRESSION_MIN_SIZE);
+
+		String responseStr = new String(response, StandardCharsets.ISO_8859_1);
+		int bodyStart = responseStr.indexOf("\r\n\r\n") + 4;
+
+		if (!responseStr.startsWith("HTTP/1.1 200") || !responseStr.contains("Content-Encoding: gzip")) {
+			TestUtils.fail("We requested a file accepting gzip and expected it to be compressed, but got:\n" + responseStr);
+			return;
+		}
+
+		String body;
+		try (GZIPInputStream unzipper = new GZIPInputStream(new ByteArrayInputStream(response, bodyStart, response.length - bodyStart))) {
+			ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+			byte[] buf = new byte[1024];
+			int len;
+			while ((len = unzipper.read(buf)) > -1) {
+				unzipped.write(buf, 0, len);
+			}
+			body = new String(unzipped.toByteArray(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			TestUtils.fail("We requested a file accepting gzip, but could not unzip what we got: " + e);
+			return;
+		}
+
+		if (!"{\"foo\": \"bar\"}".equals(body)) {
+			TestUtils.fail("We requested a file accepting gzip, but after unzipping got: " + body);
+			return;
+		}
+
+		// HEAD requests and confirmations that the client is up to date get the same headers as a GET
+		server.setCompressionMinSize(0);
+
+		String gzipHeaders = "Host: localhost\r\nAccept-Encoding: gzip\r\nConnection: close\r\n";
+
+		String getResponse = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" + gzipHeaders + "\r\n");
+		String getETag = WebExtractor.extract(getResponse, "ETag: ", "\r\n");
+
+		String headResponse = sendRawRequest(8081, "HEAD /json/simple.json HTTP/1.1\r\n" + gzipHeaders + "\r\n");
+
+		String notModifiedResponse = sendRawRequest(8081, "GET /json/simple.json HTTP/1.1\r\n" + gzipHeaders +
+			"If-None-Match: " + getETag + "\r\n\r\n");
+
+		server.setCompressionMinSize(WebServer.DEFAULT_COMPRESSION_MIN_SIZE);
+
+		if ((getETag == null) || !getETag.endsWith("-gzip\"") || !headResponse.startsWith("HTTP/1.1 200") ||
+			!getETag.equals(WebExtractor.extract(headResponse, "ETag: ", "\r\n")) ||
+			!headResponse.contains("Content-Encoding: gzip") || !headResponse.contains("Vary: Accept-Encoding") ||
+			!WebExtractor.extract(getResponse, "Content-Length: ", "\r\n").equals(
+				WebExtractor.extract(headResponse, "Content-Length: ", "\r\n"))) {
+			TestUtils.fail("We requested a file accepting gzip with GET and HEAD, and got:\n" + getResponse +
+				"\nand:\n" + headResponse);
+			return;
+		}
+
+		if (!notModifiedResponse.startsWith("HTTP/1.1 304") || !notModifiedResponse.contains("Vary: Accept-Encoding") ||
+			!getETag.equals(WebExtractor.extract(notModifiedResponse, "ETag: ", "\r\n"))) {
+			TestUtils.fail("We requested a file accepting gzip with its current ETag " + getETag + " and got:\n" +
+				notModifiedResponse);
+			return;
+		}
+
+		// an encoding that is rejected explicitly must not be accepted through the wildcard
+		String[][] negotiations = {
+			{"gzip;q=0, *", WebServerCompression.DEFLATE},
+			{"*, gzip;q=0, deflate;q=0", null},
+			{"gzip;q=0", null},
+			{"*", WebServerCompression.GZIP},
+			{"*;q=0, deflate", WebServerCompression.DEFLATE},
+		};
+
+		for (String[] negotiation : negotiations) {
+			String encoding = WebServerCompression.negotiateEncoding(negotiation[0]);
+			if ((encoding == null) ? (negotiation[1] != null) : !encoding.equals(negotiation[1])) {
+				TestUtils.fail("A client sent Accept-Encoding: " + negotiation[0] + " and we chose " + encoding +
+					" instead of " + negotiation[1] + "!");
+				return;
+			}
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void fileCacheSizeTest() {
+
+		TestUtils.start("File Cache Size");
+
+		File file = new File(AllTests.TEST_DATA_PATH + "/json/simple.json");
+
+		WebServerFileCache cache = new WebServerFileCache(1024 * 1024);
+
+		WebServerFileCacheEntry entry = cache.get(file);
+
+		long size = entry.getSize();
+		size += entry.getCompressedData(WebServerCompression.GZIP).length;
+		size += entry.getCompressedData(WebServerCompression.DEFLATE).length;
+
+		// getting a variant again must not count it twice
+		entry.getCompressedData(WebServerCompression.GZIP);
+
+		if (cache.getCurrentSize() != size) {
+			TestUtils.fail("We cached a file and its compressed variants, which take up " + size +
+				" bytes, but the cache counted " + cache.getCurrentSize() + " bytes!");
+			return;
+		}
+
+		// a cache just large enough for the file itself must drop it again once its variants are added
+		WebServerFileCache smallCache = new WebServerFileCache(entry.getSize() * 4);
+
+		WebServerFileCacheEntry smallEntry = smallCache.get(file);
+		smallEntry.getCompressedData(WebServerCompression.GZIP);
+		smallEntry.getCompressedData(WebServerCompression.DEFLATE);
+
+		if (smallCache.getCurrentSize() > smallCache.getMaxSize()) {
+			TestUtils.fail("We cached compressed variants in a cache of " + smallCache.getMaxSize() +
+				" bytes, but it now holds " + smallCache.getCurrentSize() + " bytes!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void routedRequestTest() {
+
+		TestUtils.start("Routed Request");
+
+		WebServerRouter router = server.getRouter();
+
+		router.addRoute("/api/items/{id}", new WebServerRouteHandler() {
+			public WebServerAnswer answerGet(String location, Map<String, String> pathParameters, Map<String, String> arguments) {
+				return new WebServerAnswerInJson(200, "item", pathParameters.get("id") + "/" + arguments.get("show"));
+			}
+		});
+
+		router.addRoute("/api/items/special", new WebServerRouteHandler() {
+			public WebServerAnswer answerGet(String location, Map<String, String> pathParameters, Map<String, String> arguments) {
+				return new WebServerAnswerInJson(200, "item", "special");
+			}
+		});
+
+		router.addPrefixRoute("/api/", new WebServerRouteHandler() {
+			public WebServerAnswer answerGet(String location, Map<String, String> pathParameters, Map<String, String> arguments) {
+				return new WebServerAnswerInJson(200, "item", "fallback");
+			}
+		});
+
+		String result = WebAccessor.get("http://localhost:8081/api/items/42?show=all");
+		if (!"{\"item\": \"42/all\"}".equals(result)) {
+			TestUtils.fail("We requested a route with a path parameter and got: " + result);
+			return;
+		}
+
+		result = WebAccessor.get("http://localhost:8081/api/items/special");
+		if (!"{\"item\": \"special\"}".equals(result)) {
+			TestUtils.fail("We requested a route that exists both literally and with a parameter and got: " + result);
+			return;
+		}
+
+		result = WebAccessor.get("http://localhost:8081/api/something/else");
+		if (!"{\"item\": \"fallback\"}".equals(result)) {
+			TestUtils.fail("We requested a path only matching a prefix route and got: " + result);
+			return;
+		}
+
+		// files are still served as before
+		result = WebAccessor.get("http://localhost:8081/json/simple.json");
+		if (!"{\"foo\": \"bar\"}".equals(result)) {
+			TestUtils.fail("We requested a file while routes are registered and got: " + result);
+			return;
+		}
+
+		if (router.getRouteStats().get("/api/items/{id}").getRequestCount() != 1) {
+			TestUtils.fail("We requested a route once, but it counted " +
+				router.getRouteStats().get("/api/items/{id}").getRequestCount() + " requests!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void metricsTest() {
+
+		TestUtils.start("Server Metrics");
+
+		server.setMetricsEndpoint("/metrics");
+
+		WebServerMetrics metrics = server.getMetrics();
+
+		// requests are recorded just after the answer has been sent, so the last request of the
+		// previous test might still arrive here - we wait for it and then start from scratch
+		waitForRequestCountToSettle(metrics);
+		metrics.reset();
+
+		WebAccessor.get("http://localhost:8081/json/simple.json");
+		WebAccessor.get("http://localhost:8081/json/simple.json");
+
+		// and now we give the server a moment to record our own requests
+		for (int i = 0; (i < 100) && (metrics.getStatusCount(200) < 2); i++) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+
+		if (metrics.getStatusCount(200) != 2) {
+			TestUtils.fail("We sent two requests that were answered with 200 OK, but the metrics counted " +
+				metrics.getStatusCount(200) + "!");
+			return;
+		}
+
+		if ((metrics.getBytesIn() <= 0) || (metrics.getBytesOut() <= 0)) {
+			TestUtils.fail("We sent requests, but the metrics counted " + metrics.getBytesIn() +
+				" bytes in and " + metrics.getBytesOut() + " bytes out!");
+			return;
+		}
+
+		if (metrics.getLatencies().getCount() != 2) {
+			TestUtils.fail("We sent two requests, but the latency histogram contains " +
+				metrics.getLatencies().getCount() + " values!");
+			return;
+		}
+
+		String result = WebAccessor.get("http://localhost:8081/metrics");
+
+		try {
+			JSON jsonContent = new JSON(result);
+
+			Integer requestCount = jsonContent.getInteger("requests");
+			if ((requestCount == null) || (requestCount < 2)) {
+				TestUtils.fail("We requested the metrics endpoint and got: " + result);
+				return;
+			}
+
+			if (jsonContent.get("latencyMicros").getLong("p99") == null) {
+				TestUtils.fail("We requested the metrics endpoint and got no latency percentiles: " + result);
+				return;
+			}
+		} catch (JsonParseException e) {
+			TestUtils.fail("We requested the metrics endpoint and got something that is not JSON: " + result);
+			return;
+		}
+
+		server.setMetricsEnabled(false);
+
+		TestUtils.succeed();
+	}
+
+	/**
+	 * Waits until the request count of the metrics has not changed for several checks in a row
+	 * (or until enough time has passed), such that no request is still about to be recorded
+	 */
+	private void waitForRequestCountToSettle(WebServerMetrics metrics) {
+
+		long lastCount = metrics.getRequestCount();
+		int unchangedChecks = 0;
+
+		for (int i = 0; (i < 200) && (unchangedChecks < 5); i++) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				return;
+			}
+			long count = metrics.getRequestCount();
+			if (count == lastCount) {
+				unchangedChecks++;
+			} else {
+				lastCount = count;
+				unchangedChecks = 0;
+			}
+		}
+	}
+
+	/**
+	 * Sends the given raw request to a server on localhost and returns everything that
+	 * comes back until the server closes the connection
+	 */
+	private String sendRawRequest(int port, String request) {
+
+		byte[] result = sendRawRequestBytes(port, request);
+
+		if (result == null) {
+			return null;
+		}
+
+		return new String(result, StandardCharsets.UTF_8);
+	}
+
+	private byte[] sendRawRequestBytes(int port, String request) {
+
+		return sendRawRequestBytes(port, request.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private byte[] sendRawRequestBytes(int port, byte[] request) {
+
+		try (Socket socket = new Socket("localhost", port)) {
+
+			socket.setSoTimeout(10000);
+
+			OutputStream out = socket.getOutputStream();
+			out.write(request);
+			out.flush();
+
+			InputStream in = socket.getInputStream();
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+			byte[] buf = new byte[4096];
+			int len;
+			try {
+				while ((len = in.read(buf)) > -1) {
+					result.write(buf, 0, len);
+				}
+			} catch (IOException e) {
+				// the server might reset the connection after answering, which is fine
+			}
+
+			return result.toByteArray();
+
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 	public void stopServer() {
 
 		server.stop();
 	}
 
+	public void threadPoolServerTest() {
+
+		TestUtils.start("Thread Pool Server");
+
+		WebServer poolServer = new WebTestServer(new Directory(AllTests.TEST_DATA_PATH), 8082);
+		poolServer.setExecutionMode(WebServerExecutionMode.THREAD_POOL);
+		poolServer.setMaxConcurrency(2);
+		poolServer.addToWhitelist("json/simple.json");
+		poolServer.serveAsync();
+
+		// more requests than there are pool threads, so that threads must be re-used
+		for (int i = 0; i < 5; i++) {
+			String result = WebAccessor.get("http://localhost:8082/json/simple.json");
+
+			if (!"{\"foo\": \"bar\"}".equals(result)) {
+				poolServer.stop();
+				TestUtils.fail("We tried to request a simple JSON file from our own thread pool server... and did not get it!");
+				return;
+			}
+		}
+
+		poolServer.stop();
+
+		if (poolServer.getActiveConnectionCount() != 0) {
+			TestUtils.fail("We stopped the thread pool server, but there are still " +
+				poolServer.getActiveConnectionCount() + " connections being handled!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
+	public void idleKeepAliveConnectionsTest() {
+
+		TestUtils.start("Idle Keep-Alive Connections");
+
+		WebServer poolServer = new WebTestServer(new Directory(AllTests.TEST_DATA_PATH), 8083);
+		poolServer.setExecutionMode(WebServerExecutionMode.THREAD_POOL);
+		poolServer.setMaxConcurrency(2);
+		poolServer.addToWhitelist("json/simple.json");
+		poolServer.serveAsync();
+
+		long start = System.currentTimeMillis();
+
+		// more idle kept-alive connections than there are pool threads must not keep a new client out
+		List<Socket> idleSockets = new ArrayList<>();
+		try {
+			for (int i = 0; i < 3; i++) {
+				Socket idleSocket = new Socket("localhost", 8083);
+				idleSockets.add(idleSocket);
+				idleSocket.setSoTimeout(10000);
+				idleSocket.getOutputStream().write(("GET /json/simple.json HTTP/1.1\r\n" +
+					"Host: localhost\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+				idleSocket.getOutputStream().flush();
+				// once the answer arrives, the connection is kept alive and idle
+				if (idleSocket.getInputStream().read() < 0) {
+					poolServer.stop();
+					TestUtils.fail("We sent a request on a connection to be kept alive and got no answer!");
+					return;
+				}
+			}
+
+			String result = sendRawRequest(8083, "GET /json/simple.json HTTP/1.1\r\n" +
+				"Host: localhost\r\nConnection: close\r\n\r\n");
+
+			long duration = System.currentTimeMillis() - start;
+
+			if ((result == null) || !result.startsWith("HTTP/1.1 200") ||
+				(duration >= poolServer.getKeepAliveTimeoutMillis())) {
+				poolServer.stop();
+				TestUtils.fail("With more idle kept-alive connections than pool threads, a new client got '" +
+					result + "' after " + duration + " ms!");
+				return;
+			}
+		} catch (IOException e) {
+			poolServer.stop();
+			TestUtils.fail("We tried to keep connections to our thread pool server open, but got: " + e);
+			return;
+		} finally {
+			for (Socket idleSocket : idleSockets) {
+				try {
+					idleSocket.close();
+				} catch (IOException e) {
+					// well, we tried...
+				}
+			}
+		}
+
+		poolServer.stop();
+
+		TestUtils.succeed();
+	}
+
 	public void extractDataTest() {
 
 		TestUtils.start("Extract Data");
@@ -7,6 +7,8 @@ package com.asofterspace.toolbox.selftest;
 import com.asofterspace.toolbox.io.Directory;
 import com.asofterspace.toolbox.io.JSON;
 import com.asofterspace.toolbox.io.JsonParseException;
+import com.asofterspace.toolbox.web.WebRequestFormData;
+import com.asofterspace.toolbox.web.WebRequestFormDataBlock;
 import com.asofterspace.toolbox.web.WebServer;
 import com.asofterspace.toolbox.web.WebServerAnswer;
 import com.asofterspace.toolbox.web.WebServerAnswerInJson;
@@ -22,6 +24,14 @@ public class WebTestServerRequestHandler extends WebServerRequestHandler {
 
 	public static JSON lastPostContentJSON;
 
+	public static String lastUploadField;
+
+	public static String lastUploadFilename;
+
+	public static byte[] lastUploadBytes;
+
+	public static boolean lastUploadWasOnDisk;
+
 
 	public WebTestServerRequestHandler(WebServer server, Socket request, Directory webRoot) {
 
@@ -31,6 +41,11 @@ public class WebTestServerRequestHandler extends WebServerRequestHandler {
 	@Override
 	protected void handlePost(String fileLocation) throws IOException {
 
+		if ("/upload".equals(fileLocation)) {
+			handleUpload();
+			return;
+		}
+
 		WebTestServerRequestHandler.lastPostContentStr = null;
 		WebTestServerRequestHandler.lastPostContentJSON = null;
 
@@ -57,4 +72,23 @@ public class WebTestServerRequestHandler extends WebServerRequestHandler {
 		respond(200, answer);
 	}
 
+	private void handleUpload() throws IOException {
+
+		WebRequestFormData formData = receiveFormDataContent();
+
+		if ((formData == null) || (formData.getByName("field") == null) || (formData.getByName("upload") == null)) {
+			respond(400);
+			return;
+		}
+
+		WebRequestFormDataBlock upload = formData.getByName("upload");
+
+		WebTestServerRequestHandler.lastUploadField = formData.getByName("field").getContent();
+		WebTestServerRequestHandler.lastUploadFilename = upload.getFilename();
+		WebTestServerRequestHandler.lastUploadBytes = upload.getContentBytes();
+		WebTestServerRequestHandler.lastUploadWasOnDisk = upload.isOnDisk();
+
+		respond(200, new WebServerAnswerInJson("{\"success\": true}"));
+	}
+
 }
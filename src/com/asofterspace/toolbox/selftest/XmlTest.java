@@ -8,10 +8,15 @@ import com.asofterspace.toolbox.io.JSON;
 import com.asofterspace.toolbox.io.JsonParseException;
 import com.asofterspace.toolbox.io.XML;
 import com.asofterspace.toolbox.io.XmlElement;
+import com.asofterspace.toolbox.io.XmlElementFoundCallback;
 import com.asofterspace.toolbox.io.XmlFile;
+import com.asofterspace.toolbox.io.XmlStreamReader;
 import com.asofterspace.toolbox.test.Test;
 import com.asofterspace.toolbox.test.TestUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 public class XmlTest implements Test {
 
@@ -29,6 +34,8 @@ public class XmlTest implements Test {
 		advancedToJsonAndBackTest();
 
 		restrictedToJsonAndBackTest();
+
+		streamingTest();
 	}
 
 	public void fromStringTest() {
@@ -227,4 +234,77 @@ public class XmlTest implements Test {
 		TestUtils.succeed();
 	}
 
+
+	public void streamingTest() {
+
+		TestUtils.start("XML Streaming");
+
+		StringBuilder xml = new StringBuilder();
+		xml.append("<x:worksheet xmlns:x=\"urn:test\"><x:sheetData>");
+		for (int i = 1; i <= 1000; i++) {
+			xml.append("<x:row r=\"" + i + "\"><x:c r=\"A" + i + "\"><x:v>" + (i * 2) + "</x:v></x:c></x:row>");
+		}
+		xml.append("</x:sheetData><x:other><x:row r=\"0\">not &amp; here</x:row></x:other></x:worksheet>");
+
+		final List<XmlElement> rows = new ArrayList<>();
+		final List<String> texts = new ArrayList<>();
+		final List<String> paths = new ArrayList<>();
+
+		XmlStreamReader reader = new XmlStreamReader(xml.toString());
+		reader.addMatch("x:sheetData/x:row", new XmlElementFoundCallback() {
+			public void foundElement(XmlElement element, List<String> path) {
+				rows.add(element);
+			}
+		});
+		reader.addMatch("/x:worksheet/*/x:row/x:c/x:v", new XmlElementFoundCallback() {
+			public void foundElement(XmlElement element, List<String> path) {
+				texts.add(element.getInnerText());
+			}
+		});
+		reader.addMatch("x:other/x:row", new XmlElementFoundCallback() {
+			public void foundElement(XmlElement element, List<String> path) {
+				texts.add(element.getInnerText());
+				paths.add(path.toString());
+			}
+		});
+
+		if (!reader.read()) {
+			TestUtils.fail("We streamed through an XML document and it could not be read!");
+			return;
+		}
+
+		XmlElement lastRow = rows.get(rows.size() - 1);
+		if ((rows.size() != 1000) || !"1000".equals(lastRow.getAttribute("r")) || (lastRow.getXmlParent() != null) ||
+			!"2000".equals(lastRow.getChild("x:c").getChild("x:v").getInnerText())) {
+			TestUtils.fail("We streamed through an XML document with 1000 rows and got " + rows.size() + " of them!");
+			return;
+		}
+
+		if ((texts.size() != 1001) || !"2".equals(texts.get(0)) || !"not & here".equals(texts.get(1000)) ||
+			!"[x:worksheet, x:other, x:row]".equals(paths.get(0))) {
+			TestUtils.fail("We streamed through an XML document and got the texts " + texts.size() + " texts and the paths " + paths + "!");
+			return;
+		}
+
+		// reading can be stopped as soon as we found what we were looking for
+		final List<XmlElement> firstRows = new ArrayList<>();
+		final XmlStreamReader stoppingReader = new XmlStreamReader(xml.toString());
+		stoppingReader.addMatch("x:row", new XmlElementFoundCallback() {
+			public void foundElement(XmlElement element, List<String> path) {
+				firstRows.add(element);
+				if (firstRows.size() == 3) {
+					stoppingReader.stop();
+				}
+			}
+		});
+		stoppingReader.read();
+
+		if (firstRows.size() != 3) {
+			TestUtils.fail("We stopped streaming through an XML document after 3 rows and got " + firstRows.size() + "!");
+			return;
+		}
+
+		TestUtils.succeed();
+	}
+
 }
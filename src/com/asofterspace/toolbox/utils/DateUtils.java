@@ -10,6 +10,8 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
 
 
 /**
@@ -25,6 +27,7 @@ public class DateUtils {
 	private static final String NUMERICAL_DATE_TIME_FORMAT_STR = "yyyyMMddHHmmssSSS";
 	private static final String DEFAULT_TIME_FORMAT_STR = "HH:mm:ss.SSS";
 	private static final String SHORT_TIME_FORMAT_STR = "HH:mm";
+	private static final String HTTP_DATE_FORMAT_STR = "EEE, dd MMM yyyy HH:mm:ss 'GMT'";
 
 	private static SimpleDateFormat DEFAULT_DATE_FORMAT = new SimpleDateFormat(DEFAULT_DATE_FORMAT_STR);
 	private static SimpleDateFormat FALLBACK_DATE_FORMAT = new SimpleDateFormat(FALLBACK_DATE_FORMAT_STR);
@@ -54,6 +57,30 @@ public class DateUtils {
 	 */
 	public static Date parseDate(String dateStr) {
 
+		return parseDate(dateStr, DEFAULT_DATE_FORMAT, FALLBACK_DATE_FORMAT);
+	}
+
+	/**
+	 * Creates a new format for parseDate(dateStr, dateFormat, fallbackDateFormat)
+	 */
+	public static SimpleDateFormat createDateFormat() {
+		return new SimpleDateFormat(DEFAULT_DATE_FORMAT_STR);
+	}
+
+	/**
+	 * Creates a new fallback format for parseDate(dateStr, dateFormat, fallbackDateFormat)
+	 */
+	public static SimpleDateFormat createFallbackDateFormat() {
+		return new SimpleDateFormat(FALLBACK_DATE_FORMAT_STR);
+	}
+
+	/**
+	 * Parses just the date just like parseDate(dateStr), but with the given formats instead
+	 * of the ones shared by all callers - as a SimpleDateFormat must not be used by several
+	 * threads at once, each thread that parses dates in parallel needs its own formats
+	 */
+	public static Date parseDate(String dateStr, SimpleDateFormat dateFormat, SimpleDateFormat fallbackDateFormat) {
+
 		if ((dateStr == null) || "".equals(dateStr.trim())) {
 			return null;
 		}
@@ -82,10 +109,12 @@ public class DateUtils {
 				if (dateStr.length() > 5) {
 					if (!((dateStr.charAt(2) == '-') && (dateStr.charAt(5) == '-'))) {
 						try {
-							return DEFAULT_DATE_FORMAT.parse(dateStr);
+							return dateFormat.parse(dateStr);
 						} catch (ArrayIndexOutOfBoundsException aobE) {
 							SimpleDateFormat newFormat = new SimpleDateFormat(DEFAULT_DATE_FORMAT_STR);
-							DEFAULT_DATE_FORMAT = newFormat;
+							if (dateFormat == DEFAULT_DATE_FORMAT) {
+								DEFAULT_DATE_FORMAT = newFormat;
+							}
 							return newFormat.parse(dateStr);
 						}
 					}
@@ -126,10 +155,12 @@ public class DateUtils {
 
 		try {
 			try {
-				return FALLBACK_DATE_FORMAT.parse(dateStr);
+				return fallbackDateFormat.parse(dateStr);
 			} catch (ArrayIndexOutOfBoundsException aobE) {
 				SimpleDateFormat newFormat = new SimpleDateFormat(FALLBACK_DATE_FORMAT_STR);
-				FALLBACK_DATE_FORMAT = newFormat;
+				if (fallbackDateFormat == FALLBACK_DATE_FORMAT) {
+					FALLBACK_DATE_FORMAT = newFormat;
+				}
 				return newFormat.parse(dateStr);
 			}
 		} catch (ParseException | NumberFormatException | ArrayIndexOutOfBoundsException ex2) {
@@ -379,6 +410,42 @@ public class DateUtils {
 		}
 	}
 
+	/**
+	 * Serializes a date as used in HTTP headers, e.g. Sun, 10 May 2020 15:37:12 GMT
+	 */
+	public static String serializeHttpDate(Date date) {
+
+		if (date == null) {
+			return null;
+		}
+
+		// web servers call this from many threads at once, so we do not share the format
+		return getHttpDateFormat().format(date);
+	}
+
+	/**
+	 * Parses a date as used in HTTP headers, e.g. Sun, 10 May 2020 15:37:12 GMT
+	 * (returning null if it cannot be parsed)
+	 */
+	public static Date parseHttpDate(String dateStr) {
+
+		if (dateStr == null) {
+			return null;
+		}
+
+		try {
+			return getHttpDateFormat().parse(dateStr.trim());
+		} catch (ParseException e) {
+			return null;
+		}
+	}
+
+	private static SimpleDateFormat getHttpDateFormat() {
+		SimpleDateFormat result = new SimpleDateFormat(HTTP_DATE_FORMAT_STR, Locale.US);
+		result.setTimeZone(TimeZone.getTimeZone("GMT"));
+		return result;
+	}
+
 	public static Date now() {
 		return new Date();
 	}
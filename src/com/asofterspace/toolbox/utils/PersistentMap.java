@@ -0,0 +1,349 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.utils;
+
+import java.util.List;
+
+
+/**
+ * The immutable map in which persistent records store the entries of objects
+ *
+ * This is a hash array mapped trie: each node covers five bits of the hashes of the keys
+ * and only has as many slots as it actually has children, which it finds via a bitmap -
+ * so that putting or removing a key only copies the nodes along the way to it, while
+ * everything else is shared between the old and the new map
+ */
+final class PersistentMap {
+
+	static final PersistentMap EMPTY = new PersistentMap(null, 0);
+
+	private static final int BITS = 5;
+
+	private static final int MASK = 31;
+
+	private final Node root;
+
+	private final int size;
+
+
+	private PersistentMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	int size() {
+		return size;
+	}
+
+	PersistentRecord get(String key) {
+		if (root == null) {
+			return null;
+		}
+		return root.find(0, key.hashCode(), key);
+	}
+
+	PersistentMap put(String key, PersistentRecord value) {
+
+		Node curRoot = root;
+		if (curRoot == null) {
+			curRoot = BitmapNode.EMPTY;
+		}
+
+		boolean[] added = new boolean[1];
+		Node newRoot = curRoot.put(0, key.hashCode(), key, value, added);
+
+		if (newRoot == root) {
+			return this;
+		}
+
+		return new PersistentMap(newRoot, added[0] ? size + 1 : size);
+	}
+
+	PersistentMap remove(String key) {
+
+		if (root == null) {
+			return this;
+		}
+
+		Node newRoot = root.remove(0, key.hashCode(), key);
+
+		if (newRoot == root) {
+			return this;
+		}
+
+		if (newRoot == null) {
+			return EMPTY;
+		}
+
+		return new PersistentMap(newRoot, size - 1);
+	}
+
+	/**
+	 * Adds all keys and the corresponding values of this map to the given lists
+	 */
+	void collect(List<String> keys, List<PersistentRecord> values) {
+		if (root != null) {
+			root.collect(keys, values);
+		}
+	}
+
+
+	private abstract static class Node {
+
+		abstract PersistentRecord find(int shift, int hash, String key);
+
+		// sets added[0] to true if the key was not contained before
+		abstract Node put(int shift, int hash, String key, PersistentRecord value, boolean[] added);
+
+		// returns null if the node is empty afterwards
+		abstract Node remove(int shift, int hash, String key);
+
+		abstract void collect(List<String> keys, List<PersistentRecord> values);
+	}
+
+	private static final class BitmapNode extends Node {
+
+		static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		private final int bitmap;
+
+		// for each child, either its key and value, or null and a node containing several children
+		private final Object[] array;
+
+
+		BitmapNode(int bitmap, Object[] array) {
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		@Override
+		PersistentRecord find(int shift, int hash, String key) {
+
+			int bit = 1 << ((hash >>> shift) & MASK);
+
+			if ((bitmap & bit) == 0) {
+				return null;
+			}
+
+			int idx = Integer.bitCount(bitmap & (bit - 1));
+			Object curKey = array[2*idx];
+			Object curVal = array[2*idx + 1];
+
+			if (curKey == null) {
+				return ((Node) curVal).find(shift + BITS, hash, key);
+			}
+
+			if (key.equals(curKey)) {
+				return (PersistentRecord) curVal;
+			}
+
+			return null;
+		}
+
+		@Override
+		Node put(int shift, int hash, String key, PersistentRecord value, boolean[] added) {
+
+			int bit = 1 << ((hash >>> shift) & MASK);
+			int idx = Integer.bitCount(bitmap & (bit - 1));
+
+			if ((bitmap & bit) == 0) {
+				int count = Integer.bitCount(bitmap);
+				Object[] newArray = new Object[2*(count + 1)];
+				System.arraycopy(array, 0, newArray, 0, 2*idx);
+				newArray[2*idx] = key;
+				newArray[2*idx + 1] = value;
+				System.arraycopy(array, 2*idx, newArray, 2*(idx + 1), 2*(count - idx));
+				added[0] = true;
+				return new BitmapNode(bitmap | bit, newArray);
+			}
+
+			Object curKey = array[2*idx];
+			Object curVal = array[2*idx + 1];
+
+			if (curKey == null) {
+				Node newNode = ((Node) curVal).put(shift + BITS, hash, key, value, added);
+				if (newNode == curVal) {
+					return this;
+				}
+				return new BitmapNode(bitmap, cloneAndSet(array, 2*idx + 1, newNode));
+			}
+
+			if (key.equals(curKey)) {
+				if (value == curVal) {
+					return this;
+				}
+				return new BitmapNode(bitmap, cloneAndSet(array, 2*idx + 1, value));
+			}
+
+			// two different keys end up in the same slot, so they get a node of their own
+			added[0] = true;
+			Node newNode = createNode(shift + BITS, (String) curKey, (PersistentRecord) curVal, hash, key, value);
+			Object[] newArray = cloneAndSet(array, 2*idx + 1, newNode);
+			newArray[2*idx] = null;
+			return new BitmapNode(bitmap, newArray);
+		}
+
+		@Override
+		Node remove(int shift, int hash, String key) {
+
+			int bit = 1 << ((hash >>> shift) & MASK);
+
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+
+			int idx = Integer.bitCount(bitmap & (bit - 1));
+			Object curKey = array[2*idx];
+			Object curVal = array[2*idx + 1];
+
+			if (curKey == null) {
+				Node newNode = ((Node) curVal).remove(shift + BITS, hash, key);
+				if (newNode == curVal) {
+					return this;
+				}
+				if (newNode != null) {
+					return new BitmapNode(bitmap, cloneAndSet(array, 2*idx + 1, newNode));
+				}
+			} else if (!key.equals(curKey)) {
+				return this;
+			}
+
+			if (bitmap == bit) {
+				return null;
+			}
+
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, 2*idx);
+			System.arraycopy(array, 2*(idx + 1), newArray, 2*idx, newArray.length - 2*idx);
+			return new BitmapNode(bitmap ^ bit, newArray);
+		}
+
+		@Override
+		void collect(List<String> keys, List<PersistentRecord> values) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (array[i] == null) {
+					((Node) array[i + 1]).collect(keys, values);
+				} else {
+					keys.add((String) array[i]);
+					values.add((PersistentRecord) array[i + 1]);
+				}
+			}
+		}
+
+		private static Node createNode(int shift, String key1, PersistentRecord value1, int hash2, String key2, PersistentRecord value2) {
+
+			int hash1 = key1.hashCode();
+
+			if (hash1 == hash2) {
+				return new CollisionNode(hash1, new String[] {key1, key2}, new PersistentRecord[] {value1, value2});
+			}
+
+			boolean[] added = new boolean[1];
+			return EMPTY.put(shift, hash1, key1, value1, added).put(shift, hash2, key2, value2, added);
+		}
+	}
+
+	/**
+	 * Contains all the keys that have exactly the same hash
+	 */
+	private static final class CollisionNode extends Node {
+
+		private final int hash;
+
+		private final String[] keys;
+
+		private final PersistentRecord[] values;
+
+
+		CollisionNode(int hash, String[] keys, PersistentRecord[] values) {
+			this.hash = hash;
+			this.keys = keys;
+			this.values = values;
+		}
+
+		private int indexOf(String key) {
+			for (int i = 0; i < keys.length; i++) {
+				if (key.equals(keys[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		PersistentRecord find(int shift, int hash, String key) {
+			int idx = indexOf(key);
+			if (idx < 0) {
+				return null;
+			}
+			return values[idx];
+		}
+
+		@Override
+		Node put(int shift, int hash, String key, PersistentRecord value, boolean[] added) {
+
+			if (hash != this.hash) {
+				// put ourselves into a regular node, and the new key next to us
+				BitmapNode wrapper = new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[] {null, this});
+				return wrapper.put(shift, hash, key, value, added);
+			}
+
+			int idx = indexOf(key);
+
+			if (idx >= 0) {
+				if (values[idx] == value) {
+					return this;
+				}
+				return new CollisionNode(hash, keys, (PersistentRecord[]) cloneAndSet(values, idx, value));
+			}
+
+			String[] newKeys = new String[keys.length + 1];
+			PersistentRecord[] newValues = new PersistentRecord[values.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, keys.length);
+			System.arraycopy(values, 0, newValues, 0, values.length);
+			newKeys[keys.length] = key;
+			newValues[values.length] = value;
+			added[0] = true;
+			return new CollisionNode(hash, newKeys, newValues);
+		}
+
+		@Override
+		Node remove(int shift, int hash, String key) {
+
+			int idx = indexOf(key);
+
+			if (idx < 0) {
+				return this;
+			}
+
+			if (keys.length == 1) {
+				return null;
+			}
+
+			String[] newKeys = new String[keys.length - 1];
+			PersistentRecord[] newValues = new PersistentRecord[values.length - 1];
+			System.arraycopy(keys, 0, newKeys, 0, idx);
+			System.arraycopy(values, 0, newValues, 0, idx);
+			System.arraycopy(keys, idx + 1, newKeys, idx, newKeys.length - idx);
+			System.arraycopy(values, idx + 1, newValues, idx, newValues.length - idx);
+			return new CollisionNode(hash, newKeys, newValues);
+		}
+
+		@Override
+		void collect(List<String> keys, List<PersistentRecord> values) {
+			for (int i = 0; i < this.keys.length; i++) {
+				keys.add(this.keys[i]);
+				values.add(this.values[i]);
+			}
+		}
+	}
+
+	private static Object[] cloneAndSet(Object[] array, int pos, Object value) {
+		Object[] result = array.clone();
+		result[pos] = value;
+		return result;
+	}
+
+}
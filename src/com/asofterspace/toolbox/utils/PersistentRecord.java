@@ -0,0 +1,493 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * An immutable variant of the Record, in which every change returns a new PersistentRecord
+ * while the old one stays as it was - and as both share everything that was not changed,
+ * this is a cheap way to keep snapshots or an undo history of a large structure, instead
+ * of creating a deep copy of a Record before every edit
+ *
+ * Objects are stored in hash array mapped tries and arrays in vectors of chunks, so getting
+ * and setting an entry takes O(log n) with a base of 32; only removing entries from the
+ * middle of an array copies the whole array
+ * The keys of objects are not kept in the order of insertion - use toRecord() to get a
+ * mutable Record again, e.g. to write it as JSON (where keys are sorted anyway)
+ */
+public class PersistentRecord {
+
+	private static final PersistentRecord NULL_RECORD = new PersistentRecord(RecordKind.NULL, null, null, null);
+
+	private static final PersistentRecord EMPTY_OBJECT = new PersistentRecord(RecordKind.OBJECT, null, null, PersistentMap.EMPTY);
+
+	private static final PersistentRecord EMPTY_ARRAY = new PersistentRecord(RecordKind.ARRAY, null, PersistentVector.EMPTY, null);
+
+	private final RecordKind kind;
+
+	private final Object simpleContents;
+
+	private final PersistentVector arrContents;
+
+	private final PersistentMap objContents;
+
+
+	private PersistentRecord(RecordKind kind, Object simpleContents, PersistentVector arrContents, PersistentMap objContents) {
+
+		this.kind = kind;
+
+		this.simpleContents = simpleContents;
+
+		this.arrContents = arrContents;
+
+		this.objContents = objContents;
+	}
+
+	public static PersistentRecord emptyObject() {
+		return EMPTY_OBJECT;
+	}
+
+	public static PersistentRecord emptyArray() {
+		return EMPTY_ARRAY;
+	}
+
+	public static PersistentRecord nullRecord() {
+		return NULL_RECORD;
+	}
+
+	/**
+	 * Create a persistent record from basically anything that Record.fromAnything() accepts
+	 * (in case you hand this method a PersistentRecord, it will simply be returned, and in
+	 * case you hand it a Record, it will be converted)
+	 */
+	public static PersistentRecord fromAnything(Object recordOrWhatever) {
+
+		if (recordOrWhatever instanceof PersistentRecord) {
+			return (PersistentRecord) recordOrWhatever;
+		}
+
+		return fromRecord(Record.fromAnything(recordOrWhatever));
+	}
+
+	/**
+	 * Create a persistent record containing the same data as the given Record, which
+	 * can afterwards be changed without affecting the persistent record
+	 */
+	public static PersistentRecord fromRecord(Record record) {
+
+		if ((record == null) || (record.kind == null)) {
+			return NULL_RECORD;
+		}
+
+		switch (record.kind) {
+
+			case ARRAY:
+				if ((record.arrContents == null) || (record.arrContents.size() < 1)) {
+					return EMPTY_ARRAY;
+				}
+				List<PersistentRecord> values = new ArrayList<>(record.arrContents.size());
+				for (Record entry : record.arrContents) {
+					values.add(fromRecord(entry));
+				}
+				return new PersistentRecord(RecordKind.ARRAY, null, PersistentVector.fromList(values), null);
+
+			case OBJECT:
+				if ((record.objContents == null) || (record.objContents.size() < 1)) {
+					return EMPTY_OBJECT;
+				}
+				PersistentMap map = PersistentMap.EMPTY;
+				for (Map.Entry<String, Record> entry : record.objContents.entrySet()) {
+					map = map.put(entry.getKey(), fromRecord(entry.getValue()));
+				}
+				return new PersistentRecord(RecordKind.OBJECT, null, null, map);
+
+			case NULL:
+				return NULL_RECORD;
+
+			default:
+				return new PersistentRecord(record.kind, record.simpleContents, null, null);
+		}
+	}
+
+	/**
+	 * Create a mutable Record containing the same data as this persistent record, which
+	 * can then be changed without affecting this one
+	 */
+	public Record toRecord() {
+
+		switch (kind) {
+
+			case ARRAY:
+				List<PersistentRecord> values = getValues();
+				List<Record> arrContents = new ArrayList<>(values.size());
+				for (PersistentRecord value : values) {
+					arrContents.add(value.toRecord());
+				}
+				return new Record(RecordKind.ARRAY, null, arrContents, null);
+
+			case OBJECT:
+				List<String> keys = new ArrayList<>(objContents.size());
+				List<PersistentRecord> objValues = new ArrayList<>(objContents.size());
+				objContents.collect(keys, objValues);
+				Map<String, Record> objContents = Record.createObjectMap(keys.size());
+				for (int i = 0; i < keys.size(); i++) {
+					objContents.put(keys.get(i), objValues.get(i).toRecord());
+				}
+				return new Record(RecordKind.OBJECT, null, null, objContents);
+
+			default:
+				return new Record(kind, simpleContents, null, null);
+		}
+	}
+
+	public RecordKind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Returns the amount of entries of this array or object, or 0 for anything else
+	 */
+	public int size() {
+
+		if (kind == RecordKind.ARRAY) {
+			return arrContents.size();
+		}
+
+		if (kind == RecordKind.OBJECT) {
+			return objContents.size();
+		}
+
+		return 0;
+	}
+
+	public boolean contains(String key) {
+
+		if (kind != RecordKind.OBJECT) {
+			return false;
+		}
+
+		return objContents.get(key) != null;
+	}
+
+	/**
+	 * Get the value stored under the given key of this object (or the given index of
+	 * this array, if an Integer is passed in), or null if there is none
+	 */
+	public PersistentRecord get(Object key) {
+
+		if (key == null) {
+			return null;
+		}
+
+		if (key instanceof Integer) {
+			return get((int) key);
+		}
+
+		if (kind != RecordKind.OBJECT) {
+			return null;
+		}
+
+		return objContents.get(key.toString());
+	}
+
+	public PersistentRecord get(int index) {
+
+		if (kind != RecordKind.ARRAY) {
+			return null;
+		}
+
+		return arrContents.get(index);
+	}
+
+	/**
+	 * Returns the keys of this object, in no particular order
+	 */
+	public List<String> getKeys() {
+
+		List<String> result = new ArrayList<>();
+
+		if (kind == RecordKind.OBJECT) {
+			objContents.collect(result, new ArrayList<PersistentRecord>());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the entries of this array, or the values of this object (in the same order
+	 * as the keys returned by getKeys())
+	 */
+	public List<PersistentRecord> getValues() {
+
+		List<PersistentRecord> result = new ArrayList<>(size());
+
+		if (kind == RecordKind.ARRAY) {
+			arrContents.collect(result);
+		}
+
+		if (kind == RecordKind.OBJECT) {
+			objContents.collect(new ArrayList<String>(), result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the value of this record as Object - which could be a String, Integer, etc.
+	 */
+	public Object asObject() {
+		return simpleContents;
+	}
+
+	public String asString() {
+
+		if (simpleContents == null) {
+			return null;
+		}
+
+		return simpleContents.toString();
+	}
+
+	public String getString(Object key) {
+
+		PersistentRecord result = get(key);
+
+		if (result == null) {
+			return null;
+		}
+
+		switch (result.kind) {
+
+			case NULL:
+				return null;
+
+			case STRING:
+			case BOOLEAN:
+			case NUMBER:
+				return result.simpleContents.toString();
+
+			default:
+				return result.toString();
+		}
+	}
+
+	/**
+	 * Returns a record in which the given key of this object (or the given index of this
+	 * array, if an Integer is passed in) is set to the given value
+	 * If this is not an object, the result is an object containing only the given key
+	 */
+	public PersistentRecord set(Object key, Object value) {
+
+		if (key == null) {
+			return this;
+		}
+
+		if (key instanceof Integer) {
+			return set((int) key, value);
+		}
+
+		PersistentMap map = PersistentMap.EMPTY;
+		if (kind == RecordKind.OBJECT) {
+			map = objContents;
+		}
+
+		PersistentMap newMap = map.put(key.toString(), fromAnything(value));
+
+		if (newMap == objContents) {
+			return this;
+		}
+
+		return new PersistentRecord(RecordKind.OBJECT, null, null, newMap);
+	}
+
+	/**
+	 * Returns a record in which the given index of this array is set to the given value -
+	 * if the array is not long enough, it is padded with nulls first
+	 * If this is not an array, the result is an array containing only the given index
+	 */
+	public PersistentRecord set(int index, Object value) {
+
+		if (index < 0) {
+			return this;
+		}
+
+		PersistentVector vector = PersistentVector.EMPTY;
+		if (kind == RecordKind.ARRAY) {
+			vector = arrContents;
+		}
+
+		while (vector.size() < index) {
+			vector = vector.append(NULL_RECORD);
+		}
+
+		return new PersistentRecord(RecordKind.ARRAY, null, vector.set(index, fromAnything(value)), null);
+	}
+
+	/**
+	 * Returns a record in which the value at the given path (consisting of keys of
+	 * objects and Integer indices of arrays) is set to the given value - all records
+	 * along the way which do not exist yet are created as objects or arrays
+	 */
+	public PersistentRecord setIn(Object[] path, Object value) {
+		return setIn(path, 0, value);
+	}
+
+	private PersistentRecord setIn(Object[] path, int pos, Object value) {
+
+		if (pos >= path.length) {
+			return fromAnything(value);
+		}
+
+		PersistentRecord child = get(path[pos]);
+
+		if (child == null) {
+			if ((pos + 1 < path.length) && (path[pos + 1] instanceof Integer)) {
+				child = EMPTY_ARRAY;
+			} else {
+				child = EMPTY_OBJECT;
+			}
+		}
+
+		return set(path[pos], child.setIn(path, pos + 1, value));
+	}
+
+	/**
+	 * Returns a record in which the given key is removed from this object (or the given
+	 * index from this array, if an Integer is passed in)
+	 */
+	public PersistentRecord remove(Object key) {
+
+		if (key == null) {
+			return this;
+		}
+
+		if (key instanceof Integer) {
+			return remove((int) key);
+		}
+
+		if (kind != RecordKind.OBJECT) {
+			return this;
+		}
+
+		PersistentMap newMap = objContents.remove(key.toString());
+
+		if (newMap == objContents) {
+			return this;
+		}
+
+		return new PersistentRecord(RecordKind.OBJECT, null, null, newMap);
+	}
+
+	/**
+	 * Returns a record in which the given index is removed from this array - which,
+	 * unlike other changes, copies the whole array
+	 */
+	public PersistentRecord remove(int index) {
+
+		if ((kind != RecordKind.ARRAY) || (index < 0) || (index >= arrContents.size())) {
+			return this;
+		}
+
+		List<PersistentRecord> values = getValues();
+		values.remove(index);
+
+		return new PersistentRecord(RecordKind.ARRAY, null, PersistentVector.fromList(values), null);
+	}
+
+	/**
+	 * Returns a record in which the given value is appended to this array
+	 * If this is not an array, the result is an array containing only the given value
+	 */
+	public PersistentRecord append(Object value) {
+
+		PersistentVector vector = PersistentVector.EMPTY;
+		if (kind == RecordKind.ARRAY) {
+			vector = arrContents;
+		}
+
+		return new PersistentRecord(RecordKind.ARRAY, null, vector.append(fromAnything(value)), null);
+	}
+
+	@Override
+	public String toString() {
+		return toRecord().toString();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+
+		if (this == other) {
+			return true;
+		}
+
+		if (!(other instanceof PersistentRecord)) {
+			return false;
+		}
+
+		PersistentRecord otherRecord = (PersistentRecord) other;
+
+		if (kind != otherRecord.kind) {
+			return false;
+		}
+
+		switch (kind) {
+
+			case ARRAY:
+				// structures which share their contents are the same without looking any further
+				if (arrContents == otherRecord.arrContents) {
+					return true;
+				}
+				if (arrContents.size() != otherRecord.arrContents.size()) {
+					return false;
+				}
+				for (int i = 0; i < arrContents.size(); i++) {
+					if (!arrContents.get(i).equals(otherRecord.arrContents.get(i))) {
+						return false;
+					}
+				}
+				return true;
+
+			case OBJECT:
+				if (objContents == otherRecord.objContents) {
+					return true;
+				}
+				if (objContents.size() != otherRecord.objContents.size()) {
+					return false;
+				}
+				List<String> keys = new ArrayList<>(objContents.size());
+				List<PersistentRecord> values = new ArrayList<>(objContents.size());
+				objContents.collect(keys, values);
+				for (int i = 0; i < keys.size(); i++) {
+					if (!values.get(i).equals(otherRecord.objContents.get(keys.get(i)))) {
+						return false;
+					}
+				}
+				return true;
+
+			default:
+				if (simpleContents == null) {
+					return otherRecord.simpleContents == null;
+				}
+				return simpleContents.equals(otherRecord.simpleContents);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+
+		int result = kind.hashCode();
+
+		if (simpleContents != null) {
+			result += simpleContents.hashCode();
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,189 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.utils;
+
+import java.util.List;
+
+
+/**
+ * The immutable list in which persistent records store the entries of arrays
+ *
+ * The entries are kept in chunks of 32, which are the leaves of a tree in which each node
+ * has 32 children - so that setting an entry only copies the few nodes along the way to it,
+ * while everything else is shared between the old and the new vector - and the last chunk
+ * is kept outside of the tree, so that appending usually only copies that chunk
+ */
+final class PersistentVector {
+
+	static final PersistentVector EMPTY = new PersistentVector(0, 5, new Object[32], new Object[0]);
+
+	private static final int BITS = 5;
+
+	private static final int WIDTH = 32;
+
+	private static final int MASK = 31;
+
+	private final int size;
+
+	// how many bits of an index are used by the levels of the tree above the leaves
+	private final int shift;
+
+	private final Object[] root;
+
+	private final Object[] tail;
+
+
+	private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private int tailOffset() {
+		if (size < WIDTH) {
+			return 0;
+		}
+		return ((size - 1) >>> BITS) << BITS;
+	}
+
+	private Object[] chunkFor(int index) {
+
+		if (index >= tailOffset()) {
+			return tail;
+		}
+
+		Object[] node = root;
+		for (int level = shift; level > 0; level -= BITS) {
+			node = (Object[]) node[(index >>> level) & MASK];
+		}
+		return node;
+	}
+
+	PersistentRecord get(int index) {
+
+		if ((index < 0) || (index >= size)) {
+			return null;
+		}
+
+		return (PersistentRecord) chunkFor(index)[index & MASK];
+	}
+
+	PersistentVector set(int index, PersistentRecord value) {
+
+		if (index == size) {
+			return append(value);
+		}
+
+		if (index >= tailOffset()) {
+			Object[] newTail = tail.clone();
+			newTail[index & MASK] = value;
+			return new PersistentVector(size, shift, root, newTail);
+		}
+
+		return new PersistentVector(size, shift, setInNode(shift, root, index, value), tail);
+	}
+
+	private static Object[] setInNode(int level, Object[] node, int index, PersistentRecord value) {
+
+		Object[] result = node.clone();
+
+		if (level == 0) {
+			result[index & MASK] = value;
+		} else {
+			int subIndex = (index >>> level) & MASK;
+			result[subIndex] = setInNode(level - BITS, (Object[]) node[subIndex], index, value);
+		}
+
+		return result;
+	}
+
+	PersistentVector append(PersistentRecord value) {
+
+		// there is still room in the tail
+		if (size - tailOffset() < WIDTH) {
+			Object[] newTail = new Object[tail.length + 1];
+			System.arraycopy(tail, 0, newTail, 0, tail.length);
+			newTail[tail.length] = value;
+			return new PersistentVector(size + 1, shift, root, newTail);
+		}
+
+		// the full tail moves into the tree, which gets a new level if it is full itself
+		Object[] newRoot;
+		int newShift = shift;
+
+		if ((size >>> BITS) > (1 << shift)) {
+			newRoot = new Object[WIDTH];
+			newRoot[0] = root;
+			newRoot[1] = newPath(shift, tail);
+			newShift += BITS;
+		} else {
+			newRoot = pushTail(shift, root, tail);
+		}
+
+		return new PersistentVector(size + 1, newShift, newRoot, new Object[] {value});
+	}
+
+	private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+
+		int subIndex = ((size - 1) >>> level) & MASK;
+
+		Object[] result = parent.clone();
+
+		if (level == BITS) {
+			result[subIndex] = tailNode;
+		} else {
+			Object[] child = (Object[]) parent[subIndex];
+			if (child == null) {
+				result[subIndex] = newPath(level - BITS, tailNode);
+			} else {
+				result[subIndex] = pushTail(level - BITS, child, tailNode);
+			}
+		}
+
+		return result;
+	}
+
+	private static Object[] newPath(int level, Object[] node) {
+
+		if (level == 0) {
+			return node;
+		}
+
+		Object[] result = new Object[WIDTH];
+		result[0] = newPath(level - BITS, node);
+		return result;
+	}
+
+	/**
+	 * Adds all entries of this vector to the given list, chunk by chunk
+	 */
+	void collect(List<PersistentRecord> values) {
+
+		for (int i = 0; i < size; i += WIDTH) {
+			Object[] chunk = chunkFor(i);
+			int end = Math.min(WIDTH, size - i);
+			for (int j = 0; j < end; j++) {
+				values.add((PersistentRecord) chunk[j]);
+			}
+		}
+	}
+
+	static PersistentVector fromList(List<PersistentRecord> values) {
+
+		PersistentVector result = EMPTY;
+
+		for (PersistentRecord value : values) {
+			result = result.append(value);
+		}
+
+		return result;
+	}
+
+}
@@ -4,6 +4,8 @@
  */
 package com.asofterspace.toolbox.utils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -31,6 +33,13 @@ public class Record {
 	protected Record parent;
 	protected String parentPathComponent;
 
+	// the index this record is part of, if createIndex() was called on the root of its structure
+	protected RecordIndex searchIndex;
+
+	// whether objects keep their entries in compact RecordMaps, in the order of insertion - or in TreeMaps,
+	// sorted by key; either way, they are sorted by key when written as JSON
+	private static volatile boolean compactObjects = true;
+
 
 	/**
 	 * Create an empty Record object
@@ -39,6 +48,35 @@ public class Record {
 		return new Record();
 	}
 
+	/**
+	 * By default, objects keep their entries in compact RecordMaps, which are much smaller and
+	 * faster than TreeMaps for the few keys that most objects have, and which keep the entries
+	 * in the order in which they were added - set this to false to keep them in TreeMaps,
+	 * sorted by key, for objects that are created from then on
+	 * (Either way, the keys are sorted when records are written as JSON.)
+	 */
+	public static void setCompactObjects(boolean compactObjects) {
+		Record.compactObjects = compactObjects;
+	}
+
+	/**
+	 * Create the map in which a new object record stores its entries
+	 */
+	public static Map<String, Record> createObjectMap() {
+		return createObjectMap(0);
+	}
+
+	/**
+	 * Create the map in which a new object record stores its entries,
+	 * if the amount of entries is already known
+	 */
+	public static Map<String, Record> createObjectMap(int expectedSize) {
+		if (compactObjects) {
+			return new RecordMap(expectedSize);
+		}
+		return new TreeMap<String, Record>();
+	}
+
 	/**
 	 * Create a null Record
 	 */
@@ -128,7 +166,7 @@ public class Record {
 
 		if (recordOrWhatever instanceof Map) {
 			Record mapRecord = Record.emptyObject();
-			Map<String, Record> valMap = new HashMap<>();
+			Map<String, Record> valMap = createObjectMap(((Map) recordOrWhatever).size());
 			for (Object entryObj : ((Map) recordOrWhatever).entrySet()) {
 				Map.Entry entry = (Map.Entry) entryObj;
 				Object key = entry.getKey();
@@ -157,7 +195,22 @@ public class Record {
 
 		kind = RecordKind.OBJECT;
 
-		objContents = new TreeMap<String, Record>();
+		objContents = createObjectMap();
+	}
+
+	/**
+	 * Create a record of the given kind directly from its contents, without any conversions -
+	 * for parsers which already know exactly what they have read
+	 */
+	protected Record(RecordKind kind, Object simpleContents, List<Record> arrContents, Map<String, Record> objContents) {
+
+		this.kind = kind;
+
+		this.simpleContents = simpleContents;
+
+		this.arrContents = arrContents;
+
+		this.objContents = objContents;
 	}
 
 	/**
@@ -249,6 +302,8 @@ public class Record {
 
 	public void convertTo(RecordKind newKind) {
 
+		RecordIndex index = leaveIndex();
+
 		// TODO :: add more cases
 		switch (kind) {
 			case STRING:
@@ -263,6 +318,8 @@ public class Record {
 		}
 
 		kind = newKind;
+
+		rejoinIndex(index);
 	}
 
 	/**
@@ -322,7 +379,7 @@ public class Record {
 
 		// ... and/or a deep object copy...
 		if (this.kind == RecordKind.OBJECT) {
-			result.objContents = new TreeMap<String, Record>();
+			result.objContents = createObjectMap(this.objContents.size());
 			for (Map.Entry<String, Record> entry : this.objContents.entrySet()) {
 				String key = entry.getKey();
 				Record value = entry.getValue();
@@ -334,11 +391,25 @@ public class Record {
 		return result;
 	}
 
+	/**
+	 * Create an immutable PersistentRecord containing the same data as this one, which
+	 * can be changed cheaply while sharing everything that did not change - such that
+	 * keeping snapshots of it does not require deep copies
+	 */
+	public PersistentRecord toPersistentRecord() {
+		return PersistentRecord.fromRecord(this);
+	}
+
 	/**
 	 * Return all the children (including recursive ones) of this Record which represent such
 	 * a key-value pair
+	 * If this Record is part of an indexed structure (see createIndex()), this is a lookup
+	 * in the index instead of a walk through all the children
 	 */
 	public List<Record> searchForKeyValue(String key, String value) {
+		if (searchIndex != null) {
+			return searchIndex.searchForKeyValue(this, key, value);
+		}
 		List<Record> results = new ArrayList<>();
 		searchForKeyValueInternal(key, value, results);
 		return results;
@@ -416,6 +487,62 @@ public class Record {
 		}
 	}
 
+	/**
+	 * Call this on the root of a Record structure to create an index over it, such that
+	 * searchForKeyValue() and looking up records by their path become hash lookups instead
+	 * of walks through the whole structure - which is worth it if you search a lot
+	 * The structure is doubly linked (just like by linkDoubly()), and the index and the
+	 * links are kept up to date when the structure is changed via set(), remove(), append()
+	 * and so on - but not when the maps or lists returned by getValueMap() or getValues()
+	 * are changed directly, so if you do that, call createIndex() again afterwards
+	 * @return the index, which can also be retrieved later via getIndex()
+	 */
+	public RecordIndex createIndex() {
+
+		dropIndex();
+
+		return new RecordIndex(this);
+	}
+
+	/**
+	 * Returns the index of the structure this Record is part of, or null if createIndex()
+	 * has not been called on it
+	 */
+	public RecordIndex getIndex() {
+		return searchIndex;
+	}
+
+	/**
+	 * Removes the index of the structure this Record is part of (if there is one), such
+	 * that changes no longer have to update it
+	 */
+	public void dropIndex() {
+		if (searchIndex != null) {
+			searchIndex.remove(searchIndex.getRoot());
+		}
+	}
+
+	private RecordIndex leaveIndex() {
+		RecordIndex index = searchIndex;
+		if (index != null) {
+			index.remove(this);
+		}
+		return index;
+	}
+
+	private void rejoinIndex(RecordIndex index) {
+		if (index != null) {
+			index.add(this, parent, parentPathComponent);
+		}
+	}
+
+	private void replaceInIndex(Record prevChild, Record newChild, String pathComponent) {
+		if (searchIndex != null) {
+			searchIndex.remove(prevChild);
+			searchIndex.add(newChild, this, pathComponent);
+		}
+	}
+
 	/**
 	 * Before calling getParent(), ensure that the Record structure you are looking at
 	 * is doubly linked - otherwise, no parent information will be available!
@@ -589,7 +716,7 @@ public class Record {
 	public Map<String, Record> getValueMap(String key) {
 		Record rec = get(key);
 		if (rec == null) {
-			return new TreeMap<String, Record>();
+			return createObjectMap();
 		}
 		return rec.getValueMap();
 	}
@@ -597,7 +724,7 @@ public class Record {
 	public Map<String, Record> getValueMap() {
 
 		if (objContents == null) {
-			return new TreeMap<String, Record>();
+			return createObjectMap();
 		}
 
 		return objContents;
@@ -1251,7 +1378,11 @@ public class Record {
 
 		makeObject();
 
-		objContents.remove(key.toString());
+		Record prevChild = objContents.remove(key.toString());
+
+		if (searchIndex != null) {
+			searchIndex.remove(prevChild);
+		}
 	}
 
 	/**
@@ -1262,7 +1393,12 @@ public class Record {
 
 		makeArray();
 
+		// as the paths of all following entries change, the whole array is indexed anew
+		RecordIndex arrIndex = leaveIndex();
+
 		arrContents.remove(index);
+
+		rejoinIndex(arrIndex);
 	}
 
 	/**
@@ -1273,7 +1409,9 @@ public class Record {
 
 		makeObject();
 
-		TreeMap<String, Record> newObjContents = new TreeMap<String, Record>();
+		RecordIndex index = leaveIndex();
+
+		Map<String, Record> newObjContents = createObjectMap(keys.length);
 
 		for (Object key : keys) {
 			if (key == null) {
@@ -1286,6 +1424,8 @@ public class Record {
 		}
 
 		objContents = newObjContents;
+
+		rejoinIndex(index);
 	}
 
 	/**
@@ -1306,7 +1446,11 @@ public class Record {
 
 		makeObject();
 
-		objContents.put(key.toString(), fromAnything(value));
+		String keyStr = key.toString();
+		Record newChild = fromAnything(value);
+		Record prevChild = objContents.put(keyStr, newChild);
+
+		replaceInIndex(prevChild, newChild, "." + keyStr);
 	}
 
 	public void set(Object key, int[] values) {
@@ -1334,7 +1478,10 @@ public class Record {
 
 		makeObject();
 
-		objContents.put(key.toString(), arrRecord);
+		String keyStr = key.toString();
+		Record prevChild = objContents.put(keyStr, arrRecord);
+
+		replaceInIndex(prevChild, arrRecord, "." + keyStr);
 	}
 
 	/**
@@ -1396,11 +1543,19 @@ public class Record {
 	 */
 	public void makeObject() {
 
+		if ((kind == RecordKind.OBJECT) && (objContents != null)) {
+			return;
+		}
+
+		RecordIndex index = leaveIndex();
+
 		kind = RecordKind.OBJECT;
 
 		if (objContents == null) {
-			objContents = new TreeMap<String, Record>();
+			objContents = createObjectMap();
 		}
+
+		rejoinIndex(index);
 	}
 
 	/**
@@ -1408,6 +1563,12 @@ public class Record {
 	 */
 	public void makeArray() {
 
+		if ((kind == RecordKind.ARRAY) && (arrContents != null)) {
+			return;
+		}
+
+		RecordIndex index = leaveIndex();
+
 		if (arrContents == null) {
 			arrContents = new ArrayList<Record>();
 			if (kind == RecordKind.STRING) {
@@ -1416,18 +1577,26 @@ public class Record {
 		}
 
 		kind = RecordKind.ARRAY;
+
+		rejoinIndex(index);
 	}
 
 	public void makeSimpleType(RecordKind kind, Object value) {
 
+		RecordIndex index = leaveIndex();
+
 		this.kind = kind;
 
 		this.simpleContents = value;
+
+		rejoinIndex(index);
 	}
 
 	public void reverse() {
 		if (arrContents != null) {
+			RecordIndex index = leaveIndex();
 			Collections.reverse(arrContents);
+			rejoinIndex(index);
 		}
 	}
 
@@ -1446,7 +1615,10 @@ public class Record {
 			arrContents.add(null);
 		}
 
-		arrContents.set(index, fromAnything(value));
+		Record newChild = fromAnything(value);
+		Record prevChild = arrContents.set(index, newChild);
+
+		replaceInIndex(prevChild, newChild, "[" + index + "]");
 	}
 
 	/**
@@ -1457,7 +1629,10 @@ public class Record {
 
 		makeArray();
 
-		arrContents.add(fromAnything(value));
+		Record newChild = fromAnything(value);
+		arrContents.add(newChild);
+
+		replaceInIndex(null, newChild, "[" + (arrContents.size() - 1) + "]");
 	}
 
 	/**
@@ -1476,6 +1651,58 @@ public class Record {
 		append(value);
 	}
 
+	/**
+	 * Encodes this record (and everything inside of it) in a compact binary format, which is
+	 * smaller than JSON and much faster to read back via Record.fromBinary()
+	 * @return the binary encoding of this record
+	 */
+	public byte[] toBinary() {
+
+		RecordBinaryWriter writer = new RecordBinaryWriter();
+
+		try {
+			writer.write(this);
+		} catch (IOException e) {
+			// cannot happen, as we are only writing into memory
+		}
+
+		return writer.toArray();
+	}
+
+	/**
+	 * Encodes this record (and everything inside of it) in a compact binary format directly
+	 * into the given stream
+	 * @param out the stream into which the record is written (it is flushed, but not closed)
+	 */
+	public void toBinary(OutputStream out) throws IOException {
+
+		new RecordBinaryWriter(out).write(this);
+	}
+
+	/**
+	 * Decodes a record which has been encoded via toBinary()
+	 * @param data the binary encoding of the record
+	 * @return the record
+	 * @throws IOException if the data does not contain a valid binary record
+	 */
+	public static Record fromBinary(byte[] data) throws IOException {
+
+		return fromBinary(java.nio.ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Decodes a record which has been encoded via toBinary() from the current position of the
+	 * given buffer - which can e.g. be a mapped file, whose contents are then read directly
+	 * without being copied onto the heap first
+	 * @param data the buffer containing the binary encoding of the record
+	 * @return the record
+	 * @throws IOException if the data does not contain a valid binary record
+	 */
+	public static Record fromBinary(java.nio.ByteBuffer data) throws IOException {
+
+		return new RecordBinaryReader(data).read();
+	}
+
 	@Override
 	public boolean equals(Object other) {
 
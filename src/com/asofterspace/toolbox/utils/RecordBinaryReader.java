@@ -0,0 +1,274 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.utils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Reads records in the binary record format (see the RecordBinaryWriter for its description)
+ *
+ * The reader works directly on a java.nio.ByteBuffer, so a memory-mapped file can be read
+ * without first copying it onto the heap - strings are decoded straight out of the buffer,
+ * and each distinct key only once
+ */
+class RecordBinaryReader {
+
+	private java.nio.ByteBuffer data;
+
+	private List<String> keys = new ArrayList<>();
+
+	// used to decode strings out of buffers that are not backed by an array (such as mapped ones)
+	private byte[] scratch = new byte[256];
+
+	// the objects and arrays that are currently being read
+	private List<Frame> stack = new ArrayList<>();
+
+
+	RecordBinaryReader(java.nio.ByteBuffer data) {
+
+		this.data = data;
+	}
+
+	/**
+	 * Reads a record (and everything inside of it) from the current position of the buffer,
+	 * leaving the position right after it
+	 */
+	Record read() throws IOException {
+
+		try {
+			for (int i = 0; i < RecordBinaryWriter.MAGIC.length; i++) {
+				if (data.get() != RecordBinaryWriter.MAGIC[i]) {
+					throw new IOException("The data is not a binary record!");
+				}
+			}
+
+			byte version = data.get();
+			if (version != RecordBinaryWriter.VERSION) {
+				throw new IOException("The binary record has version " + version + ", but only version " +
+					RecordBinaryWriter.VERSION + " is supported!");
+			}
+
+			keys.clear();
+			stack.clear();
+
+			Record result = readValue();
+
+			while (stack.size() > 0) {
+
+				Frame frame = stack.get(stack.size() - 1);
+
+				if (frame.remaining < 1) {
+					stack.remove(stack.size() - 1);
+					continue;
+				}
+
+				frame.remaining--;
+
+				if (frame.container.kind == RecordKind.OBJECT) {
+					String key = readKey();
+					frame.container.objContents.put(key, readValue());
+				} else {
+					frame.container.arrContents.add(readValue());
+				}
+			}
+
+			return result;
+
+		} catch (BufferUnderflowException e) {
+			throw new IOException("The binary record ends unexpectedly!");
+		}
+	}
+
+	/**
+	 * Reads a simple value completely, or the start of an object or array and puts it on the stack
+	 */
+	private Record readValue() throws IOException {
+
+		byte tag = data.get();
+
+		int amount;
+
+		switch (tag) {
+
+			case RecordBinaryWriter.TAG_NULL:
+				return new Record(RecordKind.NULL, null, null, null);
+
+			case RecordBinaryWriter.TAG_FALSE:
+				return new Record(RecordKind.BOOLEAN, Boolean.FALSE, null, null);
+
+			case RecordBinaryWriter.TAG_TRUE:
+				return new Record(RecordKind.BOOLEAN, Boolean.TRUE, null, null);
+
+			case RecordBinaryWriter.TAG_INT:
+				return new Record(RecordKind.NUMBER, (int) readZigzag(), null, null);
+
+			case RecordBinaryWriter.TAG_LONG:
+				return new Record(RecordKind.NUMBER, readZigzag(), null, null);
+
+			case RecordBinaryWriter.TAG_DOUBLE:
+				return new Record(RecordKind.NUMBER, Double.longBitsToDouble(readFixed(8)), null, null);
+
+			case RecordBinaryWriter.TAG_FLOAT:
+				return new Record(RecordKind.NUMBER, Float.intBitsToFloat((int) readFixed(4)), null, null);
+
+			case RecordBinaryWriter.TAG_BIG_INTEGER:
+			case RecordBinaryWriter.TAG_BIG_DECIMAL:
+				String numStr = readString();
+				try {
+					if (tag == RecordBinaryWriter.TAG_BIG_INTEGER) {
+						return new Record(RecordKind.NUMBER, new BigInteger(numStr), null, null);
+					}
+					return new Record(RecordKind.NUMBER, new BigDecimal(numStr), null, null);
+				} catch (NumberFormatException e) {
+					throw new IOException("The binary record contains the invalid number " + numStr + "!");
+				}
+
+			case RecordBinaryWriter.TAG_STRING:
+				return new Record(RecordKind.STRING, readString(), null, null);
+
+			case RecordBinaryWriter.TAG_ARRAY:
+				amount = readAmount();
+				// the capacity is limited, so that broken data cannot make us allocate arbitrary amounts of memory
+				Record arr = new Record(RecordKind.ARRAY, null, new ArrayList<Record>(Math.min(amount, data.remaining())), null);
+				if (amount > 0) {
+					stack.add(new Frame(arr, amount));
+				}
+				return arr;
+
+			case RecordBinaryWriter.TAG_OBJECT:
+				amount = readAmount();
+				Record obj = new Record(RecordKind.OBJECT, null, null, Record.createObjectMap(Math.min(amount, data.remaining())));
+				if (amount > 0) {
+					stack.add(new Frame(obj, amount));
+				}
+				return obj;
+
+			case RecordBinaryWriter.TAG_EMPTY:
+				int ordinal = readAmount();
+				RecordKind[] kinds = RecordKind.values();
+				if (ordinal >= kinds.length) {
+					throw new IOException("The binary record contains the unknown kind " + ordinal + "!");
+				}
+				return new Record(kinds[ordinal], null, null, null);
+
+			case RecordBinaryWriter.TAG_NO_KIND:
+				return new Record(null, null, null, null);
+
+			default:
+				throw new IOException("The binary record contains the unknown tag " + tag + "!");
+		}
+	}
+
+	private String readKey() throws IOException {
+
+		int id = readAmount();
+
+		if (id == 0) {
+			String key = readString();
+			keys.add(key);
+			return key;
+		}
+
+		if (id > keys.size()) {
+			throw new IOException("The binary record refers to the key " + id + ", but only contains " +
+				keys.size() + " keys!");
+		}
+
+		return keys.get(id - 1);
+	}
+
+	private String readString() throws IOException {
+
+		int len = readAmount();
+
+		if (len > data.remaining()) {
+			throw new IOException("The binary record ends unexpectedly!");
+		}
+
+		String result;
+
+		if (data.hasArray()) {
+			result = new String(data.array(), data.arrayOffset() + data.position(), len, StandardCharsets.UTF_8);
+			data.position(data.position() + len);
+		} else {
+			if (scratch.length < len) {
+				scratch = new byte[Math.max(len, scratch.length * 2)];
+			}
+			data.get(scratch, 0, len);
+			result = new String(scratch, 0, len, StandardCharsets.UTF_8);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Reads a varint which is used as amount, length or index
+	 */
+	private int readAmount() throws IOException {
+
+		long result = readVarint();
+
+		if ((result < 0) || (result > Integer.MAX_VALUE)) {
+			throw new IOException("The binary record contains the invalid amount " + result + "!");
+		}
+
+		return (int) result;
+	}
+
+	private long readZigzag() throws IOException {
+
+		long value = readVarint();
+
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private long readVarint() throws IOException {
+
+		long result = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = data.get();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+
+		throw new IOException("The binary record contains a varint which is too long!");
+	}
+
+	private long readFixed(int byteAmount) {
+
+		long result = 0;
+
+		for (int i = 0; i < byteAmount; i++) {
+			result = (result << 8) | (data.get() & 0xFF);
+		}
+
+		return result;
+	}
+
+
+	private static class Frame {
+
+		private Record container;
+
+		// how many entries of the container still have to be read
+		private int remaining;
+
+		Frame(Record container, int remaining) {
+			this.container = container;
+			this.remaining = remaining;
+		}
+	}
+
+}
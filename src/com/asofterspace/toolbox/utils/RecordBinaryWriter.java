@@ -0,0 +1,347 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Writes records in the binary record format, which is read again by the RecordBinaryReader
+ *
+ * The format starts with the magic bytes ASRB and a version byte, followed by the root value.
+ * Each value starts with a tag byte:
+ * NULL, FALSE, TRUE .. nothing follows
+ * INT, LONG .. the number as zigzag varint
+ * DOUBLE, FLOAT .. the IEEE bits of the number, 8 or 4 bytes, big endian
+ * BIG_INTEGER, BIG_DECIMAL, STRING .. a string (the number as text for the big ones)
+ * ARRAY .. the amount of entries as varint, followed by the entries as values
+ * OBJECT .. the amount of entries as varint, followed by a key and a value per entry
+ * EMPTY .. a record of a simple kind without contents, followed by the ordinal of the kind
+ * NO_KIND .. a record without any kind
+ *
+ * A string is written as its length in UTF-8 bytes as varint, followed by the bytes.
+ * A key is written as varint 0 followed by a string the first time it occurs, and after that
+ * as varint 1 + the index of its first occurrence among all keys, such that the many keys which
+ * are repeated in a typical document only take one or two bytes each.
+ * Varints store 7 bits per byte, lowest first, with the high bit set on all but the last byte.
+ */
+class RecordBinaryWriter {
+
+	static final byte[] MAGIC = {'A', 'S', 'R', 'B'};
+
+	static final byte VERSION = 1;
+
+	static final byte TAG_NULL = 0;
+	static final byte TAG_FALSE = 1;
+	static final byte TAG_TRUE = 2;
+	static final byte TAG_INT = 3;
+	static final byte TAG_LONG = 4;
+	static final byte TAG_DOUBLE = 5;
+	static final byte TAG_FLOAT = 6;
+	static final byte TAG_BIG_INTEGER = 7;
+	static final byte TAG_BIG_DECIMAL = 8;
+	static final byte TAG_STRING = 9;
+	static final byte TAG_ARRAY = 10;
+	static final byte TAG_OBJECT = 11;
+	static final byte TAG_EMPTY = 12;
+	static final byte TAG_NO_KIND = 13;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// if null, everything is collected in the buffer, which grows as needed
+	private OutputStream out;
+
+	private byte[] buf = new byte[BUFFER_SIZE];
+
+	private int pos = 0;
+
+	private Map<String, Integer> keyIds = new HashMap<>();
+
+	// the objects and arrays that are currently being written
+	private List<Frame> stack = new ArrayList<>();
+
+
+	/**
+	 * Create a writer collecting the output in memory, to be retrieved via toArray()
+	 */
+	RecordBinaryWriter() {
+	}
+
+	/**
+	 * Create a writer writing into the given stream
+	 */
+	RecordBinaryWriter(OutputStream out) {
+
+		this.out = out;
+	}
+
+	/**
+	 * Writes the given record and everything inside of it, and flushes the output
+	 */
+	void write(Record root) throws IOException {
+
+		keyIds.clear();
+		stack.clear();
+
+		ensureSpace(MAGIC.length + 1);
+		System.arraycopy(MAGIC, 0, buf, pos, MAGIC.length);
+		pos += MAGIC.length;
+		buf[pos++] = VERSION;
+
+		writeValue(root);
+
+		while (stack.size() > 0) {
+
+			Frame frame = stack.get(stack.size() - 1);
+
+			if (frame.objIterator != null) {
+				if (frame.objIterator.hasNext()) {
+					Map.Entry<String, Record> entry = frame.objIterator.next();
+					writeKey(entry.getKey());
+					writeValue(entry.getValue());
+					continue;
+				}
+			} else {
+				if (frame.arrIterator.hasNext()) {
+					writeValue(frame.arrIterator.next());
+					continue;
+				}
+			}
+
+			stack.remove(stack.size() - 1);
+		}
+
+		if (out != null) {
+			flushBuffer();
+			out.flush();
+		}
+	}
+
+	byte[] toArray() {
+
+		return Arrays.copyOf(buf, pos);
+	}
+
+	/**
+	 * Writes a simple value completely, or the start of an object or array and puts it on the stack
+	 */
+	private void writeValue(Record item) throws IOException {
+
+		if (item == null) {
+			writeTag(TAG_NULL);
+			return;
+		}
+
+		RecordKind kind = item.kind;
+
+		if (kind == null) {
+			writeTag(TAG_NO_KIND);
+			return;
+		}
+
+		switch (kind) {
+
+			case OBJECT:
+				writeTag(TAG_OBJECT);
+				if (item.objContents == null) {
+					writeVarint(0);
+				} else {
+					writeVarint(item.objContents.size());
+					if (item.objContents.size() > 0) {
+						stack.add(new Frame(item.objContents.entrySet().iterator(), null));
+					}
+				}
+				return;
+
+			case ARRAY:
+				writeTag(TAG_ARRAY);
+				if (item.arrContents == null) {
+					writeVarint(0);
+				} else {
+					writeVarint(item.arrContents.size());
+					if (item.arrContents.size() > 0) {
+						stack.add(new Frame(null, item.arrContents.iterator()));
+					}
+				}
+				return;
+
+			case NULL:
+				writeTag(TAG_NULL);
+				return;
+		}
+
+		Object contents = item.simpleContents;
+
+		if (contents == null) {
+			writeTag(TAG_EMPTY);
+			writeVarint(kind.ordinal());
+			return;
+		}
+
+		switch (kind) {
+
+			case BOOLEAN:
+				if (Boolean.TRUE.equals(contents)) {
+					writeTag(TAG_TRUE);
+				} else {
+					writeTag(TAG_FALSE);
+				}
+				return;
+
+			case NUMBER:
+				if (contents instanceof Integer) {
+					writeTag(TAG_INT);
+					writeZigzag((Integer) contents);
+				} else if (contents instanceof Long) {
+					writeTag(TAG_LONG);
+					writeZigzag((Long) contents);
+				} else if (contents instanceof Double) {
+					writeTag(TAG_DOUBLE);
+					writeFixed(Double.doubleToRawLongBits((Double) contents), 8);
+				} else if (contents instanceof Float) {
+					writeTag(TAG_FLOAT);
+					writeFixed(Float.floatToRawIntBits((Float) contents), 4);
+				} else if (contents instanceof BigInteger) {
+					writeTag(TAG_BIG_INTEGER);
+					writeString(contents.toString());
+				} else {
+					writeTag(TAG_BIG_DECIMAL);
+					writeString(new BigDecimal(contents.toString()).toString());
+				}
+				return;
+
+			default:
+				writeTag(TAG_STRING);
+				writeString(contents.toString());
+		}
+	}
+
+	private void writeKey(String key) throws IOException {
+
+		Integer id = keyIds.get(key);
+
+		if (id == null) {
+			keyIds.put(key, keyIds.size());
+			writeVarint(0);
+			writeString(key);
+		} else {
+			writeVarint(id + 1L);
+		}
+	}
+
+	private void writeString(String str) throws IOException {
+
+		int len = str.length();
+
+		boolean isAscii = true;
+		for (int i = 0; i < len; i++) {
+			if (str.charAt(i) >= 0x80) {
+				isAscii = false;
+				break;
+			}
+		}
+
+		if (isAscii && (len <= BUFFER_SIZE)) {
+			// here, each character is exactly one byte, so we do not need to encode anything
+			writeVarint(len);
+			ensureSpace(len);
+			for (int i = 0; i < len; i++) {
+				buf[pos++] = (byte) str.charAt(i);
+			}
+			return;
+		}
+
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		writeVarint(bytes.length);
+		writeBytes(bytes);
+	}
+
+	private void writeTag(byte tag) throws IOException {
+
+		ensureSpace(1);
+		buf[pos++] = tag;
+	}
+
+	private void writeZigzag(long value) throws IOException {
+
+		writeVarint((value << 1) ^ (value >> 63));
+	}
+
+	private void writeVarint(long value) throws IOException {
+
+		ensureSpace(10);
+
+		while ((value & ~0x7FL) != 0) {
+			buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[pos++] = (byte) value;
+	}
+
+	private void writeFixed(long value, int byteAmount) throws IOException {
+
+		ensureSpace(byteAmount);
+
+		for (int i = byteAmount - 1; i >= 0; i--) {
+			buf[pos++] = (byte) (value >>> (i * 8));
+		}
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+
+		if ((out != null) && (bytes.length > BUFFER_SIZE)) {
+			flushBuffer();
+			out.write(bytes);
+			return;
+		}
+
+		ensureSpace(bytes.length);
+		System.arraycopy(bytes, 0, buf, pos, bytes.length);
+		pos += bytes.length;
+	}
+
+	private void ensureSpace(int amount) throws IOException {
+
+		if (buf.length - pos >= amount) {
+			return;
+		}
+
+		if (out == null) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + amount));
+		} else {
+			flushBuffer();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+
+		out.write(buf, 0, pos);
+		pos = 0;
+	}
+
+
+	private static class Frame {
+
+		private Iterator<Map.Entry<String, Record>> objIterator;
+
+		private Iterator<Record> arrIterator;
+
+		Frame(Iterator<Map.Entry<String, Record>> objIterator, Iterator<Record> arrIterator) {
+			this.objIterator = objIterator;
+			this.arrIterator = arrIterator;
+		}
+	}
+
+}
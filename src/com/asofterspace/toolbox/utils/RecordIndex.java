@@ -0,0 +1,250 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * An index over a Record structure, created via Record.createIndex(), which knows for
+ * each key and string value the records that represent such a key-value pair, and the
+ * record at each path - such that searching for them is a hash lookup rather than a
+ * walk through the whole structure
+ *
+ * All records in the structure are doubly linked while it is indexed, and the index is
+ * kept up to date when records are changed via their own methods (set, remove, append
+ * etc.) - but not when the maps or lists returned by getValueMap() or getValues() are
+ * changed directly, so if you do that, call Record.createIndex() on the root again
+ */
+public class RecordIndex {
+
+	private Record root;
+
+	// key -> string value -> the records which are stored with that key and have that value
+	private Map<String, Map<Object, List<Record>>> keyValues = new HashMap<>();
+
+	// path (as returned by getPath()) -> record
+	private Map<String, Record> paths = new HashMap<>();
+
+
+	RecordIndex(Record root) {
+
+		this.root = root;
+
+		add(root, null, "root");
+	}
+
+	public Record getRoot() {
+		return root;
+	}
+
+	/**
+	 * Return all records in the indexed structure which represent such a key-value pair
+	 */
+	public List<Record> searchForKeyValue(String key, String value) {
+
+		return searchForKeyValue(root, key, value);
+	}
+
+	/**
+	 * Return all records below the given one (which must be part of the indexed structure)
+	 * which represent such a key-value pair
+	 */
+	public List<Record> searchForKeyValue(Record below, String key, String value) {
+
+		List<Record> result = new ArrayList<>();
+
+		Map<Object, List<Record>> values = keyValues.get(key);
+		if (values == null) {
+			return result;
+		}
+
+		List<Record> found = values.get(value);
+		if (found == null) {
+			return result;
+		}
+
+		if (below == root) {
+			result.addAll(found);
+			return result;
+		}
+
+		for (Record rec : found) {
+			for (Record cur = rec.parent; cur != null; cur = cur.parent) {
+				if (cur == below) {
+					result.add(rec);
+					break;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get the record at the given path (such as root.foo[2].bar, just like it is returned
+	 * by getPath()), or null if there is none
+	 */
+	public Record getByPath(String path) {
+
+		return paths.get(path);
+	}
+
+	/**
+	 * Adds the given record and everything inside of it to the index, linking it to its parent
+	 */
+	void add(Record rec, Record parent, String pathComponent) {
+
+		if (rec == null) {
+			return;
+		}
+
+		rec.parent = parent;
+		rec.parentPathComponent = pathComponent;
+
+		String path = pathComponent;
+		if (parent != null) {
+			path = parent.getPath() + pathComponent;
+		}
+
+		List<Record> recs = new ArrayList<>();
+		List<String> recPaths = new ArrayList<>();
+		recs.add(rec);
+		recPaths.add(path);
+
+		while (recs.size() > 0) {
+
+			Record cur = recs.remove(recs.size() - 1);
+			String curPath = recPaths.remove(recPaths.size() - 1);
+
+			cur.searchIndex = this;
+			paths.put(curPath, cur);
+
+			String key = getKey(cur);
+			if ((key != null) && (cur.kind == RecordKind.STRING) && (cur.simpleContents != null)) {
+				Map<Object, List<Record>> values = keyValues.get(key);
+				if (values == null) {
+					values = new HashMap<>();
+					keyValues.put(key, values);
+				}
+				List<Record> found = values.get(cur.simpleContents);
+				if (found == null) {
+					found = new ArrayList<>(1);
+					values.put(cur.simpleContents, found);
+				}
+				found.add(cur);
+			}
+
+			// children are put on the stack backwards, such that they are indexed in order
+			if ((cur.kind == RecordKind.ARRAY) && (cur.arrContents != null)) {
+				for (int i = cur.arrContents.size() - 1; i >= 0; i--) {
+					Record child = cur.arrContents.get(i);
+					if (child != null) {
+						child.parent = cur;
+						child.parentPathComponent = "[" + i + "]";
+						recs.add(child);
+						recPaths.add(curPath + child.parentPathComponent);
+					}
+				}
+			}
+
+			if ((cur.kind == RecordKind.OBJECT) && (cur.objContents != null)) {
+				List<Record> children = new ArrayList<>(cur.objContents.size());
+				for (Map.Entry<String, Record> entry : cur.objContents.entrySet()) {
+					Record child = entry.getValue();
+					if (child != null) {
+						child.parent = cur;
+						child.parentPathComponent = "." + entry.getKey();
+						children.add(child);
+					}
+				}
+				for (int i = children.size() - 1; i >= 0; i--) {
+					Record child = children.get(i);
+					recs.add(child);
+					recPaths.add(curPath + child.parentPathComponent);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the given record and everything inside of it from the index
+	 */
+	void remove(Record rec) {
+
+		if ((rec == null) || (rec.searchIndex != this)) {
+			return;
+		}
+
+		List<Record> recs = new ArrayList<>();
+		List<String> recPaths = new ArrayList<>();
+		recs.add(rec);
+		recPaths.add(rec.getPath());
+
+		while (recs.size() > 0) {
+
+			Record cur = recs.remove(recs.size() - 1);
+			String curPath = recPaths.remove(recPaths.size() - 1);
+
+			cur.searchIndex = null;
+			if (paths.get(curPath) == cur) {
+				paths.remove(curPath);
+			}
+
+			String key = getKey(cur);
+			if ((key != null) && (cur.kind == RecordKind.STRING) && (cur.simpleContents != null)) {
+				Map<Object, List<Record>> values = keyValues.get(key);
+				if (values != null) {
+					List<Record> found = values.get(cur.simpleContents);
+					if (found != null) {
+						for (int i = found.size() - 1; i >= 0; i--) {
+							if (found.get(i) == cur) {
+								found.remove(i);
+								break;
+							}
+						}
+						if (found.size() < 1) {
+							values.remove(cur.simpleContents);
+						}
+					}
+				}
+			}
+
+			if ((cur.kind == RecordKind.ARRAY) && (cur.arrContents != null)) {
+				for (Record child : cur.arrContents) {
+					if ((child != null) && (child.searchIndex == this) && (child.parent == cur)) {
+						recs.add(child);
+						recPaths.add(curPath + child.parentPathComponent);
+					}
+				}
+			}
+
+			if ((cur.kind == RecordKind.OBJECT) && (cur.objContents != null)) {
+				for (Record child : cur.objContents.values()) {
+					if ((child != null) && (child.searchIndex == this) && (child.parent == cur)) {
+						recs.add(child);
+						recPaths.add(curPath + child.parentPathComponent);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the key under which the given record is stored in its parent object, if it is
+	 */
+	private static String getKey(Record rec) {
+
+		if ((rec.parent == null) || (rec.parentPathComponent == null) || !rec.parentPathComponent.startsWith(".")) {
+			return null;
+		}
+
+		return rec.parentPathComponent.substring(1);
+	}
+
+}
@@ -0,0 +1,553 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * The map in which records store the entries of objects, keeping them in the order in
+ * which they were inserted
+ *
+ * Keys and values are kept in two plain arrays - which for the small objects that most
+ * records are is all there is, and keys are found by just looking through them - while
+ * objects with more than SMALL_SIZE entries additionally get an open-addressed hash index
+ * into the arrays, so that they can still be searched quickly
+ *
+ * When an entry is removed from an object with a hash index, it just leaves a gap in the
+ * arrays (and is taken out of the index in place), and the gaps are only closed once they
+ * make up half of the arrays - such that removing entries takes constant time on average
+ *
+ * Compared to a TreeMap, this needs no node per entry and no key comparisons when inserting
+ */
+public class RecordMap extends AbstractMap<String, Record> {
+
+	// up to this amount of entries, we do not use a hash index
+	static final int SMALL_SIZE = 8;
+
+	private static final String[] NO_KEYS = new String[0];
+
+	private static final Record[] NO_VALUES = new Record[0];
+
+	private String[] keys;
+
+	private Record[] values;
+
+	// the amount of entries
+	private int size = 0;
+
+	// the amount of positions in the arrays that are in use, including the gaps left by
+	// removed entries (whose keys are null) - small maps never have any gaps
+	private int used = 0;
+
+	// null for small maps, otherwise (1 + the position in the arrays) for each used slot
+	private int[] index = null;
+
+	// changes whenever entries are added or removed, such that iterators can notice it
+	private int modCount = 0;
+
+	// changes whenever entries move to other positions, such that iterators can follow them
+	private int moveCount = 0;
+
+	private EntrySet entrySet = null;
+
+
+	public RecordMap() {
+		keys = NO_KEYS;
+		values = NO_VALUES;
+	}
+
+	// ideally, use this constructor to be faster if you already know the size that will be needed
+	public RecordMap(int size) {
+		keys = new String[size];
+		values = new Record[size];
+	}
+
+	public RecordMap(Map<String, Record> other) {
+		this(other.size());
+		putAll(other);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return find(key) >= 0;
+	}
+
+	@Override
+	public Record get(Object key) {
+		int pos = find(key);
+		if (pos < 0) {
+			return null;
+		}
+		return values[pos];
+	}
+
+	@Override
+	public Record put(String key, Record value) {
+
+		// just like a TreeMap, we do not accept null keys
+		if (key == null) {
+			throw new NullPointerException();
+		}
+
+		int pos = find(key);
+
+		if (pos >= 0) {
+			Record prevval = values[pos];
+			values[pos] = value;
+			return prevval;
+		}
+
+		if (used == keys.length) {
+			grow();
+		}
+
+		keys[used] = key;
+		values[used] = value;
+		used++;
+		size++;
+		modCount++;
+
+		if (index != null) {
+			if (size * 2 > index.length) {
+				rebuildIndex();
+			} else {
+				addToIndex(used - 1);
+			}
+		} else if (size > SMALL_SIZE) {
+			rebuildIndex();
+		}
+
+		return null;
+	}
+
+	@Override
+	public Record remove(Object key) {
+
+		if (index == null) {
+
+			int pos = find(key);
+
+			if (pos < 0) {
+				return null;
+			}
+
+			// small maps just move the following entries forward
+			Record prevval = values[pos];
+
+			System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+			System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+			size--;
+			used--;
+			keys[size] = null;
+			values[size] = null;
+			modCount++;
+			moveCount++;
+
+			return prevval;
+		}
+
+		int slot = findSlot(key);
+
+		if (slot < 0) {
+			return null;
+		}
+
+		int pos = index[slot] - 1;
+
+		Record prevval = values[pos];
+
+		removeFromIndex(slot);
+		keys[pos] = null;
+		values[pos] = null;
+		size--;
+		modCount++;
+
+		if (size <= SMALL_SIZE) {
+			compact();
+			index = null;
+		} else if ((used - size) * 2 > used) {
+			compact();
+			rebuildIndex();
+		}
+
+		return prevval;
+	}
+
+	@Override
+	public void clear() {
+		keys = NO_KEYS;
+		values = NO_VALUES;
+		size = 0;
+		used = 0;
+		index = null;
+		modCount++;
+	}
+
+	/**
+	 * Gets the key at the given position (in order of insertion)
+	 */
+	public String getKey(int pos) {
+		closeGaps();
+		if (pos < size) {
+			return keys[pos];
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the value at the given position (in order of insertion)
+	 */
+	public Record getValue(int pos) {
+		closeGaps();
+		if (pos < size) {
+			return values[pos];
+		}
+		return null;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Record>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+	private int find(Object key) {
+
+		if (key == null) {
+			return -1;
+		}
+
+		if (index == null) {
+			// strings cache their hashes, so comparing those first is much cheaper than calling equals() on each key
+			int hash = key.hashCode();
+			for (int i = 0; i < size; i++) {
+				String cur = keys[i];
+				if ((cur == key) || ((cur.hashCode() == hash) && cur.equals(key))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int slot = findSlot(key);
+
+		if (slot < 0) {
+			return -1;
+		}
+
+		return index[slot] - 1;
+	}
+
+	/**
+	 * Returns the slot in the index which points to the given key, or -1 if there is none
+	 */
+	private int findSlot(Object key) {
+
+		if (key == null) {
+			return -1;
+		}
+
+		int hash = key.hashCode();
+
+		int mask = index.length - 1;
+		int slot = spread(hash) & mask;
+
+		while (index[slot] != 0) {
+			String cur = keys[index[slot] - 1];
+			if ((cur == key) || ((cur.hashCode() == hash) && cur.equals(key))) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Makes room for more entries - closing the gaps left by removed entries on the way
+	 */
+	private void grow() {
+
+		int newLength = Math.max(4, size * 2);
+
+		String[] newKeys = new String[newLength];
+		Record[] newValues = new Record[newLength];
+
+		int newPos = 0;
+		for (int pos = 0; pos < used; pos++) {
+			if (keys[pos] != null) {
+				newKeys[newPos] = keys[pos];
+				newValues[newPos] = values[pos];
+				newPos++;
+			}
+		}
+
+		boolean hadGaps = used != size;
+
+		keys = newKeys;
+		values = newValues;
+		used = size;
+
+		if (hadGaps) {
+			moveCount++;
+			if (index != null) {
+				rebuildIndex();
+			}
+		}
+	}
+
+	/**
+	 * Closes the gaps left by removed entries, such that positions are in order of insertion again
+	 */
+	private void closeGaps() {
+
+		if (used == size) {
+			return;
+		}
+
+		compact();
+
+		if (index != null) {
+			rebuildIndex();
+		}
+	}
+
+	/**
+	 * Moves all entries forward into the gaps left by removed entries (which changes their
+	 * positions, so the index has to be rebuilt afterwards)
+	 */
+	private void compact() {
+
+		int newPos = 0;
+
+		for (int pos = 0; pos < used; pos++) {
+			if (keys[pos] != null) {
+				keys[newPos] = keys[pos];
+				values[newPos] = values[pos];
+				newPos++;
+			}
+		}
+
+		Arrays.fill(keys, newPos, used, null);
+		Arrays.fill(values, newPos, used, null);
+
+		used = newPos;
+		moveCount++;
+	}
+
+	private void rebuildIndex() {
+
+		int indexLength = 32;
+		while (indexLength < size * 3) {
+			indexLength *= 2;
+		}
+
+		index = new int[indexLength];
+
+		for (int pos = 0; pos < used; pos++) {
+			if (keys[pos] != null) {
+				addToIndex(pos);
+			}
+		}
+	}
+
+	private void addToIndex(int pos) {
+
+		int mask = index.length - 1;
+		int slot = spread(keys[pos].hashCode()) & mask;
+
+		while (index[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+
+		index[slot] = pos + 1;
+	}
+
+	/**
+	 * Empties a slot of the index, moving later entries of the same probe sequence back
+	 * into it, such that all remaining keys can still be found without any tombstones
+	 */
+	private void removeFromIndex(int slot) {
+
+		int mask = index.length - 1;
+		int hole = slot;
+		int cur = (slot + 1) & mask;
+
+		while (index[cur] != 0) {
+			int home = spread(keys[index[cur] - 1].hashCode()) & mask;
+			// the entry at cur may only move into the hole if the hole lies between its home and cur
+			if (((cur - home) & mask) >= ((cur - hole) & mask)) {
+				index[hole] = index[cur];
+				hole = cur;
+			}
+			cur = (cur + 1) & mask;
+		}
+
+		index[hole] = 0;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+
+	private class EntrySet extends AbstractSet<Map.Entry<String, Record>> {
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			RecordMap.this.clear();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, Record>> iterator() {
+			return new EntryIterator();
+		}
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<String, Record>> {
+
+		private int nextPos = 0;
+
+		// the amount of entries before nextPos, not counting the ones removed by us
+		private int returnedCount = 0;
+
+		private int expectedModCount = modCount;
+
+		private int expectedMoveCount = moveCount;
+
+		// the key of the entry last returned by next(), as long as it can still be removed -
+		// we cannot go by nextPos, which hasNext() may already have moved past gaps
+		private String lastReturnedKey = null;
+
+		@Override
+		public boolean hasNext() {
+			skipGaps();
+			return nextPos < used;
+		}
+
+		@Override
+		public Map.Entry<String, Record> next() {
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			skipGaps();
+			if (nextPos >= used) {
+				throw new NoSuchElementException();
+			}
+			lastReturnedKey = keys[nextPos];
+			returnedCount++;
+			return new Entry(nextPos++);
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturnedKey == null) {
+				throw new IllegalStateException();
+			}
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			RecordMap.this.remove(lastReturnedKey);
+			lastReturnedKey = null;
+			returnedCount--;
+			expectedModCount = modCount;
+		}
+
+		private void skipGaps() {
+			// if the entries moved forward into the gaps, each is now exactly at the position
+			// given by how many entries are before it
+			if (expectedMoveCount != moveCount) {
+				nextPos = returnedCount;
+				expectedMoveCount = moveCount;
+			}
+			while ((nextPos < used) && (keys[nextPos] == null)) {
+				nextPos++;
+			}
+		}
+	}
+
+	private class Entry implements Map.Entry<String, Record> {
+
+		private String key;
+
+		private int pos;
+
+		Entry(int pos) {
+			this.key = keys[pos];
+			this.pos = pos;
+		}
+
+		@Override
+		public String getKey() {
+			return key;
+		}
+
+		@Override
+		public Record getValue() {
+			// if entries were removed in the meantime, our entry might have moved
+			if ((pos < 0) || (pos >= used) || (keys[pos] != key)) {
+				pos = find(key);
+				if (pos < 0) {
+					return null;
+				}
+			}
+			return values[pos];
+		}
+
+		@Override
+		public Record setValue(Record value) {
+			getValue();
+			if (pos < 0) {
+				return put(key, value);
+			}
+			Record prevval = values[pos];
+			values[pos] = value;
+			return prevval;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> otherEntry = (Map.Entry<?, ?>) other;
+			Object value = getValue();
+			return key.equals(otherEntry.getKey()) &&
+				((value == null) ? (otherEntry.getValue() == null) : value.equals(otherEntry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return key.hashCode() ^ ((value == null) ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + getValue();
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * This gives access to the body of a request as raw bytes, reading at most as many
+ * bytes as the request announced in its Content-Length header
+ *
+ * The request handler reads the connection through an ISO_8859_1 reader, in which every
+ * char corresponds to exactly one byte, so here we just turn the chars back into bytes,
+ * reading them in bulk rather than one after the other
+ */
+public class WebRequestBodyInputStream extends InputStream {
+
+	private static final int INITIAL_READ_ALL_SIZE = 64 * 1024;
+
+	private BufferedReader input;
+
+	private long remaining;
+
+	private char[] charBuf;
+
+
+	WebRequestBodyInputStream(BufferedReader input, long contentLength) {
+
+		this.input = input;
+
+		this.remaining = contentLength;
+
+		this.charBuf = new char[(int) Math.max(1, Math.min(contentLength, 8192))];
+	}
+
+	@Override
+	public int read() throws IOException {
+
+		if (remaining <= 0) {
+			return -1;
+		}
+
+		int result = input.read();
+
+		if (result < 0) {
+			remaining = 0;
+			return -1;
+		}
+
+		remaining--;
+
+		return result & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buf, int offset, int length) throws IOException {
+
+		if (remaining <= 0) {
+			return -1;
+		}
+
+		if (length == 0) {
+			return 0;
+		}
+
+		int toRead = (int) Math.min(Math.min(length, remaining), charBuf.length);
+
+		int amountRead = input.read(charBuf, 0, toRead);
+
+		if (amountRead < 0) {
+			remaining = 0;
+			return -1;
+		}
+
+		for (int i = 0; i < amountRead; i++) {
+			buf[offset + i] = (byte) charBuf[i];
+		}
+
+		remaining -= amountRead;
+
+		return amountRead;
+	}
+
+	@Override
+	public long skip(long amount) throws IOException {
+
+		long skipped = input.skip(Math.min(amount, remaining));
+
+		remaining -= skipped;
+
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+
+		if ((remaining > 0) && input.ready()) {
+			return 1;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Returns the amount of bytes of the body that have not been read yet
+	 */
+	public long getRemaining() {
+		return remaining;
+	}
+
+	/**
+	 * Reads the whole rest of the body, returning the bytes that could be read
+	 */
+	public byte[] readAll() throws IOException {
+
+		// we do not trust the announced length enough to allocate all of it up front, as
+		// a client could announce gigabytes without ever sending them - instead, the
+		// buffer grows as the bytes actually arrive
+		ByteArrayOutputStream result = new ByteArrayOutputStream((int) Math.min(remaining, INITIAL_READ_ALL_SIZE));
+
+		byte[] buf = new byte[charBuf.length];
+
+		while (true) {
+			int amountRead = read(buf, 0, buf.length);
+			if (amountRead < 0) {
+				break;
+			}
+			result.write(buf, 0, amountRead);
+		}
+
+		return result.toByteArray();
+	}
+
+	/**
+	 * Closing the body does not close the connection (which is handled by the request handler)
+	 */
+	@Override
+	public void close() {
+	}
+
+}
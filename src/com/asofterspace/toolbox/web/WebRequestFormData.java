@@ -32,13 +32,42 @@ public class WebRequestFormData {
 		data.put(newBlock.getName(), newBlock);
 	}
 
+	public void addBlock(WebRequestFormDataBlock block) {
+
+		WebRequestFormDataBlock prevBlock = data.put(block.getName(), block);
+
+		// a block that is replaced by one with the same name can never be accessed again
+		if (prevBlock != null) {
+			prevBlock.delete();
+		}
+	}
+
+	/**
+	 * Returns the block with the given name, ignoring the case (as the names of all blocks
+	 * are kept in lowercase)
+	 */
 	public WebRequestFormDataBlock getByName(String name) {
 
-		return data.get(name);
+		if (name == null) {
+			return data.get(null);
+		}
+
+		return data.get(name.toLowerCase());
 	}
 
 	public Set<String> getNames() {
 		return data.keySet();
 	}
 
+	/**
+	 * Deletes the temporary files of all blocks which were large enough to be written to disk
+	 * while they were received (blocks that have been saved elsewhere are not affected)
+	 */
+	public void delete() {
+
+		for (WebRequestFormDataBlock block : data.values()) {
+			block.delete();
+		}
+	}
+
 }
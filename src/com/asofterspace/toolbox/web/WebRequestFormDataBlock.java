@@ -4,6 +4,16 @@
  */
 package com.asofterspace.toolbox.web;
 
+import com.asofterspace.toolbox.io.File;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,6 +32,15 @@ public class WebRequestFormDataBlock {
 
 	private String contentDisposition;
 
+	// for blocks that were received as bytes, exactly one of these two contains the data
+	private byte[] contentBytes;
+	private java.io.File spoolFile;
+	private boolean spoolFileIsTemporary;
+
+	private long size;
+
+	private Charset charset;
+
 
 	/**
 	 * A block looks like
@@ -84,6 +103,27 @@ public class WebRequestFormDataBlock {
 		}
 	}
 
+	/**
+	 * Create a block from a part that has been read by the multipart parser, with its content
+	 * either in memory or in a temporary file
+	 */
+	WebRequestFormDataBlock(Map<String, String> headers, byte[] contentBytes, java.io.File spoolFile,
+		long size, Charset charset) {
+
+		// the content type is lowercased just like for blocks created from text, but the
+		// disposition keeps its case, so that the filename can be kept as the client sent it
+		this.contentType = headers.get("content-type");
+		if (this.contentType != null) {
+			this.contentType = this.contentType.toLowerCase();
+		}
+		this.contentDisposition = headers.get("content-disposition");
+		this.contentBytes = contentBytes;
+		this.spoolFile = spoolFile;
+		this.spoolFileIsTemporary = true;
+		this.size = size;
+		this.charset = charset;
+	}
+
 	private int jumpOverNewline(String data, int cur) {
 
 		if (data.charAt(cur) == '\n') {
@@ -104,28 +144,188 @@ public class WebRequestFormDataBlock {
 		return (curChar == '\n') || (curChar == '\r');
 	}
 
+	/**
+	 * Returns the name of the field in lowercase, no matter in which case the client sent it
+	 */
 	public String getName() {
 
-		if (contentDisposition == null) {
+		String result = getDispositionParameter("name");
+
+		if (result == null) {
 			return null;
 		}
 
-		int pos = contentDisposition.indexOf("name=\"");
+		return result.toLowerCase();
+	}
+
+	/**
+	 * Returns the name of the uploaded file as sent by the client, or null if this block
+	 * is not a file upload
+	 */
+	public String getFilename() {
+
+		return getDispositionParameter("filename");
+	}
+
+	private String getDispositionParameter(String key) {
 
-		if (pos < 0) {
+		if (contentDisposition == null) {
 			return null;
 		}
 
-		String name = contentDisposition.substring(pos + 6);
+		// parameters look like form-data; name="upload"; filename="foo.png", and we have to take
+		// care that looking for name=" does not find filename="
+		String[] params = contentDisposition.split(";");
+
+		for (String param : params) {
+			param = param.trim();
+			int equals = param.indexOf('=');
+			if ((equals > 0) && key.equalsIgnoreCase(param.substring(0, equals).trim())) {
+				String value = param.substring(equals + 1).trim();
+				if ((value.length() > 1) && value.startsWith("\"") && value.endsWith("\"")) {
+					value = value.substring(1, value.length() - 1);
+				}
+				return value;
+			}
+		}
 
-		name = name.substring(0, name.indexOf("\""));
+		return null;
+	}
 
-		return name;
+	public String getContentType() {
+
+		return contentType;
 	}
 
+	/**
+	 * Returns the content as text - for large uploads, prefer getInputStream()
+	 */
 	public String getContent() {
 
+		if ((content == null) && (charset != null)) {
+			byte[] bytes = getContentBytes();
+			if (bytes != null) {
+				content = new String(bytes, charset);
+			}
+		}
+
 		return content;
 	}
 
+	/**
+	 * Returns the content as raw bytes - for large uploads, prefer getInputStream()
+	 */
+	public byte[] getContentBytes() {
+
+		if (contentBytes != null) {
+			return contentBytes;
+		}
+
+		if (spoolFile != null) {
+			try {
+				return Files.readAllBytes(spoolFile.toPath());
+			} catch (IOException e) {
+				System.err.println("Could not read the uploaded content from " + spoolFile + ": " + e);
+				return null;
+			}
+		}
+
+		if (content != null) {
+			return content.getBytes(StandardCharsets.UTF_8);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gives access to the content without loading it into memory (if it was large enough
+	 * to be written to disk while it was received)
+	 */
+	public InputStream getInputStream() throws IOException {
+
+		if (spoolFile != null) {
+			return new FileInputStream(spoolFile);
+		}
+
+		byte[] bytes = getContentBytes();
+
+		if (bytes == null) {
+			bytes = new byte[0];
+		}
+
+		return new ByteArrayInputStream(bytes);
+	}
+
+	/**
+	 * Returns the size of the content in bytes
+	 */
+	public long getSize() {
+
+		if ((contentBytes == null) && (spoolFile == null)) {
+			byte[] bytes = getContentBytes();
+			if (bytes == null) {
+				return 0;
+			}
+			return bytes.length;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Returns true if the content was large enough that it was written to a temporary file
+	 * rather than being kept in memory
+	 */
+	public boolean isOnDisk() {
+
+		return spoolFile != null;
+	}
+
+	/**
+	 * Stores the content in the given file - if it is on disk already, it is moved rather than
+	 * copied, so that even huge uploads are not read again
+	 */
+	public boolean saveTo(File target) {
+
+		target.createParentDirectory();
+
+		try {
+			if (spoolFile != null) {
+				try {
+					Files.move(spoolFile.toPath(), target.getJavaPath(), StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException e) {
+					// moving between file systems might not work, but copying will
+					Files.copy(spoolFile.toPath(), target.getJavaPath(), StandardCopyOption.REPLACE_EXISTING);
+					spoolFile.delete();
+				}
+				// from now on, the content is read from where it has been moved to
+				spoolFile = target.getJavaFile();
+				spoolFileIsTemporary = false;
+				return true;
+			}
+
+			byte[] bytes = getContentBytes();
+			if (bytes == null) {
+				bytes = new byte[0];
+			}
+			Files.write(target.getJavaPath(), bytes);
+			return true;
+
+		} catch (IOException e) {
+			System.err.println("Could not save the uploaded content to " + target + ": " + e);
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes the temporary file holding the content, if there is one
+	 */
+	void delete() {
+
+		if ((spoolFile != null) && spoolFileIsTemporary) {
+			spoolFile.delete();
+			spoolFile = null;
+		}
+	}
+
 }
@@ -0,0 +1,409 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Parses a multipart/form-data body while it is being read, such that memory use is
+ * bounded independent of the size of the upload: parts up to the memory threshold are
+ * kept as bytes, larger parts are written to a temporary file as they arrive
+ */
+public class WebRequestMultipartParser {
+
+	public static final int DEFAULT_MEMORY_THRESHOLD = 64 * 1024;
+
+	// the maximum size of the headers of a single part
+	private static final int MAX_PART_HEADER_SIZE = 16 * 1024;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// the delimiter in front of every part, including the line break before it
+	private byte[] delimiter;
+
+	private Charset charset;
+
+	private int memoryThreshold;
+
+	// the directory in which large parts are spooled, or null for the default temp directory
+	private java.io.File spoolDirectory;
+
+	private InputStream input;
+
+	private byte[] buf;
+
+	private int bufStart;
+
+	private int bufEnd;
+
+	private boolean inputEnded;
+
+
+	/**
+	 * Create a parser for the given boundary (as found in the Content-Type header of the
+	 * request), decoding text in the given charset
+	 */
+	public WebRequestMultipartParser(String boundary, Charset charset) {
+
+		boundary = boundary.trim();
+
+		int semicolon = boundary.indexOf(';');
+		if (semicolon > -1) {
+			boundary = boundary.substring(0, semicolon).trim();
+		}
+
+		if ((boundary.length() > 1) && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+			boundary = boundary.substring(1, boundary.length() - 1);
+		}
+
+		this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+
+		this.charset = charset;
+
+		this.memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+	}
+
+	/**
+	 * Set up to how many bytes a part is kept in memory before it is written to disk instead
+	 */
+	public void setMemoryThreshold(int memoryThreshold) {
+		this.memoryThreshold = memoryThreshold;
+	}
+
+	public void setSpoolDirectory(java.io.File spoolDirectory) {
+		this.spoolDirectory = spoolDirectory;
+	}
+
+	/**
+	 * Reads the whole body from the input and returns the parts it contains, or null if
+	 * the body is not well-formed (in which case no temporary files are left behind)
+	 */
+	public WebRequestFormData parse(InputStream input) throws IOException {
+
+		this.input = input;
+
+		buf = new byte[Math.max(BUFFER_SIZE, delimiter.length * 2)];
+
+		// the very first delimiter does not need a line break in front of it, so we pretend there was one
+		buf[0] = '\r';
+		buf[1] = '\n';
+		bufStart = 0;
+		bufEnd = 2;
+		inputEnded = false;
+
+		WebRequestFormData result = new WebRequestFormData();
+
+		boolean parsedCorrectly = false;
+
+		try {
+			// skip the preamble
+			if (!readUntilDelimiter(null)) {
+				return null;
+			}
+
+			while (true) {
+
+				// after a delimiter, -- means that this was the last one
+				if (!ensureAvailable(2)) {
+					return null;
+				}
+				if ((buf[bufStart] == '-') && (buf[bufStart + 1] == '-')) {
+					parsedCorrectly = true;
+					return result;
+				}
+
+				// anything else until the end of the line is padding that we ignore
+				if (readLine(MAX_PART_HEADER_SIZE) == null) {
+					return null;
+				}
+
+				Map<String, String> headers = readPartHeaders();
+				if (headers == null) {
+					return null;
+				}
+
+				SpoolingOutputStream content = new SpoolingOutputStream();
+				boolean foundDelimiter;
+				try {
+					try {
+						foundDelimiter = readUntilDelimiter(content);
+					} finally {
+						content.close();
+					}
+				} catch (IOException | RuntimeException e) {
+					// the part is not in the result yet, so its spool file would not be deleted with it
+					if (content.getSpoolFile() != null) {
+						content.getSpoolFile().delete();
+					}
+					throw e;
+				}
+
+				WebRequestFormDataBlock block = new WebRequestFormDataBlock(headers,
+					content.getBytes(), content.getSpoolFile(), content.getSize(), charset);
+
+				result.addBlock(block);
+
+				if (!foundDelimiter) {
+					return null;
+				}
+			}
+
+		} finally {
+			if (!parsedCorrectly) {
+				result.delete();
+			}
+			buf = null;
+			this.input = null;
+		}
+	}
+
+	/**
+	 * Reads the header lines of a part up to and including the empty line after them,
+	 * returning them with lowercase names
+	 */
+	private Map<String, String> readPartHeaders() throws IOException {
+
+		Map<String, String> headers = new HashMap<>();
+
+		int remainingSize = MAX_PART_HEADER_SIZE;
+
+		while (true) {
+
+			String line = readLine(remainingSize);
+
+			if (line == null) {
+				return null;
+			}
+
+			if ("".equals(line)) {
+				return headers;
+			}
+
+			remainingSize -= line.length() + 2;
+
+			int colon = line.indexOf(':');
+			if (colon > 0) {
+				headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+			}
+		}
+	}
+
+	/**
+	 * Reads one line (interpreting the bytes in the charset of the parser), returning null
+	 * if the input ends first or the line is longer than allowed
+	 */
+	private String readLine(int maxLength) throws IOException {
+
+		int searchFrom = bufStart;
+
+		while (true) {
+
+			for (int i = searchFrom; i < bufEnd; i++) {
+				if (buf[i] == '\n') {
+					int end = i;
+					if ((end > bufStart) && (buf[end - 1] == '\r')) {
+						end--;
+					}
+					String line = new String(buf, bufStart, end - bufStart, charset);
+					bufStart = i + 1;
+					return line;
+				}
+			}
+
+			if (bufEnd - bufStart > maxLength) {
+				return null;
+			}
+
+			searchFrom = bufEnd;
+
+			int searchOffset = searchFrom - bufStart;
+
+			if (!fill()) {
+				return null;
+			}
+
+			searchFrom = bufStart + searchOffset;
+		}
+	}
+
+	/**
+	 * Passes everything up to the next delimiter to the output (or discards it if the output is
+	 * null) and consumes the delimiter, returning false if the input ended without one
+	 */
+	private boolean readUntilDelimiter(OutputStream output) throws IOException {
+
+		while (true) {
+
+			int found = indexOfDelimiter();
+
+			if (found > -1) {
+				if (output != null) {
+					output.write(buf, bufStart, found - bufStart);
+				}
+				bufStart = found + delimiter.length;
+				return true;
+			}
+
+			// the end of the buffer might be the start of a delimiter, so we keep that around
+			int safeEnd = Math.max(bufStart, bufEnd - (delimiter.length - 1));
+
+			if (output != null) {
+				output.write(buf, bufStart, safeEnd - bufStart);
+			}
+			bufStart = safeEnd;
+
+			if (!fill()) {
+				if (output != null) {
+					output.write(buf, bufStart, bufEnd - bufStart);
+				}
+				bufStart = bufEnd;
+				return false;
+			}
+		}
+	}
+
+	private int indexOfDelimiter() {
+
+		byte first = delimiter[0];
+
+		int lastStart = bufEnd - delimiter.length;
+
+		outer:
+		for (int i = bufStart; i <= lastStart; i++) {
+			if (buf[i] != first) {
+				continue;
+			}
+			for (int j = 1; j < delimiter.length; j++) {
+				if (buf[i + j] != delimiter[j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+
+		return -1;
+	}
+
+	private boolean ensureAvailable(int amount) throws IOException {
+
+		while (bufEnd - bufStart < amount) {
+			if (!fill()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Moves the unread part of the buffer to its start and reads more data behind it,
+	 * returning false if there is no more data
+	 */
+	private boolean fill() throws IOException {
+
+		if (inputEnded) {
+			return false;
+		}
+
+		if (bufStart > 0) {
+			System.arraycopy(buf, bufStart, buf, 0, bufEnd - bufStart);
+			bufEnd -= bufStart;
+			bufStart = 0;
+		}
+
+		if (bufEnd == buf.length) {
+			return false;
+		}
+
+		int amountRead = input.read(buf, bufEnd, buf.length - bufEnd);
+
+		if (amountRead < 0) {
+			inputEnded = true;
+			return false;
+		}
+
+		bufEnd += amountRead;
+
+		return true;
+	}
+
+
+	/**
+	 * Collects the content of a part in memory until it gets larger than the threshold,
+	 * and from then on writes it into a temporary file
+	 */
+	private class SpoolingOutputStream extends OutputStream {
+
+		private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+		private java.io.File spoolFile;
+
+		private OutputStream spoolStream;
+
+		private long size = 0;
+
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] data, int offset, int length) throws IOException {
+
+			if (length <= 0) {
+				return;
+			}
+
+			if ((spoolStream == null) && (size + length > memoryThreshold)) {
+				spoolFile = java.io.File.createTempFile("upload", ".tmp", spoolDirectory);
+				spoolStream = new BufferedOutputStream(new FileOutputStream(spoolFile));
+				memory.writeTo(spoolStream);
+				memory = null;
+			}
+
+			if (spoolStream == null) {
+				memory.write(data, offset, length);
+			} else {
+				spoolStream.write(data, offset, length);
+			}
+
+			size += length;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (spoolStream != null) {
+				spoolStream.close();
+			}
+		}
+
+		byte[] getBytes() {
+			if (memory == null) {
+				return null;
+			}
+			return memory.toByteArray();
+		}
+
+		java.io.File getSpoolFile() {
+			return spoolFile;
+		}
+
+		long getSize() {
+			return size;
+		}
+	}
+
+}
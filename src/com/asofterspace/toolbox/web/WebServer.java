@@ -7,6 +7,7 @@ package com.asofterspace.toolbox.web;
 import com.asofterspace.toolbox.io.Directory;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
@@ -15,7 +16,18 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -25,13 +37,51 @@ import java.util.List;
  * which overrides the getHandler function to return your own handler that extends
  * WebServerRequestHandler and adds functionality to it.
  *
+ * How the handlers are run is decided by the execution mode: by default, every
+ * connection gets its own thread, but a bounded thread pool or virtual threads
+ * can be used instead, and the amount of concurrently handled connections can
+ * be limited in any mode.
+ *
  * @author Moya (a softer space, 2019)
  */
 public class WebServer implements Runnable {
 
 	static final int DEFAULT_STATUS = 200;
 
-	private boolean serverRunning;
+	// amount of connections handled at the same time in THREAD_POOL mode if no
+	// explicit maximum concurrency has been set
+	public static final int DEFAULT_POOL_SIZE = 64;
+
+	// how long stop() waits for in-flight requests to finish
+	public static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = 5000;
+
+	// how long we wait for the request line and headers, and for the body of a request
+	public static final int DEFAULT_HEADER_TIMEOUT_MILLIS = 60000;
+	public static final int DEFAULT_BODY_TIMEOUT_MILLIS = 60000;
+
+	// how many bytes the request line and the headers of a request may have in total
+	public static final int DEFAULT_MAX_HEADER_SIZE = 64 * 1024;
+
+	// how many bytes the body of a request may have
+	public static final long DEFAULT_MAX_BODY_SIZE = 100 * 1024 * 1024;
+
+	// how long a kept-alive connection may be idle, and how many requests it may carry
+	public static final int DEFAULT_KEEP_ALIVE_TIMEOUT_MILLIS = 5000;
+	public static final int DEFAULT_MAX_REQUESTS_PER_CONNECTION = 100;
+
+	// files larger than this are streamed to the client instead of being loaded into memory
+	public static final long DEFAULT_STREAMING_THRESHOLD = 4 * 1024 * 1024;
+
+	// answers smaller than this are not compressed, as it would not be worth the effort
+	public static final int DEFAULT_COMPRESSION_MIN_SIZE = 1024;
+
+	// parts of uploaded form data larger than this are written to temporary files
+	public static final int DEFAULT_FORM_DATA_MEMORY_THRESHOLD = 64 * 1024;
+
+	// how often a new connection waiting for a free handler looks for idle connections to close
+	private static final long IDLE_CHECK_INTERVAL_MILLIS = 50;
+
+	private volatile boolean serverRunning;
 
 	protected boolean acceptLocalConnectionsOnly = false;
 
@@ -47,9 +97,69 @@ public class WebServer implements Runnable {
 	// (otherwise it just runs on the main thread)
 	private Thread serverThread;
 
+	// the socket on which we are accepting connections while serving
+	private ServerSocket serverSocket;
+
+	private WebServerExecutionMode executionMode;
+
+	// the maximum amount of connections handled at the same time, or 0 for no limit
+	private int maxConcurrency;
+
+	private int headerTimeoutMillis;
+
+	private int bodyTimeoutMillis;
+
+	private int maxHeaderSize;
+
+	// the maximum size of a request body in bytes, or -1 for no limit
+	private long maxBodySize;
+
+	private int formDataMemoryThreshold;
+
+	private boolean keepAliveEnabled;
+
+	private int keepAliveTimeoutMillis;
+
+	private int maxRequestsPerConnection;
+
+	// the handlers which are currently waiting for the next request on their connection,
+	// in the order in which they started waiting
+	private Set<WebServerRequestHandler> idleHandlers;
+
+	// the cache for served files, or null if files are read from disk for every request
+	private WebServerFileCache fileCache;
+
+	private long streamingThreshold;
+
+	private boolean compressionEnabled;
+
+	// the routing table for GET requests, which is created right away, such that handlers
+	// can get it on every request without having to lock anything
+	private final WebServerRouter router = new WebServerRouter();
+
+	// the metrics of this server, or null if metrics are not being recorded
+	private volatile WebServerMetrics metrics;
+
+	private int compressionMinSize;
+
+	// the executor running the handlers in the THREAD_POOL and VIRTUAL_THREADS modes
+	private ExecutorService executor;
+
+	private Semaphore concurrencyLimiter;
+
 	// a list of all handler threads that have been created so far for handling requests
+	// (only used in the THREAD_PER_CONNECTION mode)
 	private List<Thread> currentHandlerThreads;
 
+	// the amount of connections that are currently being handled
+	private int inFlightCount;
+
+	private final Object inFlightLock = new Object();
+
+	// set for threads while they are running a handler, so that stop() does not wait for
+	// itself when it is called from within a handler
+	private static final ThreadLocal<Boolean> runningHandler = new ThreadLocal<>();
+
 
 	public WebServer() {
 		init(null, null);
@@ -80,6 +190,36 @@ public class WebServer implements Runnable {
 		address = "localhost";
 
 		currentHandlerThreads = new ArrayList<>();
+
+		executionMode = WebServerExecutionMode.THREAD_PER_CONNECTION;
+
+		maxConcurrency = 0;
+
+		inFlightCount = 0;
+
+		headerTimeoutMillis = DEFAULT_HEADER_TIMEOUT_MILLIS;
+
+		bodyTimeoutMillis = DEFAULT_BODY_TIMEOUT_MILLIS;
+
+		maxHeaderSize = DEFAULT_MAX_HEADER_SIZE;
+
+		maxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+		formDataMemoryThreshold = DEFAULT_FORM_DATA_MEMORY_THRESHOLD;
+
+		keepAliveEnabled = true;
+
+		keepAliveTimeoutMillis = DEFAULT_KEEP_ALIVE_TIMEOUT_MILLIS;
+
+		maxRequestsPerConnection = DEFAULT_MAX_REQUESTS_PER_CONNECTION;
+
+		idleHandlers = new LinkedHashSet<>();
+
+		streamingThreshold = DEFAULT_STREAMING_THRESHOLD;
+
+		compressionEnabled = true;
+
+		compressionMinSize = DEFAULT_COMPRESSION_MIN_SIZE;
 	}
 
 	/**
@@ -90,16 +230,19 @@ public class WebServer implements Runnable {
 
 		serverRunning = true;
 
-		ServerSocket socket = null;
+		startExecutor();
 
 		try {
-			socket = new ServerSocket(port);
+			// the socket might already have been opened by serveAsync()
+			if ((serverSocket == null) || serverSocket.isClosed()) {
+				serverSocket = new ServerSocket(port);
+			}
 
 			// while we keep serving...
 			while (serverRunning) {
 
 				// ... get the next incoming connection request (waiting until there is one) ...
-				Socket request = socket.accept();
+				Socket request = serverSocket.accept();
 
 				if (acceptLocalConnectionsOnly) {
 					String hostAddr = null;
@@ -116,27 +259,25 @@ public class WebServer implements Runnable {
 						}
 					}
 					if ((hostAddr == null) || (!hostAddr.equals("127.0.0.1"))) {
+						closeQuietly(request);
 						continue;
 					}
 				}
 
 				// ... and handle it expertly through one of our handlers :)
-				synchronized(currentHandlerThreads) {
-					WebServerRequestHandler handler = getHandler(request);
-					Thread currentHandlerThread = new Thread(handler);
-					currentHandlerThread.start();
-					currentHandlerThreads.add(currentHandlerThread);
-					handler.setThreadInfo(currentHandlerThread, currentHandlerThreads);
-				}
+				dispatch(request);
 			}
 
 		} catch (IOException e) {
-			System.err.println("Something unexpected happened to the server!");
-			System.err.println(e);
+			// if we are not running anymore, then the socket was closed by stop() - all fine!
+			if (serverRunning) {
+				System.err.println("Something unexpected happened to the server!");
+				System.err.println(e);
+			}
 		} finally {
 			try {
-				if (socket != null) {
-					socket.close();
+				if (serverSocket != null) {
+					serverSocket.close();
 				}
 			} catch (IOException e2) {
 				System.err.println("Something unexpected happened while closing the server!");
@@ -145,11 +286,164 @@ public class WebServer implements Runnable {
 		}
 	}
 
+	@SuppressWarnings("fallthrough")
+	private void startExecutor() {
+
+		int poolSize = maxConcurrency;
+
+		switch (executionMode) {
+
+			case VIRTUAL_THREADS:
+				// virtual threads are only available on newer JVMs, so we ask for them by name
+				try {
+					Method newExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+					executor = (ExecutorService) newExecutor.invoke(null);
+					break;
+				} catch (ReflectiveOperationException e) {
+					System.err.println("Virtual threads are not available on this JVM, " +
+						"the web server is using a thread pool instead!");
+				}
+				// fall into THREAD_POOL, which is the next best thing...
+
+			case THREAD_POOL:
+				if (poolSize < 1) {
+					poolSize = DEFAULT_POOL_SIZE;
+				}
+				ThreadPoolExecutor poolExecutor = new ThreadPoolExecutor(poolSize, poolSize,
+					60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+				poolExecutor.allowCoreThreadTimeOut(true);
+				executor = poolExecutor;
+				break;
+
+			default:
+				executor = null;
+		}
+
+		if (poolSize > 0) {
+			concurrencyLimiter = new Semaphore(poolSize);
+		} else {
+			concurrencyLimiter = null;
+		}
+	}
+
+	private void dispatch(Socket request) {
+
+		// if we are at the concurrency limit, we wait here until a handler finishes -
+		// new connections meanwhile queue up in the backlog of the server socket
+		if (concurrencyLimiter != null) {
+			// kept-alive connections that are just waiting for another request must not keep
+			// new clients out, so we close the one that has been idle the longest - and as a
+			// handler which has just answered might only become idle a moment later, we keep
+			// looking while we wait
+			try {
+				while (!concurrencyLimiter.tryAcquire()) {
+					closeLongestIdleConnection();
+					if (concurrencyLimiter.tryAcquire(IDLE_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+						break;
+					}
+				}
+			} catch (InterruptedException e) {
+				closeQuietly(request);
+				return;
+			}
+		}
+
+		synchronized (inFlightLock) {
+			inFlightCount++;
+		}
+
+		final WebServerRequestHandler handler = getHandler(request);
+
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				runningHandler.set(true);
+				try {
+					handler.run();
+				} finally {
+					runningHandler.remove();
+					handlerFinished();
+				}
+			}
+		};
+
+		if (executor == null) {
+			synchronized(currentHandlerThreads) {
+				Thread currentHandlerThread = new Thread(task);
+				currentHandlerThreads.add(currentHandlerThread);
+				handler.setThreadInfo(currentHandlerThread, currentHandlerThreads);
+				currentHandlerThread.start();
+			}
+		} else {
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				closeQuietly(request);
+				handlerFinished();
+			}
+		}
+	}
+
+	/**
+	 * Closes the kept-alive connection which has been waiting for its next request the longest
+	 * (if there is one), such that its handler finishes and makes room for another connection
+	 */
+	private void closeLongestIdleConnection() {
+
+		synchronized (idleHandlers) {
+			Iterator<WebServerRequestHandler> iterator = idleHandlers.iterator();
+			while (iterator.hasNext()) {
+				WebServerRequestHandler idleHandler = iterator.next();
+				// connections that have not sent their first request yet are not closed
+				if (idleHandler.isKeptAlive()) {
+					iterator.remove();
+					idleHandler.closeConnection();
+					return;
+				}
+			}
+		}
+	}
+
+	private void handlerFinished() {
+
+		if (concurrencyLimiter != null) {
+			concurrencyLimiter.release();
+		}
+
+		synchronized (inFlightLock) {
+			inFlightCount--;
+			inFlightLock.notifyAll();
+		}
+	}
+
+	private void closeQuietly(Socket request) {
+
+		if (request == null) {
+			return;
+		}
+
+		try {
+			request.close();
+		} catch (IOException e) {
+			// well, we tried...
+		}
+	}
+
 	/**
 	 * Serve data with this server asynchronously
 	 * (by starting one handler after another - so we here start a thread which then starts other threads)
 	 */
 	public void serveAsync() {
+
+		// open the socket right away, such that requests sent immediately after this call
+		// already find the server listening
+		try {
+			serverSocket = new ServerSocket(port);
+		} catch (IOException e) {
+			System.err.println("Something unexpected happened while opening the server socket!");
+			System.err.println(e);
+		}
+
 		serverThread = new Thread(this);
 		serverThread.start();
 	}
@@ -180,6 +474,7 @@ public class WebServer implements Runnable {
 	 */
 	public void addToWhitelist(String filename) {
 		this.fileLocationWhitelist.add(filename);
+		clearResolvedLocations();
 	}
 
 	/**
@@ -188,6 +483,13 @@ public class WebServer implements Runnable {
 	 */
 	public void setWhitelist(List<String> whitelist) {
 		this.fileLocationWhitelist = whitelist;
+		clearResolvedLocations();
+	}
+
+	private void clearResolvedLocations() {
+		if (fileCache != null) {
+			fileCache.clearResolvedLocations();
+		}
 	}
 
 	public List<String> getFileLocationWhitelist() {
@@ -202,25 +504,357 @@ public class WebServer implements Runnable {
 		return address;
 	}
 
+	/**
+	 * Stop serving, waiting a few seconds for requests which are currently being handled
+	 */
 	public void stop() {
+		stop(DEFAULT_DRAIN_TIMEOUT_MILLIS);
+	}
+
+	/**
+	 * Stop serving: no new connections are accepted anymore, and the requests which are
+	 * currently being handled get up to drainTimeoutMillis to finish before their threads
+	 * are interrupted
+	 */
+	public void stop(long drainTimeoutMillis) {
 
 		serverRunning = false;
 
-		synchronized(currentHandlerThreads) {
-			for (Thread currentHandlerThread : currentHandlerThreads) {
-				try {
-					currentHandlerThread.interrupt();
-				} catch (Exception e) {
-					System.err.println("We tried stopping a web server handler thread, but got an exception: " + e);
+		// close the socket, such that accept() returns immediately
+		try {
+			if (serverSocket != null) {
+				serverSocket.close();
+			}
+		} catch (IOException e) {
+			System.err.println("We tried closing the web server socket, but got an exception: " + e);
+		}
+
+		// connections that are just waiting for another request can be closed right away
+		synchronized (idleHandlers) {
+			for (WebServerRequestHandler idleHandler : idleHandlers) {
+				idleHandler.closeConnection();
+			}
+			idleHandlers.clear();
+		}
+
+		boolean drained = awaitInFlightRequests(drainTimeoutMillis);
+
+		if (!drained) {
+			synchronized(currentHandlerThreads) {
+				for (Thread currentHandlerThread : currentHandlerThreads) {
+					try {
+						currentHandlerThread.interrupt();
+					} catch (Exception e) {
+						System.err.println("We tried stopping a web server handler thread, but got an exception: " + e);
+					}
 				}
 			}
 		}
 
+		if (executor != null) {
+			if (drained) {
+				executor.shutdown();
+			} else {
+				executor.shutdownNow();
+			}
+		}
+
 		if (serverThread != null) {
 			serverThread.interrupt();
 		}
 	}
 
+	private boolean awaitInFlightRequests(long timeoutMillis) {
+
+		// if we are called from within a handler, we cannot wait for that one to finish
+		int ownRequests = 0;
+		if (runningHandler.get() != null) {
+			ownRequests = 1;
+		}
+
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+
+		synchronized (inFlightLock) {
+			while (inFlightCount > ownRequests) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				try {
+					inFlightLock.wait(remaining);
+				} catch (InterruptedException e) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Called by a handler when it starts waiting for the next request on its connection;
+	 * returns false if the server is stopping, in which case the handler should not wait
+	 */
+	boolean handlerIdle(WebServerRequestHandler handler) {
+		synchronized (idleHandlers) {
+			if (!serverRunning) {
+				return false;
+			}
+			idleHandlers.add(handler);
+			return true;
+		}
+	}
+
+	/**
+	 * Called by a handler when it stops waiting for the next request on its connection
+	 */
+	void handlerBusy(WebServerRequestHandler handler) {
+		synchronized (idleHandlers) {
+			idleHandlers.remove(handler);
+		}
+	}
+
+	boolean isServing() {
+		return serverRunning;
+	}
+
+	/**
+	 * Returns the amount of connections that are currently being handled
+	 */
+	public int getActiveConnectionCount() {
+		synchronized (inFlightLock) {
+			return inFlightCount;
+		}
+	}
+
+	public WebServerExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
+	/**
+	 * Set the way in which connections are mapped to threads
+	 * (takes effect the next time the server starts serving)
+	 */
+	public void setExecutionMode(WebServerExecutionMode executionMode) {
+		if (executionMode == null) {
+			executionMode = WebServerExecutionMode.THREAD_PER_CONNECTION;
+		}
+		this.executionMode = executionMode;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * Set the maximum amount of connections that are handled at the same time, with further
+	 * connections waiting until a handler becomes free (for which kept-alive connections that
+	 * are idle get closed) - or 0 for no limit, which for the THREAD_POOL mode means DEFAULT_POOL_SIZE
+	 * (takes effect the next time the server starts serving)
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		if (maxConcurrency < 0) {
+			maxConcurrency = 0;
+		}
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public int getHeaderTimeoutMillis() {
+		return headerTimeoutMillis;
+	}
+
+	/**
+	 * Set how long a handler waits for the request line and headers of a request to arrive
+	 */
+	public void setHeaderTimeoutMillis(int headerTimeoutMillis) {
+		this.headerTimeoutMillis = headerTimeoutMillis;
+	}
+
+	public int getBodyTimeoutMillis() {
+		return bodyTimeoutMillis;
+	}
+
+	/**
+	 * Set how long a handler waits for more data of a request body to arrive
+	 */
+	public void setBodyTimeoutMillis(int bodyTimeoutMillis) {
+		this.bodyTimeoutMillis = bodyTimeoutMillis;
+	}
+
+	public int getMaxHeaderSize() {
+		return maxHeaderSize;
+	}
+
+	/**
+	 * Set the maximum size of the request line and headers of a request, in bytes;
+	 * larger requests are answered with HTTP 431
+	 */
+	public void setMaxHeaderSize(int maxHeaderSize) {
+		this.maxHeaderSize = maxHeaderSize;
+	}
+
+	public long getMaxBodySize() {
+		return maxBodySize;
+	}
+
+	/**
+	 * Set the maximum size of a request body, in bytes, or -1 for no limit (by default,
+	 * DEFAULT_MAX_BODY_SIZE); larger requests are answered with HTTP 413
+	 */
+	public void setMaxBodySize(long maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
+	public int getFormDataMemoryThreshold() {
+		return formDataMemoryThreshold;
+	}
+
+	/**
+	 * Set up to how many bytes a part of uploaded multipart/form-data is kept in memory;
+	 * larger parts are written to temporary files while they are being received
+	 */
+	public void setFormDataMemoryThreshold(int formDataMemoryThreshold) {
+		this.formDataMemoryThreshold = formDataMemoryThreshold;
+	}
+
+	public WebServerFileCache getFileCache() {
+		return fileCache;
+	}
+
+	/**
+	 * Keep up to maxBytes of served file contents in memory, such that repeatedly requested
+	 * files are not read from disk again (changed files are noticed by their modification time);
+	 * set to 0 to read files from disk for every request, which is the default
+	 * The cache also remembers which file a location was resolved to, so if you override
+	 * getFileFromLocation in your handler, the result should only depend on the location,
+	 * and if you modify the list returned by getFileLocationWhitelist directly, call
+	 * getFileCache().clearResolvedLocations() afterwards
+	 */
+	public void setFileCacheSize(long maxBytes) {
+		if (maxBytes > 0) {
+			this.fileCache = new WebServerFileCache(maxBytes);
+		} else {
+			this.fileCache = null;
+		}
+	}
+
+	public long getStreamingThreshold() {
+		return streamingThreshold;
+	}
+
+	/**
+	 * Set the size in bytes above which served files are streamed from disk (with support
+	 * for resuming downloads) instead of being loaded into memory completely, or -1 to
+	 * never stream files
+	 */
+	public void setStreamingThreshold(long streamingThreshold) {
+		this.streamingThreshold = streamingThreshold;
+	}
+
+	/**
+	 * Get the routing table of this server, in which you can register handlers for GET requests;
+	 * requests which are not answered by a registered route fall through to the answerGet()
+	 * methods of the request handler, and then to the files on the whitelist
+	 */
+	public WebServerRouter getRouter() {
+		return router;
+	}
+
+	/**
+	 * Get the metrics of this server (request counts, statuses, latencies, bytes in and out),
+	 * or null if they are not being recorded
+	 */
+	public WebServerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Set whether metrics are recorded for this server - when they are not, which is the
+	 * default, handling requests does not cost anything extra
+	 */
+	public synchronized void setMetricsEnabled(boolean metricsEnabled) {
+		if (!metricsEnabled) {
+			metrics = null;
+		} else if (metrics == null) {
+			metrics = new WebServerMetrics(this);
+		}
+	}
+
+	/**
+	 * Records metrics and exposes them as JSON under the given location, e.g. /metrics
+	 */
+	public void setMetricsEndpoint(String location) {
+
+		setMetricsEnabled(true);
+
+		getRouter().addRoute(location, new WebServerRouteHandler() {
+			public WebServerAnswer answerGet(String location, Map<String, String> pathParameters, Map<String, String> arguments) {
+				WebServerMetrics currentMetrics = metrics;
+				if (currentMetrics == null) {
+					return null;
+				}
+				return new WebServerAnswerInJson(currentMetrics.toRecord());
+			}
+		});
+	}
+
+	public boolean isCompressionEnabled() {
+		return compressionEnabled;
+	}
+
+	/**
+	 * Set whether text-based answers (html, json, css, js, ...) are compressed with gzip or
+	 * deflate for clients which accept that
+	 */
+	public void setCompressionEnabled(boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+
+	public int getCompressionMinSize() {
+		return compressionMinSize;
+	}
+
+	/**
+	 * Set the size in bytes below which answers are not compressed
+	 */
+	public void setCompressionMinSize(int compressionMinSize) {
+		this.compressionMinSize = compressionMinSize;
+	}
+
+	public boolean isKeepAliveEnabled() {
+		return keepAliveEnabled;
+	}
+
+	/**
+	 * Set whether connections are kept open after a response to carry further requests
+	 * (HTTP/1.1 keep-alive), or closed after every response
+	 */
+	public void setKeepAliveEnabled(boolean keepAliveEnabled) {
+		this.keepAliveEnabled = keepAliveEnabled;
+	}
+
+	public int getKeepAliveTimeoutMillis() {
+		return keepAliveTimeoutMillis;
+	}
+
+	/**
+	 * Set how long a kept-alive connection may wait for its next request before it is closed
+	 */
+	public void setKeepAliveTimeoutMillis(int keepAliveTimeoutMillis) {
+		this.keepAliveTimeoutMillis = keepAliveTimeoutMillis;
+	}
+
+	public int getMaxRequestsPerConnection() {
+		return maxRequestsPerConnection;
+	}
+
+	/**
+	 * Set how many requests a single connection may carry before it is closed
+	 */
+	public void setMaxRequestsPerConnection(int maxRequestsPerConnection) {
+		this.maxRequestsPerConnection = maxRequestsPerConnection;
+	}
+
 	public boolean getAcceptLocalConnectionsOnly() {
 		return acceptLocalConnectionsOnly;
 	}
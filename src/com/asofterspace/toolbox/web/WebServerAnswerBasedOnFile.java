@@ -6,36 +6,185 @@ package com.asofterspace.toolbox.web;
 
 import com.asofterspace.toolbox.io.BinaryFile;
 import com.asofterspace.toolbox.io.File;
+import com.asofterspace.toolbox.utils.DateUtils;
+
+import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.Files;
+import java.util.Date;
 
 
 /**
  * This represents the file data that a web server might send as answer
  * to a request
  *
+ * The file content is only read when it is actually needed, such that a request
+ * which can be answered with 304 Not Modified (based on the ETag or Last-Modified
+ * headers) never reads the file at all
+ *
  * @author Moya (a softer space, 2019)
  */
 public class WebServerAnswerBasedOnFile extends WebServerAnswerBase {
 
+	private File file;
+
 	private String filename;
 
 	private String contentType;
 
+	private WebServerFileCache cache;
+
+	private WebServerFileCacheEntry cacheEntry;
+
+	private long lastModified;
+
+	private long length;
+
 
 	public WebServerAnswerBasedOnFile(File fileContainingData) {
 
+		this(fileContainingData, null);
+	}
+
+	/**
+	 * Creates an answer based on a file, getting the file content from the given cache
+	 * (which can also be null, in which case the file is read from disk directly)
+	 */
+	public WebServerAnswerBasedOnFile(File fileContainingData, WebServerFileCache cache) {
+
+		this.file = fileContainingData;
+
 		this.filename = fileContainingData.getFilename();
 
 		this.contentType = fileContainingData.getContentType();
 
-		BinaryFile binaryFile = new BinaryFile(fileContainingData);
+		this.cache = cache;
+
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.getJavaPath(), BasicFileAttributes.class);
+			this.lastModified = attributes.lastModifiedTime().toMillis();
+			this.length = attributes.size();
+
+			setExtraHeaderLine("ETag: " + getETag());
+			setExtraHeaderLine("Last-Modified: " + DateUtils.serializeHttpDate(new Date(lastModified)));
+
+		} catch (IOException e) {
+			// the file cannot be read, which will be noticed when loading it
+			this.lastModified = 0;
+			this.length = 0;
+		}
+	}
+
+	private void loadData() {
+
+		if (data != null) {
+			return;
+		}
+
+		if (cache == null) {
+			data = new BinaryFile(file).loadContent();
+		} else {
+			cacheEntry = cache.get(file);
+			if (cacheEntry == null) {
+				data = new byte[0];
+			} else {
+				data = cacheEntry.getData();
+			}
+		}
+
+		// the file might have changed since we looked at it, so the length we report has to
+		// fit the data we actually send
+		length = data.length;
+	}
+
+	@Override
+	public byte[] getBinaryContent() {
+
+		loadData();
 
-		this.data = binaryFile.loadContent();
+		return data;
 	}
 
 	@Override
 	public long getContentLength() {
 
-		return data.length;
+		return length;
+	}
+
+	/**
+	 * Gets the content compressed with the given encoding - if the file is in the cache,
+	 * this is only compressed once for all requests until the file changes
+	 */
+	public byte[] getCompressedContent(String encoding) {
+
+		loadData();
+
+		if (cacheEntry != null) {
+			return cacheEntry.getCompressedData(encoding);
+		}
+
+		return WebServerCompression.compress(data, data.length, encoding);
+	}
+
+	/**
+	 * Gets the entity tag of the file, which changes whenever the file is modified
+	 * (like other servers, we base it on modification time and size rather than
+	 * hashing the content, such that we can check it without reading the file)
+	 */
+	public String getETag() {
+
+		return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+	}
+
+	public File getFile() {
+
+		return file;
+	}
+
+	public long getLastModified() {
+
+		return lastModified;
+	}
+
+	/**
+	 * Returns true if a client which sent the given If-None-Match and If-Modified-Since
+	 * headers (each of which may be null) already has the current version of this file
+	 */
+	public boolean isNotModified(String ifNoneMatch, String ifModifiedSince) {
+
+		if (lastModified == 0) {
+			return false;
+		}
+
+		// if the client sent entity tags, only these count
+		if (ifNoneMatch != null) {
+			String eTag = getETag();
+			for (String clientTag : ifNoneMatch.split(",")) {
+				clientTag = clientTag.trim();
+				// weak comparison, as is required for If-None-Match
+				if (clientTag.startsWith("W/")) {
+					clientTag = clientTag.substring(2);
+				}
+				if ("*".equals(clientTag) || eTag.equals(clientTag)) {
+					return true;
+				}
+				// compressed variants have their encoding appended to the entity tag
+				if (clientTag.startsWith(eTag.substring(0, eTag.length() - 1) + "-")) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		if (ifModifiedSince != null) {
+			Date since = DateUtils.parseHttpDate(ifModifiedSince);
+			// HTTP dates only have full seconds
+			if ((since != null) && (lastModified / 1000 <= since.getTime() / 1000)) {
+				return true;
+			}
+		}
+
+		return false;
 	}
 
 	@Override
@@ -57,8 +206,9 @@ public class WebServerAnswerBasedOnFile extends WebServerAnswerBase {
 			return "public, max-age=604800";
 		}
 
-		// never keep the others
-		return "no-store";
+		// for the others, always check with us if they are still current - which is cheap,
+		// as unchanged files are answered with 304 Not Modified
+		return "no-cache";
 	}
 
 	@Override
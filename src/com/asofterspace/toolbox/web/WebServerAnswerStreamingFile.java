@@ -0,0 +1,56 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import com.asofterspace.toolbox.io.File;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * This represents a (potentially huge) file that a web server might send as answer
+ * to a request, without ever loading the whole file into memory
+ *
+ * The request handler sends the file from the file channel to the connection through a
+ * small buffer, and also uses this to answer Range requests
+ * with 206 Partial Content, such that interrupted downloads can be resumed
+ * (getBinaryContent() still works, but of course loads the whole file after all)
+ */
+public class WebServerAnswerStreamingFile extends WebServerAnswerBasedOnFile {
+
+	public WebServerAnswerStreamingFile(File fileContainingData) {
+
+		super(fileContainingData, null);
+	}
+
+	/**
+	 * Writes length bytes of the file, starting at offset, to the target, returning how many
+	 * bytes were actually written (which is less than length if the file has shrunk meanwhile)
+	 */
+	public long writeContent(WritableByteChannel target, long offset, long length) throws IOException {
+
+		long written = 0;
+
+		try (FileChannel channel = FileChannel.open(getFile().getJavaPath(), StandardOpenOption.READ)) {
+
+			while (written < length) {
+
+				long transferred = channel.transferTo(offset + written, length - written, target);
+
+				if (transferred <= 0) {
+					break;
+				}
+
+				written += transferred;
+			}
+		}
+
+		return written;
+	}
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Utilities for compressing the answers of a web server according to
+ * the Accept-Encoding header sent by the client
+ */
+public class WebServerCompression {
+
+	public static final String GZIP = "gzip";
+
+	public static final String DEFLATE = "deflate";
+
+
+	/**
+	 * Returns the encoding we should use for a client sending the given Accept-Encoding header,
+	 * or null if the content should not be compressed
+	 */
+	public static String negotiateEncoding(String acceptEncoding) {
+
+		if (acceptEncoding == null) {
+			return null;
+		}
+
+		// for each encoding, null if the client did not list it, and otherwise whether it accepts it
+		Boolean gzipListed = null;
+		Boolean deflateListed = null;
+		boolean anyAccepted = false;
+
+		for (String entry : acceptEncoding.toLowerCase().split(",")) {
+
+			String encoding = entry.trim();
+			double quality = 1;
+
+			int semicolon = encoding.indexOf(';');
+			if (semicolon > -1) {
+				String params = encoding.substring(semicolon + 1).trim();
+				encoding = encoding.substring(0, semicolon).trim();
+				if (params.startsWith("q=")) {
+					try {
+						quality = Double.parseDouble(params.substring(2).trim());
+					} catch (NumberFormatException e) {
+						quality = 0;
+					}
+				}
+			}
+
+			switch (encoding) {
+				case GZIP:
+					gzipListed = quality > 0;
+					break;
+				case DEFLATE:
+					deflateListed = quality > 0;
+					break;
+				case "*":
+					anyAccepted = quality > 0;
+					break;
+			}
+		}
+
+		// an encoding that is listed explicitly takes precedence over the wildcard, which
+		// only stands for the encodings that were not listed
+		boolean gzipAccepted = (gzipListed != null) ? gzipListed : anyAccepted;
+		boolean deflateAccepted = (deflateListed != null) ? deflateListed : anyAccepted;
+
+		if (gzipAccepted) {
+			return GZIP;
+		}
+
+		if (deflateAccepted) {
+			return DEFLATE;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns true if content of the given type is worth compressing - which is not the case
+	 * for images, videos, archives etc., as they are already compressed
+	 */
+	public static boolean isCompressible(String contentType) {
+
+		if (contentType == null) {
+			return false;
+		}
+
+		contentType = contentType.toLowerCase();
+
+		int semicolon = contentType.indexOf(';');
+		if (semicolon > -1) {
+			contentType = contentType.substring(0, semicolon).trim();
+		}
+
+		return contentType.startsWith("text/") ||
+			contentType.equals("application/json") ||
+			contentType.equals("application/javascript") ||
+			contentType.equals("application/xml") ||
+			contentType.equals("image/svg+xml") ||
+			contentType.endsWith("+json") ||
+			contentType.endsWith("+xml");
+	}
+
+	/**
+	 * Compresses the given data with the given encoding (GZIP or DEFLATE)
+	 */
+	public static byte[] compress(byte[] data, int length, String encoding) {
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, length / 4));
+
+		try {
+			DeflaterOutputStream compressor;
+			if (GZIP.equals(encoding)) {
+				compressor = new GZIPOutputStream(result);
+			} else {
+				// what HTTP calls deflate is actually the zlib format, which is what we get here
+				compressor = new DeflaterOutputStream(result);
+			}
+			compressor.write(data, 0, length);
+			compressor.close();
+		} catch (IOException e) {
+			// cannot happen, as we are writing into memory
+			System.err.println("Compressing data in memory failed - inconceivable!\n" + e);
+		}
+
+		return result.toByteArray();
+	}
+
+}
@@ -0,0 +1,24 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+/**
+ * The execution mode of a web server describes how incoming connections are
+ * distributed onto threads for handling
+ */
+public enum WebServerExecutionMode {
+
+	// every accepted connection gets its own, newly started platform thread
+	// (this is how the web server has always worked)
+	THREAD_PER_CONNECTION,
+
+	// accepted connections are handled by a bounded pool of re-used platform threads
+	THREAD_POOL,
+
+	// every accepted connection gets its own virtual thread - if the running JVM
+	// does not offer virtual threads, we fall back to THREAD_POOL
+	VIRTUAL_THREADS
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import com.asofterspace.toolbox.io.BinaryFile;
+import com.asofterspace.toolbox.io.File;
+
+import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * An in-memory cache for the files served by a web server, such that repeatedly
+ * requested files are not read from disk again and again
+ *
+ * The cache is bounded by the total size of the file contents it keeps (including their
+ * compressed variants), dropping the least recently used files first; a cached file is
+ * re-read as soon as its modification time or size on disk changes
+ *
+ * Additionally, it remembers which file a requested location was resolved to, such that
+ * the probing for .php, .htm, .html and index files does not have to be repeated
+ */
+public class WebServerFileCache {
+
+	private long maxSize;
+
+	private long currentSize;
+
+	// the cached contents, by absolute filename, in order of access
+	private LinkedHashMap<String, WebServerFileCacheEntry> entries;
+
+	// the file that each requested location has been resolved to
+	private Map<String, File> resolvedLocations;
+
+
+	/**
+	 * Creates a cache which keeps at most maxSize bytes of file contents in memory
+	 */
+	public WebServerFileCache(long maxSize) {
+
+		this.maxSize = maxSize;
+
+		this.currentSize = 0;
+
+		// access-ordered, such that the first entry is always the least recently used one
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		this.resolvedLocations = new HashMap<>();
+	}
+
+	/**
+	 * Gets the cache entry for a file, reading it from disk only if it is not cached yet or
+	 * has changed on disk since it was cached - returns null if the file cannot be read
+	 */
+	public WebServerFileCacheEntry get(File file) {
+
+		String key = file.getAbsoluteFilename();
+
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(file.getJavaPath(), BasicFileAttributes.class);
+		} catch (IOException e) {
+			remove(key);
+			return null;
+		}
+
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		long size = attributes.size();
+
+		synchronized (this) {
+			WebServerFileCacheEntry entry = entries.get(key);
+			if ((entry != null) && (entry.getLastModified() == lastModified) && (entry.getSize() == size)) {
+				return entry;
+			}
+		}
+
+		// we read the file outside of the lock, such that other requests are not held up
+		byte[] data = new BinaryFile(file).loadContent();
+
+		WebServerFileCacheEntry entry = new WebServerFileCacheEntry(this, key, data, lastModified);
+
+		// files that would take up a large part of the cache are not worth pushing everything else out
+		if (data.length <= maxSize / 4) {
+			put(key, entry);
+		} else {
+			remove(key);
+		}
+
+		return entry;
+	}
+
+	private synchronized void put(String key, WebServerFileCacheEntry entry) {
+
+		WebServerFileCacheEntry prevEntry = entries.put(key, entry);
+		if (prevEntry != null) {
+			currentSize -= prevEntry.getMemorySize();
+		}
+		currentSize += entry.getMemorySize();
+
+		evict();
+	}
+
+	/**
+	 * Adds a compressed variant to an entry (unless another request has been quicker), and if
+	 * the entry is in the cache, counts the variant towards the size of the cache
+	 * @return the variant that the entry now contains for the encoding
+	 */
+	synchronized byte[] addCompressedVariant(WebServerFileCacheEntry entry, String encoding, byte[] variant) {
+
+		byte[] prevVariant = entry.getCompressedVariant(encoding);
+		if (prevVariant != null) {
+			return prevVariant;
+		}
+
+		entry.putCompressedVariant(encoding, variant);
+
+		// entries of files that were too large to be cached do not count towards the size
+		if (entries.get(entry.getKey()) == entry) {
+			currentSize += variant.length;
+			evict();
+		}
+
+		return variant;
+	}
+
+	/**
+	 * Drops the least recently used entries until the cache is within its maximum size
+	 */
+	private void evict() {
+
+		Iterator<WebServerFileCacheEntry> iterator = entries.values().iterator();
+		while ((currentSize > maxSize) && iterator.hasNext()) {
+			currentSize -= iterator.next().getMemorySize();
+			iterator.remove();
+		}
+	}
+
+	private synchronized void remove(String key) {
+
+		WebServerFileCacheEntry prevEntry = entries.remove(key);
+		if (prevEntry != null) {
+			currentSize -= prevEntry.getMemorySize();
+		}
+	}
+
+	/**
+	 * Returns the file that the given location was resolved to earlier, or null if it was not
+	 * resolved yet (or the file does not exist anymore)
+	 */
+	public File getResolvedLocation(String location) {
+
+		File result;
+
+		synchronized (this) {
+			result = resolvedLocations.get(location);
+		}
+
+		if ((result != null) && !result.exists()) {
+			synchronized (this) {
+				resolvedLocations.remove(location);
+			}
+			return null;
+		}
+
+		return result;
+	}
+
+	public synchronized void setResolvedLocation(String location, File file) {
+		resolvedLocations.put(location, file);
+	}
+
+	/**
+	 * Forgets which files the requested locations were resolved to, e.g. because the
+	 * whitelist changed
+	 */
+	public synchronized void clearResolvedLocations() {
+		resolvedLocations.clear();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		currentSize = 0;
+		resolvedLocations.clear();
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	public synchronized long getCurrentSize() {
+		return currentSize;
+	}
+
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+}
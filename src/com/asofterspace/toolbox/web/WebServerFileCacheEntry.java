@@ -0,0 +1,121 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * The content of one file as kept by the web server file cache, together with the
+ * modification time it had when it was read and its compressed variants
+ */
+public class WebServerFileCacheEntry {
+
+	private WebServerFileCache cache;
+
+	// the key of the entry in the cache
+	private String key;
+
+	private byte[] data;
+
+	private long lastModified;
+
+	// the content compressed with different encodings, created when first requested
+	// (guarded by the lock of the cache, which keeps track of how much memory they take up)
+	private Map<String, byte[]> compressedData;
+
+
+	WebServerFileCacheEntry(WebServerFileCache cache, String key, byte[] data, long lastModified) {
+
+		this.cache = cache;
+
+		this.key = key;
+
+		this.data = data;
+
+		this.lastModified = lastModified;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the size of the file content (without any compressed variants)
+	 */
+	public long getSize() {
+		return data.length;
+	}
+
+	/**
+	 * Gets the content compressed with the given encoding, compressing it only once
+	 * (the compressed variants are dropped together with the entry when the file changes)
+	 */
+	public byte[] getCompressedData(String encoding) {
+
+		synchronized (cache) {
+			byte[] result = getCompressedVariant(encoding);
+			if (result != null) {
+				return result;
+			}
+		}
+
+		// we compress outside of the lock, such that other requests are not held up
+		byte[] result = WebServerCompression.compress(data, data.length, encoding);
+
+		return cache.addCompressedVariant(this, encoding, result);
+	}
+
+	/**
+	 * Returns the size of the file content together with all of its compressed variants
+	 * (only to be called while holding the lock of the cache)
+	 */
+	long getMemorySize() {
+
+		long result = data.length;
+
+		if (compressedData != null) {
+			for (byte[] variant : compressedData.values()) {
+				result += variant.length;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Only to be called while holding the lock of the cache
+	 */
+	byte[] getCompressedVariant(String encoding) {
+
+		if (compressedData == null) {
+			return null;
+		}
+
+		return compressedData.get(encoding);
+	}
+
+	/**
+	 * Only to be called while holding the lock of the cache
+	 */
+	void putCompressedVariant(String encoding, byte[] variant) {
+
+		if (compressedData == null) {
+			compressedData = new HashMap<>();
+		}
+
+		compressedData.put(encoding, variant);
+	}
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.Recordable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A histogram of latencies with a fixed amount of buckets, in which the buckets
+ * grow exponentially (similar to an HDR histogram), such that recording takes a few
+ * atomic updates without any locking (the bucket, the count, the total and the maximum)
+ * and every reported value is within 12.5% of the actual one, from microseconds up to hours
+ *
+ * Each power of two of microseconds is split into SUB_BUCKETS linear buckets
+ */
+public class WebServerLatencyHistogram implements Recordable {
+
+	private static final int SUB_BUCKET_BITS = 3;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// enough buckets for latencies of up to 2^42 microseconds, which is more than a month
+	private static final int BUCKET_COUNT = 40 * SUB_BUCKETS;
+
+	private AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	private AtomicLong count = new AtomicLong();
+
+	private AtomicLong totalMicros = new AtomicLong();
+
+	private AtomicLong maxMicros = new AtomicLong();
+
+
+	public void record(long nanos) {
+
+		long micros = Math.max(0, nanos / 1000);
+
+		buckets.incrementAndGet(getBucketIndex(micros));
+
+		count.incrementAndGet();
+
+		totalMicros.addAndGet(micros);
+
+		long prevMax = maxMicros.get();
+		while ((micros > prevMax) && !maxMicros.compareAndSet(prevMax, micros)) {
+			prevMax = maxMicros.get();
+		}
+	}
+
+	private static int getBucketIndex(long micros) {
+
+		// the smallest values each get their own bucket
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+
+		int subBucket = (int) ((micros >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+
+		int index = ((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS) + subBucket;
+
+		return Math.min(index, BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * Gets the highest value (in microseconds) that falls into the bucket with the given index
+	 */
+	private static long getBucketUpperBound(int index) {
+
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int exponent = (index / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+
+		int subBucket = index % SUB_BUCKETS;
+
+		long bucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+
+		return ((SUB_BUCKETS + subBucket) * bucketWidth) + bucketWidth - 1;
+	}
+
+	/**
+	 * Gets the latency in microseconds below which the given percentage of all
+	 * recorded latencies lie (e.g. 99.9 for the 99.9th percentile)
+	 */
+	public long getPercentileMicros(double percentile) {
+
+		long total = count.get();
+
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil((percentile / 100.0) * total);
+		rank = Math.max(1, Math.min(rank, total));
+
+		long seen = 0;
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				// the bucket might reach higher than anything we actually saw
+				return Math.min(getBucketUpperBound(i), maxMicros.get());
+			}
+		}
+
+		return maxMicros.get();
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public double getMeanMicros() {
+
+		long total = count.get();
+
+		if (total == 0) {
+			return 0;
+		}
+
+		return totalMicros.get() / (double) total;
+	}
+
+	public long getMaxMicros() {
+		return maxMicros.get();
+	}
+
+	public void reset() {
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0);
+		}
+
+		count.set(0);
+		totalMicros.set(0);
+		maxMicros.set(0);
+	}
+
+	@Override
+	public Record toRecord() {
+
+		Record result = Record.emptyObject();
+
+		result.set("count", getCount());
+		result.set("mean", getMeanMicros());
+		result.set("p50", getPercentileMicros(50));
+		result.set("p90", getPercentileMicros(90));
+		result.set("p99", getPercentileMicros(99));
+		result.set("p999", getPercentileMicros(99.9));
+		result.set("max", getMaxMicros());
+
+		return result;
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import com.asofterspace.toolbox.utils.Record;
+import com.asofterspace.toolbox.utils.Recordable;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Metrics about how a web server has been behaving: how many requests it handled,
+ * with which statuses, how long they took and how many bytes went in and out
+ *
+ * All counters are atomic, so that handlers can record their requests without locking -
+ * but as each request updates several of them one after the other, a reading taken while
+ * requests are being recorded is not necessarily consistent across the counters
+ */
+public class WebServerMetrics implements Recordable {
+
+	private WebServer server;
+
+	private AtomicLong requestCount = new AtomicLong();
+
+	private AtomicLongArray statusCounts = new AtomicLongArray(600);
+
+	private AtomicLong bytesIn = new AtomicLong();
+
+	private AtomicLong bytesOut = new AtomicLong();
+
+	private WebServerLatencyHistogram latencies = new WebServerLatencyHistogram();
+
+
+	WebServerMetrics(WebServer server) {
+		this.server = server;
+	}
+
+	/**
+	 * Records one handled request
+	 */
+	void recordRequest(int status, long nanos, long requestBytes, long responseBytes) {
+
+		requestCount.incrementAndGet();
+
+		if ((status >= 0) && (status < statusCounts.length())) {
+			statusCounts.incrementAndGet(status);
+		}
+
+		latencies.record(nanos);
+
+		bytesIn.addAndGet(requestBytes);
+
+		bytesOut.addAndGet(responseBytes);
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Returns how many requests were answered with the given HTTP status
+	 */
+	public long getStatusCount(int status) {
+
+		if ((status < 0) || (status >= statusCounts.length())) {
+			return 0;
+		}
+
+		return statusCounts.get(status);
+	}
+
+	public long getBytesIn() {
+		return bytesIn.get();
+	}
+
+	public long getBytesOut() {
+		return bytesOut.get();
+	}
+
+	public int getActiveConnectionCount() {
+		return server.getActiveConnectionCount();
+	}
+
+	public WebServerLatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	public void reset() {
+
+		requestCount.set(0);
+
+		for (int i = 0; i < statusCounts.length(); i++) {
+			statusCounts.set(i, 0);
+		}
+
+		bytesIn.set(0);
+		bytesOut.set(0);
+
+		latencies.reset();
+	}
+
+	/**
+	 * Returns all metrics as one record, with latencies in microseconds
+	 */
+	@Override
+	public Record toRecord() {
+
+		Record result = Record.emptyObject();
+
+		result.set("requests", getRequestCount());
+		result.set("activeConnections", getActiveConnectionCount());
+		result.set("maxConcurrency", server.getMaxConcurrency());
+		result.set("bytesIn", getBytesIn());
+		result.set("bytesOut", getBytesOut());
+
+		Record statuses = Record.emptyObject();
+		for (int i = 0; i < statusCounts.length(); i++) {
+			long statusCount = statusCounts.get(i);
+			if (statusCount > 0) {
+				statuses.set("" + i, statusCount);
+			}
+		}
+		result.set("statuses", statuses);
+
+		result.set("latencyMicros", latencies.toRecord());
+
+		Record routes = Record.emptyObject();
+		for (Map.Entry<String, WebServerRouteStats> entry : server.getRouter().getRouteStats().entrySet()) {
+			WebServerRouteStats routeStats = entry.getValue();
+			Record routeRec = Record.emptyObject();
+			routeRec.set("requests", routeStats.getRequestCount());
+			routeRec.set("averageMillis", routeStats.getAverageMillis());
+			routeRec.set("maxMillis", routeStats.getMaxNanos() / 1000000.0);
+			routes.set(entry.getKey(), routeRec);
+		}
+		result.set("routes", routes);
+
+		return result;
+	}
+
+}
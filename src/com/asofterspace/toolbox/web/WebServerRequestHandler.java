@@ -7,7 +7,6 @@ package com.asofterspace.toolbox.web;
 import com.asofterspace.toolbox.coders.UrlDecoder;
 import com.asofterspace.toolbox.io.Directory;
 import com.asofterspace.toolbox.io.File;
-import com.asofterspace.toolbox.utils.ByteBuffer;
 import com.asofterspace.toolbox.Utils;
 
 import java.io.BufferedOutputStream;
@@ -15,6 +14,8 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.IOException;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -43,6 +44,26 @@ public class WebServerRequestHandler implements Runnable {
 	public static final String HEADER_KEY_CONTENT_LENGTH_LOW = HEADER_KEY_CONTENT_LENGTH.toLowerCase();
 	public static final String HEADER_KEY_CONTENT_TYPE = "Content-Type: ";
 	public static final String HEADER_KEY_CONTENT_TYPE_LOW = HEADER_KEY_CONTENT_TYPE.toLowerCase();
+	public static final String HEADER_KEY_CONNECTION = "Connection: ";
+	public static final String HEADER_KEY_CONNECTION_LOW = HEADER_KEY_CONNECTION.toLowerCase();
+	public static final String HEADER_KEY_IF_NONE_MATCH = "If-None-Match: ";
+	public static final String HEADER_KEY_IF_NONE_MATCH_LOW = HEADER_KEY_IF_NONE_MATCH.toLowerCase();
+	public static final String HEADER_KEY_IF_MODIFIED_SINCE = "If-Modified-Since: ";
+	public static final String HEADER_KEY_IF_MODIFIED_SINCE_LOW = HEADER_KEY_IF_MODIFIED_SINCE.toLowerCase();
+	public static final String HEADER_KEY_RANGE = "Range: ";
+	public static final String HEADER_KEY_RANGE_LOW = HEADER_KEY_RANGE.toLowerCase();
+	public static final String HEADER_KEY_IF_RANGE = "If-Range: ";
+	public static final String HEADER_KEY_IF_RANGE_LOW = HEADER_KEY_IF_RANGE.toLowerCase();
+	public static final String HEADER_KEY_CONTENT_RANGE = "Content-Range: ";
+	public static final String HEADER_KEY_CONTENT_RANGE_LOW = HEADER_KEY_CONTENT_RANGE.toLowerCase();
+	public static final String HEADER_KEY_ACCEPT_ENCODING = "Accept-Encoding: ";
+	public static final String HEADER_KEY_ACCEPT_ENCODING_LOW = HEADER_KEY_ACCEPT_ENCODING.toLowerCase();
+	public static final String HEADER_KEY_CONTENT_ENCODING = "Content-Encoding: ";
+	public static final String HEADER_KEY_CONTENT_ENCODING_LOW = HEADER_KEY_CONTENT_ENCODING.toLowerCase();
+
+	// up to this many unread body bytes are skipped to keep a connection alive,
+	// for larger unread bodies the connection is closed instead
+	private static final long MAX_SKIPPED_BODY_SIZE = 1024 * 1024;
 
 	private WebServer server;
 
@@ -66,10 +87,37 @@ public class WebServerRequestHandler implements Runnable {
 
 	private boolean responded = false;
 
+	// whether the connection is kept open for further requests after the current one
+	private boolean keepAlive = false;
+
+	// the headers of the current request, with lowercase keys
+	private Map<String, String> receivedHeaders = new HashMap<>();
+
+	// the amount of bytes of the request line and headers that are still allowed to arrive
+	private int remainingHeaderSize;
+
+	private boolean headerTooLarge = false;
+
+	private WebRequestBodyInputStream bodyStream = null;
+
+	// the form data received with the current request, whose temporary files we clean up
+	private WebRequestFormData receivedFormData = null;
+
+	// whether the connection has already been used for a request, and is now kept alive
+	private volatile boolean keptAlive = false;
+
+	// what we know about the current request for the metrics of the server
+	private int respondedStatus = 0;
+	private long bytesSent = 0;
+
+	// the part of a streamed file that is requested by a Range header
+	// (a rangeLength of -1 means that the whole file is sent)
+	private long rangeOffset = 0;
+	private long rangeLength = -1;
+
 	// the auth token string that was received
 	// will be set to the content of the Authorization: header
-	// after a call to receiveArbitraryContent
-	// (which is also called by receiveJsonContent or receiveFormDataContent)
+	// as soon as the headers of the request have been received
 	private String receivedAuthTokenStr = null;
 	private String receivedCookieStr = null;
 	private String receivedHostStr = null;
@@ -91,7 +139,6 @@ public class WebServerRequestHandler implements Runnable {
 	}
 
 	@Override
-	@SuppressWarnings("fallthrough")
 	public void run() {
 
 		// System.out.println("Handler for request #" + socketNum + " starting up...");
@@ -106,64 +153,72 @@ public class WebServerRequestHandler implements Runnable {
 			this.input = inputReader;
 			this.output = outputWriter;
 
-			String line = receive();
+			// we keep handling requests arriving on this connection until either side wants to close it
+			int requestsOnConnection = 0;
 
-			// System.out.println("First line of request #" + socketNum + ": '" + line + "'");
+			while (true) {
 
-			// well if there is no request...
-			if (line == null) {
+				resetRequestState();
 
-				// ... then it is pretty clearly bad xD
-				respond(400);
+				// rather than polling for data, we block while reading, but not for longer than this -
+				// and between requests, we only wait as long as an idle connection is kept open
+				if (requestsOnConnection == 0) {
+					request.setSoTimeout(server.getHeaderTimeoutMillis());
+				} else {
+					request.setSoTimeout(server.getKeepAliveTimeoutMillis());
+				}
+				remainingHeaderSize = server.getMaxHeaderSize();
 
-			} else {
+				keptAlive = requestsOnConnection > 0;
 
-				String[] lines = line.split(" ");
+				String line = receiveRequestLine();
 
-				if (lines.length == 3) {
+				// System.out.println("First line of request #" + socketNum + ": '" + line + "'");
 
-					String requestKind = lines[0];
-					String fileLocation = lines[1];
-					String httpVersion = lines[2];
+				// if nothing arrives on a kept-alive connection, we just close it quietly
+				if ((line == null) && (requestsOnConnection > 0) && !headerTooLarge) {
+					break;
+				}
 
-					if (httpVersion.startsWith("HTTP/1.1")) {
+				requestsOnConnection++;
 
-						switch (requestKind) {
+				long requestStartNanos = System.nanoTime();
 
-							// a HEAD request is the same as a GET request, but it ONLY gives
-							// the header and no content :)
-							case "HEAD":
-								doNotSendBody = true;
-								// fall into GET... brilliant! :D
+				request.setSoTimeout(server.getHeaderTimeoutMillis());
 
-							case "GET":
-								handleGet(fileLocation);
-								break;
+				if (line != null) {
+					receiveHeaders();
+				}
 
-							case "PUT":
-								handlePut(fileLocation);
-								break;
+				keepAlive = (line != null) && !headerTooLarge && server.isKeepAliveEnabled() &&
+					(requestsOnConnection < server.getMaxRequestsPerConnection());
 
-							case "POST":
-								handlePost(fileLocation);
-								break;
+				String connectionHeader = getReceivedHeader(HEADER_KEY_CONNECTION);
+				if ((connectionHeader != null) && connectionHeader.toLowerCase().contains("close")) {
+					keepAlive = false;
+				}
 
-							case "DELETE":
-								handleDelete(fileLocation);
-								break;
+				handleRequest(line);
 
-							case "OPTIONS":
-								handleOptions(fileLocation);
-								break;
+				WebServerMetrics metrics = server.getMetrics();
+				if ((metrics != null) && responded) {
+					metrics.recordRequest(respondedStatus, System.nanoTime() - requestStartNanos,
+						getReceivedByteCount(), bytesSent);
+				}
 
-							default:
-								respond(501);
-						}
-					} else {
-						respond(505);
-					}
-				} else {
-					respond(400);
+				// if the handler did not respond at all, we cannot tell the client where
+				// the response ends, so the connection has to be closed after all
+				if (!responded) {
+					break;
+				}
+
+				if (!keepAlive) {
+					break;
+				}
+
+				// the body of the request must be gone before the next request can be read
+				if (!skipRemainingBody()) {
+					break;
 				}
 			}
 
@@ -172,9 +227,216 @@ public class WebServerRequestHandler implements Runnable {
 			System.err.println(e);
 		}
 
+		deleteReceivedFormData();
+
 		cleanup();
 	}
 
+	@SuppressWarnings("fallthrough")
+	private void handleRequest(String line) throws IOException {
+
+		if (headerTooLarge) {
+
+			respond(431);
+
+		// well if there is no request...
+		} else if (line == null) {
+
+			// ... then it is pretty clearly bad xD
+			respond(400);
+
+		} else {
+
+			String[] lines = line.split(" ");
+
+			if (lines.length == 3) {
+
+				String requestKind = lines[0];
+				String fileLocation = lines[1];
+				String httpVersion = lines[2];
+
+				if (httpVersion.startsWith("HTTP/1.1")) {
+
+					switch (requestKind) {
+
+						// a HEAD request is the same as a GET request, but it ONLY gives
+						// the header and no content :)
+						case "HEAD":
+							doNotSendBody = true;
+							// fall into GET... brilliant! :D
+
+						case "GET":
+							handleGet(fileLocation);
+							break;
+
+						case "PUT":
+							handlePut(fileLocation);
+							break;
+
+						case "POST":
+							handlePost(fileLocation);
+							break;
+
+						case "DELETE":
+							handleDelete(fileLocation);
+							break;
+
+						case "OPTIONS":
+							handleOptions(fileLocation);
+							break;
+
+						default:
+							keepAlive = false;
+							respond(501);
+					}
+				} else {
+					keepAlive = false;
+					respond(505);
+				}
+			} else {
+				keepAlive = false;
+				respond(400);
+			}
+		}
+	}
+
+	/**
+	 * Waits for the request line of the next request on this connection, during which time
+	 * the connection counts as idle - so that a stopping server can just close it
+	 */
+	private String receiveRequestLine() throws IOException {
+
+		if (!server.handlerIdle(this)) {
+			return null;
+		}
+
+		try {
+			String line = receive();
+
+			// empty lines before a request line are allowed and ignored (they are sometimes
+			// sent by clients after the body of a previous request)
+			while ("".equals(line)) {
+				line = receive();
+			}
+
+			return line;
+
+		} catch (IOException e) {
+			// the connection was closed under our feet (or by the stopping server) while idle
+			return null;
+
+		} finally {
+			server.handlerBusy(this);
+		}
+	}
+
+	/**
+	 * Returns how many bytes of the current request have been received so far
+	 */
+	private long getReceivedByteCount() {
+
+		long result = server.getMaxHeaderSize() - Math.max(0, remainingHeaderSize);
+
+		if (bodyStream != null) {
+			result += getReceivedContentLength() - bodyStream.getRemaining();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Resets everything that belongs to one request, such that the next request on the same
+	 * connection can be handled
+	 */
+	private void resetRequestState() {
+
+		responded = false;
+		doNotSendBody = false;
+		keepAlive = false;
+		headerTooLarge = false;
+		bodyStream = null;
+		deleteReceivedFormData();
+		rangeOffset = 0;
+		rangeLength = -1;
+		respondedStatus = 0;
+		bytesSent = 0;
+		receivedHeaders.clear();
+		receivedAuthTokenStr = null;
+		receivedCookieStr = null;
+		receivedHostStr = null;
+	}
+
+	/**
+	 * Deletes the temporary files of uploads of the current request that have not been saved
+	 */
+	private void deleteReceivedFormData() {
+
+		if (receivedFormData != null) {
+			receivedFormData.delete();
+			receivedFormData = null;
+		}
+	}
+
+	/**
+	 * Skips the part of the request body that the handler did not read, returning false
+	 * if this is not sensibly possible (in which case the connection should be closed)
+	 */
+	private boolean skipRemainingBody() throws IOException {
+
+		long remaining;
+
+		if (bodyStream == null) {
+			remaining = getReceivedContentLength();
+		} else {
+			remaining = bodyStream.getRemaining();
+		}
+
+		if (remaining <= 0) {
+			return true;
+		}
+
+		// rather than receiving a lot of data just to throw it away, we close the connection
+		if (remaining > MAX_SKIPPED_BODY_SIZE) {
+			return false;
+		}
+
+		if (bodyStream == null) {
+			bodyStream = new WebRequestBodyInputStream(input, remaining);
+		}
+
+		request.setSoTimeout(server.getBodyTimeoutMillis());
+
+		try {
+			while (bodyStream.getRemaining() > 0) {
+				if (bodyStream.skip(bodyStream.getRemaining()) <= 0) {
+					if (bodyStream.read() < 0) {
+						return false;
+					}
+				}
+			}
+		} catch (SocketTimeoutException e) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Closes the connection of this handler (used by the server to close idle connections when stopping)
+	 */
+	boolean isKeptAlive() {
+		return keptAlive;
+	}
+
+	void closeConnection() {
+
+		try {
+			request.close();
+		} catch (IOException e) {
+			// well, we tried...
+		}
+	}
+
 	public void setThreadInfo(Thread thisThread, List<Thread> listContainingThisThread) {
 
 		this.ourThread = thisThread;
@@ -219,10 +481,98 @@ public class WebServerRequestHandler implements Runnable {
 				respond(404);
 			}
 		} else {
+			// if the client already has the current version of a file, we do not need to send it again
+			if ((answer instanceof WebServerAnswerBasedOnFile) && (answer.getStatus() == 200)) {
+				WebServerAnswerBasedOnFile fileAnswer = (WebServerAnswerBasedOnFile) answer;
+				if (fileAnswer.isNotModified(getReceivedHeader(HEADER_KEY_IF_NONE_MATCH),
+					getReceivedHeader(HEADER_KEY_IF_MODIFIED_SINCE))) {
+					respond(304, answer);
+					return;
+				}
+
+				// streamed files can also be sent partially
+				if (answer instanceof WebServerAnswerStreamingFile) {
+					if (!applyRange(fileAnswer)) {
+						WebServerAnswerWithText unsatisfiable = new WebServerAnswerWithText(416, "");
+						unsatisfiable.setExtraHeaderLine(HEADER_KEY_CONTENT_RANGE + "bytes */" + fileAnswer.getContentLength());
+						respond(unsatisfiable);
+						return;
+					}
+					if (rangeLength >= 0) {
+						respond(206, answer);
+						return;
+					}
+				}
+			}
 			respond(answer.getStatus(), answer);
 		}
 	}
 
+	/**
+	 * Looks at the Range header of the request and sets rangeOffset and rangeLength accordingly;
+	 * returns false if the range cannot be satisfied
+	 * (we only support single ranges - for anything else, the whole file is sent, which is
+	 * allowed, as servers may always ignore Range headers)
+	 */
+	private boolean applyRange(WebServerAnswerBasedOnFile answer) {
+
+		String range = getReceivedHeader(HEADER_KEY_RANGE);
+
+		if ((range == null) || !range.startsWith("bytes=") || range.contains(",")) {
+			return true;
+		}
+
+		// If-Range means: only send a part if the file is still the one the client has a part of
+		String ifRange = getReceivedHeader(HEADER_KEY_IF_RANGE);
+		if ((ifRange != null) && !ifRange.equals(answer.getETag())) {
+			return true;
+		}
+
+		long fileLength = answer.getContentLength();
+
+		String rangeStr = range.substring(6).trim();
+		int dash = rangeStr.indexOf('-');
+
+		if (dash < 0) {
+			return true;
+		}
+
+		try {
+			long first;
+			long last;
+
+			if (dash == 0) {
+				// bytes=-500 means the last 500 bytes
+				long suffixLength = Long.parseLong(rangeStr.substring(1).trim());
+				if (suffixLength <= 0) {
+					return false;
+				}
+				first = Math.max(0, fileLength - suffixLength);
+				last = fileLength - 1;
+			} else {
+				first = Long.parseLong(rangeStr.substring(0, dash).trim());
+				String lastStr = rangeStr.substring(dash + 1).trim();
+				if ("".equals(lastStr)) {
+					last = fileLength - 1;
+				} else {
+					last = Math.min(Long.parseLong(lastStr), fileLength - 1);
+				}
+			}
+
+			if ((first >= fileLength) || (first > last)) {
+				return false;
+			}
+
+			rangeOffset = first;
+			rangeLength = last - first + 1;
+
+		} catch (NumberFormatException e) {
+			// an invalid Range header is just ignored
+		}
+
+		return true;
+	}
+
 	/**
 	 * Overwrite this to answer GETs without (necessarily) returning a file for them;
 	 * if you return null, the fall-through is to look for a file to answer the GET request
@@ -258,35 +608,156 @@ public class WebServerRequestHandler implements Runnable {
 		respond(403);
 	}
 
-	// receive a whole line
+	// receive a whole line (or null if none arrives in time)
 	protected String receive() throws IOException {
 
-		// System.out.println("DEBUG START receive()");
-
 		try {
-			// one minute (60 seconds) long, check every 100 ms if data became available...
-			for (int i = 0; i < 600; i++) {
+			return readLine();
+		} catch (SocketTimeoutException e) {
+			// tough luck, nothing arrived in time...
+			return null;
+		}
+	}
+
+	/**
+	 * Reads a line terminated by \n or \r\n, blocking until it arrives or the socket times out,
+	 * and returning null if the line exceeds the remaining allowed header size
+	 */
+	private String readLine() throws IOException {
+
+		StringBuilder result = new StringBuilder();
+
+		while (true) {
 
-				// ... and if yes, return!
-				if (input.ready()) {
-					return input.readLine();
+			int cur = input.read();
+
+			if (cur < 0) {
+				if (result.length() == 0) {
+					return null;
 				}
+				break;
+			}
 
-				Thread.sleep(100);
+			remainingHeaderSize--;
+			if (remainingHeaderSize < 0) {
+				headerTooLarge = true;
+				return null;
+			}
+
+			if (cur == '\n') {
+				break;
 			}
-		} catch (InterruptedException e) {
-			// our sleep was interrupted, so no more sleeping...
+
+			result.append((char) cur);
 		}
 
-		// check one last time...
-		if (input.ready()) {
-			return input.readLine();
+		int len = result.length();
+		if ((len > 0) && (result.charAt(len - 1) == '\r')) {
+			result.setLength(len - 1);
 		}
 
-		// and if not, well, then tough luck...
-		// System.out.println("Input of request #" + socketNum + " not ready to be read!");
+		return result.toString();
+	}
 
-		return null;
+	/**
+	 * Receives all headers of the request, up to and including the empty line that ends them
+	 */
+	private void receiveHeaders() throws IOException {
+
+		while (true) {
+
+			String line = receive();
+
+			if ((line == null) || "".equals(line)) {
+				break;
+			}
+
+			int colon = line.indexOf(':');
+
+			if (colon < 0) {
+				continue;
+			}
+
+			String key = line.substring(0, colon).trim().toLowerCase();
+			String value = line.substring(colon + 1).trim();
+
+			String prevValue = receivedHeaders.get(key);
+			if (prevValue != null) {
+				value = prevValue + ", " + value;
+			}
+
+			receivedHeaders.put(key, value);
+		}
+
+		this.receivedAuthTokenStr = getReceivedHeader(HEADER_KEY_AUTHORIZATION);
+		this.receivedCookieStr = getReceivedHeader(HEADER_KEY_COOKIE);
+		this.receivedHostStr = getReceivedHeader(HEADER_KEY_HOST);
+	}
+
+	/**
+	 * Returns the value of the header with the given name (case-insensitively) that was
+	 * received with the current request, or null if no such header was sent
+	 */
+	public String getReceivedHeader(String name) {
+
+		if (name == null) {
+			return null;
+		}
+
+		name = name.trim();
+		if (name.endsWith(":")) {
+			name = name.substring(0, name.length() - 1);
+		}
+
+		return receivedHeaders.get(name.toLowerCase());
+	}
+
+	/**
+	 * Returns the Content-Length of the current request, or 0 if none was sent
+	 */
+	protected long getReceivedContentLength() {
+
+		String contentLengthStr = getReceivedHeader(HEADER_KEY_CONTENT_LENGTH);
+
+		if (contentLengthStr != null) {
+			try {
+				return Long.parseLong(contentLengthStr);
+			} catch (NumberFormatException e) {
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Gives access to the raw bytes of the body of the current request, without loading it
+	 * all into memory - returns null if the request has no body, or if the body is larger
+	 * than allowed (in which case we already responded with HTTP 413)
+	 */
+	protected WebRequestBodyInputStream getBodyInputStream() throws IOException {
+
+		if (bodyStream != null) {
+			return bodyStream;
+		}
+
+		long contentLength = getReceivedContentLength();
+
+		if (contentLength <= 0) {
+			return null;
+		}
+
+		long maxBodySize = server.getMaxBodySize();
+
+		if ((maxBodySize >= 0) && (contentLength > maxBodySize)) {
+			respond(413);
+			return null;
+		}
+
+		request.setSoTimeout(server.getBodyTimeoutMillis());
+
+		bodyStream = new WebRequestBodyInputStream(input, contentLength);
+
+		return bodyStream;
 	}
 
 	// receive the json content of the request, if json content has been sent along with the request
@@ -310,35 +781,37 @@ public class WebServerRequestHandler implements Runnable {
 		return receiveFormDataContent(StandardCharsets.UTF_8);
 	}
 
+	/**
+	 * Receives a multipart/form-data body while parsing it, keeping small parts in memory and
+	 * writing large parts to temporary files, which are deleted once the request has been handled
+	 * (unless a block is saved somewhere else with saveTo())
+	 */
 	protected WebRequestFormData receiveFormDataContent(Charset charset) throws IOException {
 
-		WebRequestContent content = receiveArbitraryContent(charset);
+		WebRequestContent contentInfo = new WebRequestContent();
+		contentInfo.setContentType(getReceivedHeader(HEADER_KEY_CONTENT_TYPE));
 
-		if (content == null) {
+		if (!contentInfo.hasType("multipart/form-data") || (contentInfo.getBoundary() == null)) {
 			return null;
 		}
 
-		if (content.hasType("multipart/form-data")) {
-			String strContent = content.getContentAsString();
-
-			String boundary = content.getBoundary();
-
-			String[] blocks = strContent.split(boundary);
+		WebRequestBodyInputStream body = getBodyInputStream();
 
-			WebRequestFormData result = new WebRequestFormData();
+		if ((body == null) || (body.getRemaining() <= 0)) {
+			return null;
+		}
 
-			for (String block : blocks) {
-				// we have blocks such as empty ones, and blocks containing just the string -- etc...
-				// ignore those!
-				if (block.length() > 4) {
-					result.addBlock(block);
-				}
-			}
+		WebRequestMultipartParser parser = new WebRequestMultipartParser(contentInfo.getBoundary(), charset);
+		parser.setMemoryThreshold(server.getFormDataMemoryThreshold());
 
-			return result;
+		try {
+			receivedFormData = parser.parse(body);
+		} catch (SocketTimeoutException e) {
+			// the rest of the body did not arrive in time, so there is nothing sensible we can do
+			return null;
 		}
 
-		return null;
+		return receivedFormData;
 	}
 
 	protected WebRequestContent receiveArbitraryContent() throws IOException {
@@ -347,92 +820,48 @@ public class WebServerRequestHandler implements Runnable {
 
 	protected WebRequestContent receiveArbitraryContent(Charset charset) throws IOException {
 
-		int receivedContentLength = 0;
-		String receivedContentType = null;
-
-		while (true) {
-
-			String line = receive();
-
-			if (line == null) {
-				break;
-			}
-
-			// System.out.println(line);
-
-			String lineLow = line.toLowerCase();
-
-			if (lineLow.startsWith(HEADER_KEY_AUTHORIZATION_LOW)) {
-				this.receivedAuthTokenStr = line.substring(HEADER_KEY_AUTHORIZATION_LOW.length());
-				continue;
-			}
-
-			if (lineLow.startsWith(HEADER_KEY_COOKIE_LOW)) {
-				this.receivedCookieStr = line.substring(HEADER_KEY_COOKIE_LOW.length());
-				continue;
-			}
-
-			if (lineLow.startsWith(HEADER_KEY_HOST_LOW)) {
-				this.receivedHostStr = line.substring(HEADER_KEY_HOST_LOW.length());
-				continue;
-			}
-
-			if (lineLow.startsWith(HEADER_KEY_CONTENT_LENGTH_LOW)) {
-				try {
-					receivedContentLength = Integer.parseInt(line.substring(HEADER_KEY_CONTENT_LENGTH_LOW.length()));
-				} catch (NumberFormatException e) {
-				}
-				continue;
-			}
+		long receivedContentLength = getReceivedContentLength();
 
-			if (lineLow.startsWith(HEADER_KEY_CONTENT_TYPE_LOW)) {
-				receivedContentType = line.substring(HEADER_KEY_CONTENT_TYPE_LOW.length());
-				continue;
-			}
+		if (receivedContentLength > Integer.MAX_VALUE) {
+			respond(413);
+			return null;
+		}
 
-			if ("".equals(line)) {
-				if (receivedContentLength > 0) {
-					ByteBuffer readData = new ByteBuffer();
-					for (int i = 0; i < receivedContentLength; i++) {
-						if (!input.ready()) {
-							try {
-								Thread.sleep(1000);
-							} catch (InterruptedException e) {
-								break;
-							}
-							if (!input.ready()) {
-								break;
-							}
-						}
+		WebRequestBodyInputStream body = getBodyInputStream();
 
-						// we get one byte after the other (still all in fake ISO_8859_1, even though it is
-						// actually containing UTF-8)
-						int iread = input.read();
-						readData.append((byte) iread);
-					}
+		if ((body == null) || (body.getRemaining() <= 0)) {
+			return null;
+		}
 
-					// and now that all the bytes have been gathered, we can (once) interpret this as UTF-8,
-					// or whatever it should be interpreted as!
-					String receivedContent = readData.toString(charset);
+		byte[] readData;
 
-					WebRequestContent result = new WebRequestContent();
-					result.setContentLength(receivedContentLength);
-					result.setContentType(receivedContentType);
-					result.setContent(receivedContent);
-					return result;
-				}
-				break;
-			}
+		try {
+			readData = body.readAll();
+		} catch (SocketTimeoutException e) {
+			// the rest of the body did not arrive in time, so there is nothing sensible we can do
+			return null;
 		}
 
-		return null;
+		// and now that all the bytes have been gathered, we can (once) interpret this as UTF-8,
+		// or whatever it should be interpreted as!
+		String receivedContent = new String(readData, charset);
+
+		WebRequestContent result = new WebRequestContent();
+		result.setContentLength((int) receivedContentLength);
+		result.setContentType(getReceivedHeader(HEADER_KEY_CONTENT_TYPE));
+		result.setContent(receivedContent);
+		return result;
 	}
 
 	private void send(String line) throws IOException {
 
 		line = line + "\r\n";
 
-		output.write(line.getBytes(StandardCharsets.UTF_8));
+		byte[] lineBytes = line.getBytes(StandardCharsets.UTF_8);
+
+		output.write(lineBytes);
+
+		bytesSent += lineBytes.length;
 	}
 
 	protected String getAccessControlAllowOrigin() {
@@ -460,12 +889,18 @@ public class WebServerRequestHandler implements Runnable {
 			case 204:
 				respond("204 No Content", answer);
 				break;
+			case 206:
+				respond("206 Partial Content", answer);
+				break;
 			case 301:
 				respond("301 Moved Permanently", answer);
 				break;
 			case 302:
 				respond("302 Moved Temporarily", answer);
 				break;
+			case 304:
+				respond("304 Not Modified", answer);
+				break;
 			case 400:
 				respond("400 Bad Request", answer);
 				break;
@@ -484,6 +919,15 @@ public class WebServerRequestHandler implements Runnable {
 			case 406:
 				respond("406 Not Acceptable", answer);
 				break;
+			case 408:
+				respond("408 Request Timeout", answer);
+				break;
+			case 413:
+				respond("413 Payload Too Large", answer);
+				break;
+			case 416:
+				respond("416 Range Not Satisfiable", answer);
+				break;
 			case 418:
 				respond("418 I'm a teapot", answer);
 				break;
@@ -493,6 +937,9 @@ public class WebServerRequestHandler implements Runnable {
 			case 429:
 				respond("429 Too Many Requests", answer);
 				break;
+			case 431:
+				respond("431 Request Header Fields Too Large", answer);
+				break;
 			case 501:
 				respond("501 Not Implemented", answer);
 				break;
@@ -516,6 +963,12 @@ public class WebServerRequestHandler implements Runnable {
 
 		responded = true;
 
+		try {
+			respondedStatus = Integer.parseInt(status.substring(0, 3));
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			respondedStatus = 0;
+		}
+
 		// System.out.println("Sending a " + status + " response for request #" + socketNum + "...");
 
 		send("HTTP/1.1 " + status);
@@ -527,40 +980,174 @@ public class WebServerRequestHandler implements Runnable {
 		send("Access-Control-Allow-Headers: X-PINGOTHER, Content-Type");
 		send("Access-Control-Max-Age: 86400");
 
+		if (keepAlive && server.isServing()) {
+			send(HEADER_KEY_CONNECTION + "keep-alive");
+			send("Keep-Alive: timeout=" + (server.getKeepAliveTimeoutMillis() / 1000) +
+				", max=" + server.getMaxRequestsPerConnection());
+		} else {
+			keepAlive = false;
+			send(HEADER_KEY_CONNECTION + "close");
+		}
+
 		if (answer == null) {
 
 			// never keep these (as there is no big file involved anyway...)
 			send(HEADER_KEY_CACHE_CONTROL + "no-store");
+			// tell the client explicitly that there is no body, so that it does not wait for one
+			send(HEADER_KEY_CONTENT_LENGTH + "0");
+			send("");
+
+		} else if (status.startsWith("304")) {
+
+			// the client already has the content, so we just confirm its validators - with the
+			// same encoding and entity tag as we would send the content with
+			send(HEADER_KEY_CACHE_CONTROL + answer.getPreferredCacheParadigm());
+			String encoding = null;
+			if (!(answer instanceof WebServerAnswerStreamingFile) && isCompressible(answer, answer.getContentLength())) {
+				send("Vary: Accept-Encoding");
+				encoding = WebServerCompression.negotiateEncoding(getReceivedHeader(HEADER_KEY_ACCEPT_ENCODING));
+			}
+			if (encoding == null) {
+				sendExtraHeaderLines(answer);
+			} else {
+				send(HEADER_KEY_CONTENT_ENCODING + encoding);
+				sendExtraHeaderLines(answer, encoding);
+			}
 			send("");
 
+		} else if (answer instanceof WebServerAnswerStreamingFile) {
+
+			sendStreamed(status, (WebServerAnswerStreamingFile) answer);
+
 		} else {
 
+			// we get the content before asking for its length, as the length might only be
+			// known for sure once the content has been loaded
+			byte[] binaryContent = null;
+
+			if (!doNotSendBody) {
+				binaryContent = answer.getBinaryContent();
+			}
+
 			long length = answer.getContentLength();
 
+			// compress the content if the client can handle it and it is worth it - which is
+			// also done for HEAD requests, such that they get the same headers as a GET
+			String encoding = null;
+			boolean compressible = isCompressible(answer, length);
+
+			if (compressible) {
+				encoding = WebServerCompression.negotiateEncoding(getReceivedHeader(HEADER_KEY_ACCEPT_ENCODING));
+				if (encoding != null) {
+					if (answer instanceof WebServerAnswerBasedOnFile) {
+						binaryContent = ((WebServerAnswerBasedOnFile) answer).getCompressedContent(encoding);
+					} else {
+						if (binaryContent == null) {
+							binaryContent = answer.getBinaryContent();
+						}
+						binaryContent = WebServerCompression.compress(binaryContent, (int) length, encoding);
+					}
+					length = binaryContent.length;
+				}
+			}
+
 			send(HEADER_KEY_CACHE_CONTROL + answer.getPreferredCacheParadigm());
 			send(HEADER_KEY_CONTENT_TYPE + answer.getContentType());
 			send(HEADER_KEY_CONTENT_LENGTH + length);
-			List<String> extraHeaderLines = answer.getExtraHeaderLines();
-			if (extraHeaderLines != null) {
-				for (String extraHeaderLine : extraHeaderLines) {
-					if ((extraHeaderLine != null) && (!"".equals(extraHeaderLine))) {
-						send(extraHeaderLine);
-					}
-				}
+			if (compressible) {
+				send("Vary: Accept-Encoding");
+			}
+			if (encoding == null) {
+				sendExtraHeaderLines(answer);
+			} else {
+				send(HEADER_KEY_CONTENT_ENCODING + encoding);
+				sendExtraHeaderLines(answer, encoding);
 			}
 			send("");
 
-			if (!doNotSendBody) {
-
-				byte[] binaryContent = answer.getBinaryContent();
-
+			if ((binaryContent != null) && !doNotSendBody) {
 				output.write(binaryContent, 0, (int) length);
+				bytesSent += length;
 			}
 		}
 
 		output.flush();
 	}
 
+	/**
+	 * Returns true if the answer is worth compressing, in which case it is sent in whichever
+	 * encoding the client prefers
+	 */
+	private boolean isCompressible(WebServerAnswer answer, long length) {
+
+		return server.isCompressionEnabled() && (length >= server.getCompressionMinSize()) &&
+			WebServerCompression.isCompressible(answer.getContentType());
+	}
+
+	private void sendStreamed(String status, WebServerAnswerStreamingFile answer) throws IOException {
+
+		long fileLength = answer.getContentLength();
+		long offset = 0;
+		long length = fileLength;
+
+		send(HEADER_KEY_CACHE_CONTROL + answer.getPreferredCacheParadigm());
+		send(HEADER_KEY_CONTENT_TYPE + answer.getContentType());
+		send("Accept-Ranges: bytes");
+
+		if (status.startsWith("206")) {
+			offset = rangeOffset;
+			length = rangeLength;
+			send(HEADER_KEY_CONTENT_RANGE + "bytes " + offset + "-" + (offset + length - 1) + "/" + fileLength);
+		}
+
+		send(HEADER_KEY_CONTENT_LENGTH + length);
+		sendExtraHeaderLines(answer);
+		send("");
+
+		if (doNotSendBody) {
+			return;
+		}
+
+		// the headers have to be out before we write to the connection directly
+		output.flush();
+
+		// the file is copied through a small buffer, rather than being loaded as a whole
+		long written = answer.writeContent(Channels.newChannel(output), offset, length);
+
+		bytesSent += written;
+
+		// if the file shrank meanwhile, the client waits for bytes that will never come,
+		// so we have to close the connection to let it know
+		if (written < length) {
+			keepAlive = false;
+		}
+	}
+
+	private void sendExtraHeaderLines(WebServerAnswer answer) throws IOException {
+		sendExtraHeaderLines(answer, null);
+	}
+
+	/**
+	 * Sends the extra header lines of the answer - if the content is compressed with
+	 * the given encoding, the encoding is added to the entity tag, as the compressed
+	 * content is a different representation than the uncompressed one
+	 */
+	private void sendExtraHeaderLines(WebServerAnswer answer, String encoding) throws IOException {
+
+		List<String> extraHeaderLines = answer.getExtraHeaderLines();
+
+		if (extraHeaderLines != null) {
+			for (String extraHeaderLine : extraHeaderLines) {
+				if ((extraHeaderLine != null) && (!"".equals(extraHeaderLine))) {
+					if ((encoding != null) && extraHeaderLine.startsWith("ETag: ") && extraHeaderLine.endsWith("\"")) {
+						extraHeaderLine = extraHeaderLine.substring(0, extraHeaderLine.length() - 1) + "-" + encoding + "\"";
+					}
+					send(extraHeaderLine);
+				}
+			}
+		}
+	}
+
 	private WebServerAnswer answerGet(String location) {
 
 		if (location == null) {
@@ -570,28 +1157,40 @@ public class WebServerRequestHandler implements Runnable {
 		String[] arguments = new String[0];
 		Map<String, String> argumentMap = new HashMap<>();
 
-		if (location.contains("?")) {
-			String[] locations = location.split("\\?");
-			location = locations[0];
-			if (locations.length > 1) {
-				arguments = locations[1].split("&");
+		int questionMark = location.indexOf('?');
+
+		if (questionMark > -1) {
+			String query = location.substring(questionMark + 1);
+			location = location.substring(0, questionMark);
+			// a second question mark is not part of the query (as it always has been)
+			questionMark = query.indexOf('?');
+			if (questionMark > -1) {
+				query = query.substring(0, questionMark);
+			}
+			if (query.length() > 0) {
+				arguments = query.split("&");
 				for (String arg : arguments) {
-					if (arg.contains("=")) {
-						String key = arg.substring(0, arg.indexOf("="));
-						String value = arg.substring(arg.indexOf("=") + 1);
-						key = UrlDecoder.decode(key);
-						value = UrlDecoder.decode(value);
+					int equals = arg.indexOf('=');
+					if (equals > -1) {
+						String key = UrlDecoder.decode(arg.substring(0, equals));
+						String value = UrlDecoder.decode(arg.substring(equals + 1));
 						argumentMap.put(key, value);
 					}
 				}
 			}
 		}
 
+		// registered routes come first...
+		WebServerAnswer routedAnswer = server.getRouter().answerGet(location, argumentMap);
+		if (routedAnswer != null) {
+			return routedAnswer;
+		}
+
 		if (location.equals("/")) {
 			location = "/index";
 		}
 
-		// check if our behavior was overwritten
+		// ... then check if our behavior was overwritten
 		WebServerAnswer answer = answerGet(location, argumentMap);
 		if (answer != null) {
 			return answer;
@@ -602,11 +1201,41 @@ public class WebServerRequestHandler implements Runnable {
 			return answer;
 		}
 
+		File result = null;
+
+		WebServerFileCache fileCache = server.getFileCache();
+
+		if (fileCache != null) {
+			result = fileCache.getResolvedLocation(location);
+		}
+
+		if (result == null) {
+			result = resolveFileFromLocation(location, arguments);
+
+			if ((result != null) && (fileCache != null)) {
+				fileCache.setResolvedLocation(location, result);
+			}
+		}
+
+		if (result != null) {
+			// large files are streamed rather than loaded into memory
+			long streamingThreshold = server.getStreamingThreshold();
+			if ((streamingThreshold >= 0) && (result.getContentLength() > streamingThreshold)) {
+				return new WebServerAnswerStreamingFile(result);
+			}
+			return new WebServerAnswerBasedOnFile(result, fileCache);
+		}
+
+		return null;
+	}
+
+	private File resolveFileFromLocation(String location, String[] arguments) {
+
 		// at first, try the file itself
 		File result = getFileFromLocation(location, arguments);
 
 		if (result != null) {
-			return new WebServerAnswerBasedOnFile(result);
+			return result;
 		}
 
 		// in case of a location like www.asofterspace.com/blubb/, actually add "index" to the end automagically...
@@ -616,7 +1245,7 @@ public class WebServerRequestHandler implements Runnable {
 			result = getFileFromLocation(location, arguments);
 
 			if (result != null) {
-				return new WebServerAnswerBasedOnFile(result);
+				return result;
 			}
 		}
 
@@ -624,24 +1253,18 @@ public class WebServerRequestHandler implements Runnable {
 		result = getFileFromLocation(location + ".php", arguments);
 
 		if (result != null) {
-			return new WebServerAnswerBasedOnFile(result);
+			return result;
 		}
 
 		// finally, if no .php file was found either, try to navigate to an .htm file...
 		result = getFileFromLocation(location + ".htm", arguments);
 
 		if (result != null) {
-			return new WebServerAnswerBasedOnFile(result);
+			return result;
 		}
 
 		// ... or a .html file instead
-		result = getFileFromLocation(location + ".html", arguments);
-
-		if (result != null) {
-			return new WebServerAnswerBasedOnFile(result);
-		}
-
-		return null;
+		return getFileFromLocation(location + ".html", arguments);
 	}
 
 	protected String getWhitelistedLocationEquivalent(String location) {
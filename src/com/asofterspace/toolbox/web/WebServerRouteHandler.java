@@ -0,0 +1,23 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import java.util.Map;
+
+
+/**
+ * Interface that anything can implement which answers GET requests for a route
+ * registered with the router of a web server
+ */
+public interface WebServerRouteHandler {
+
+	/**
+	 * Answer a GET request for the given location - for a route like /api/users/{id}
+	 * and a request like /api/users/42?full=true, pathParameters is {"id": "42"} and
+	 * arguments is {"full": "true"}
+	 * If you return null, the request is handled as if there was no such route
+	 */
+	WebServerAnswer answerGet(String location, Map<String, String> pathParameters, Map<String, String> arguments);
+}
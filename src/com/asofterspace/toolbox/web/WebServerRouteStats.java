@@ -0,0 +1,73 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counts how often a route has been requested and how long answering took
+ */
+public class WebServerRouteStats {
+
+	private String route;
+
+	private AtomicLong requestCount = new AtomicLong();
+
+	private AtomicLong totalNanos = new AtomicLong();
+
+	private AtomicLong maxNanos = new AtomicLong();
+
+
+	WebServerRouteStats(String route) {
+		this.route = route;
+	}
+
+	void record(long nanos) {
+
+		requestCount.incrementAndGet();
+
+		totalNanos.addAndGet(nanos);
+
+		long prevMax = maxNanos.get();
+		while ((nanos > prevMax) && !maxNanos.compareAndSet(prevMax, nanos)) {
+			prevMax = maxNanos.get();
+		}
+	}
+
+	public String getRoute() {
+		return route;
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	public long getTotalNanos() {
+		return totalNanos.get();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	public double getAverageMillis() {
+
+		long count = requestCount.get();
+
+		if (count == 0) {
+			return 0;
+		}
+
+		return totalNanos.get() / (count * 1000000.0);
+	}
+
+	@Override
+	public String toString() {
+		return "WebServerRouteStats [route: " + route + ", requestCount: " + getRequestCount() +
+			", averageMillis: " + getAverageMillis() + ", maxNanos: " + getMaxNanos() + "]";
+	}
+
+}
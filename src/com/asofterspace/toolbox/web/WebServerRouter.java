@@ -0,0 +1,244 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.web;
+
+import com.asofterspace.toolbox.coders.UrlDecoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * A routing table for GET requests, in which routes are registered once and are then
+ * found in time proportional to the length of the requested path, as the routes are
+ * stored in a tree with one level per path segment
+ *
+ * Three kinds of routes are supported:
+ * exact routes like /api/status, which only match exactly that path,
+ * parameter routes like /api/users/{id}/posts, in which {id} matches any one segment,
+ * prefix routes like /static/, which match the prefix and anything below it
+ *
+ * When several routes match, literal segments win over parameters, and longer
+ * routes win over shorter prefix routes
+ */
+public class WebServerRouter {
+
+	private RouterNode root = new RouterNode();
+
+	private Map<String, WebServerRouteStats> stats = new LinkedHashMap<>();
+
+
+	/**
+	 * Registers a route (which may contain {parameters} as segments) that is answered
+	 * by the given handler for exactly matching paths
+	 */
+	public synchronized void addRoute(String route, WebServerRouteHandler handler) {
+
+		addRoute(route, handler, false);
+	}
+
+	/**
+	 * Registers a route (which may contain {parameters} as segments) that is answered
+	 * by the given handler for any path starting with it
+	 */
+	public synchronized void addPrefixRoute(String route, WebServerRouteHandler handler) {
+
+		addRoute(route, handler, true);
+	}
+
+	private void addRoute(String route, WebServerRouteHandler handler, boolean isPrefix) {
+
+		List<String> segments = splitPath(route);
+
+		// for prefix routes, /static/ and /static mean the same
+		if (isPrefix && (segments.size() > 0) && "".equals(segments.get(segments.size() - 1))) {
+			segments.remove(segments.size() - 1);
+		}
+
+		List<String> paramNames = new ArrayList<>();
+
+		RouterNode node = root;
+
+		for (String segment : segments) {
+			if (segment.startsWith("{") && segment.endsWith("}")) {
+				paramNames.add(segment.substring(1, segment.length() - 1));
+				if (node.paramChild == null) {
+					node.paramChild = new RouterNode();
+				}
+				node = node.paramChild;
+			} else {
+				RouterNode child = node.literalChildren.get(segment);
+				if (child == null) {
+					child = new RouterNode();
+					node.literalChildren.put(segment, child);
+				}
+				node = child;
+			}
+		}
+
+		WebServerRouteStats routeStats = new WebServerRouteStats(route);
+		stats.put(route, routeStats);
+
+		Route newRoute = new Route(handler, paramNames, routeStats);
+
+		if (isPrefix) {
+			node.prefixRoute = newRoute;
+		} else {
+			node.exactRoute = newRoute;
+		}
+	}
+
+	/**
+	 * Answers a GET request for the given location (without arguments) through the matching
+	 * route, or returns null if no route matches or the handler of the route returns null
+	 */
+	public WebServerAnswer answerGet(String location, Map<String, String> arguments) {
+
+		if (root.isEmpty()) {
+			return null;
+		}
+
+		List<String> segments = splitPath(location);
+		List<String> paramValues = new ArrayList<>();
+
+		Route route = match(root, segments, 0, paramValues);
+
+		if (route == null) {
+			return null;
+		}
+
+		Map<String, String> pathParameters;
+		if (route.paramNames.size() > 0) {
+			pathParameters = new HashMap<>();
+			for (int i = 0; i < route.paramNames.size(); i++) {
+				pathParameters.put(route.paramNames.get(i), UrlDecoder.decode(paramValues.get(i)));
+			}
+		} else {
+			pathParameters = Collections.emptyMap();
+		}
+
+		long start = System.nanoTime();
+
+		WebServerAnswer answer = route.handler.answerGet(location, pathParameters, arguments);
+
+		route.stats.record(System.nanoTime() - start);
+
+		return answer;
+	}
+
+	private Route match(RouterNode node, List<String> segments, int index, List<String> paramValues) {
+
+		if (index == segments.size()) {
+			if (node.exactRoute != null) {
+				return node.exactRoute;
+			}
+			return node.prefixRoute;
+		}
+
+		String segment = segments.get(index);
+
+		RouterNode literalChild = node.literalChildren.get(segment);
+		if (literalChild != null) {
+			Route result = match(literalChild, segments, index + 1, paramValues);
+			if (result != null) {
+				return result;
+			}
+		}
+
+		if ((node.paramChild != null) && !"".equals(segment)) {
+			paramValues.add(segment);
+			Route result = match(node.paramChild, segments, index + 1, paramValues);
+			if (result != null) {
+				return result;
+			}
+			paramValues.remove(paramValues.size() - 1);
+		}
+
+		// prefix routes only capture parameters up to the prefix
+		return node.prefixRoute;
+	}
+
+	/**
+	 * Splits /foo/bar/ into ["foo", "bar", ""]
+	 */
+	private static List<String> splitPath(String path) {
+
+		List<String> result = new ArrayList<>();
+
+		if (path == null) {
+			return result;
+		}
+
+		int start = 0;
+		if (path.startsWith("/")) {
+			start = 1;
+		}
+
+		if (start >= path.length()) {
+			return result;
+		}
+
+		while (true) {
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				result.add(path.substring(start));
+				break;
+			}
+			result.add(path.substring(start, end));
+			start = end + 1;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the statistics of all routes, by route, in order of registration
+	 */
+	public synchronized Map<String, WebServerRouteStats> getRouteStats() {
+		return new LinkedHashMap<>(stats);
+	}
+
+	public boolean isEmpty() {
+		return root.isEmpty();
+	}
+
+
+	private static class RouterNode {
+
+		private Map<String, RouterNode> literalChildren = new ConcurrentHashMap<>();
+
+		private volatile RouterNode paramChild;
+
+		private volatile Route exactRoute;
+
+		private volatile Route prefixRoute;
+
+		boolean isEmpty() {
+			return literalChildren.isEmpty() && (paramChild == null) &&
+				(exactRoute == null) && (prefixRoute == null);
+		}
+	}
+
+	private static class Route {
+
+		private WebServerRouteHandler handler;
+
+		private List<String> paramNames;
+
+		private WebServerRouteStats stats;
+
+		Route(WebServerRouteHandler handler, List<String> paramNames, WebServerRouteStats stats) {
+			this.handler = handler;
+			this.paramNames = paramNames;
+			this.stats = stats;
+		}
+	}
+
+}
@@ -0,0 +1,23 @@
+/**
+ * Unlicensed code created by A Softer Space, 2026
+ * www.asofterspace.com/licenses/unlicense.txt
+ */
+package com.asofterspace.toolbox.xlsx;
+
+import com.asofterspace.toolbox.utils.Record;
+
+import java.util.Map;
+
+
+/**
+ * This interface describes a callback for the rows of an XlsxSheet
+ */
+public interface XlsxRowCallback {
+
+	/**
+	 * A row has been read
+	 * @param rowNum  The number of the row, as in the names of its cells
+	 * @param cells  The contents of the cells of the row by the names of the cells (such as A1)
+	 */
+	void foundRow(String rowNum, Map<String, Record> cells);
+}
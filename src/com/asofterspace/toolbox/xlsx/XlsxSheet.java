@@ -6,6 +6,7 @@ package com.asofterspace.toolbox.xlsx;
 
 import com.asofterspace.toolbox.io.File;
 import com.asofterspace.toolbox.io.XmlElement;
+import com.asofterspace.toolbox.io.XmlElementFoundCallback;
 import com.asofterspace.toolbox.io.XmlFile;
 import com.asofterspace.toolbox.utils.Record;
 import com.asofterspace.toolbox.utils.SortOrder;
@@ -118,6 +119,52 @@ public class XlsxSheet {
 		return innerResult;
 	}
 
+	/**
+	 * Goes through the rows of the sheet one by one, calling the callback with the contents of
+	 * the cells of each row - if the sheet has not been loaded yet, it is streamed from the file
+	 * rather than loaded, such that even huge sheets only need memory for one row at a time
+	 */
+	public void forEachRow(final XlsxRowCallback callback) {
+
+		// the shared strings are looked up once, not once per cell
+		boolean fastModeWasActive = sharedStringFastModeActive;
+		if (!fastModeWasActive) {
+			setSharedStringFastModeActive(true);
+		}
+
+		try {
+			if (sheetFile.isLoaded()) {
+				XmlElement sheetData = sheetFile.getRoot().getChild("sheetData");
+				if (sheetData != null) {
+					for (XmlElement row : sheetData.getChildren("row")) {
+						reportRow(row, callback);
+					}
+				}
+			} else {
+				sheetFile.streamElems("sheetData/row", new XmlElementFoundCallback() {
+					public void foundElement(XmlElement row, List<String> path) {
+						reportRow(row, callback);
+					}
+				});
+			}
+		} finally {
+			if (!fastModeWasActive) {
+				setSharedStringFastModeActive(false);
+			}
+		}
+	}
+
+	private void reportRow(XmlElement row, XlsxRowCallback callback) {
+
+		Map<String, Record> cells = new HashMap<>();
+
+		for (XmlElement cell : row.getChildren("c")) {
+			cells.put(cell.getAttribute("r"), getXmlElementContent(cell));
+		}
+
+		callback.foundRow(row.getAttribute("r"), cells);
+	}
+
 	/**
 	 * Gets the contents of all cells of that row
 	 */